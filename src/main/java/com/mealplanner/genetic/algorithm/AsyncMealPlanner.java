@@ -0,0 +1,224 @@
+package com.mealplanner.genetic.algorithm;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.mealplanner.genetic.model.MealSolution;
+import com.mealplanner.genetic.operators.MealMutation;
+import com.mealplanner.genetic.util.CancellationToken;
+import com.mealplanner.genetic.util.NSGAIIConfiguration;
+import com.mealplanner.genetic.util.NSGAIILogger;
+import com.mealplanner.model.Food;
+
+/**
+ * 异步膳食规划门面
+ * NSGAIIMealPlanner在每次运行时修改自身的状态（种群、存档、交叉和修复算子的配置等），
+ * 因此一个实例不能被并发调用。这里每个请求在有界线程池中使用独立的规划器实例，
+ * 请求之间共享只读的变异算子（包括食物数据库及其类别、营养素索引）和默认配置（运行期间不应修改）。
+ * 线程数和等待队列长度都有上限（MOEA/D引擎在请求线程内串行执行，不再另建线程池），
+ * 队列已满时返回的Future以RejectedExecutionException失败；
+ * 取消返回的Future会通过取消令牌让对应的规划尽快结束。
+ */
+public class AsyncMealPlanner implements AutoCloseable {
+    // 变异算子及其食物索引（只读共享）
+    private final MealMutation mutation;
+
+    // 请求未指定配置时使用的默认配置
+    private final NSGAIIConfiguration defaultConfig;
+
+    // 有界线程池
+    private final ThreadPoolExecutor executor;
+
+    // 每个规划器的日志级别
+    private volatile NSGAIILogger.LogLevel logLevel = NSGAIILogger.LogLevel.WARNING;
+
+    // 统计信息
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /**
+     * 构造函数，线程数为CPU核数，等待队列长度为线程数的64倍
+     * @param foodDatabase 食物数据库
+     * @param defaultConfig 默认配置
+     */
+    public AsyncMealPlanner(List<Food> foodDatabase, NSGAIIConfiguration defaultConfig) {
+        this(foodDatabase, defaultConfig, Runtime.getRuntime().availableProcessors(),
+                Runtime.getRuntime().availableProcessors() * 64);
+    }
+
+    /**
+     * 构造函数
+     * @param foodDatabase 食物数据库
+     * @param defaultConfig 默认配置
+     * @param threads 线程数
+     * @param queueCapacity 等待队列长度
+     */
+    public AsyncMealPlanner(List<Food> foodDatabase, NSGAIIConfiguration defaultConfig, int threads, int queueCapacity) {
+        if (foodDatabase == null || foodDatabase.isEmpty()) {
+            throw new IllegalArgumentException("食物数据库不能为空");
+        }
+        if (defaultConfig == null) {
+            throw new IllegalArgumentException("默认配置不能为空");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("线程数必须为正整数");
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("等待队列长度必须为正整数");
+        }
+        this.mutation = new MealMutation(foodDatabase);
+        this.defaultConfig = defaultConfig;
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new PlannerThreadFactory());
+    }
+
+    /**
+     * 异步规划一餐
+     * @param request 规划请求
+     * @return 完成时为帕累托前沿中筛选出的方案；队列已满时以RejectedExecutionException失败
+     */
+    public CompletableFuture<List<MealSolution>> planAsync(PlanningRequest request) {
+        return submit(request, PlanningResult::getSolutions);
+    }
+
+    /**
+     * 异步规划一餐，返回包含结束原因的完整结果
+     * @param request 规划请求
+     * @return 规划结果的Future
+     */
+    public CompletableFuture<PlanningResult> planWithResultAsync(PlanningRequest request) {
+        return submit(request, Function.identity());
+    }
+
+    /**
+     * 提交请求，返回的Future由规划线程直接完成，取消它即取消对应的规划
+     * （不能在另一个Future上用thenApply派生：取消派生的Future不会传递到原Future）
+     * @param request 规划请求
+     * @param mapper 从规划结果到返回值的转换
+     * @return 返回值的Future
+     */
+    private <T> CompletableFuture<T> submit(PlanningRequest request, Function<PlanningResult, T> mapper) {
+        if (request == null) {
+            throw new IllegalArgumentException("规划请求不能为空");
+        }
+        CancellationToken token = request.getCancellationToken() != null
+                ? request.getCancellationToken() : new CancellationToken();
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                token.cancel();
+            }
+        });
+
+        submittedCount.incrementAndGet();
+        try {
+            executor.execute(() -> run(request, token, mapper, future));
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private <T> void run(PlanningRequest request, CancellationToken token, Function<PlanningResult, T> mapper,
+                         CompletableFuture<T> future) {
+        if (future.isDone()) {
+            return;
+        }
+        NSGAIIConfiguration config = request.getConfig() != null ? request.getConfig() : defaultConfig;
+        try (NSGAIIMealPlanner planner = new NSGAIIMealPlanner(config, mutation, request.getUserProfile())) {
+            // 并发由本线程池控制，MOEA/D引擎不再为每个请求创建自己的线程池
+            planner.setEngineParallelism(1);
+            planner.getLogger().setLogLevel(logLevel);
+            PlanningResult result = planner.generateMeal(request.getTargetNutrients(), request.isRequireStaple(),
+                    request.getTimeBudget(), token);
+            completedCount.incrementAndGet();
+            future.complete(mapper.apply(result));
+        } catch (RuntimeException | Error e) {
+            failedCount.incrementAndGet();
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * 设置各规划器的日志级别，默认只输出警告和错误
+     * @param logLevel 日志级别
+     */
+    public void setLogLevel(NSGAIILogger.LogLevel logLevel) {
+        this.logLevel = logLevel;
+    }
+
+    public NSGAIILogger.LogLevel getLogLevel() {
+        return logLevel;
+    }
+
+    /**
+     * 正在执行的请求数量
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * 排队等待的请求数量
+     */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * 获取统计信息
+     * @return 统计信息字符串
+     */
+    public String getStatistics() {
+        return "异步规划统计: 提交=" + submittedCount.get() +
+                ", 完成=" + completedCount.get() +
+                ", 失败=" + failedCount.get() +
+                ", 拒绝=" + rejectedCount.get() +
+                ", 执行中=" + getActiveCount() +
+                ", 排队=" + getQueuedCount();
+    }
+
+    /**
+     * 不再接受新请求，已提交的请求继续执行
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * 等待已提交的请求全部结束
+     * @param timeout 超时时间
+     * @param unit 时间单位
+     * @return 是否在超时前全部结束
+     * @throws InterruptedException 等待被中断
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * 规划线程工厂：守护线程，按序号命名
+     */
+    private static final class PlannerThreadFactory implements ThreadFactory {
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "meal-planner-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,660 @@
+package com.mealplanner.genetic.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.mealplanner.genetic.model.FoodGene;
+import com.mealplanner.genetic.model.MealSolution;
+import com.mealplanner.genetic.objectives.MultiObjectiveEvaluator;
+import com.mealplanner.genetic.operators.IntakeOptimizer;
+import com.mealplanner.genetic.util.NSGAIIConfiguration;
+import com.mealplanner.genetic.util.NSGAIILogger;
+import com.mealplanner.model.Food;
+import com.mealplanner.model.FoodCategory;
+import com.mealplanner.model.IntakeRange;
+import com.mealplanner.model.NutrientType;
+import com.mealplanner.model.UserProfile;
+
+/**
+ * 分支定界精确膳食规划器
+ * 适用于食物数量较少（数百种）的数据库，求解标量化目标的精确最优解，也可作为遗传算法的质量基准。
+ *
+ * 标量化目标与 {@link IntakeOptimizer} 相同：各营养素相对达成率范围中点的加权偏差平方和。
+ * 按类别排序后枚举食物子集，每个子集的摄入量由带约束的二次规划精确求解
+ * （推荐摄入量范围为变量边界，启用硬性约束时营养素达成率范围为线性约束）；
+ * 搜索中用推荐摄入量上下限估计每种营养素可达到的总量区间，据此计算目标值下界进行剪枝，
+ * 并在可达区间与营养素达成率硬性范围不相交时剪枝。
+ * 顶层子树使用fork/join并行搜索，各线程共享当前最优解。
+ */
+public class BranchAndBoundMealPlanner {
+    // 单次求解子集摄入量的最大迭代次数
+    private static final int INTAKE_MAX_ITERATIONS = 100;
+
+    // 算法配置参数
+    private NSGAIIConfiguration config;
+    // 食物数据库
+    private List<Food> foodDatabase;
+    // 用户个人信息
+    private UserProfile userProfile;
+    // 目标评估器,用于给最优解计算各项目标值
+    private MultiObjectiveEvaluator objectiveEvaluator;
+    // 摄入量优化器,用于求解固定食物子集的最优摄入量
+    private IntakeOptimizer intakeOptimizer;
+    // 日志记录器
+    private NSGAIILogger logger;
+    // 不同营养素的达成率范围映射
+    private Map<NutrientType, double[]> nutrientRates;
+
+    // 是否把营养素达成率范围作为硬性约束
+    private boolean enforceNutrientRates = true;
+    // 最多搜索的节点数量,超过后返回当前最优解
+    private long maxNodes = 20_000_000L;
+    // 并行度
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    // 在该深度以内的节点以fork/join任务并行展开
+    private int forkDepth = 2;
+    // 初始最优解(例如遗传算法的结果),用于加快剪枝
+    private MealSolution initialSolution;
+
+    // 搜索统计
+    private final AtomicLong exploredNodes = new AtomicLong();
+    private final AtomicLong evaluatedSubsets = new AtomicLong();
+    private final AtomicBoolean aborted = new AtomicBoolean();
+    // 二次规划未能完成（超过步数上限或数值问题）的子集数量，这些子集退回近似求解
+    private final AtomicLong inexactSubsets = new AtomicLong();
+    private double bestObjective = Double.POSITIVE_INFINITY;
+
+    /**
+     * 构造函数
+     * @param config 算法配置（使用其中的每餐食物数量范围）
+     * @param foodDatabase 食物数据库
+     * @param userProfile 用户配置文件
+     */
+    public BranchAndBoundMealPlanner(NSGAIIConfiguration config, List<Food> foodDatabase, UserProfile userProfile) {
+        this.config = config;
+        this.foodDatabase = foodDatabase;
+        this.userProfile = userProfile;
+        this.objectiveEvaluator = new MultiObjectiveEvaluator(userProfile);
+        this.intakeOptimizer = new IntakeOptimizer(NutrientType.getNutrientWeights(userProfile), INTAKE_MAX_ITERATIONS);
+        this.logger = new NSGAIILogger();
+        this.nutrientRates = NutrientType.getNutrientRates(userProfile);
+    }
+
+    /**
+     * 求解一餐的最优膳食方案
+     * @param targetNutrientItems 目标营养素需求
+     * @param requireStaple 是否要求包含且只包含一个主食
+     * @return 最优膳食方案；没有满足约束的方案时返回null。
+     *         搜索节点超过上限或有子集的二次规划未完成时返回当前最优解，此时 {@link #isOptimal()} 为false
+     */
+    public MealSolution generateMeal(Map<NutrientType, Double> targetNutrientItems, boolean requireStaple) {
+        long startTime = System.currentTimeMillis();
+        intakeOptimizer.setTargetNutrients(targetNutrientItems);
+        intakeOptimizer.setNutrientRates(nutrientRates);
+        exploredNodes.set(0);
+        evaluatedSubsets.set(0);
+        aborted.set(false);
+        inexactSubsets.set(0);
+
+        SearchSpace space = new SearchSpace(targetNutrientItems, requireStaple);
+        AtomicReference<Incumbent> incumbent = new AtomicReference<>(
+                createInitialIncumbent(space, requireStaple));
+
+        if (space.minOthers <= space.maxOthers && (!requireStaple || !space.staples.isEmpty())) {
+            List<SearchTask> roots = new ArrayList<>();
+            if (requireStaple) {
+                // 每个主食对应一棵子树
+                for (int s = 0; s < space.staples.size(); s++) {
+                    Food staple = space.staples.get(s);
+                    double[] lower = space.minAmounts(staple);
+                    double[] upper = space.maxAmounts(staple);
+                    if (!space.isHardInfeasible(lower, upper, 0, 0)) {
+                        roots.add(new SearchTask(space, incumbent, staple, new int[space.maxOthers], 0, 0, lower, upper));
+                    }
+                }
+            } else {
+                double[] zeros = new double[space.rowCount];
+                roots.add(new SearchTask(space, incumbent, null, new int[space.maxOthers], 0, 0, zeros, zeros.clone()));
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                for (SearchTask root : roots) {
+                    pool.submit(root);
+                }
+                for (SearchTask root : roots) {
+                    root.join();
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        Incumbent best = incumbent.get();
+        bestObjective = best.value;
+        logger.info("分支定界搜索完成: 节点=" + exploredNodes.get() +
+                ", 求解子集=" + evaluatedSubsets.get() +
+                ", 最优目标值=" + String.format("%.6f", best.value) +
+                (aborted.get() ? "（达到节点上限，结果不保证最优）" : "") +
+                (inexactSubsets.get() > 0 ? "（" + inexactSubsets.get() + "个子集的二次规划未完成，结果不保证最优）" : "") +
+                ", 耗时=" + (System.currentTimeMillis() - startTime) + "ms");
+
+        if (best.foods == null) {
+            return null;
+        }
+
+        List<FoodGene> genes = new ArrayList<>(best.foods.length);
+        for (int i = 0; i < best.foods.length; i++) {
+            genes.add(new FoodGene(best.foods[i], best.intakes[i]));
+        }
+        MealSolution solution = new MealSolution(genes);
+        solution.setObjectiveValues(objectiveEvaluator.evaluate(solution, targetNutrientItems));
+        return solution;
+    }
+
+    /**
+     * 根据初始解创建初始最优解；没有初始解或初始解不满足约束时目标值为正无穷
+     */
+    private Incumbent createInitialIncumbent(SearchSpace space, boolean requireStaple) {
+        if (initialSolution == null || !initialSolution.isValid(requireStaple)) {
+            return new Incumbent(Double.POSITIVE_INFINITY, null, null);
+        }
+        List<FoodGene> genes = initialSolution.getFoodGenes();
+        int size = genes.size();
+        int others = requireStaple ? size - 1 : size;
+        if (others < space.minOthers || others > space.maxOthers) {
+            return new Incumbent(Double.POSITIVE_INFINITY, null, null);
+        }
+
+        Food[] foods = new Food[size];
+        double[] intakes = new double[size];
+        for (int i = 0; i < size; i++) {
+            foods[i] = genes.get(i).getFood();
+            intakes[i] = genes.get(i).getIntake();
+        }
+        if (!space.satisfiesRates(foods, intakes)) {
+            return new Incumbent(Double.POSITIVE_INFINITY, null, null);
+        }
+        return new Incumbent(intakeOptimizer.evaluate(Arrays.asList(foods), intakes), foods, intakes);
+    }
+
+    /**
+     * 若新解优于共享的当前最优解则替换
+     */
+    private static void offer(AtomicReference<Incumbent> incumbent, Incumbent candidate) {
+        Incumbent current = incumbent.get();
+        while (candidate.value < current.value) {
+            if (incumbent.compareAndSet(current, candidate)) {
+                return;
+            }
+            current = incumbent.get();
+        }
+    }
+
+    /**
+     * 单次求解的搜索空间：候选食物、营养素行以及用于计算下界的预处理表
+     */
+    private final class SearchSpace {
+        // 主食候选（不要求主食时为空）
+        final List<Food> staples = new ArrayList<>();
+        // 其余候选食物，按类别排序
+        final List<Food> others = new ArrayList<>();
+        // 其余食物数量的范围
+        final int minOthers;
+        final int maxOthers;
+
+        // 参与目标函数的营养素行
+        final int rowCount;
+        final NutrientType[] rowNutrients;
+        final double[] centers;       // 优化目标值
+        final double[] weights;       // 权重
+        final double[] hardLower;     // 达成率下限对应的总量
+        final double[] hardUpper;     // 达成率上限对应的总量
+
+        // 其余候选食物在最小/最大推荐摄入量下的营养素含量 [食物][行]
+        final double[][] otherMin;
+        final double[][] otherMax;
+
+        // 后缀表：从下标i开始的候选中选r个时，各营养素最大可达总量之和与最小可达总量之和
+        // 按 [(i * rowCount + 行) * (maxOthers + 1) + r] 存放
+        final double[] suffixTop;
+        final double[] suffixBottom;
+
+        SearchSpace(Map<NutrientType, Double> targetNutrients, boolean requireStaple) {
+            for (Food food : foodDatabase) {
+                if (requireStaple && FoodCategory.STAPLE.equals(food.getCategory())) {
+                    staples.add(food);
+                } else {
+                    others.add(food);
+                }
+            }
+            // 按类别排序，同类食物在枚举中相邻
+            others.sort(Comparator.comparingInt(food -> food.getCategory().ordinal()));
+
+            int stapleCount = requireStaple ? 1 : 0;
+            this.minOthers = Math.max(0, config.getMinFoodsPerMeal() - stapleCount);
+            this.maxOthers = Math.min(others.size(), config.getMaxFoodsPerMeal() - stapleCount);
+
+            List<NutrientType> rows = new ArrayList<>();
+            for (NutrientType nutrient : NutrientType.values()) {
+                if (intakeOptimizer.getNutrientCenter(nutrient) > 0) {
+                    rows.add(nutrient);
+                }
+            }
+            this.rowCount = rows.size();
+            this.rowNutrients = rows.toArray(new NutrientType[0]);
+            this.centers = new double[rowCount];
+            this.weights = new double[rowCount];
+            this.hardLower = new double[rowCount];
+            this.hardUpper = new double[rowCount];
+            for (int r = 0; r < rowCount; r++) {
+                NutrientType nutrient = rowNutrients[r];
+                centers[r] = intakeOptimizer.getNutrientCenter(nutrient);
+                weights[r] = intakeOptimizer.getNutrientWeight(nutrient);
+                double[] range = nutrientRates.get(nutrient);
+                Double target = targetNutrients.get(nutrient);
+                if (enforceNutrientRates && range != null) {
+                    hardLower[r] = target * range[0];
+                    hardUpper[r] = target * range[1];
+                } else {
+                    hardLower[r] = Double.NEGATIVE_INFINITY;
+                    hardUpper[r] = Double.POSITIVE_INFINITY;
+                }
+            }
+
+            int n = others.size();
+            this.otherMin = new double[n][];
+            this.otherMax = new double[n][];
+            for (int i = 0; i < n; i++) {
+                otherMin[i] = minAmounts(others.get(i));
+                otherMax[i] = maxAmounts(others.get(i));
+            }
+
+            // 自后向前动态规划：选r个的最优值 = max(不选i, 选i + 在i+1之后选r-1个)
+            int width = Math.max(0, maxOthers) + 1;
+            this.suffixTop = new double[(n + 1) * rowCount * width];
+            this.suffixBottom = new double[(n + 1) * rowCount * width];
+            for (int row = 0; row < rowCount; row++) {
+                int base = (n * rowCount + row) * width;
+                for (int r = 1; r < width; r++) {
+                    suffixTop[base + r] = Double.NEGATIVE_INFINITY;
+                    suffixBottom[base + r] = Double.POSITIVE_INFINITY;
+                }
+            }
+            for (int i = n - 1; i >= 0; i--) {
+                for (int row = 0; row < rowCount; row++) {
+                    int base = (i * rowCount + row) * width;
+                    int next = ((i + 1) * rowCount + row) * width;
+                    for (int r = 1; r < width; r++) {
+                        suffixTop[base + r] = Math.max(suffixTop[next + r], suffixTop[next + r - 1] + otherMax[i][row]);
+                        suffixBottom[base + r] = Math.min(suffixBottom[next + r], suffixBottom[next + r - 1] + otherMin[i][row]);
+                    }
+                }
+            }
+        }
+
+        double[] minAmounts(Food food) {
+            return amounts(food, food.getRecommendedIntakeRange().getMinIntake());
+        }
+
+        double[] maxAmounts(Food food) {
+            return amounts(food, food.getRecommendedIntakeRange().getMaxIntake());
+        }
+
+        private double[] amounts(Food food, double intake) {
+            double[] values = new double[rowCount];
+            for (int r = 0; r < rowCount; r++) {
+                Double value = food.getNutritionItems().get(rowNutrients[r]);
+                values[r] = value != null ? value * intake / 100.0 : 0.0;
+            }
+            return values;
+        }
+
+        /**
+         * 计算子树的目标值下界
+         * 已选食物的营养素总量位于[lower, upper]，还需从下标next开始的候选中再选need到room个，
+         * 每种营养素的可达区间独立放宽，下界为中点到可达区间距离的加权平方和
+         * @return 下界；子树中不存在满足硬性约束的方案时返回正无穷
+         */
+        double lowerBound(double[] lower, double[] upper, int next, int chosen) {
+            int available = others.size() - next;
+            int need = Math.max(0, minOthers - chosen);
+            int room = Math.min(maxOthers - chosen, available);
+            if (need > available) {
+                return Double.POSITIVE_INFINITY;
+            }
+
+            int width = maxOthers + 1;
+            double bound = 0;
+            for (int row = 0; row < rowCount; row++) {
+                int base = (next * rowCount + row) * width;
+                double reachableLower = lower[row] + suffixBottom[base + need];
+                double reachableUpper = upper[row] + suffixTop[base + room];
+                if (reachableUpper < hardLower[row] || reachableLower > hardUpper[row]) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                bound += penalty(row, reachableLower, reachableUpper);
+            }
+            return bound;
+        }
+
+        /**
+         * 计算当前已选子集本身（不再添加食物）的目标值下界
+         * @return 下界；不满足硬性约束时返回正无穷
+         */
+        double subsetBound(double[] lower, double[] upper) {
+            double bound = 0;
+            for (int row = 0; row < rowCount; row++) {
+                if (upper[row] < hardLower[row] || lower[row] > hardUpper[row]) {
+                    return Double.POSITIVE_INFINITY;
+                }
+                bound += penalty(row, lower[row], upper[row]);
+            }
+            return bound;
+        }
+
+        /**
+         * 营养素总量位于[lower, upper]时该营养素目标项的最小可能值
+         */
+        private double penalty(int row, double lower, double upper) {
+            double center = centers[row];
+            double distance = center < lower ? lower - center : (center > upper ? center - upper : 0.0);
+            double relative = distance / center;
+            return weights[row] * relative * relative;
+        }
+
+        boolean isHardInfeasible(double[] lower, double[] upper, int next, int chosen) {
+            return lowerBound(lower, upper, next, chosen) == Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * 检查给定摄入量下的营养素总量是否满足硬性达成率范围
+         */
+        boolean satisfiesRates(Food[] foods, double[] intakes) {
+            for (int row = 0; row < rowCount; row++) {
+                double total = 0;
+                for (int i = 0; i < foods.length; i++) {
+                    Double value = foods[i].getNutritionItems().get(rowNutrients[row]);
+                    total += value != null ? value * intakes[i] / 100.0 : 0.0;
+                }
+                if (total < hardLower[row] || total > hardUpper[row]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 搜索任务：已选定主食和部分其余食物，在下标next之后继续枚举
+     */
+    private final class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final SearchSpace space;
+        private final AtomicReference<Incumbent> incumbent;
+        private final Food staple;
+        private final int[] chosen;
+        private final int chosenCount;
+        private final int next;
+        private final double[] lower;
+        private final double[] upper;
+
+        SearchTask(SearchSpace space, AtomicReference<Incumbent> incumbent, Food staple,
+                   int[] chosen, int chosenCount, int next, double[] lower, double[] upper) {
+            this.space = space;
+            this.incumbent = incumbent;
+            this.staple = staple;
+            this.chosen = chosen;
+            this.chosenCount = chosenCount;
+            this.next = next;
+            this.lower = lower;
+            this.upper = upper;
+        }
+
+        @Override
+        protected void compute() {
+            if (chosenCount < forkDepth) {
+                expandInParallel();
+            } else {
+                search(chosen, chosenCount, next, lower, upper);
+            }
+        }
+
+        /**
+         * 把当前节点的子节点作为独立任务并行搜索
+         */
+        private void expandInParallel() {
+            if (!visit(chosenCount, lower, upper)) {
+                return;
+            }
+            List<SearchTask> children = new ArrayList<>();
+            if (chosenCount < space.maxOthers) {
+                for (int i = next; i < space.others.size(); i++) {
+                    double[] childLower = add(lower, space.otherMin[i]);
+                    double[] childUpper = add(upper, space.otherMax[i]);
+                    if (space.lowerBound(childLower, childUpper, i + 1, chosenCount + 1) < incumbent.get().value) {
+                        int[] childChosen = chosen.clone();
+                        childChosen[chosenCount] = i;
+                        children.add(new SearchTask(space, incumbent, staple, childChosen,
+                                chosenCount + 1, i + 1, childLower, childUpper));
+                    }
+                }
+            }
+            invokeAll(children);
+        }
+
+        /**
+         * 顺序深度优先搜索，原地修改chosen数组
+         */
+        private void search(int[] path, int count, int from, double[] pathLower, double[] pathUpper) {
+            if (!visit(count, pathLower, pathUpper) || count >= space.maxOthers) {
+                return;
+            }
+
+            double[] childLower = new double[space.rowCount];
+            double[] childUpper = new double[space.rowCount];
+            for (int i = from; i < space.others.size(); i++) {
+                for (int row = 0; row < space.rowCount; row++) {
+                    childLower[row] = pathLower[row] + space.otherMin[i][row];
+                    childUpper[row] = pathUpper[row] + space.otherMax[i][row];
+                }
+                // 后续候选越来越少，需要数量也无法满足时可以直接结束
+                if (space.others.size() - (i + 1) < space.minOthers - count - 1) {
+                    break;
+                }
+                if (space.lowerBound(childLower, childUpper, i + 1, count + 1) < incumbent.get().value) {
+                    path[count] = i;
+                    search(path, count + 1, i + 1, childLower.clone(), childUpper.clone());
+                }
+                if (aborted.get()) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * 访问一个节点：计数并在子集大小满足要求时求解该子集
+         * @return 是否继续展开该节点
+         */
+        private boolean visit(int count, double[] nodeLower, double[] nodeUpper) {
+            if (exploredNodes.incrementAndGet() > maxNodes) {
+                aborted.set(true);
+                return false;
+            }
+            if (count >= space.minOthers && space.subsetBound(nodeLower, nodeUpper) < incumbent.get().value) {
+                evaluate(count);
+            }
+            return true;
+        }
+
+        /**
+         * 求解当前子集的最优摄入量并尝试更新当前最优解
+         */
+        private void evaluate(int count) {
+            evaluatedSubsets.incrementAndGet();
+            int size = count + (staple != null ? 1 : 0);
+            Food[] foods = new Food[size];
+            double[] intakes = new double[size];
+            int index = 0;
+            if (staple != null) {
+                foods[index++] = staple;
+            }
+            for (int i = 0; i < count; i++) {
+                foods[index++] = space.others.get(chosen[i]);
+            }
+            for (int i = 0; i < size; i++) {
+                IntakeRange range = foods[i].getRecommendedIntakeRange();
+                intakes[i] = range.getDefaultIntake();
+            }
+
+            // 达成率范围在子问题内部作为约束求解，得到的是该子集满足约束的最优摄入量；
+            // 二次规划未完成时使用投影牛顿法的近似解，不把该子集当作不可行，但结果不再保证最优
+            IntakeOptimizer.ConstrainedResult result =
+                    intakeOptimizer.minimizeConstrained(Arrays.asList(foods), intakes, enforceNutrientRates);
+            if (!result.isExact()) {
+                inexactSubsets.incrementAndGet();
+            }
+            if (result.getValue() < incumbent.get().value) {
+                offer(incumbent, new Incumbent(result.getValue(), foods, intakes));
+            }
+        }
+
+        private double[] add(double[] base, double[] delta) {
+            double[] result = new double[base.length];
+            for (int i = 0; i < base.length; i++) {
+                result[i] = base[i] + delta[i];
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 当前最优解（不可变，供多个线程共享）
+     */
+    private static final class Incumbent {
+        private final double value;
+        private final Food[] foods;
+        private final double[] intakes;
+
+        Incumbent(double value, Food[] foods, double[] intakes) {
+            this.value = value;
+            this.foods = foods;
+            this.intakes = intakes;
+        }
+    }
+
+    /**
+     * 上一次求解是否证明了最优性（未达到节点上限，且所有子集的二次规划都已完成）
+     * 最优性针对连续摄入量；摄入量取整后仍满足约束时返回取整值，目标值可能与连续最优值有微小差异
+     * @return 是否最优
+     */
+    public boolean isOptimal() {
+        return !aborted.get() && inexactSubsets.get() == 0;
+    }
+
+    /**
+     * 获取上一次求解的最优目标值
+     * @return 最优目标值，没有可行解时为正无穷
+     */
+    public double getBestObjective() {
+        return bestObjective;
+    }
+
+    /**
+     * 获取上一次求解访问的节点数量
+     * @return 节点数量
+     */
+    public long getExploredNodes() {
+        return exploredNodes.get();
+    }
+
+    /**
+     * 获取上一次求解中求解摄入量的子集数量
+     * @return 子集数量
+     */
+    public long getEvaluatedSubsets() {
+        return evaluatedSubsets.get();
+    }
+
+    /**
+     * 获取上一次求解中二次规划未完成、退回近似求解的子集数量
+     * @return 子集数量，大于0时 {@link #isOptimal()} 为false
+     */
+    public long getInexactSubsets() {
+        return inexactSubsets.get();
+    }
+
+    public boolean isEnforceNutrientRates() {
+        return enforceNutrientRates;
+    }
+
+    public void setEnforceNutrientRates(boolean enforceNutrientRates) {
+        this.enforceNutrientRates = enforceNutrientRates;
+    }
+
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    public void setMaxNodes(long maxNodes) {
+        if (maxNodes <= 0) {
+            throw new IllegalArgumentException("最大节点数量必须为正整数");
+        }
+        this.maxNodes = maxNodes;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("并行度必须为正整数");
+        }
+        this.parallelism = parallelism;
+    }
+
+    public int getForkDepth() {
+        return forkDepth;
+    }
+
+    public void setForkDepth(int forkDepth) {
+        if (forkDepth < 0) {
+            throw new IllegalArgumentException("并行展开深度不能为负数");
+        }
+        this.forkDepth = forkDepth;
+    }
+
+    public MealSolution getInitialSolution() {
+        return initialSolution;
+    }
+
+    /**
+     * 设置初始解（例如遗传算法得到的最好方案），作为初始上界加快剪枝
+     * @param initialSolution 初始解，可为null
+     */
+    public void setInitialSolution(MealSolution initialSolution) {
+        this.initialSolution = initialSolution;
+    }
+
+    public NSGAIIConfiguration getConfig() {
+        return config;
+    }
+
+    public void setConfig(NSGAIIConfiguration config) {
+        this.config = config;
+    }
+
+    public UserProfile getUserProfile() {
+        return userProfile;
+    }
+}
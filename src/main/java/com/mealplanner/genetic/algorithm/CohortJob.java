@@ -0,0 +1,95 @@
+package com.mealplanner.genetic.algorithm;
+
+import java.time.Duration;
+import java.util.Map;
+
+import com.mealplanner.genetic.util.NSGAIIConfiguration;
+import com.mealplanner.model.NutrientType;
+import com.mealplanner.model.UserProfile;
+
+/**
+ * 批量规划中的一个任务：一个用户一餐的规划
+ * 配置为null时使用批量规划器的默认配置；时间预算为null时不限时
+ */
+public class CohortJob {
+    // 任务标识（如用户编号），原样带回结果中
+    private final String id;
+
+    // 用户档案
+    private final UserProfile userProfile;
+
+    // 目标营养素
+    private final Map<NutrientType, Double> targetNutrients;
+
+    // 算法配置（可为null）
+    private final NSGAIIConfiguration config;
+
+    // 是否要求包含主食
+    private boolean requireStaple = true;
+
+    // 单个任务的时间预算（可为null）
+    private Duration timeBudget;
+
+    /**
+     * 构造函数，使用默认配置
+     * @param id 任务标识
+     * @param userProfile 用户档案
+     * @param targetNutrients 目标营养素
+     */
+    public CohortJob(String id, UserProfile userProfile, Map<NutrientType, Double> targetNutrients) {
+        this(id, userProfile, targetNutrients, null);
+    }
+
+    /**
+     * 构造函数
+     * @param id 任务标识
+     * @param userProfile 用户档案
+     * @param targetNutrients 目标营养素
+     * @param config 算法配置，为null时使用默认配置
+     */
+    public CohortJob(String id, UserProfile userProfile, Map<NutrientType, Double> targetNutrients,
+                     NSGAIIConfiguration config) {
+        if (userProfile == null) {
+            throw new IllegalArgumentException("用户档案不能为空");
+        }
+        if (targetNutrients == null || targetNutrients.isEmpty()) {
+            throw new IllegalArgumentException("目标营养素不能为空");
+        }
+        this.id = id;
+        this.userProfile = userProfile;
+        this.targetNutrients = targetNutrients;
+        this.config = config;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public UserProfile getUserProfile() {
+        return userProfile;
+    }
+
+    public Map<NutrientType, Double> getTargetNutrients() {
+        return targetNutrients;
+    }
+
+    public NSGAIIConfiguration getConfig() {
+        return config;
+    }
+
+    public boolean isRequireStaple() {
+        return requireStaple;
+    }
+
+    public void setRequireStaple(boolean requireStaple) {
+        this.requireStaple = requireStaple;
+    }
+
+    public Duration getTimeBudget() {
+        return timeBudget;
+    }
+
+    public void setTimeBudget(Duration timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+}
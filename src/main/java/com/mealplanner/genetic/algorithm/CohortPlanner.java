@@ -0,0 +1,409 @@
+package com.mealplanner.genetic.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import com.mealplanner.genetic.operators.MealMutation;
+import com.mealplanner.genetic.util.CancellationToken;
+import com.mealplanner.genetic.util.NSGAIIConfiguration;
+import com.mealplanner.genetic.util.NSGAIILogger;
+import com.mealplanner.model.Food;
+import com.mealplanner.model.UserProfile;
+
+/**
+ * 批量（人群）膳食规划器
+ * 一次提交大量 (用户档案, 目标营养素, 配置) 任务，在work-stealing线程池中执行：
+ * 任务列表按二分法拆分为fork/join任务，空闲线程从其他线程的队列中窃取尚未开始的任务。
+ * 所有任务共享同一个只读的变异算子（食物数据库及其索引），档案相同的用户共享同一个
+ * {@link ProfileContext}（评估器、达成率范围等）；每个任务使用独立的规划器，
+ * 且MOEA/D引擎的并行度固定为1，避免在线程池内再嵌套并行。
+ * 每个任务完成时立即把结果交给监听器，整批结束时返回吞吐量等统计信息。
+ */
+public class CohortPlanner implements AutoCloseable {
+    // 默认缓存的用户档案上下文数量
+    public static final int DEFAULT_PROFILE_CACHE_SIZE = 10_000;
+
+    // 变异算子及其食物索引（只读共享）
+    private final MealMutation mutation;
+
+    // 任务未指定配置时使用的默认配置
+    private final NSGAIIConfiguration defaultConfig;
+
+    // work-stealing线程池
+    private final ForkJoinPool pool;
+
+    // 用户档案上下文缓存（按访问顺序淘汰最久未使用的档案）
+    private final Map<String, ProfileContext> profileContexts;
+
+    // 每个规划器的日志级别
+    private volatile NSGAIILogger.LogLevel logLevel = NSGAIILogger.LogLevel.WARNING;
+
+    /**
+     * 构造函数，并行度为CPU核数
+     * @param foodDatabase 食物数据库
+     * @param defaultConfig 默认配置
+     */
+    public CohortPlanner(List<Food> foodDatabase, NSGAIIConfiguration defaultConfig) {
+        this(foodDatabase, defaultConfig, Runtime.getRuntime().availableProcessors(), DEFAULT_PROFILE_CACHE_SIZE);
+    }
+
+    /**
+     * 构造函数
+     * @param foodDatabase 食物数据库
+     * @param defaultConfig 默认配置
+     * @param parallelism 并行度（同时执行的任务数）
+     * @param profileCacheSize 最多缓存的用户档案上下文数量
+     */
+    public CohortPlanner(List<Food> foodDatabase, NSGAIIConfiguration defaultConfig, int parallelism,
+                         int profileCacheSize) {
+        if (foodDatabase == null || foodDatabase.isEmpty()) {
+            throw new IllegalArgumentException("食物数据库不能为空");
+        }
+        if (defaultConfig == null) {
+            throw new IllegalArgumentException("默认配置不能为空");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("并行度必须为正整数");
+        }
+        if (profileCacheSize <= 0) {
+            throw new IllegalArgumentException("档案缓存大小必须为正整数");
+        }
+        this.mutation = new MealMutation(foodDatabase);
+        this.defaultConfig = defaultConfig;
+        this.pool = new ForkJoinPool(parallelism, CohortPlanner::newWorkerThread, null, false);
+        this.profileContexts = new LinkedHashMap<String, ProfileContext>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ProfileContext> eldest) {
+                return size() > profileCacheSize;
+            }
+        };
+    }
+
+    private static ForkJoinWorkerThread newWorkerThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("cohort-planner-" + thread.getPoolIndex());
+        return thread;
+    }
+
+    /**
+     * 异步执行一批任务
+     * 监听器在线程池的线程上被调用（可能并发），需要自行保证线程安全；监听器抛出异常时
+     * 尚未开始的任务不再执行，返回的Future以该异常失败。取消返回的Future会跳过尚未开始的任务，
+     * 并让正在执行的任务尽快返回当前前沿（结束原因为CANCELLED）
+     * @param jobs 任务列表
+     * @param listener 每个任务完成时调用，可为null
+     * @return 整批结束时完成的统计信息
+     */
+    public CompletableFuture<Statistics> submit(Collection<CohortJob> jobs, Consumer<CohortResult> listener) {
+        if (jobs == null) {
+            throw new IllegalArgumentException("任务列表不能为空");
+        }
+        Batch batch = new Batch(new ArrayList<>(jobs), listener);
+        batch.future.whenComplete((statistics, error) -> {
+            if (batch.future.isCancelled()) {
+                batch.token.cancel();
+            }
+        });
+        if (batch.jobs.isEmpty()) {
+            batch.finish();
+        } else {
+            pool.execute(new BatchTask(batch));
+        }
+        return batch.future;
+    }
+
+    /**
+     * 执行一批任务并等待全部结束
+     * @param jobs 任务列表
+     * @param listener 每个任务完成时调用，可为null
+     * @return 统计信息
+     */
+    public Statistics run(Collection<CohortJob> jobs, Consumer<CohortResult> listener) {
+        return submit(jobs, listener).join();
+    }
+
+    private void runJob(Batch batch, CohortJob job) {
+        if (batch.token.isCancelled()) {
+            batch.skipped.incrementAndGet();
+            return;
+        }
+        long start = System.currentTimeMillis();
+        CohortResult result;
+        NSGAIIConfiguration config = job.getConfig() != null ? job.getConfig() : defaultConfig;
+        try (NSGAIIMealPlanner planner = new NSGAIIMealPlanner(config, mutation, getProfileContext(job.getUserProfile(), batch))) {
+            planner.setEngineParallelism(1);
+            planner.getLogger().setLogLevel(logLevel);
+            PlanningResult planningResult = planner.generateMeal(job.getTargetNutrients(), job.isRequireStaple(),
+                    job.getTimeBudget(), batch.token);
+            batch.succeeded.incrementAndGet();
+            result = new CohortResult(job, planningResult, null, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            batch.failed.incrementAndGet();
+            result = new CohortResult(job, null, e, System.currentTimeMillis() - start);
+        }
+
+        if (batch.listener != null) {
+            try {
+                batch.listener.accept(result);
+            } catch (RuntimeException e) {
+                batch.listenerError.compareAndSet(null, e);
+                batch.token.cancel();
+            }
+        }
+    }
+
+    /**
+     * 获取用户档案对应的上下文，档案相同（字段值相同）的用户共享同一个
+     */
+    private ProfileContext getProfileContext(UserProfile userProfile, Batch batch) {
+        String key = userProfile.toSignatureString(false);
+        synchronized (profileContexts) {
+            ProfileContext context = profileContexts.get(key);
+            if (context != null) {
+                batch.profileCacheHits.incrementAndGet();
+                return context;
+            }
+        }
+        // 在锁外构建，并发构建同一档案时保留先放入的那个
+        ProfileContext created = new ProfileContext(userProfile);
+        synchronized (profileContexts) {
+            ProfileContext existing = profileContexts.putIfAbsent(key, created);
+            if (existing != null) {
+                batch.profileCacheHits.incrementAndGet();
+                return existing;
+            }
+        }
+        return created;
+    }
+
+    /**
+     * 当前缓存的用户档案上下文数量
+     */
+    public int getCachedProfileCount() {
+        synchronized (profileContexts) {
+            return profileContexts.size();
+        }
+    }
+
+    /**
+     * 清空用户档案上下文缓存
+     */
+    public void clearProfileCache() {
+        synchronized (profileContexts) {
+            profileContexts.clear();
+        }
+    }
+
+    /**
+     * 设置各规划器的日志级别，默认只输出警告和错误
+     * @param logLevel 日志级别
+     */
+    public void setLogLevel(NSGAIILogger.LogLevel logLevel) {
+        this.logLevel = logLevel;
+    }
+
+    public NSGAIILogger.LogLevel getLogLevel() {
+        return logLevel;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * 线程池累计的任务窃取次数，可用于观察负载是否均衡
+     */
+    public long getStealCount() {
+        return pool.getStealCount();
+    }
+
+    /**
+     * 不再接受新批次，已提交的任务继续执行
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * 等待已提交的任务全部结束
+     * @param timeout 超时时间
+     * @param unit 时间单位
+     * @return 是否在超时前全部结束
+     * @throws InterruptedException 等待被中断
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return pool.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * 一批任务的执行状态
+     */
+    private static final class Batch {
+        private final List<CohortJob> jobs;
+        private final Consumer<CohortResult> listener;
+        private final CancellationToken token = new CancellationToken();
+        private final CompletableFuture<Statistics> future = new CompletableFuture<>();
+        private final long startNanos = System.nanoTime();
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger skipped = new AtomicInteger();
+        private final AtomicInteger profileCacheHits = new AtomicInteger();
+        private final AtomicReference<RuntimeException> listenerError = new AtomicReference<>();
+
+        Batch(List<CohortJob> jobs, Consumer<CohortResult> listener) {
+            this.jobs = jobs;
+            this.listener = listener;
+        }
+
+        void finish() {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            RuntimeException error = listenerError.get();
+            if (error != null) {
+                future.completeExceptionally(error);
+                return;
+            }
+            future.complete(new Statistics(jobs.size(), succeeded.get(), failed.get(), skipped.get(),
+                    profileCacheHits.get(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                    elapsedNanos > 0 ? succeeded.get() * 1e9 / elapsedNanos : 0));
+        }
+    }
+
+    /**
+     * 整批任务的根任务：执行全部任务后汇总统计
+     */
+    private final class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Batch batch;
+
+        BatchTask(Batch batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                new JobTask(batch, 0, batch.jobs.size()).invoke();
+            } catch (RuntimeException e) {
+                batch.future.completeExceptionally(e);
+                return;
+            }
+            batch.finish();
+        }
+    }
+
+    /**
+     * 一段任务的fork/join任务，拆分到单个任务为止，拆出的另一半可被空闲线程窃取
+     */
+    private final class JobTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Batch batch;
+        private final int from;
+        private final int to;
+
+        JobTask(Batch batch, int from, int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                runJob(batch, batch.jobs.get(from));
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new JobTask(batch, from, mid), new JobTask(batch, mid, to));
+        }
+    }
+
+    /**
+     * 一批任务的统计信息
+     */
+    public static class Statistics {
+        // 任务总数
+        private final int jobCount;
+
+        // 成功完成的任务数量（包括因取消提前返回的任务）
+        private final int succeeded;
+
+        // 失败的任务数量
+        private final int failed;
+
+        // 因取消而未执行的任务数量
+        private final int skipped;
+
+        // 用户档案上下文缓存命中次数
+        private final int profileCacheHits;
+
+        // 整批耗时(ms)
+        private final long elapsedMillis;
+
+        // 吞吐量（每秒完成的规划数）
+        private final double plansPerSecond;
+
+        Statistics(int jobCount, int succeeded, int failed, int skipped, int profileCacheHits,
+                   long elapsedMillis, double plansPerSecond) {
+            this.jobCount = jobCount;
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.skipped = skipped;
+            this.profileCacheHits = profileCacheHits;
+            this.elapsedMillis = elapsedMillis;
+            this.plansPerSecond = plansPerSecond;
+        }
+
+        public int getJobCount() {
+            return jobCount;
+        }
+
+        public int getSucceeded() {
+            return succeeded;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public int getSkipped() {
+            return skipped;
+        }
+
+        public int getProfileCacheHits() {
+            return profileCacheHits;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public double getPlansPerSecond() {
+            return plansPerSecond;
+        }
+
+        @Override
+        public String toString() {
+            return "批量规划统计: 任务=" + jobCount +
+                    ", 成功=" + succeeded +
+                    ", 失败=" + failed +
+                    ", 跳过=" + skipped +
+                    ", 档案缓存命中=" + profileCacheHits +
+                    ", 耗时=" + elapsedMillis + "ms" +
+                    ", 吞吐量=" + String.format("%.2f", plansPerSecond) + "方案/秒";
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.mealplanner.genetic.algorithm;
+
+/**
+ * 批量规划中一个任务的结果
+ * 成功时包含规划结果，失败时包含异常，两者恰有一个不为null
+ */
+public class CohortResult {
+    // 对应的任务
+    private final CohortJob job;
+
+    // 规划结果（失败时为null）
+    private final PlanningResult result;
+
+    // 失败原因（成功时为null）
+    private final Throwable error;
+
+    // 任务耗时(ms)
+    private final long elapsedMillis;
+
+    CohortResult(CohortJob job, PlanningResult result, Throwable error, long elapsedMillis) {
+        this.job = job;
+        this.result = result;
+        this.error = error;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public CohortJob getJob() {
+        return job;
+    }
+
+    public PlanningResult getResult() {
+        return result;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return "CohortResult{" +
+                "id=" + job.getId() +
+                (error == null ? ", " + result : ", error=" + error) +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+}
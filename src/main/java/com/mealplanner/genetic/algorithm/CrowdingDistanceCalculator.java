@@ -44,7 +44,7 @@ public class CrowdingDistanceCalculator {
         }
         
         // 获取目标数量
-        int numObjectives = front.get(0).getObjectiveValues().size();
+        int numObjectives = front.get(0).getRankingObjectiveValues().size();
         
         // 对每个目标计算拥挤度距离
         for (int i = 0; i < numObjectives; i++) {
@@ -52,14 +52,14 @@ public class CrowdingDistanceCalculator {
             
             // 按当前目标值排序
             front.sort((a, b) -> {
-                double aValue = a.getObjectiveValue(objectiveIndex).getValue();
-                double bValue = b.getObjectiveValue(objectiveIndex).getValue();
+                double aValue = a.getRankingObjectiveValues().get(objectiveIndex).getValue();
+                double bValue = b.getRankingObjectiveValues().get(objectiveIndex).getValue();
                 return Double.compare(aValue, bValue);
             });
             
             // 获取当前目标的最小值和最大值
-            double minValue = front.get(0).getObjectiveValue(objectiveIndex).getValue();
-            double maxValue = front.get(size - 1).getObjectiveValue(objectiveIndex).getValue();
+            double minValue = front.get(0).getRankingObjectiveValues().get(objectiveIndex).getValue();
+            double maxValue = front.get(size - 1).getRankingObjectiveValues().get(objectiveIndex).getValue();
             
             // 设置边界点的拥挤度为无穷大
             front.get(0).setCrowdingDistance(Double.POSITIVE_INFINITY);
@@ -68,8 +68,8 @@ public class CrowdingDistanceCalculator {
             // 计算中间点的拥挤度
             if (maxValue > minValue) {
                 for (int j = 1; j < size - 1; j++) {
-                    double previousValue = front.get(j - 1).getObjectiveValue(objectiveIndex).getValue();
-                    double nextValue = front.get(j + 1).getObjectiveValue(objectiveIndex).getValue();
+                    double previousValue = front.get(j - 1).getRankingObjectiveValues().get(objectiveIndex).getValue();
+                    double nextValue = front.get(j + 1).getRankingObjectiveValues().get(objectiveIndex).getValue();
                     
                     // 累加拥挤度距离
                     double distance = front.get(j).getCrowdingDistance();
@@ -0,0 +1,273 @@
+package com.mealplanner.genetic.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.mealplanner.genetic.index.NDTreeParetoArchive;
+import com.mealplanner.genetic.model.MealSolution;
+import com.mealplanner.genetic.model.ObjectiveValue;
+
+/**
+ * ε-支配帕累托外部存档
+ * 进化过程中每个被评估的解都可以提交到存档，即使之后在种群中因拥挤度被淘汰，存档仍保留它。
+ * 目标空间按ε划分为网格（目标值在0到1之间，越大越好），每个网格最多保留一个解：
+ * 新解所在网格被存档中某个网格支配时拒绝；否则移除被它支配的网格，
+ * 同一网格内保留支配另一方或离网格最优角更近的解。
+ * 网格按坐标存入哈希表，同网格查找为O(1)；网格之间的支配判断由ND-tree完成，不需要线性扫描。
+ * 存档超过容量上限时ε加倍并重建，内存占用可预测。
+ * 比较使用排序目标值（{@link MealSolution#getRankingObjectiveValues()}）。
+ * 尚无可行解时只保留约束违反程度最小的一个解，出现可行解后清除不可行解。
+ * 所有公开方法都是同步的，可由并行引擎共享。
+ */
+public class EpsilonParetoArchive {
+    // 网格坐标到解的映射
+    private final Map<BoxKey, MealSolution> boxes = new HashMap<>();
+
+    // 已占用网格坐标的ND-tree（首次插入时按目标数量创建）
+    private NDTreeParetoArchive<BoxKey> boxTree;
+
+    // 尚无可行解时保留的约束违反程度最小的解
+    private MealSolution leastViolating;
+
+    // 当前网格宽度
+    private double epsilon;
+
+    // 初始网格宽度（reset时恢复）
+    private final double initialEpsilon;
+
+    // 容量上限
+    private final int capacity;
+
+    // 统计信息
+    private long offeredCount;
+    private long acceptedCount;
+    private int coarseningCount;
+
+    /**
+     * 构造函数
+     * @param epsilon 每个目标的网格宽度
+     * @param capacity 存档容量上限，超过时网格宽度加倍
+     */
+    public EpsilonParetoArchive(double epsilon, int capacity) {
+        if (epsilon <= 0) {
+            throw new IllegalArgumentException("网格宽度必须为正数");
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("存档容量必须为正整数");
+        }
+        this.epsilon = epsilon;
+        this.initialEpsilon = epsilon;
+        this.capacity = capacity;
+    }
+
+    /**
+     * 提交一个已评估的解
+     * @param solution 解决方案
+     * @return 是否被存档接受
+     */
+    public synchronized boolean offer(MealSolution solution) {
+        if (solution == null || solution.getObjectiveValues() == null || solution.getObjectiveValues().isEmpty()) {
+            return false;
+        }
+        offeredCount++;
+
+        boolean accepted;
+        if (!solution.isFeasible()) {
+            accepted = offerInfeasible(solution);
+        } else {
+            leastViolating = null;
+            accepted = insert(solution);
+            if (boxes.size() > capacity) {
+                coarsen();
+            }
+        }
+        if (accepted) {
+            acceptedCount++;
+        }
+        return accepted;
+    }
+
+    /**
+     * 批量提交解
+     * @param solutions 解决方案列表
+     * @return 被接受的数量
+     */
+    public synchronized int offerAll(List<MealSolution> solutions) {
+        int accepted = 0;
+        for (MealSolution solution : solutions) {
+            if (offer(solution)) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    private boolean offerInfeasible(MealSolution solution) {
+        if (!boxes.isEmpty()) {
+            return false;
+        }
+        if (leastViolating == null || solution.getConstraintViolation() < leastViolating.getConstraintViolation()) {
+            leastViolating = solution;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 按ε-支配规则插入可行解
+     */
+    private boolean insert(MealSolution solution) {
+        BoxKey key = boxOf(solution);
+
+        MealSolution occupant = boxes.get(key);
+        if (occupant != null) {
+            if (solution.dominates(occupant)
+                    || (!occupant.dominates(solution)
+                        && cornerDistance(solution, key) < cornerDistance(occupant, key))) {
+                boxes.put(key, solution);
+                return true;
+            }
+            return false;
+        }
+
+        // 同网格已排除，弱支配即支配
+        if (boxTree == null) {
+            boxTree = new NDTreeParetoArchive<>(key.coordinates.length);
+        }
+        List<BoxKey> removed = new ArrayList<>();
+        if (!boxTree.insert(key.toPoint(), key, removed)) {
+            return false;
+        }
+        for (BoxKey dominated : removed) {
+            boxes.remove(dominated);
+        }
+        boxes.put(key, solution);
+        return true;
+    }
+
+    /**
+     * 网格宽度加倍并重新插入全部解，直到数量不超过容量
+     */
+    private void coarsen() {
+        while (boxes.size() > capacity) {
+            epsilon *= 2;
+            coarseningCount++;
+            List<MealSolution> solutions = new ArrayList<>(boxes.values());
+            boxes.clear();
+            boxTree.clear();
+            for (MealSolution solution : solutions) {
+                insert(solution);
+            }
+        }
+    }
+
+    private BoxKey boxOf(MealSolution solution) {
+        List<ObjectiveValue> values = solution.getRankingObjectiveValues();
+        int[] coordinates = new int[values.size()];
+        for (int i = 0; i < coordinates.length; i++) {
+            coordinates[i] = (int) Math.floor(values.get(i).getValue() / epsilon);
+        }
+        return new BoxKey(coordinates);
+    }
+
+    /**
+     * 计算解到所在网格最优角（各目标取网格上界）的距离平方
+     */
+    private double cornerDistance(MealSolution solution, BoxKey key) {
+        List<ObjectiveValue> values = solution.getRankingObjectiveValues();
+        double distance = 0;
+        for (int i = 0; i < key.coordinates.length; i++) {
+            double diff = (key.coordinates[i] + 1) * epsilon - values.get(i).getValue();
+            distance += diff * diff;
+        }
+        return distance;
+    }
+
+    /**
+     * 获取存档中的全部解
+     * @return 解决方案列表（副本）
+     */
+    public synchronized List<MealSolution> getSolutions() {
+        if (boxes.isEmpty() && leastViolating != null) {
+            List<MealSolution> result = new ArrayList<>(1);
+            result.add(leastViolating);
+            return result;
+        }
+        return new ArrayList<>(boxes.values());
+    }
+
+    /**
+     * 清空存档并恢复初始网格宽度
+     */
+    public synchronized void reset() {
+        boxes.clear();
+        boxTree = null;
+        leastViolating = null;
+        epsilon = initialEpsilon;
+        offeredCount = 0;
+        acceptedCount = 0;
+        coarseningCount = 0;
+    }
+
+    public synchronized int size() {
+        return boxes.isEmpty() && leastViolating != null ? 1 : boxes.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return boxes.isEmpty() && leastViolating == null;
+    }
+
+    public synchronized double getEpsilon() {
+        return epsilon;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 获取存档统计信息
+     * @return 统计信息字符串
+     */
+    public synchronized String getStatistics() {
+        return "存档统计: 提交=" + offeredCount +
+                ", 接受=" + acceptedCount +
+                ", 当前=" + size() +
+                ", ε=" + String.format("%.4f", epsilon) +
+                ", 加粗次数=" + coarseningCount;
+    }
+
+    /**
+     * 网格坐标
+     */
+    private static final class BoxKey {
+        private final int[] coordinates;
+        private final int hash;
+
+        BoxKey(int[] coordinates) {
+            this.coordinates = coordinates;
+            this.hash = Arrays.hashCode(coordinates);
+        }
+
+        double[] toPoint() {
+            double[] point = new double[coordinates.length];
+            for (int i = 0; i < coordinates.length; i++) {
+                point[i] = coordinates[i];
+            }
+            return point;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof BoxKey && Arrays.equals(coordinates, ((BoxKey) o).coordinates);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
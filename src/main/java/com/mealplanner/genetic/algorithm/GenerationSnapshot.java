@@ -0,0 +1,154 @@
+package com.mealplanner.genetic.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.mealplanner.genetic.model.FoodGene;
+import com.mealplanner.genetic.model.MealSolution;
+import com.mealplanner.genetic.model.ObjectiveValue;
+
+/**
+ * 进化过程中某一代的快照，通过规划器的快照发布者推送给订阅方
+ * 只包含第一前沿的紧凑副本（食物名称、摄入量、目标值），与进化中的解对象不共享任何可变状态。
+ * 最后一个快照的 {@link #isFinal()} 为true，其中的方案为本次规划返回的方案。
+ */
+public class GenerationSnapshot {
+    // 代数（从1开始，初始种群为0）
+    private final int generation;
+
+    // 第一前沿的紧凑副本
+    private final List<SolutionSnapshot> front;
+
+    // 第一前沿中最高的平均目标评分
+    private final double bestScore;
+
+    // 第一前沿的超体积，本代未计算时为NaN
+    private final double hypervolume;
+
+    // 距规划开始的耗时(ms)
+    private final long elapsedMillis;
+
+    // 是否为本次规划的最终结果
+    private final boolean last;
+
+    // 结束原因（仅最终快照有值）
+    private final PlanningResult.StopReason stopReason;
+
+    GenerationSnapshot(int generation, List<SolutionSnapshot> front, double bestScore, double hypervolume,
+                       long elapsedMillis, boolean last, PlanningResult.StopReason stopReason) {
+        this.generation = generation;
+        this.front = Collections.unmodifiableList(front);
+        this.bestScore = bestScore;
+        this.hypervolume = hypervolume;
+        this.elapsedMillis = elapsedMillis;
+        this.last = last;
+        this.stopReason = stopReason;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public List<SolutionSnapshot> getFront() {
+        return front;
+    }
+
+    public double getBestScore() {
+        return bestScore;
+    }
+
+    public double getHypervolume() {
+        return hypervolume;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public boolean isFinal() {
+        return last;
+    }
+
+    public PlanningResult.StopReason getStopReason() {
+        return stopReason;
+    }
+
+    @Override
+    public String toString() {
+        return "GenerationSnapshot{" +
+                "generation=" + generation +
+                ", front=" + front.size() +
+                ", bestScore=" + String.format("%.4f", bestScore) +
+                ", hypervolume=" + (Double.isNaN(hypervolume) ? "-" : String.format("%.6f", hypervolume)) +
+                ", elapsedMillis=" + elapsedMillis +
+                (last ? ", final, stopReason=" + stopReason : "") +
+                '}';
+    }
+
+    /**
+     * 单个膳食方案的紧凑副本
+     */
+    public static class SolutionSnapshot {
+        // 食物名称
+        private final String[] foodNames;
+
+        // 摄入量(g)，与食物名称一一对应
+        private final double[] intakes;
+
+        // 目标值，顺序与评估器输出一致
+        private final double[] objectiveValues;
+
+        // 平均目标评分
+        private final double score;
+
+        // 是否满足全部硬性约束
+        private final boolean feasible;
+
+        SolutionSnapshot(MealSolution solution, double score) {
+            List<FoodGene> genes = solution.getFoodGenes();
+            this.foodNames = new String[genes.size()];
+            this.intakes = new double[genes.size()];
+            for (int i = 0; i < genes.size(); i++) {
+                foodNames[i] = genes.get(i).getFood().getName();
+                intakes[i] = genes.get(i).getIntake();
+            }
+            List<ObjectiveValue> values = solution.getObjectiveValues();
+            this.objectiveValues = new double[values == null ? 0 : values.size()];
+            for (int i = 0; i < objectiveValues.length; i++) {
+                objectiveValues[i] = values.get(i).getValue();
+            }
+            this.score = score;
+            this.feasible = solution.isFeasible();
+        }
+
+        public String[] getFoodNames() {
+            return foodNames.clone();
+        }
+
+        public double[] getIntakes() {
+            return intakes.clone();
+        }
+
+        public double[] getObjectiveValues() {
+            return objectiveValues.clone();
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public boolean isFeasible() {
+            return feasible;
+        }
+
+        @Override
+        public String toString() {
+            List<String> items = new ArrayList<>(foodNames.length);
+            for (int i = 0; i < foodNames.length; i++) {
+                items.add(foodNames[i] + " " + Math.round(intakes[i]) + "g");
+            }
+            return String.join(", ", items) + " (" + String.format("%.4f", score) + ")";
+        }
+    }
+}
@@ -0,0 +1,667 @@
+package com.mealplanner.genetic.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import com.mealplanner.genetic.index.FoodCategoryIndex;
+import com.mealplanner.genetic.model.MealSolution;
+import com.mealplanner.genetic.model.ObjectiveValue;
+import com.mealplanner.genetic.objectives.MultiObjectiveEvaluator;
+import com.mealplanner.genetic.operators.AdaptiveOperatorSelector;
+import com.mealplanner.genetic.operators.IntakeOptimizer;
+import com.mealplanner.genetic.operators.MealCrossover;
+import com.mealplanner.genetic.operators.MealMutation;
+import com.mealplanner.genetic.operators.MealMutation.MutationType;
+import com.mealplanner.genetic.operators.MealRepair;
+import com.mealplanner.genetic.operators.MutationContext;
+import com.mealplanner.genetic.util.NSGAIIConfiguration;
+import com.mealplanner.genetic.util.NSGAIILogger;
+import com.mealplanner.model.Food;
+import com.mealplanner.model.NutrientType;
+import com.mealplanner.model.UserProfile;
+
+/**
+ * MOEA/D分解多目标膳食规划器
+ * 把多目标问题分解为种群大小个权重向量子问题，每个子问题用Tchebycheff标量化：
+ * g(x|λ,z*) = max_i λ_i·w_i·(z*_i - f_i(x))，其中w_i为目标自身的权重，z*为当前理想点（各目标的最大值）。
+ * 子代只与所在子问题邻域内的当前解比较并替换，每代不需要全局非支配排序，代价与种群大小成线性关系。
+ * 各子问题的繁殖和替换以fork/join并行执行：子问题的当前解用CAS替换，理想点用CAS更新，
+ * 变异算子（只读）由所有线程共享，各线程只持有自己的变异上下文；交叉、修复、局部优化算子按线程各持一份，
+ * 评估器在使用共享的用户档案上下文时共用，否则也按线程各持一份。并行度为1时在调用线程上顺序执行。
+ */
+public class MOEADMealPlanner {
+    // 每个并行任务处理的最少子问题数量
+    private static final int SUBPROBLEM_BATCH_SIZE = 16;
+
+    // 权重分量的下限，避免某个目标被完全忽略
+    private static final double MIN_WEIGHT = 1e-6;
+
+    // 算法配置参数
+    private NSGAIIConfiguration config;
+    // 食物数据库
+    private List<Food> foodDatabase;
+    // 按类别分组的食物索引,用于快速随机构造膳食
+    private FoodCategoryIndex foodCategoryIndex;
+    // 变异算子(只读,各线程共享)
+    private final MealMutation mutation;
+    // 用户个人信息
+    private UserProfile userProfile;
+    // 共享的用户档案上下文(可为null),不为null时各线程共用其中的评估器
+    private ProfileContext profileContext;
+    // 日志记录器
+    private NSGAIILogger logger;
+    // 不同营养素的达成率范围映射
+    private Map<NutrientType, double[]> nutrientRates;
+    // 各营养素的重要程度权重,用于摄入量局部优化
+    private Map<NutrientType, Double> nutrientWeights;
+
+    // 并行度
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    // 本次运行的权重向量 [子问题][目标]
+    private double[][] weightVectors;
+    // 每个子问题的邻域（按权重向量距离升序的子问题编号，包含自身）
+    private int[][] neighborhoods;
+    // 每个子问题的当前解
+    private AtomicReferenceArray<MealSolution> subproblemSolutions;
+    // 理想点（各目标的最大值，以double的位模式存储以便CAS更新）
+    private AtomicLongArray idealPoint;
+    // 外部存档（可为null），每个评估过的子代都会提交
+    private EpsilonParetoArchive archive;
+    // 各线程持有的算子
+    private final List<Worker> workers = Collections.synchronizedList(new ArrayList<>());
+
+    // 运行统计
+    private final AtomicLong evaluations = new AtomicLong();
+    private final AtomicLong replacements = new AtomicLong();
+    private int completedGenerations;
+    private PlanningResult.StopReason stopReason;
+
+    // 停止条件（可为null），返回true时尽快结束并返回当前解
+    private BooleanSupplier stopCondition;
+
+    // 本次运行是否已因停止条件中断（各线程共享）
+    private volatile boolean stopped;
+
+    /**
+     * 构造函数
+     * @param config 算法配置（使用其中的种群大小、代数、交叉变异参数和MOEA/D邻域参数）
+     * @param foodDatabase 食物数据库
+     * @param userProfile 用户配置文件
+     */
+    public MOEADMealPlanner(NSGAIIConfiguration config, List<Food> foodDatabase, UserProfile userProfile) {
+        this(config, new MealMutation(foodDatabase), userProfile);
+    }
+
+    /**
+     * 构造函数，使用共享的变异算子
+     * @param config 算法配置
+     * @param mutation 共享的变异算子（包含食物数据库）
+     * @param userProfile 用户配置文件
+     */
+    public MOEADMealPlanner(NSGAIIConfiguration config, MealMutation mutation, UserProfile userProfile) {
+        this.config = config;
+        this.mutation = mutation;
+        this.foodDatabase = mutation.getFoodDatabase();
+        this.foodCategoryIndex = mutation.getFoodCategoryIndex();
+        this.userProfile = userProfile;
+        this.logger = new NSGAIILogger();
+        this.nutrientRates = NutrientType.getNutrientRates(userProfile);
+        this.nutrientWeights = NutrientType.getNutrientWeights(userProfile);
+    }
+
+    /**
+     * 构造函数，使用共享的变异算子和用户档案上下文
+     * @param config 算法配置
+     * @param mutation 共享的变异算子（包含食物数据库）
+     * @param profileContext 共享的用户档案上下文
+     */
+    public MOEADMealPlanner(NSGAIIConfiguration config, MealMutation mutation, ProfileContext profileContext) {
+        this.config = config;
+        this.mutation = mutation;
+        this.foodDatabase = mutation.getFoodDatabase();
+        this.foodCategoryIndex = mutation.getFoodCategoryIndex();
+        this.userProfile = profileContext.getUserProfile();
+        this.profileContext = profileContext;
+        this.logger = new NSGAIILogger();
+        this.nutrientRates = profileContext.getNutrientRates();
+        this.nutrientWeights = profileContext.getNutrientWeights();
+    }
+
+    /**
+     * 生成一餐的膳食方案
+     * @param targetNutrientItems 目标营养素需求
+     * @param requireStaple 是否要求包含主食
+     * @return 最终种群中的非支配解
+     */
+    public List<MealSolution> generateMeal(Map<NutrientType, Double> targetNutrientItems, boolean requireStaple) {
+        Population population = evolve(targetNutrientItems, requireStaple);
+        NonDominatedSorting.sort(population);
+        return population.getSolutions().stream()
+                .filter(s -> s.getRank() == 1)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 运行MOEA/D进化过程
+     * @param targetNutrientItems 目标营养素需求
+     * @param requireStaple 是否要求包含主食
+     * @return 各子问题的最终解（去除被多个子问题共享的重复对象）
+     */
+    public Population evolve(Map<NutrientType, Double> targetNutrientItems, boolean requireStaple) {
+        long startTime = System.currentTimeMillis();
+        int populationSize = config.getPopulationSize();
+        evaluations.set(0);
+        replacements.set(0);
+        workers.clear();
+        completedGenerations = 0;
+        stopped = false;
+        weightVectors = null;
+        neighborhoods = null;
+
+        ThreadLocal<Worker> localWorker = ThreadLocal.withInitial(() -> createWorker(targetNutrientItems));
+
+        // 初始化并评估各子问题的解，到时或取消时只保留已评估的部分（至少一个）
+        Worker mainWorker = localWorker.get();
+        List<MealSolution> initial = new ArrayList<>(populationSize);
+        while (initial.size() < populationSize && (initial.isEmpty() || !shouldStop())) {
+            MealSolution solution = MealSolution.createRandom(
+                    foodCategoryIndex, config.getMinFoodsPerMeal(), config.getMaxFoodsPerMeal(), requireStaple);
+            mainWorker.evaluate(solution, targetNutrientItems);
+            initial.add(solution);
+            if (archive != null) {
+                archive.offer(solution);
+            }
+        }
+        populationSize = initial.size();
+        subproblemSolutions = new AtomicReferenceArray<>(initial.toArray(new MealSolution[0]));
+
+        int objectiveCount = subproblemSolutions.get(0).getRankingObjectiveValues().size();
+        if (!stopped) {
+            Random random = config.getRandomSeed() != null ? new Random(config.getRandomSeed()) : new Random();
+            weightVectors = generateWeightVectors(populationSize, objectiveCount, random);
+            neighborhoods = buildNeighborhoods(weightVectors, Math.min(config.getNeighborhoodSize(), populationSize),
+                    this::shouldStop);
+        }
+
+        // 初始化或邻域构建阶段已中断时不再进入迭代（邻域构建的代价与子问题数量的平方成正比）
+        if (neighborhoods == null) {
+            weightVectors = null;
+            stopReason = null;
+        } else {
+            idealPoint = new AtomicLongArray(objectiveCount);
+            for (int j = 0; j < objectiveCount; j++) {
+                idealPoint.set(j, Double.doubleToLongBits(Double.NEGATIVE_INFINITY));
+            }
+            for (int i = 0; i < populationSize; i++) {
+                updateIdealPoint(subproblemSolutions.get(i));
+            }
+
+            // 并行度为1时在调用线程上顺序执行，不创建线程池
+            ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+            try {
+                int generationsWithoutReplacement = 0;
+                stopReason = PlanningResult.StopReason.MAX_GENERATIONS;
+                for (int generation = 0; generation < config.getMaxGenerations(); generation++) {
+                    if (shouldStop()) {
+                        stopReason = null;
+                        break;
+                    }
+                    long replacedBefore = replacements.get();
+                    if (pool != null) {
+                        pool.invoke(new SubproblemTask(0, populationSize, localWorker, targetNutrientItems, requireStaple));
+                    } else {
+                        for (int i = 0; i < populationSize; i++) {
+                            if (i % SUBPROBLEM_BATCH_SIZE == 0 && i > 0 && shouldStop()) {
+                                break;
+                            }
+                            evolveSubproblem(i, mainWorker, targetNutrientItems, requireStaple);
+                        }
+                    }
+                    if (stopped) {
+                        // 本代只完成了部分子问题，已替换的解保留
+                        stopReason = null;
+                        break;
+                    }
+                    completedGenerations++;
+
+                    // 连续若干代没有任何子问题被改进时提前结束
+                    if (replacements.get() == replacedBefore) {
+                        if (++generationsWithoutReplacement >= config.getMaxGenerationsWithoutImprovement()) {
+                            stopReason = PlanningResult.StopReason.CONVERGED;
+                            logger.logEarlyTermination(generation);
+                            break;
+                        }
+                    } else {
+                        generationsWithoutReplacement = 0;
+                    }
+                }
+            } finally {
+                if (pool != null) {
+                    pool.shutdown();
+                }
+            }
+        }
+
+        // 多个子问题可能共享同一个解对象
+        Set<MealSolution> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<MealSolution> solutions = new ArrayList<>();
+        for (int i = 0; i < populationSize; i++) {
+            MealSolution solution = subproblemSolutions.get(i);
+            if (seen.add(solution)) {
+                solutions.add(solution);
+            }
+        }
+
+        logger.info("MOEA/D完成: 代数=" + completedGenerations +
+                ", 子问题=" + populationSize +
+                ", 邻域=" + (neighborhoods != null ? neighborhoods[0].length : 0) +
+                ", 线程=" + workers.size() +
+                ", 评估=" + evaluations.get() +
+                ", 替换=" + replacements.get() +
+                ", 不同解=" + solutions.size() +
+                ", 耗时=" + (System.currentTimeMillis() - startTime) + "ms");
+
+        return new Population(solutions);
+    }
+
+    /**
+     * 检查停止条件，一旦成立则本次运行的后续检查都直接返回true
+     * 可在多个线程中调用，停止条件本身只被串行调用
+     */
+    private boolean shouldStop() {
+        if (stopped) {
+            return true;
+        }
+        if (stopCondition == null) {
+            return false;
+        }
+        synchronized (this) {
+            if (!stopped && stopCondition.getAsBoolean()) {
+                stopped = true;
+            }
+        }
+        return stopped;
+    }
+
+    /**
+     * 为一个子问题产生子代并更新邻域
+     */
+    private void evolveSubproblem(int index, Worker worker, Map<NutrientType, Double> targetNutrients, boolean requireStaple) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        // 以一定概率在邻域内选择父代和替换对象，否则在整个种群中进行
+        int[] pool = random.nextDouble() < config.getNeighborSelectionProbability() ? neighborhoods[index] : null;
+        int poolSize = pool != null ? pool.length : subproblemSolutions.length();
+        int first = random.nextInt(poolSize);
+        int second = poolSize > 1 ? (first + 1 + random.nextInt(poolSize - 1)) % poolSize : first;
+        MealSolution parent1 = subproblemSolutions.get(pool != null ? pool[first] : first);
+        MealSolution parent2 = subproblemSolutions.get(pool != null ? pool[second] : second);
+
+        List<MealSolution> children = worker.crossover.apply(parent1, parent2);
+        MealSolution child = children.get(random.nextInt(children.size()));
+
+        mutation.apply(child, requireStaple, worker.mutationContext);
+        MutationType appliedType = worker.mutationContext.getLastAppliedType();
+        if (!worker.repair.repair(child, requireStaple)) {
+            child = MealSolution.createRandom(
+                    foodCategoryIndex, config.getMinFoodsPerMeal(), config.getMaxFoodsPerMeal(), requireStaple);
+            appliedType = null;
+        }
+        if (random.nextDouble() < config.getLocalSearchFraction()) {
+            worker.intakeOptimizer.optimize(child);
+        }
+        worker.evaluate(child, targetNutrients);
+        updateIdealPoint(child);
+        if (archive != null) {
+            archive.offer(child);
+        }
+
+        // 按随机顺序遍历替换范围，最多替换maxReplacements个子问题的当前解
+        int replaced = 0;
+        int start = random.nextInt(poolSize);
+        for (int k = 0; k < poolSize && replaced < config.getMaxReplacements(); k++) {
+            int position = (start + k) % poolSize;
+            int subproblem = pool != null ? pool[position] : position;
+            if (tryReplace(subproblem, child)) {
+                replaced++;
+            }
+        }
+        if (replaced > 0) {
+            replacements.addAndGet(replaced);
+        }
+
+        // 自适应变异：以子代是否改进了某个子问题作为信用
+        if (appliedType != null && worker.mutationContext.getMutationType() == MutationType.ADAPTIVE) {
+            worker.mutationContext.getOperatorSelector().update(appliedType, replaced > 0 ? 1.0 : 0.0);
+        }
+    }
+
+    /**
+     * 子代优于子问题的当前解时用CAS替换
+     * @return 是否替换成功
+     */
+    private boolean tryReplace(int subproblem, MealSolution child) {
+        while (true) {
+            MealSolution current = subproblemSolutions.get(subproblem);
+            if (!isBetter(child, current, weightVectors[subproblem])) {
+                return false;
+            }
+            if (subproblemSolutions.compareAndSet(subproblem, current, child)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 在子问题上比较两个解：约束违反程度小者优先，其次Tchebycheff值小者优先
+     */
+    private boolean isBetter(MealSolution candidate, MealSolution current, double[] weights) {
+        double candidateViolation = candidate.getConstraintViolation();
+        double currentViolation = current.getConstraintViolation();
+        if (candidateViolation != currentViolation) {
+            return candidateViolation < currentViolation;
+        }
+        return tchebycheff(candidate, weights) < tchebycheff(current, weights);
+    }
+
+    /**
+     * 计算Tchebycheff标量化值（越小越好）
+     * @param solution 解决方案
+     * @param weights 子问题的权重向量
+     * @return max_i λ_i·w_i·(z*_i - f_i)
+     */
+    public double tchebycheff(MealSolution solution, double[] weights) {
+        List<ObjectiveValue> objectives = solution.getRankingObjectiveValues();
+        double max = Double.NEGATIVE_INFINITY;
+        for (int j = 0; j < objectives.size(); j++) {
+            ObjectiveValue objective = objectives.get(j);
+            double ideal = Double.longBitsToDouble(idealPoint.get(j));
+            double value = weights[j] * objective.getWeight() * (ideal - objective.getValue());
+            if (value > max) {
+                max = value;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 用解的目标值更新理想点
+     */
+    private void updateIdealPoint(MealSolution solution) {
+        List<ObjectiveValue> objectives = solution.getRankingObjectiveValues();
+        for (int j = 0; j < objectives.size(); j++) {
+            double value = objectives.get(j).getValue();
+            while (true) {
+                long bits = idealPoint.get(j);
+                if (value <= Double.longBitsToDouble(bits)
+                        || idealPoint.compareAndSet(j, bits, Double.doubleToLongBits(value))) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * 生成权重向量：前若干个为各目标的坐标轴方向，其余在单纯形上均匀随机采样
+     * @param count 子问题数量
+     * @param objectiveCount 目标数量
+     * @param random 随机数生成器
+     * @return 权重向量数组（各分量之和为1）
+     */
+    public static double[][] generateWeightVectors(int count, int objectiveCount, Random random) {
+        double[][] weights = new double[count][objectiveCount];
+        for (int i = 0; i < count; i++) {
+            double sum = 0;
+            for (int j = 0; j < objectiveCount; j++) {
+                if (i < objectiveCount) {
+                    weights[i][j] = i == j ? 1.0 : 0.0;
+                } else {
+                    // 指数分布归一化后服从单纯形上的均匀分布
+                    weights[i][j] = -Math.log(1.0 - random.nextDouble());
+                }
+                sum += weights[i][j];
+            }
+            for (int j = 0; j < objectiveCount; j++) {
+                weights[i][j] = Math.max(MIN_WEIGHT, weights[i][j] / sum);
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * 为每个权重向量找出距离最近的若干个权重向量作为邻域
+     * @param weights 权重向量
+     * @param neighborhoodSize 邻域大小
+     * @return 邻域 [子问题][按距离升序的子问题编号]
+     */
+    public static int[][] buildNeighborhoods(double[][] weights, int neighborhoodSize) {
+        return buildNeighborhoods(weights, neighborhoodSize, () -> false);
+    }
+
+    /**
+     * 为每个权重向量找出距离最近的若干个权重向量作为邻域，每处理一批子问题检查一次停止条件
+     * @param weights 权重向量
+     * @param neighborhoodSize 邻域大小
+     * @param stop 停止条件
+     * @return 邻域 [子问题][按距离升序的子问题编号]；中途停止时为null
+     */
+    static int[][] buildNeighborhoods(double[][] weights, int neighborhoodSize, BooleanSupplier stop) {
+        int count = weights.length;
+        int[][] neighborhoods = new int[count][];
+        int[] nearest = new int[neighborhoodSize];
+        double[] distances = new double[neighborhoodSize];
+        for (int i = 0; i < count; i++) {
+            if (i % SUBPROBLEM_BATCH_SIZE == 0 && stop.getAsBoolean()) {
+                return null;
+            }
+            // 插入排序维护最近的neighborhoodSize个
+            int size = 0;
+            for (int j = 0; j < count; j++) {
+                double distance = 0;
+                for (int d = 0; d < weights[i].length; d++) {
+                    double diff = weights[i][d] - weights[j][d];
+                    distance += diff * diff;
+                }
+                if (size == neighborhoodSize && distance >= distances[size - 1]) {
+                    continue;
+                }
+                int position = size < neighborhoodSize ? size++ : size - 1;
+                while (position > 0 && distances[position - 1] > distance) {
+                    distances[position] = distances[position - 1];
+                    nearest[position] = nearest[position - 1];
+                    position--;
+                }
+                distances[position] = distance;
+                nearest[position] = j;
+            }
+            neighborhoods[i] = Arrays.copyOf(nearest, size);
+        }
+        return neighborhoods;
+    }
+
+    /**
+     * 为当前线程创建一套算子
+     */
+    private Worker createWorker(Map<NutrientType, Double> targetNutrients) {
+        MealCrossover crossover = new MealCrossover(config.getCrossoverRate());
+        crossover.setCrossoverType(config.getCrossoverType());
+
+        MutationContext mutationContext = new MutationContext(targetNutrients, nutrientRates,
+                config.getMutationType(), config.getMutationRate());
+        AdaptiveOperatorSelector operatorSelector = mutationContext.getOperatorSelector();
+        operatorSelector.setStrategy(config.getOperatorSelectionStrategy());
+
+        MealRepair repair = new MealRepair(foodDatabase, config.getMinFoodsPerMeal());
+
+        IntakeOptimizer intakeOptimizer = new IntakeOptimizer(nutrientWeights, config.getLocalSearchMaxIterations());
+        intakeOptimizer.setTargetNutrients(targetNutrients);
+        intakeOptimizer.setNutrientRates(nutrientRates);
+
+        MultiObjectiveEvaluator evaluator;
+        if (profileContext != null) {
+            evaluator = profileContext.getEvaluator(config.isConstraintDomination(), config.getObjectiveReduction());
+        } else {
+            evaluator = new MultiObjectiveEvaluator(userProfile, config.isConstraintDomination(),
+                    config.getObjectiveReduction());
+        }
+
+        Worker worker = new Worker(crossover, mutationContext, repair, intakeOptimizer, evaluator);
+        workers.add(worker);
+        return worker;
+    }
+
+    /**
+     * 获取本次运行的权重向量
+     * @return 权重向量 [子问题][目标]；初始化阶段即被中断时为null
+     */
+    public double[][] getWeightVectors() {
+        return weightVectors;
+    }
+
+    /**
+     * 获取本次运行各子问题的邻域
+     * @return 邻域 [子问题][子问题编号]；初始化阶段即被中断时为null
+     */
+    public int[][] getNeighborhoods() {
+        return neighborhoods;
+    }
+
+    public long getEvaluations() {
+        return evaluations.get();
+    }
+
+    public long getReplacements() {
+        return replacements.get();
+    }
+
+    public int getCompletedGenerations() {
+        return completedGenerations;
+    }
+
+    /**
+     * 获取最近一次运行的结束原因
+     * @return 结束原因，因停止条件中断时为null
+     */
+    public PlanningResult.StopReason getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * 设置停止条件：初始化时每评估一个解检查一次，进化中每批子问题开始前检查一次
+     * @param stopCondition 停止条件，为null时只按代数和改进情况结束
+     */
+    public void setStopCondition(BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    public EpsilonParetoArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     * 设置外部存档，进化过程中评估的每个解都会提交到存档
+     * @param archive 外部存档，为null时不使用
+     */
+    public void setArchive(EpsilonParetoArchive archive) {
+        this.archive = archive;
+    }
+
+    public NSGAIIConfiguration getConfig() {
+        return config;
+    }
+
+    public void setConfig(NSGAIIConfiguration config) {
+        this.config = config;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("并行度必须为正整数");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * 单个线程使用的一套算子和变异上下文（其中有可变状态，不能跨线程共享）
+     */
+    private final class Worker {
+        private final MealCrossover crossover;
+        private final MutationContext mutationContext;
+        private final MealRepair repair;
+        private final IntakeOptimizer intakeOptimizer;
+        private final MultiObjectiveEvaluator evaluator;
+
+        Worker(MealCrossover crossover, MutationContext mutationContext, MealRepair repair,
+               IntakeOptimizer intakeOptimizer, MultiObjectiveEvaluator evaluator) {
+            this.crossover = crossover;
+            this.mutationContext = mutationContext;
+            this.repair = repair;
+            this.intakeOptimizer = intakeOptimizer;
+            this.evaluator = evaluator;
+        }
+
+        void evaluate(MealSolution solution, Map<NutrientType, Double> targetNutrients) {
+            solution.setObjectiveValues(evaluator.evaluate(solution, targetNutrients));
+            evaluations.incrementAndGet();
+        }
+    }
+
+    /**
+     * 并行处理一段子问题的fork/join任务
+     */
+    private final class SubproblemTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final ThreadLocal<Worker> localWorker;
+        private final Map<NutrientType, Double> targetNutrients;
+        private final boolean requireStaple;
+
+        SubproblemTask(int from, int to, ThreadLocal<Worker> localWorker,
+                       Map<NutrientType, Double> targetNutrients, boolean requireStaple) {
+            this.from = from;
+            this.to = to;
+            this.localWorker = localWorker;
+            this.targetNutrients = targetNutrients;
+            this.requireStaple = requireStaple;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SUBPROBLEM_BATCH_SIZE) {
+                // 每批子问题开始前检查一次，中断时尚未开始的批次直接跳过
+                if (shouldStop()) {
+                    return;
+                }
+                Worker worker = localWorker.get();
+                for (int i = from; i < to; i++) {
+                    evolveSubproblem(i, worker, targetNutrients, requireStaple);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SubproblemTask(from, mid, localWorker, targetNutrients, requireStaple),
+                    new SubproblemTask(mid, to, localWorker, targetNutrients, requireStaple));
+        }
+    }
+}
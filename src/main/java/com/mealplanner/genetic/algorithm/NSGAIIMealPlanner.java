@@ -1,47 +1,92 @@
 package com.mealplanner.genetic.algorithm;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import com.mealplanner.genetic.index.FoodCategoryIndex;
+import com.mealplanner.genetic.model.FoodGene;
+import com.mealplanner.genetic.model.MealEdit;
 import com.mealplanner.genetic.model.MealSolution;
 import com.mealplanner.genetic.model.ObjectiveValue;
 import com.mealplanner.genetic.objectives.MultiObjectiveEvaluator;
+import com.mealplanner.genetic.operators.AdaptiveOperatorSelector;
+import com.mealplanner.genetic.operators.IntakeOptimizer;
 import com.mealplanner.genetic.operators.MealCrossover;
 import com.mealplanner.genetic.operators.MealMutation;
 import com.mealplanner.genetic.operators.MealMutation.MutationType;
+import com.mealplanner.genetic.operators.MealRepair;
 import com.mealplanner.genetic.operators.MealSelection;
+import com.mealplanner.genetic.operators.MutationContext;
+import com.mealplanner.genetic.util.CancellationToken;
 import com.mealplanner.genetic.util.NSGAIIConfiguration;
 import com.mealplanner.genetic.util.NSGAIILogger;
+import com.mealplanner.genetic.util.SeedStore;
 import com.mealplanner.model.Food;
+import com.mealplanner.model.FoodCategory;
+import com.mealplanner.model.IntakeRange;
 import com.mealplanner.model.NutrientType;
 import com.mealplanner.model.UserProfile;
 
 /**
  * NSGA-II多目标遗传算法膳食规划器
  * 实现基于非支配排序和拥挤距离的多目标优化
+ * 同一个实例可多次规划；不再使用时调用 {@link #close()} 结束快照流
  */
-public class NSGAIIMealPlanner {
+public class NSGAIIMealPlanner implements AutoCloseable {
     // 算法配置参数
     private NSGAIIConfiguration config;
     // 食物数据库
     private List<Food> foodDatabase;
+    // 按类别分组的食物索引,用于快速随机构造膳食
+    private FoodCategoryIndex foodCategoryIndex;
     // 用户个人信息
     private UserProfile userProfile;
+    // 共享的用户档案上下文(可为null),不为null时评估器和达成率范围取自其中
+    private ProfileContext profileContext;
     // 目标评估器,用于评估解决方案的各项目标值
     private MultiObjectiveEvaluator objectiveEvaluator;
     // 交叉算子,用于生成新的解决方案
     private MealCrossover crossover;
-    // 变异算子,用于增加解的多样性
+    // 变异算子,用于增加解的多样性(只读,可与其他规划器共享)
     private MealMutation mutation;
+    // 本次运行的变异上下文(目标营养素、达成率范围、变异策略)
+    private MutationContext mutationContext;
+    // 自适应变异算子选择器,每次运行开始时重置
+    private final AdaptiveOperatorSelector operatorSelector = MealMutation.createOperatorSelector();
+    // 修复算子,用于将无效子代修复为有效解
+    private MealRepair repair;
+    // 摄入量局部优化器,用于在食物组合固定时优化摄入量
+    private IntakeOptimizer intakeOptimizer;
     // 选择算子,用于选择优秀个体
     private MealSelection selection;
     // 日志记录器,用于记录算法运行过程
     private NSGAIILogger logger;
+    // ε-支配外部存档,保存进化过程中找到的非支配解
+    private EpsilonParetoArchive archive;
+    // NSGA-III参考点选择器,引擎为NSGA_III时用于最后一个前沿的选择
+    private ReferencePointSelection referencePointSelection;
+    
+    // 最近一次运行中每隔indicatorInterval代记录的第一前沿超体积
+    private List<Double> hypervolumeHistory = new ArrayList<>();
+    
+    // 热启动种子库，为null时初始种群完全随机生成
+    private SeedStore seedStore;
+    
+    // 食物名称到食物的映射，用于还原种子库中的方案
+    private Map<String, Food> foodsByName;
     
     // 不同营养素的达成率范围映射
     private Map<NutrientType, double[]> nutrientRates = new HashMap<>();
@@ -49,6 +94,41 @@ public class NSGAIIMealPlanner {
     // 目标营养素，用于计算达成率
     private Map<NutrientType, Double> targetNutrients;
     
+    // 当前运行的种群大小（generateMeal使用populationSize，replan使用replanPopulationSize）
+    private int populationSize;
+    
+    // 最近一次运行是否要求包含主食
+    private boolean requireStaple;
+    
+    // 增量重规划中累积的食物锁定和移除约束，generateMeal时清空
+    private final List<MealEdit> activeEdits = new ArrayList<>();
+    
+    // 本次运行的截止时间（System.nanoTime），hasDeadline为false时不限时
+    private boolean hasDeadline;
+    private long deadlineNanos;
+    
+    // 本次运行的取消令牌（可为null）
+    private CancellationToken cancellationToken;
+    
+    // 本次运行的结束原因和完成的代数
+    private PlanningResult.StopReason stopReason;
+    private int completedGenerations;
+    
+    // 每代快照的发布者（订阅方处理不过来时丢弃快照，不阻塞进化）
+    private final SubmissionPublisher<GenerationSnapshot> snapshotPublisher = new SubmissionPublisher<>();
+    
+    // 被丢弃的快照数量
+    private final AtomicLong droppedSnapshots = new AtomicLong();
+    
+    // 本次运行开始时是否有快照订阅方，有则在全部订阅方取消后停止规划
+    private boolean streamSubscribed;
+    
+    // 本次运行的开始时间(ms)
+    private long runStartTime;
+    
+    // MOEA/D引擎的并行度
+    private int engineParallelism = Runtime.getRuntime().availableProcessors();
+    
     /**
      * 构造函数
      * @param config 算法配置
@@ -56,17 +136,55 @@ public class NSGAIIMealPlanner {
      * @param userProfile 用户配置文件
      */
     public NSGAIIMealPlanner(NSGAIIConfiguration config, List<Food> foodDatabase, UserProfile userProfile) {
+        this(config, new MealMutation(foodDatabase), userProfile);
+    }
+    
+    /**
+     * 构造函数，使用共享的变异算子
+     * 变异算子只持有只读的食物索引，多个并发运行的规划器可共享同一个实例，食物数据库和索引只保存一份
+     * @param config 算法配置
+     * @param mutation 共享的变异算子（包含食物数据库）
+     * @param userProfile 用户配置文件
+     */
+    public NSGAIIMealPlanner(NSGAIIConfiguration config, MealMutation mutation, UserProfile userProfile) {
+        this(config, mutation, userProfile, null);
+    }
+    
+    /**
+     * 构造函数，使用共享的变异算子和用户档案上下文
+     * 评估器、营养素达成率范围和权重取自上下文，不再为每个规划器重新构建
+     * @param config 算法配置
+     * @param mutation 共享的变异算子（包含食物数据库）
+     * @param profileContext 共享的用户档案上下文
+     */
+    public NSGAIIMealPlanner(NSGAIIConfiguration config, MealMutation mutation, ProfileContext profileContext) {
+        this(config, mutation, profileContext.getUserProfile(), profileContext);
+    }
+    
+    private NSGAIIMealPlanner(NSGAIIConfiguration config, MealMutation mutation, UserProfile userProfile,
+                              ProfileContext profileContext) {
         this.config = config;
-        this.foodDatabase = foodDatabase;
+        this.foodDatabase = mutation.getFoodDatabase();
+        this.foodCategoryIndex = mutation.getFoodCategoryIndex();
         this.userProfile = userProfile;
-        this.objectiveEvaluator = new MultiObjectiveEvaluator(userProfile);
+        this.profileContext = profileContext;
         this.crossover = new MealCrossover(config.getCrossoverRate());
-        this.mutation = new MealMutation(config.getMutationRate(), foodDatabase);
+        this.mutation = mutation;
+        this.repair = new MealRepair(foodDatabase, config.getMinFoodsPerMeal());
         this.selection = new MealSelection();
         this.logger = new NSGAIILogger();
         
-        // 使用 NutrientType 中的方法获取营养素达成率
-        nutrientRates = NutrientType.getNutrientRates(userProfile);
+        if (profileContext != null) {
+            this.objectiveEvaluator = profileContext.getEvaluator(config.isConstraintDomination(), config.getObjectiveReduction());
+            nutrientRates = profileContext.getNutrientRates();
+            this.intakeOptimizer = new IntakeOptimizer(profileContext.getNutrientWeights(), config.getLocalSearchMaxIterations());
+        } else {
+            this.objectiveEvaluator = new MultiObjectiveEvaluator(userProfile, config.isConstraintDomination(),
+                    config.getObjectiveReduction());
+            // 使用 NutrientType 中的方法获取营养素达成率
+            nutrientRates = NutrientType.getNutrientRates(userProfile);
+            this.intakeOptimizer = new IntakeOptimizer(NutrientType.getNutrientWeights(userProfile), config.getLocalSearchMaxIterations());
+        }
     }
     
     
@@ -77,29 +195,404 @@ public class NSGAIIMealPlanner {
      * @return 最优的膳食方案列表（帕累托前沿）
      */
     public List<MealSolution> generateMeal(Map<NutrientType, Double> targetNutrientItems, boolean requireStaple) {
-        // 保存目标营养素，用于计算达成率
-        this.targetNutrients = targetNutrientItems;
+        return generateMeal(targetNutrientItems, requireStaple, null, null).getSolutions();
+    }
+    
+    /**
+     * 限时生成一餐的膳食方案（随时可返回模式）
+     * 在初始种群评估和子代生成期间，以及子代生成、非支配排序、环境选择各阶段之后检查截止时间和取消令牌，
+     * 到时或取消时立即返回截至当时最好的前沿（外部存档已包含被中断这一代中评估过的子代）。
+     * 至少评估一个初始解，因此即使预算极短也有结果可返回；单个阶段（如非支配排序）本身不可中断
+     * @param targetNutrientItems 目标营养素需求
+     * @param requireStaple 是否要求包含主食
+     * @param timeBudget 时间预算，为null时不限时
+     * @param cancellationToken 取消令牌，可为null
+     * @return 规划结果，包含方案、结束原因和是否收敛
+     */
+    public PlanningResult generateMeal(Map<NutrientType, Double> targetNutrientItems, boolean requireStaple,
+                                       Duration timeBudget, CancellationToken cancellationToken) {
+        long startTime = System.currentTimeMillis();
+        prepareRun(targetNutrientItems, requireStaple);
+        setInterruption(timeBudget, cancellationToken);
         
-        // // 设置变异器的营养素达成率范围，确保一致性
-        // mutation.setNutrientAchievementRateRange(minNutrientAchievementRate, maxNutrientAchievementRate);
+        // MOEA/D引擎独立完成进化，结果按相同方式筛选
+        if (config.getEngineType() == NSGAIIConfiguration.EngineType.MOEA_D) {
+            MOEADMealPlanner moead = profileContext != null
+                    ? new MOEADMealPlanner(config, mutation, profileContext)
+                    : new MOEADMealPlanner(config, mutation, userProfile);
+            moead.setParallelism(engineParallelism);
+            moead.setArchive(config.isArchiveEnabled() ? archive : null);
+            moead.setStopCondition(this::checkInterruption);
+            Population population = moead.evolve(this.targetNutrients, requireStaple);
+            if (stopReason == null) {
+                stopReason = moead.getStopReason();
+            }
+            completedGenerations = moead.getCompletedGenerations();
+            // 启用存档时前沿直接取自存档，不必对最终种群排序
+            if (!config.isArchiveEnabled() || archive.isEmpty()) {
+                NonDominatedSorting.sort(population);
+            }
+            List<MealSolution> paretoFront = getParetoFront(population);
+            saveSeeds(population, requireStaple);
+            logger.logFinalSolutions(paretoFront);
+            publishFinalSnapshot(completedGenerations, paretoFront);
+            return new PlanningResult(paretoFront, stopReason, completedGenerations, System.currentTimeMillis() - startTime);
+        }
         
-        // 设置变异器的营养素达成率范围映射
-        mutation.setNutrientAchievementRates(nutrientRates);
+        // 初始化种群
+        Population population = initializePopulation(this.targetNutrients, requireStaple);
         
-        // 将目标营养素传递给变异器，以便精确计算营养素达成率
-        mutation.setTargetNutrients(this.targetNutrients);
+        // 评估初始种群的目标值，到时或取消时只保留已评估的部分（至少一个）
+        List<MealSolution> initial = population.getSolutions();
+        int evaluated = 0;
+        while (evaluated < initial.size() && (evaluated == 0 || !checkInterruption())) {
+            MealSolution solution = initial.get(evaluated++);
+            solution.setObjectiveValues(objectiveEvaluator.evaluate(solution, this.targetNutrients));
+        }
+        if (evaluated < initial.size()) {
+            population = new Population(new ArrayList<>(initial.subList(0, evaluated)));
+        }
         
-        // 优先使用营养素敏感度分析变异策略
-        mutation.setMutationType(MutationType.NUTRIENT_SENSITIVITY);
-        // mutation.setMutationType(MutationType.COMPREHENSIVE);
+        population = evolve(population, config.getMaxGenerations(), requireStaple);
         
-        logger.startAlgorithm(config);
+        // 获取帕累托最优前沿
+        List<MealSolution> paretoFront = getParetoFront(population);
+        saveSeeds(population, requireStaple);
+        logger.info(repair.getStatistics());
+        if (config.getLocalSearchFraction() > 0) {
+            logger.info(intakeOptimizer.getStatistics());
+        }
+        if (isAdaptiveMutation()) {
+            logger.info(operatorSelector.getStatistics());
+        }
+        logger.logFinalSolutions(paretoFront);
+        publishFinalSnapshot(completedGenerations, paretoFront);
         
-        // 初始化种群
-        Population population = initializePopulation(this.targetNutrients, requireStaple);
+        PlanningResult result = new PlanningResult(paretoFront, stopReason, completedGenerations,
+                System.currentTimeMillis() - startTime);
+        if (result.isInterrupted()) {
+            logger.info("规划提前返回: " + result);
+        }
+        return result;
+    }
+    
+    /**
+     * 设置本次运行的截止时间和取消令牌
+     */
+    private void setInterruption(Duration timeBudget, CancellationToken cancellationToken) {
+        this.hasDeadline = timeBudget != null;
+        this.deadlineNanos = timeBudget != null ? System.nanoTime() + timeBudget.toNanos() : 0;
+        this.cancellationToken = cancellationToken;
+        this.stopReason = null;
+        this.completedGenerations = 0;
+        this.streamSubscribed = snapshotPublisher.hasSubscribers();
+        this.runStartTime = System.currentTimeMillis();
+    }
+    
+    /**
+     * 检查是否已取消或到达截止时间，是则记录结束原因
+     * @return 是否应当停止
+     */
+    private boolean checkInterruption() {
+        if (cancellationToken != null && cancellationToken.isCancelled()) {
+            stopReason = PlanningResult.StopReason.CANCELLED;
+            return true;
+        }
+        if (hasDeadline && System.nanoTime() - deadlineNanos >= 0) {
+            stopReason = PlanningResult.StopReason.DEADLINE;
+            return true;
+        }
+        if (streamSubscribed && !snapshotPublisher.hasSubscribers()) {
+            // 所有快照订阅方都已取消，视为调用方已满意
+            stopReason = PlanningResult.StopReason.CANCELLED;
+            return true;
+        }
+        return false;
+    }
+    
+    
+    
+    
+    /**
+     * 增量重规划：在上一次规划的前沿上应用用户修改，修复后以较小的种群和较少的代数继续进化
+     * 修改作为约束累积，之后再次调用replan时仍然有效，直到下一次generateMeal。
+     * 沿用上一次运行的目标营养素、主食要求和已同步到各算子的状态；
+     * 未被修改影响且目标未变的方案直接复用已有的目标值，不重新评估。
+     * 上一次运行的外部存档中的解也作为种子。无论配置的引擎类型，继续进化都使用NSGA-II/NSGA-III主循环
+     * @param previousFront 上一次规划返回的方案
+     * @param edit 用户修改
+     * @return 重规划后的膳食方案列表（帕累托前沿）
+     * @throws IllegalArgumentException 锁定的食物无法同时放入一餐（数量超过每餐食物数量上限，
+     *         或要求主食时锁定了多种主食）时拒绝该修改，已有的修改保持不变
+     */
+    public List<MealSolution> replan(List<MealSolution> previousFront, MealEdit edit) {
+        if (targetNutrients == null) {
+            throw new IllegalStateException("请先调用generateMeal完成一次规划");
+        }
+        if (previousFront == null || previousFront.isEmpty()) {
+            throw new IllegalArgumentException("上一次规划的方案不能为空");
+        }
+        if (edit == null) {
+            throw new IllegalArgumentException("修改不能为空");
+        }
+        checkLockCapacity(edit);
+        long startTime = System.currentTimeMillis();
         
-        // 评估初始种群的目标值
-        evaluatePopulation(population, this.targetNutrients);
+        // 种子：上一次的前沿和外部存档中的解
+        List<MealSolution> seeds = new ArrayList<>(previousFront);
+        if (archive != null && config.isArchiveEnabled()) {
+            for (MealSolution solution : archive.getSolutions()) {
+                if (!seeds.contains(solution)) {
+                    seeds.add(solution);
+                }
+            }
+        }
+        
+        Map<NutrientType, Double> newTargets = edit.applyToTargets(targetNutrients);
+        boolean targetsChanged = !newTargets.equals(targetNutrients);
+        prepareReplan(newTargets, edit);
+        
+        // 在种子上应用修改并修复，未受影响的方案复用目标值
+        List<MealSolution> solutions = new ArrayList<>();
+        int reused = 0;
+        for (MealSolution seed : seeds) {
+            if (solutions.size() >= populationSize) {
+                break;
+            }
+            MealSolution solution = seed.copy();
+            boolean changed = applyEdits(solution, requireStaple);
+            if (changed && !solution.isValid(requireStaple)) {
+                continue;
+            }
+            if (changed || targetsChanged || solution.getObjectiveValues().isEmpty()) {
+                solution.setObjectiveValues(objectiveEvaluator.evaluate(solution, targetNutrients));
+            } else {
+                reused++;
+            }
+            solutions.add(solution);
+        }
+        
+        // 用变异体补足种群，种子全部无法修复时随机生成
+        int attempts = 0;
+        while (solutions.size() < populationSize) {
+            MealSolution solution;
+            if (!solutions.isEmpty() && attempts++ < populationSize * 2) {
+                solution = solutions.get(ThreadLocalRandom.current().nextInt(solutions.size())).copy();
+                mutation.apply(solution, requireStaple, mutationContext);
+            } else {
+                solution = MealSolution.createRandom(foodCategoryIndex,
+                        config.getMinFoodsPerMeal(), config.getMaxFoodsPerMeal(), requireStaple);
+            }
+            if (!repair.repair(solution, requireStaple)) {
+                continue;
+            }
+            applyEdits(solution, requireStaple);
+            solution.setObjectiveValues(objectiveEvaluator.evaluate(solution, targetNutrients));
+            solutions.add(solution);
+        }
+        
+        Population population = evolve(new Population(solutions), config.getReplanGenerations(), requireStaple);
+        List<MealSolution> paretoFront = getParetoFront(population);
+        logger.info("增量重规划完成: " + edit + ", 复用评估=" + reused +
+                ", 耗时=" + (System.currentTimeMillis() - startTime) + "ms");
+        logger.logFinalSolutions(paretoFront);
+        publishFinalSnapshot(completedGenerations, paretoFront);
+        return paretoFront;
+    }
+    
+    /**
+     * 检查加入修改后锁定的食物能否同时放入一餐，否则拒绝该修改
+     * 同一食物的新修改覆盖旧修改；要求主食时最多锁定一种主食，未锁定主食时为主食预留一个位置
+     */
+    private void checkLockCapacity(MealEdit edit) {
+        if (edit.getType() != MealEdit.EditType.LOCK_FOOD) {
+            return;
+        }
+        int lockedStaples = 0;
+        int lockedCount = 0;
+        List<MealEdit> edits = new ArrayList<>(activeEdits);
+        edits.removeIf(existing -> existing.getFood().getName().equals(edit.getFood().getName()));
+        edits.add(edit);
+        for (MealEdit existing : edits) {
+            if (existing.getType() == MealEdit.EditType.LOCK_FOOD) {
+                lockedCount++;
+                if (FoodCategory.STAPLE.equals(existing.getFood().getCategory())) {
+                    lockedStaples++;
+                }
+            }
+        }
+        if (requireStaple && lockedStaples > 1) {
+            throw new IllegalArgumentException("要求主食时只能锁定一种主食: " + edit);
+        }
+        int required = lockedCount + (requireStaple && lockedStaples == 0 ? 1 : 0);
+        if (required > config.getMaxFoodsPerMeal()) {
+            throw new IllegalArgumentException("锁定的食物数量超过每餐食物数量上限" + config.getMaxFoodsPerMeal() + ": " + edit);
+        }
+    }
+    
+    /**
+     * 重规划前只同步变化的状态：累积修改、更新目标营养素、缩小种群并使用新的外部存档
+     */
+    private void prepareReplan(Map<NutrientType, Double> newTargets, MealEdit edit) {
+        if (edit.getType() != MealEdit.EditType.CHANGE_TARGETS) {
+            // 同一食物的新修改覆盖旧修改
+            activeEdits.removeIf(existing -> existing.getFood().getName().equals(edit.getFood().getName()));
+            activeEdits.add(edit);
+        }
+        if (!newTargets.equals(targetNutrients)) {
+            targetNutrients = newTargets;
+            mutationContext.setTargetNutrients(targetNutrients);
+            intakeOptimizer.setTargetNutrients(targetNutrients);
+        }
+        populationSize = config.getReplanPopulationSize();
+        setInterruption(null, null);
+        archive = new EpsilonParetoArchive(config.getArchiveEpsilon(), config.getArchiveCapacity());
+        hypervolumeHistory = new ArrayList<>();
+    }
+    
+    /**
+     * 应用累积的修改并修复；修复补充的食物可能违反修改，因此最多重复几轮
+     * @return 方案是否被修改
+     */
+    private boolean applyEdits(MealSolution solution, boolean requireStaple) {
+        boolean changed = false;
+        for (int round = 0; round < 3 && enforceEdits(solution, requireStaple); round++) {
+            repair.repair(solution, requireStaple);
+            changed = true;
+        }
+        return changed;
+    }
+    
+    /**
+     * 使方案满足累积的锁定和移除约束
+     * @return 方案是否被修改
+     */
+    private boolean enforceEdits(MealSolution solution, boolean requireStaple) {
+        boolean changed = false;
+        for (MealEdit edit : activeEdits) {
+            if (edit.isSatisfiedBy(solution)) {
+                continue;
+            }
+            if (edit.getType() == MealEdit.EditType.LOCK_FOOD) {
+                if (!lockFood(solution, edit.getFood(), requireStaple)) {
+                    logger.warning("无法在不超过食物数量上限的情况下加入锁定的食物: " + edit);
+                    continue;
+                }
+            } else {
+                removeFood(solution, edit.getFood());
+            }
+            changed = true;
+        }
+        return changed;
+    }
+    
+    /**
+     * 加入锁定的食物：要求主食且锁定的是主食时替换原主食；食物数量已达上限时替换一个未锁定的食物
+     * （优先替换非主食，要求主食时不替换主食），因此加入后不会超过每餐食物数量上限
+     * @return 是否加入成功；所有食物都已锁定、没有可替换的位置时返回false，方案不变
+     */
+    private boolean lockFood(MealSolution solution, Food food, boolean requireStaple) {
+        List<FoodGene> genes = new ArrayList<>(solution.getFoodGenes());
+        IntakeRange range = food.getRecommendedIntakeRange();
+        FoodGene locked = new FoodGene(food, Math.round((range.getMinIntake() + range.getMaxIntake()) / 2));
+        boolean staple = FoodCategory.STAPLE.equals(food.getCategory());
+        
+        int replaceIndex = -1;
+        if (requireStaple && staple) {
+            for (int i = 0; i < genes.size(); i++) {
+                if (FoodCategory.STAPLE.equals(genes.get(i).getFood().getCategory())) {
+                    replaceIndex = i;
+                    break;
+                }
+            }
+        }
+        if (replaceIndex < 0 && genes.size() >= config.getMaxFoodsPerMeal()) {
+            List<Integer> replaceable = new ArrayList<>();
+            List<Integer> replaceableStaples = new ArrayList<>();
+            for (int i = 0; i < genes.size(); i++) {
+                Food existing = genes.get(i).getFood();
+                if (isLocked(existing)) {
+                    continue;
+                }
+                if (FoodCategory.STAPLE.equals(existing.getCategory())) {
+                    replaceableStaples.add(i);
+                } else {
+                    replaceable.add(i);
+                }
+            }
+            if (replaceable.isEmpty() && !requireStaple) {
+                replaceable = replaceableStaples;
+            }
+            if (replaceable.isEmpty()) {
+                return false;
+            }
+            replaceIndex = replaceable.get(ThreadLocalRandom.current().nextInt(replaceable.size()));
+        }
+        
+        if (replaceIndex >= 0) {
+            genes.set(replaceIndex, locked);
+        } else {
+            genes.add(locked);
+        }
+        solution.setFoodGenes(genes);
+        return true;
+    }
+    
+    /**
+     * 移除食物：用营养相近、未被移除的同类食物替换，没有替代食物时直接删除（之后由修复补足）
+     */
+    private void removeFood(MealSolution solution, Food food) {
+        List<FoodGene> genes = solution.getFoodGenes();
+        for (int i = genes.size() - 1; i >= 0; i--) {
+            FoodGene gene = genes.get(i);
+            if (!gene.getFood().getName().equals(food.getName())) {
+                continue;
+            }
+            Food substitute = null;
+            for (Food candidate : mutation.suggestSubstitutes(solution, i, 5, mutationContext)) {
+                if (!isRemoved(candidate)) {
+                    substitute = candidate;
+                    break;
+                }
+            }
+            List<FoodGene> updated = new ArrayList<>(genes);
+            if (substitute != null) {
+                IntakeRange range = substitute.getRecommendedIntakeRange();
+                updated.set(i, new FoodGene(substitute, range.adjustToRange(gene.getIntake())));
+            } else {
+                updated.remove(i);
+            }
+            solution.setFoodGenes(updated);
+            genes = solution.getFoodGenes();
+        }
+    }
+    
+    private boolean isLocked(Food food) {
+        return hasEdit(MealEdit.EditType.LOCK_FOOD, food);
+    }
+    
+    private boolean isRemoved(Food food) {
+        return hasEdit(MealEdit.EditType.REMOVE_FOOD, food);
+    }
+    
+    private boolean hasEdit(MealEdit.EditType type, Food food) {
+        for (MealEdit edit : activeEdits) {
+            if (edit.getType() == type && edit.getFood().getName().equals(food.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 对已评估的初始种群执行NSGA-II/NSGA-III主循环
+     * @param population 已评估的初始种群
+     * @param maxGenerations 最大代数
+     * @param requireStaple 是否要求包含主食
+     * @return 最终种群
+     */
+    private Population evolve(Population population, int maxGenerations, boolean requireStaple) {
+        offerToArchive(population);
         
         // 对初始种群进行非支配排序和拥挤度计算
         NonDominatedSorting.sort(population);
@@ -108,11 +601,17 @@ public class NSGAIIMealPlanner {
         logger.logInitialPopulation(population);
         
         // 主循环：进化过程
-        for (int generation = 0; generation < config.getMaxGenerations(); generation++) {
+        for (int generation = 0; generation < maxGenerations; generation++) {
             logger.startGeneration(generation);
             
             // 1. 创建子代种群
             Population offspringPopulation = createOffspringPopulation(population, this.targetNutrients, requireStaple);
+            offerToArchive(offspringPopulation);
+            
+            // 到时或取消时保留当前种群，已评估的子代已进入外部存档
+            if (checkInterruption()) {
+                break;
+            }
             
             // 2. 合并父代和子代
             Population combinedPopulation = Population.merge(population, offspringPopulation);
@@ -120,41 +619,235 @@ public class NSGAIIMealPlanner {
             // 3. 对合并后的种群进行非支配排序
             NonDominatedSorting.sort(combinedPopulation);
             
+            // 到时或取消时跳过环境选择，合并种群的排名已经正确，直接从中读取前沿
+            if (checkInterruption()) {
+                population = combinedPopulation;
+                break;
+            }
+            
+            // 根据子代的排序结果为各变异算子分配信用
+            if (isAdaptiveMutation()) {
+                operatorSelector.assignCredits();
+            }
+            
             // 4. 计算拥挤度
             CrowdingDistanceCalculator.calculate(combinedPopulation);
             
             // 5. 选择下一代种群
             population = selectNextGeneration(combinedPopulation);
             
+            completedGenerations++;
+            
             // 记录当前代的信息
             logGenerationInfo(generation, population);
             
             // 检查是否满足提前终止条件
-            if (checkTerminationCriteria(population, generation)) {
+            PlanningResult.StopReason reason = checkTerminationCriteria(population, generation, maxGenerations);
+            if (reason != null) {
+                stopReason = reason;
                 logger.logEarlyTermination(generation);
                 break;
             }
+            if (checkInterruption()) {
+                break;
+            }
         }
         
-        // 获取帕累托最优前沿
-        List<MealSolution> paretoFront = getParetoFront(population);
-        logger.logFinalSolutions(paretoFront);
+        if (stopReason == null) {
+            stopReason = PlanningResult.StopReason.MAX_GENERATIONS;
+        }
+        return population;
+    }
+    
+    /**
+     * 生成一餐的单个膳食方案（标量化快速模式）
+     * 直接以加权平均目标评分（与帕累托前沿中选取方案的依据相同）为适应度，
+     * 使用(μ+λ)进化策略：μ=λ=种群大小，父代按评分锦标赛选择，父代与子代合并后保留评分最高的μ个，
+     * 不执行非支配排序和拥挤度计算。交叉、变异、修复、局部优化和评估与多目标模式相同。
+     * 约束违反程度小的方案总是优先；最优方案连续若干代没有改进时提前结束
+     * @param targetNutrientItems 目标营养素需求
+     * @param requireStaple 是否要求包含主食
+     * @return 评分最高的膳食方案
+     */
+    public MealSolution generateSingleMeal(Map<NutrientType, Double> targetNutrientItems, boolean requireStaple) {
+        long startTime = System.currentTimeMillis();
+        prepareRun(targetNutrientItems, requireStaple);
+        Comparator<MealSolution> order = scalarOrder();
         
-        return paretoFront;
+        Population population = initializePopulation(this.targetNutrients, requireStaple);
+        evaluatePopulation(population, this.targetNutrients);
+        population.getSolutions().sort(order);
+        
+        MealSolution best = population.getSolutions().get(0);
+        double bestScore = calculateAverageObjectiveScore(best);
+        int generationsWithoutImprovement = 0;
+        int generation = 0;
+        
+        for (; generation < config.getMaxGenerations(); generation++) {
+            final Population parents = population;
+            Population offspringPopulation = createOffspringPopulation(parents,
+                    p -> Arrays.asList(scalarTournament(p, order), scalarTournament(p, order)),
+                    this.targetNutrients, requireStaple);
+            
+            // (μ+λ)截断选择
+            List<MealSolution> combined = new ArrayList<>(population.getSolutions());
+            combined.addAll(offspringPopulation.getSolutions());
+            combined.sort(order);
+            List<MealSolution> survivors = new ArrayList<>(combined.subList(0, populationSize));
+            
+            // 进入下一代的方案视为第一层，供自适应变异按FRONT_ENTRY分配信用
+            for (int i = 0; i < combined.size(); i++) {
+                combined.get(i).setRank(i < survivors.size() ? 1 : 2);
+            }
+            if (isAdaptiveMutation()) {
+                operatorSelector.assignCredits();
+            }
+            population = new Population(survivors);
+            
+            MealSolution generationBest = survivors.get(0);
+            if (order.compare(generationBest, best) < 0) {
+                best = generationBest;
+                bestScore = calculateAverageObjectiveScore(best);
+                generationsWithoutImprovement = 0;
+            } else {
+                generationsWithoutImprovement++;
+            }
+            
+            if (generationsWithoutImprovement >= config.getMaxGenerationsWithoutImprovement()) {
+                logger.logEarlyTermination(generation);
+                break;
+            }
+        }
+        
+        logger.info(repair.getStatistics());
+        if (config.getLocalSearchFraction() > 0) {
+            logger.info(intakeOptimizer.getStatistics());
+        }
+        if (isAdaptiveMutation()) {
+            logger.info(operatorSelector.getStatistics());
+        }
+        logger.info("单目标模式完成: 代数=" + Math.min(generation + 1, config.getMaxGenerations()) +
+                ", 最高评分=" + String.format("%.4f", bestScore) +
+                ", 耗时=" + (System.currentTimeMillis() - startTime) + "ms");
+        logger.logSolution(best);
+        
+        return best;
     }
     
+    /**
+     * 标量化模式的排序：约束违反程度小者在前，其次按加权平均目标评分降序
+     */
+    private Comparator<MealSolution> scalarOrder() {
+        return Comparator.comparingDouble(MealSolution::getConstraintViolation)
+                .thenComparing(Comparator.comparingDouble(this::calculateAverageObjectiveScore).reversed());
+    }
     
+    /**
+     * 按标量化排序进行锦标赛选择
+     */
+    private MealSolution scalarTournament(Population population, Comparator<MealSolution> order) {
+        List<MealSolution> solutions = population.getSolutions();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        MealSolution winner = solutions.get(random.nextInt(solutions.size()));
+        for (int i = 1; i < config.getTournamentSize(); i++) {
+            MealSolution challenger = solutions.get(random.nextInt(solutions.size()));
+            if (order.compare(challenger, winner) < 0) {
+                winner = challenger;
+            }
+        }
+        return winner;
+    }
     
+    /**
+     * 每次运行前同步目标营养素和配置到各算子，并重置统计信息
+     */
+    private void prepareRun(Map<NutrientType, Double> targetNutrientItems, boolean requireStaple) {
+        // 保存目标营养素，用于计算达成率
+        this.targetNutrients = targetNutrientItems;
+        this.requireStaple = requireStaple;
+        this.populationSize = config.getPopulationSize();
+        activeEdits.clear();
+        setInterruption(null, null);
+        
+        // 变异上下文：目标营养素和达成率范围用于精确计算营养素达成率，变异策略由配置决定
+        mutationContext = new MutationContext(this.targetNutrients, nutrientRates,
+                config.getMutationType(), config.getMutationRate(), operatorSelector);
+        
+        // 交叉方式由配置决定
+        crossover.setCrossoverType(config.getCrossoverType());
+        
+        operatorSelector.setStrategy(config.getOperatorSelectionStrategy());
+        operatorSelector.setCreditAssignment(config.getOperatorCreditAssignment());
+        operatorSelector.reset();
+        
+        logger.startAlgorithm(config);
+        repair.setMinFoodsPerMeal(config.getMinFoodsPerMeal());
+        // 评估器不可修改，配置变化时按当前配置取得（或创建）对应的评估器
+        if (profileContext != null) {
+            objectiveEvaluator = profileContext.getEvaluator(config.isConstraintDomination(), config.getObjectiveReduction());
+        } else if (!objectiveEvaluator.matches(config.isConstraintDomination(), config.getObjectiveReduction())) {
+            objectiveEvaluator = new MultiObjectiveEvaluator(userProfile, config.isConstraintDomination(),
+                    config.getObjectiveReduction());
+        }
+        repair.resetStatistics();
+        intakeOptimizer.setTargetNutrients(this.targetNutrients);
+        intakeOptimizer.setNutrientRates(nutrientRates);
+        intakeOptimizer.setMaxIterations(config.getLocalSearchMaxIterations());
+        intakeOptimizer.resetStatistics();
+        
+        // 每次运行使用新的外部存档
+        archive = new EpsilonParetoArchive(config.getArchiveEpsilon(), config.getArchiveCapacity());
+        hypervolumeHistory = new ArrayList<>();
+    }
+    
+    /**
+     * 把已评估的解提交到外部存档
+     */
+    private void offerToArchive(Population population) {
+        if (config.isArchiveEnabled()) {
+            archive.offerAll(population.getSolutions());
+        }
+    }
+    
+    /**
+     * 获取最近一次运行的外部存档
+     * @return ε-支配外部存档
+     */
+    public EpsilonParetoArchive getArchive() {
+        return archive;
+    }
+    
+    /**
+     * 获取最近一次运行中按间隔记录的第一前沿超体积
+     * @return 超体积列表（indicatorInterval为0时为空）
+     */
+    public List<Double> getHypervolumeHistory() {
+        return hypervolumeHistory;
+    }
+    
+    /**
+     * 设置热启动种子库
+     * 设置后初始种群先注入种子库中相同签名的前沿及其变异体（最多占warmStartFraction），再随机补足；
+     * generateMeal结束时把非支配解按平均目标评分降序写回种子库
+     * @param seedStore 种子库，为null时关闭热启动
+     */
+    public void setSeedStore(SeedStore seedStore) {
+        this.seedStore = seedStore;
+    }
+    
+    public SeedStore getSeedStore() {
+        return seedStore;
+    }
     
     /**
      * 初始化种群
      */
     private Population initializePopulation(Map<NutrientType, Double> targetNutrients, boolean requireStaple) {
-        List<MealSolution> solutions = new ArrayList<>();
+        List<MealSolution> solutions = seedPopulation(targetNutrients, requireStaple);
         
-        for (int i = 0; i < config.getPopulationSize(); i++) {
+        while (solutions.size() < populationSize) {
             MealSolution solution = MealSolution.createRandom(
-                    foodDatabase, 
+                    foodCategoryIndex, 
                     config.getMinFoodsPerMeal(), 
                     config.getMaxFoodsPerMeal(),
                     requireStaple
@@ -165,6 +858,81 @@ public class NSGAIIMealPlanner {
         return new Population(solutions);
     }
     
+    /**
+     * 从种子库生成初始种群的种子：先加入已保存的方案，再以随机种子的变异体补足到热启动比例
+     * 食物不在当前数据库中或无法修复的方案被跳过
+     */
+    private List<MealSolution> seedPopulation(Map<NutrientType, Double> targetNutrients, boolean requireStaple) {
+        List<MealSolution> solutions = new ArrayList<>();
+        int limit = (int) Math.round(populationSize * config.getWarmStartFraction());
+        if (seedStore == null || limit == 0) {
+            return solutions;
+        }
+        
+        List<MealSolution> seeds = new ArrayList<>();
+        for (Map<String, Double> stored : seedStore.get(SeedStore.signature(userProfile, targetNutrients, requireStaple))) {
+            MealSolution seed = restoreSeed(stored);
+            if (seed != null && repair.repair(seed, requireStaple)) {
+                seeds.add(seed);
+            }
+        }
+        if (seeds.isEmpty()) {
+            return solutions;
+        }
+        
+        for (MealSolution seed : seeds) {
+            if (solutions.size() >= limit) {
+                break;
+            }
+            solutions.add(seed);
+        }
+        int attempts = 0;
+        while (solutions.size() < limit && attempts++ < limit * 2) {
+            MealSolution variant = seeds.get(ThreadLocalRandom.current().nextInt(seeds.size())).copy();
+            mutation.apply(variant, requireStaple, mutationContext);
+            if (repair.repair(variant, requireStaple)) {
+                solutions.add(variant);
+            }
+        }
+        logger.info("热启动: 种子库方案=" + seeds.size() + ", 注入初始种群=" + solutions.size());
+        return solutions;
+    }
+    
+    private MealSolution restoreSeed(Map<String, Double> stored) {
+        if (foodsByName == null) {
+            foodsByName = new HashMap<>();
+            for (Food food : foodDatabase) {
+                foodsByName.putIfAbsent(food.getName(), food);
+            }
+        }
+        List<FoodGene> genes = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : stored.entrySet()) {
+            Food food = foodsByName.get(entry.getKey());
+            if (food == null) {
+                return null;
+            }
+            genes.add(new FoodGene(food, entry.getValue()));
+        }
+        return new MealSolution(genes);
+    }
+    
+    /**
+     * 把本次运行的非支配解写入种子库
+     */
+    private void saveSeeds(Population population, boolean requireStaple) {
+        if (seedStore == null) {
+            return;
+        }
+        List<MealSolution> front = getNondominatedSolutions(population).stream()
+                .sorted(Comparator.<MealSolution, Double>comparing(this::calculateAverageObjectiveScore).reversed())
+                .collect(Collectors.toList());
+        try {
+            seedStore.put(SeedStore.signature(userProfile, targetNutrients, requireStaple), front);
+        } catch (IOException e) {
+            logger.warning("保存热启动种子失败: " + e.getMessage());
+        }
+    }
+    
     /**
      * 评估种群中所有解决方案的目标值
      */
@@ -179,11 +947,21 @@ public class NSGAIIMealPlanner {
      * 创建子代种群
      */
     private Population createOffspringPopulation(Population parentPopulation, Map<NutrientType, Double> targetNutrients, boolean requireStaple) {
+        return createOffspringPopulation(parentPopulation, p -> selection.select(p, 2), targetNutrients, requireStaple);
+    }
+    
+    /**
+     * 使用指定的父代选择方式创建子代种群
+     * @param parentSelector 从父代种群中选出两个父代
+     */
+    private Population createOffspringPopulation(Population parentPopulation,
+                                                 Function<Population, List<MealSolution>> parentSelector,
+                                                 Map<NutrientType, Double> targetNutrients, boolean requireStaple) {
         List<MealSolution> offspring = new ArrayList<>();
         
-        while (offspring.size() < config.getPopulationSize()) {
-            // 基于锦标赛选择父代
-            List<MealSolution> parents = selection.select(parentPopulation, 2);
+        while (offspring.size() < populationSize && !checkInterruption()) {
+            // 选择父代
+            List<MealSolution> parents = parentSelector.apply(parentPopulation);
             
             // 应用交叉
             List<MealSolution> children = crossover.apply(parents.get(0), parents.get(1));
@@ -191,26 +969,41 @@ public class NSGAIIMealPlanner {
             // 应用变异
             for (MealSolution child : children) {
                 // 使用目标热量进行变异
-                mutation.apply(child, requireStaple, targetNutrients.get(NutrientType.CALORIES));
+                mutation.apply(child, requireStaple, mutationContext);
+                MutationType appliedType = mutationContext.getLastAppliedType();
                 
-                // 确保解的有效性
-                while (!child.isValid(requireStaple)) {
+                // 修复无效子代，保留其继承的基因；仅在数据库无法满足约束时才重新随机生成
+                if (!repair.repair(child, requireStaple)) {
                     child = MealSolution.createRandom(
-                            foodDatabase,
+                            foodCategoryIndex,
                             config.getMinFoodsPerMeal(),
                             config.getMaxFoodsPerMeal(),
                             requireStaple
                     );
+                    appliedType = null;
+                }
+                
+                // 增量重规划时保证子代满足用户的锁定和移除约束
+                applyEdits(child, requireStaple);
+                
+                // 对部分子代执行摄入量局部优化（文化基因算法）
+                if (ThreadLocalRandom.current().nextDouble() < config.getLocalSearchFraction()) {
+                    intakeOptimizer.optimize(child);
                 }
                 
                 // 评估子代的目标值
                 List<ObjectiveValue> objectiveValues = objectiveEvaluator.evaluate(child, targetNutrients);
                 child.setObjectiveValues(objectiveValues);
                 
+                // 自适应变异时记录子代由哪个算子产生，合并种群排序后再分配信用
+                if (appliedType != null && isAdaptiveMutation()) {
+                    operatorSelector.track(child, appliedType, parents);
+                }
+                
                 offspring.add(child);
                 
                 // 如果已经达到所需的子代数量，则退出
-                if (offspring.size() >= config.getPopulationSize()) {
+                if (offspring.size() >= populationSize) {
                     break;
                 }
             }
@@ -219,15 +1012,59 @@ public class NSGAIIMealPlanner {
         return new Population(offspring);
     }
     
+    /**
+     * 是否使用自适应变异算子选择
+     */
+    private boolean isAdaptiveMutation() {
+        return mutationContext.getMutationType() == MutationType.ADAPTIVE;
+    }
+    
+    /**
+     * 获取自适应变异算子选择器，用于监控各算子的选择次数和信用统计
+     * @return 自适应算子选择器
+     */
+    public AdaptiveOperatorSelector getOperatorSelector() {
+        return operatorSelector;
+    }
+    
+    /**
+     * 设置MOEA/D引擎的并行度，默认为CPU核数
+     * 批量规划时每个任务已占用一个线程，设为1可避免嵌套并行
+     * @param engineParallelism 并行度
+     */
+    public void setEngineParallelism(int engineParallelism) {
+        if (engineParallelism <= 0) {
+            throw new IllegalArgumentException("并行度必须为正整数");
+        }
+        this.engineParallelism = engineParallelism;
+    }
+    
+    public int getEngineParallelism() {
+        return engineParallelism;
+    }
+    
+    /**
+     * 获取变异算子，可传给其他规划器共享
+     * @return 变异算子
+     */
+    public MealMutation getMutation() {
+        return mutation;
+    }
+    
     /**
      * 选择下一代种群
      */
     private Population selectNextGeneration(Population combinedPopulation) {
+        if (config.getEngineType() == NSGAIIConfiguration.EngineType.NSGA_III) {
+            return new Population(getReferencePointSelection().select(
+                    combinedPopulation.getSolutions(), populationSize));
+        }
+        
         List<MealSolution> nextGeneration = new ArrayList<>();
         int currentRank = 1;
         
         // 按非支配排名逐层添加解决方案
-        while (nextGeneration.size() < config.getPopulationSize()) {
+        while (nextGeneration.size() < populationSize) {
             // 创建currentRank的final副本
             final int rankForFilter = currentRank;
             
@@ -241,12 +1078,12 @@ public class NSGAIIMealPlanner {
             }
             
             // 如果添加当前层级的所有解决方案会超出种群大小
-            if (nextGeneration.size() + currentFront.size() > config.getPopulationSize()) {
+            if (nextGeneration.size() + currentFront.size() > populationSize) {
                 // 按拥挤度降序排序
                 currentFront.sort(Comparator.comparing(MealSolution::getCrowdingDistance).reversed());
                 
                 // 只添加所需数量的解决方案
-                int remainingSlots = config.getPopulationSize() - nextGeneration.size();
+                int remainingSlots = populationSize - nextGeneration.size();
                 nextGeneration.addAll(currentFront.subList(0, remainingSlots));
             } else {
                 // 添加当前层级的所有解决方案
@@ -259,13 +1096,26 @@ public class NSGAIIMealPlanner {
         return new Population(nextGeneration);
     }
     
+    /**
+     * 获取NSGA-III参考点选择器，配置的划分数变化时重新创建
+     */
+    private ReferencePointSelection getReferencePointSelection() {
+        if (referencePointSelection == null
+                || referencePointSelection.getOuterDivisions() != config.getReferencePointDivisions()
+                || referencePointSelection.getInnerDivisions() != config.getInnerReferencePointDivisions()) {
+            referencePointSelection = new ReferencePointSelection(
+                    config.getReferencePointDivisions(), config.getInnerReferencePointDivisions());
+        }
+        return referencePointSelection;
+    }
+    
     /**
      * 检查终止条件
      */
-    private boolean checkTerminationCriteria(Population population, int currentGeneration) {
+    private PlanningResult.StopReason checkTerminationCriteria(Population population, int currentGeneration, int maxGenerations) {
         // 1. 检查是否达到最大代数
-        if (currentGeneration >= config.getMaxGenerations() - 1) {
-            return true;
+        if (currentGeneration >= maxGenerations - 1) {
+            return PlanningResult.StopReason.MAX_GENERATIONS;
         }
         
         // 2. 检查是否找到足够好的解决方案
@@ -279,24 +1129,24 @@ public class NSGAIIMealPlanner {
                     .allMatch(s -> objectiveEvaluator.isSolutionGoodEnough(s));
             
             if (allGoodEnough) {
-                return true;
+                return PlanningResult.StopReason.CONVERGED;
             }
         }
         
         // 3. 检查种群多样性是否降低
         // 这里可以添加更复杂的终止条件
         
-        return false;
+        return null;
     }
     
     /**
      * 获取帕累托最优前沿
      */
     private List<MealSolution> getParetoFront(Population population) {
-        // 先获取非支配排名为1的解决方案
-        List<MealSolution> allParetoFront = population.getSolutions().stream()
-                .filter(s -> s.getRank() == 1)
-                .collect(Collectors.toList());
+        List<MealSolution> allParetoFront = getNondominatedSolutions(population);
+        if (config.isArchiveEnabled() && !archive.isEmpty()) {
+            logger.info(archive.getStatistics());
+        }
         
         logger.info("原始帕累托前沿解决方案数量: " + allParetoFront.size());
         
@@ -342,32 +1192,27 @@ public class NSGAIIMealPlanner {
         return filteredSolutions;
     }
     
+    /**
+     * 启用外部存档时从存档读取，否则获取最终种群中非支配排名为1的解决方案
+     */
+    private List<MealSolution> getNondominatedSolutions(Population population) {
+        if (config.isArchiveEnabled() && !archive.isEmpty()) {
+            return archive.getSolutions();
+        }
+        return population.getSolutions().stream()
+                .filter(s -> s.getRank() == 1)
+                .collect(Collectors.toList());
+    }
+    
     /**
      * 检查解决方案是否满足所有营养素的达成率要求
+     * 与搜索中约束支配使用的约束违反程度采用同一定义，按当前目标重新计算（目标可能在重规划中调整）
      * @param solution 解决方案
      * @param targetNutrients 目标营养素
      * @return 是否满足要求
      */
     private boolean checkAllNutrientsAchievement(MealSolution solution, Map<NutrientType, Double> targetNutrients) {
-        Map<NutrientType, Double> actualNutrients = solution.calculateTotalNutrients();
-        // 遍历所有营养素类型进行检查
-        for (NutrientType nutrientType : NutrientType.values()) {
-            Double targetValue = targetNutrients.get(nutrientType);
-            Double actualValue = actualNutrients.get(nutrientType);
-            
-            // 如果目标值存在且大于0,则进行检查
-            if (targetValue != null && targetValue > 0) {
-                double ratio = actualValue / targetValue;
-                double[] range = nutrientRates.get(nutrientType);
-                
-                // 如果比率不在允许范围内,返回false
-                if (ratio < range[0] || ratio > range[1]) {
-                    return false;
-                }
-            }
-        }
-        
-        return true;
+        return objectiveEvaluator.calculateConstraintViolation(solution, targetNutrients) <= 0;
     }
     
     
@@ -451,6 +1296,13 @@ public class NSGAIIMealPlanner {
     }
     
 
+    /**
+     * 获取日志记录器，可用于调整日志级别
+     */
+    public NSGAIILogger getLogger() {
+        return logger;
+    }
+    
     /**
      * 获取用户个人信息
      */
@@ -468,5 +1320,73 @@ public class NSGAIIMealPlanner {
                 .collect(Collectors.toList());
         
         logger.logGeneration(generation, population, firstFront);
+        
+        double hypervolume = Double.NaN;
+        int interval = config.getIndicatorInterval();
+        if (interval > 0 && (generation + 1) % interval == 0) {
+            hypervolume = QualityIndicators.hypervolume(firstFront);
+            hypervolumeHistory.add(hypervolume);
+            logger.info(String.format("第%d代第一前沿超体积: %.6f", generation + 1, hypervolume));
+        }
+        
+        if (snapshotPublisher.hasSubscribers()) {
+            snapshotPublisher.offer(createSnapshot(generation + 1, firstFront, hypervolume, false), this::dropSnapshot);
+        }
+    }
+    
+    /**
+     * 获取每代快照的发布者
+     * 每完成一代发布一次第一前沿的紧凑副本；每次规划结束时发布 {@link GenerationSnapshot#isFinal()} 为true的快照，
+     * 其中为本次返回的方案。快照在公共ForkJoinPool中异步投递，订阅方按request(n)控制流量，
+     * 缓冲区满时该订阅方的快照被丢弃，进化循环不会等待。
+     * 规划开始时已有订阅方、且之后全部订阅方取消订阅时，规划以CANCELLED提前结束。
+     * 一个规划器可多次规划，每次结束只发布最终快照；{@link #close()} 时订阅方收到onComplete
+     * @return 快照发布者
+     */
+    public Flow.Publisher<GenerationSnapshot> getSnapshotPublisher() {
+        return snapshotPublisher;
+    }
+    
+    /**
+     * 关闭快照发布者，已投递的快照仍会送达，随后订阅方收到onComplete；之后的订阅立即完成。
+     * 规划进行中关闭时，规划以CANCELLED提前结束
+     */
+    @Override
+    public void close() {
+        snapshotPublisher.close();
+    }
+    
+    /**
+     * 获取因订阅方缓冲区已满而被丢弃的快照数量
+     * @return 丢弃数量
+     */
+    public long getDroppedSnapshotCount() {
+        return droppedSnapshots.get();
+    }
+    
+    /**
+     * 发布最终快照
+     */
+    private void publishFinalSnapshot(int generation, List<MealSolution> solutions) {
+        if (snapshotPublisher.hasSubscribers()) {
+            snapshotPublisher.offer(createSnapshot(generation, solutions, Double.NaN, true), this::dropSnapshot);
+        }
+    }
+    
+    private GenerationSnapshot createSnapshot(int generation, List<MealSolution> front, double hypervolume, boolean last) {
+        List<GenerationSnapshot.SolutionSnapshot> copies = new ArrayList<>(front.size());
+        double bestScore = 0;
+        for (MealSolution solution : front) {
+            double score = calculateAverageObjectiveScore(solution);
+            bestScore = Math.max(bestScore, score);
+            copies.add(new GenerationSnapshot.SolutionSnapshot(solution, score));
+        }
+        return new GenerationSnapshot(generation, copies, bestScore, hypervolume,
+                System.currentTimeMillis() - runStartTime, last, last ? stopReason : null);
+    }
+    
+    private boolean dropSnapshot(Flow.Subscriber<? super GenerationSnapshot> subscriber, GenerationSnapshot snapshot) {
+        droppedSnapshots.incrementAndGet();
+        return false;
     }
 } 
\ No newline at end of file
@@ -104,25 +104,11 @@ public class NonDominatedSorting {
             return false;
         }
         
-        if (solution1.getObjectiveValues().size() != solution2.getObjectiveValues().size()) {
+        if (solution1.getRankingObjectiveValues().size() != solution2.getRankingObjectiveValues().size()) {
             throw new IllegalArgumentException("解决方案的目标值数量不一致");
         }
         
-        boolean atLeastOneBetter = false;
-        
-        for (int i = 0; i < solution1.getObjectiveValues().size(); i++) {
-            double value1 = solution1.getObjectiveValue(i).getValue();
-            double value2 = solution2.getObjectiveValue(i).getValue();
-            
-            if (value1 < value2) {
-                return false; // solution1在一个目标上更差
-            }
-            
-            if (value1 > value2) {
-                atLeastOneBetter = true; // solution1在至少一个目标上更好
-            }
-        }
-        
-        return atLeastOneBetter;
+        // 约束支配规则与MealSolution.dominates保持一致
+        return solution1.dominates(solution2);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,90 @@
+package com.mealplanner.genetic.algorithm;
+
+import java.time.Duration;
+import java.util.Map;
+
+import com.mealplanner.genetic.util.CancellationToken;
+import com.mealplanner.genetic.util.NSGAIIConfiguration;
+import com.mealplanner.model.NutrientType;
+import com.mealplanner.model.UserProfile;
+
+/**
+ * 一次异步规划请求
+ * 用户档案和目标营养素必填；配置为null时使用异步规划器的默认配置，
+ * 时间预算和取消令牌可选，含义与 {@link NSGAIIMealPlanner#generateMeal(Map, boolean, Duration, CancellationToken)} 相同
+ */
+public class PlanningRequest {
+    // 用户档案
+    private final UserProfile userProfile;
+
+    // 目标营养素
+    private final Map<NutrientType, Double> targetNutrients;
+
+    // 是否要求包含主食
+    private boolean requireStaple = true;
+
+    // 算法配置（可为null）
+    private NSGAIIConfiguration config;
+
+    // 时间预算（可为null）
+    private Duration timeBudget;
+
+    // 取消令牌（可为null）
+    private CancellationToken cancellationToken;
+
+    /**
+     * 构造函数
+     * @param userProfile 用户档案
+     * @param targetNutrients 目标营养素
+     */
+    public PlanningRequest(UserProfile userProfile, Map<NutrientType, Double> targetNutrients) {
+        if (userProfile == null) {
+            throw new IllegalArgumentException("用户档案不能为空");
+        }
+        if (targetNutrients == null || targetNutrients.isEmpty()) {
+            throw new IllegalArgumentException("目标营养素不能为空");
+        }
+        this.userProfile = userProfile;
+        this.targetNutrients = targetNutrients;
+    }
+
+    public UserProfile getUserProfile() {
+        return userProfile;
+    }
+
+    public Map<NutrientType, Double> getTargetNutrients() {
+        return targetNutrients;
+    }
+
+    public boolean isRequireStaple() {
+        return requireStaple;
+    }
+
+    public void setRequireStaple(boolean requireStaple) {
+        this.requireStaple = requireStaple;
+    }
+
+    public NSGAIIConfiguration getConfig() {
+        return config;
+    }
+
+    public void setConfig(NSGAIIConfiguration config) {
+        this.config = config;
+    }
+
+    public Duration getTimeBudget() {
+        return timeBudget;
+    }
+
+    public void setTimeBudget(Duration timeBudget) {
+        this.timeBudget = timeBudget;
+    }
+
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    public void setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+}
@@ -0,0 +1,89 @@
+package com.mealplanner.genetic.algorithm;
+
+import java.util.List;
+
+import com.mealplanner.genetic.model.MealSolution;
+
+/**
+ * 限时规划的结果
+ * 无论因何结束都包含截至当时最好的膳食方案，并说明结束原因
+ */
+public class PlanningResult {
+    /**
+     * 结束原因
+     */
+    public enum StopReason {
+        CONVERGED,          // 满足提前终止条件（方案足够好或连续多代没有改进）
+        MAX_GENERATIONS,    // 达到最大代数
+        DEADLINE,           // 到达截止时间
+        CANCELLED           // 被调用方取消
+    }
+
+    // 膳食方案（帕累托前沿中筛选出的方案）
+    private final List<MealSolution> solutions;
+
+    // 结束原因
+    private final StopReason stopReason;
+
+    // 完成的代数
+    private final int completedGenerations;
+
+    // 耗时(ms)
+    private final long elapsedMillis;
+
+    /**
+     * 构造函数
+     * @param solutions 膳食方案
+     * @param stopReason 结束原因
+     * @param completedGenerations 完成的代数
+     * @param elapsedMillis 耗时(ms)
+     */
+    public PlanningResult(List<MealSolution> solutions, StopReason stopReason, int completedGenerations, long elapsedMillis) {
+        this.solutions = solutions;
+        this.stopReason = stopReason;
+        this.completedGenerations = completedGenerations;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<MealSolution> getSolutions() {
+        return solutions;
+    }
+
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * 是否收敛（因满足提前终止条件而结束）
+     * @return 是否收敛
+     */
+    public boolean isConverged() {
+        return stopReason == StopReason.CONVERGED;
+    }
+
+    /**
+     * 是否因截止时间或取消而提前返回
+     * @return 是否被中断
+     */
+    public boolean isInterrupted() {
+        return stopReason == StopReason.DEADLINE || stopReason == StopReason.CANCELLED;
+    }
+
+    public int getCompletedGenerations() {
+        return completedGenerations;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "PlanningResult{" +
+                "solutions=" + solutions.size() +
+                ", stopReason=" + stopReason +
+                ", completedGenerations=" + completedGenerations +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+}
@@ -0,0 +1,68 @@
+package com.mealplanner.genetic.algorithm;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.mealplanner.genetic.objectives.MultiObjectiveEvaluator;
+import com.mealplanner.genetic.objectives.MultiObjectiveEvaluator.ObjectiveReduction;
+import com.mealplanner.model.NutrientType;
+import com.mealplanner.model.UserProfile;
+
+/**
+ * 用户档案上下文
+ * 缓存只由用户档案决定的数据：营养素达成率范围、营养素权重，
+ * 以及按约束支配和目标约简方式配置好的多目标评估器。评估过程只读取这些数据，
+ * 因此同一个上下文可被多个并发运行的规划器共享，档案相同的用户不必重复构建评估器。
+ * 规划期间不应修改对应的UserProfile。
+ */
+public class ProfileContext {
+    // 用户档案
+    private final UserProfile userProfile;
+
+    // 不同营养素的达成率范围（只读）
+    private final Map<NutrientType, double[]> nutrientRates;
+
+    // 各营养素的重要程度权重（只读）
+    private final Map<NutrientType, Double> nutrientWeights;
+
+    // 按"约束支配|目标约简方式"缓存的评估器
+    private final Map<String, MultiObjectiveEvaluator> evaluators = new ConcurrentHashMap<>();
+
+    /**
+     * 构造函数
+     * @param userProfile 用户档案
+     */
+    public ProfileContext(UserProfile userProfile) {
+        if (userProfile == null) {
+            throw new IllegalArgumentException("用户档案不能为空");
+        }
+        this.userProfile = userProfile;
+        this.nutrientRates = Collections.unmodifiableMap(NutrientType.getNutrientRates(userProfile));
+        this.nutrientWeights = Collections.unmodifiableMap(NutrientType.getNutrientWeights(userProfile));
+    }
+
+    /**
+     * 获取按指定方式配置的多目标评估器，首次使用时创建
+     * 评估器构造后不可修改，可被多个规划器共享
+     * @param constraintDomination 是否启用约束支配
+     * @param objectiveReduction 目标空间约简方式
+     * @return 多目标评估器
+     */
+    public MultiObjectiveEvaluator getEvaluator(boolean constraintDomination, ObjectiveReduction objectiveReduction) {
+        return evaluators.computeIfAbsent(constraintDomination + "|" + objectiveReduction,
+                key -> new MultiObjectiveEvaluator(userProfile, constraintDomination, objectiveReduction));
+    }
+
+    public UserProfile getUserProfile() {
+        return userProfile;
+    }
+
+    public Map<NutrientType, double[]> getNutrientRates() {
+        return nutrientRates;
+    }
+
+    public Map<NutrientType, Double> getNutrientWeights() {
+        return nutrientWeights;
+    }
+}
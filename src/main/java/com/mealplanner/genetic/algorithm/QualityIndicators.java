@@ -0,0 +1,357 @@
+package com.mealplanner.genetic.algorithm;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import com.mealplanner.genetic.index.NDTreeParetoArchive;
+import com.mealplanner.genetic.model.MealSolution;
+import com.mealplanner.genetic.model.ObjectiveValue;
+
+/**
+ * 多目标优化质量指标
+ * 所有指标都按目标值越大越好计算，目标向量取自 {@link MealSolution#getRankingObjectiveValues()}。
+ * - 超体积：参考点与各点之间超矩形并集的体积，越大越好。低维用WFG算法精确计算，高维可用蒙特卡洛估计
+ * - IGD / IGD+：参考前沿中每个点到近似前沿的平均最小距离，越小越好；IGD+只计算近似点不如参考点的分量，与支配关系一致
+ * - 分布性（广义Spread）：近似前沿中最近邻距离的均匀程度及对参考前沿端点的覆盖，越小越好
+ * 性能调整前后可用这些指标比较解的质量。
+ */
+public class QualityIndicators {
+    // 精确计算超体积的最大目标数量，超过时自动改用蒙特卡洛估计
+    public static final int EXACT_HYPERVOLUME_MAX_OBJECTIVES = 6;
+
+    // 蒙特卡洛估计的默认采样数
+    public static final int DEFAULT_SAMPLES = 100_000;
+
+    private QualityIndicators() {
+    }
+
+    /**
+     * 计算一组解的超体积，参考点为原点（目标值在0到1之间）
+     * 目标数量不超过 {@link #EXACT_HYPERVOLUME_MAX_OBJECTIVES} 时精确计算，否则用固定种子的蒙特卡洛估计
+     * @param solutions 解决方案列表
+     * @return 超体积
+     */
+    public static double hypervolume(List<MealSolution> solutions) {
+        double[][] points = toPoints(solutions);
+        if (points.length == 0) {
+            return 0;
+        }
+        double[] reference = new double[points[0].length];
+        if (reference.length <= EXACT_HYPERVOLUME_MAX_OBJECTIVES) {
+            return hypervolume(points, reference);
+        }
+        return estimateHypervolume(points, reference, DEFAULT_SAMPLES, new Random(0));
+    }
+
+    /**
+     * 用WFG算法精确计算超体积
+     * 对按最后一维降序排列的点依次计算独占超体积：点自身的超矩形体积减去它与后续点交集的超体积，
+     * 交集先做非支配过滤再递归；二维时直接扫描求解
+     * @param points 目标向量 [点][目标]
+     * @param reference 参考点（各维都不大于被计入的点）
+     * @return 超体积
+     */
+    public static double hypervolume(double[][] points, double[] reference) {
+        List<double[]> shifted = new ArrayList<>(points.length);
+        for (double[] point : points) {
+            double[] q = new double[reference.length];
+            boolean positive = true;
+            for (int i = 0; i < reference.length; i++) {
+                q[i] = point[i] - reference[i];
+                if (q[i] <= 0) {
+                    positive = false;
+                    break;
+                }
+            }
+            if (positive) {
+                shifted.add(q);
+            }
+        }
+        if (shifted.isEmpty()) {
+            return 0;
+        }
+        return wfg(nonDominated(shifted), reference.length);
+    }
+
+    /**
+     * WFG递归：points已互不支配，超矩形以原点为下角
+     */
+    private static double wfg(List<double[]> points, int dimensions) {
+        int n = points.size();
+        if (n == 0) {
+            return 0;
+        }
+        if (n == 1) {
+            return volume(points.get(0));
+        }
+        if (dimensions == 1) {
+            double max = 0;
+            for (double[] point : points) {
+                max = Math.max(max, point[0]);
+            }
+            return max;
+        }
+        if (dimensions == 2) {
+            return sweep2d(points);
+        }
+
+        // 按最后一维降序，使每个点与后续点的交集较小
+        points.sort(Comparator.comparingDouble((double[] p) -> p[dimensions - 1]).reversed());
+
+        double total = 0;
+        List<double[]> limited = new ArrayList<>(n);
+        for (int k = 0; k < n; k++) {
+            double[] point = points.get(k);
+            limited.clear();
+            for (int j = k + 1; j < n; j++) {
+                double[] other = points.get(j);
+                double[] intersection = new double[dimensions];
+                for (int d = 0; d < dimensions; d++) {
+                    intersection[d] = Math.min(point[d], other[d]);
+                }
+                limited.add(intersection);
+            }
+            total += volume(point) - wfg(nonDominated(limited), dimensions);
+        }
+        return total;
+    }
+
+    /**
+     * 二维超体积扫描：按第一维降序累加新增的条带面积
+     */
+    private static double sweep2d(List<double[]> points) {
+        points.sort(Comparator.comparingDouble((double[] p) -> p[0]).reversed());
+        double area = 0;
+        double maxY = 0;
+        for (double[] point : points) {
+            if (point[1] > maxY) {
+                area += point[0] * (point[1] - maxY);
+                maxY = point[1];
+            }
+        }
+        return area;
+    }
+
+    private static double volume(double[] point) {
+        double volume = 1;
+        for (double value : point) {
+            volume *= value;
+        }
+        return volume;
+    }
+
+    /**
+     * 过滤被其他点弱支配的点（相同的点只保留一个）
+     */
+    private static List<double[]> nonDominated(List<double[]> points) {
+        List<double[]> result = new ArrayList<>(points.size());
+        for (double[] candidate : points) {
+            boolean dominated = false;
+            for (int i = result.size() - 1; i >= 0; i--) {
+                double[] kept = result.get(i);
+                if (weaklyDominates(kept, candidate)) {
+                    dominated = true;
+                    break;
+                }
+                if (weaklyDominates(candidate, kept)) {
+                    result.set(i, result.get(result.size() - 1));
+                    result.remove(result.size() - 1);
+                }
+            }
+            if (!dominated) {
+                result.add(candidate);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 蒙特卡洛估计超体积
+     * 在参考点与各维最大值构成的包围盒内均匀采样，用ND-tree判断样本是否被某个点支配
+     * @param points 目标向量 [点][目标]
+     * @param reference 参考点
+     * @param samples 采样数
+     * @param random 随机数生成器
+     * @return 超体积估计值
+     */
+    public static double estimateHypervolume(double[][] points, double[] reference, int samples, Random random) {
+        if (samples <= 0) {
+            throw new IllegalArgumentException("采样数必须为正整数");
+        }
+        int dimensions = reference.length;
+        double[] upper = reference.clone();
+        NDTreeParetoArchive<Boolean> archive = new NDTreeParetoArchive<>(dimensions);
+        for (double[] point : points) {
+            boolean positive = true;
+            for (int i = 0; i < dimensions; i++) {
+                if (point[i] <= reference[i]) {
+                    positive = false;
+                    break;
+                }
+            }
+            if (!positive) {
+                continue;
+            }
+            for (int i = 0; i < dimensions; i++) {
+                upper[i] = Math.max(upper[i], point[i]);
+            }
+            archive.insert(point.clone(), Boolean.TRUE, null);
+        }
+        if (archive.isEmpty()) {
+            return 0;
+        }
+
+        double boxVolume = 1;
+        for (int i = 0; i < dimensions; i++) {
+            boxVolume *= upper[i] - reference[i];
+        }
+
+        int hits = 0;
+        double[] sample = new double[dimensions];
+        for (int s = 0; s < samples; s++) {
+            for (int i = 0; i < dimensions; i++) {
+                sample[i] = reference[i] + random.nextDouble() * (upper[i] - reference[i]);
+            }
+            if (archive.isDominated(sample)) {
+                hits++;
+            }
+        }
+        return boxVolume * hits / samples;
+    }
+
+    /**
+     * 反转世代距离（IGD）：参考前沿中每个点到近似前沿最近点的欧氏距离的平均值
+     * @param front 近似前沿 [点][目标]
+     * @param referenceFront 参考前沿 [点][目标]
+     * @return IGD，越小越好
+     */
+    public static double igd(double[][] front, double[][] referenceFront) {
+        return invertedDistance(front, referenceFront, false);
+    }
+
+    /**
+     * IGD+：只计算近似点在各目标上不如参考点的部分，与帕累托支配一致
+     * @param front 近似前沿 [点][目标]
+     * @param referenceFront 参考前沿 [点][目标]
+     * @return IGD+，越小越好
+     */
+    public static double igdPlus(double[][] front, double[][] referenceFront) {
+        return invertedDistance(front, referenceFront, true);
+    }
+
+    private static double invertedDistance(double[][] front, double[][] referenceFront, boolean plus) {
+        if (referenceFront.length == 0) {
+            throw new IllegalArgumentException("参考前沿不能为空");
+        }
+        if (front.length == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double total = 0;
+        for (double[] reference : referenceFront) {
+            double best = Double.POSITIVE_INFINITY;
+            for (double[] point : front) {
+                double sum = 0;
+                for (int i = 0; i < reference.length; i++) {
+                    double diff = reference[i] - point[i];
+                    if (plus) {
+                        diff = Math.max(diff, 0);
+                    }
+                    sum += diff * diff;
+                }
+                best = Math.min(best, sum);
+            }
+            total += Math.sqrt(best);
+        }
+        return total / referenceFront.length;
+    }
+
+    /**
+     * 广义分布性指标（Spread）
+     * Δ = (Σ_m d(e_m) + Σ_x |d(x) - d̄|) / (Σ_m d(e_m) + |S|·d̄)，
+     * 其中e_m为参考前沿在第m个目标上的端点，d(e_m)为端点到近似前沿的最近距离，d(x)为近似前沿中的最近邻距离
+     * @param front 近似前沿 [点][目标]
+     * @param referenceFront 参考前沿，用于确定端点；传入近似前沿自身时只衡量均匀程度
+     * @return 分布性，0表示均匀且覆盖端点，越小越好
+     */
+    public static double spread(double[][] front, double[][] referenceFront) {
+        if (front.length < 2 || referenceFront.length == 0) {
+            return 0;
+        }
+        int dimensions = front[0].length;
+
+        double extremeDistance = 0;
+        for (int m = 0; m < dimensions; m++) {
+            double[] extreme = referenceFront[0];
+            for (double[] point : referenceFront) {
+                if (point[m] > extreme[m]) {
+                    extreme = point;
+                }
+            }
+            double best = Double.POSITIVE_INFINITY;
+            for (double[] point : front) {
+                best = Math.min(best, squaredDistance(extreme, point));
+            }
+            extremeDistance += Math.sqrt(best);
+        }
+
+        double[] nearest = new double[front.length];
+        double mean = 0;
+        for (int i = 0; i < front.length; i++) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < front.length; j++) {
+                if (i != j) {
+                    best = Math.min(best, squaredDistance(front[i], front[j]));
+                }
+            }
+            nearest[i] = Math.sqrt(best);
+            mean += nearest[i];
+        }
+        mean /= front.length;
+
+        double deviation = 0;
+        for (double distance : nearest) {
+            deviation += Math.abs(distance - mean);
+        }
+
+        double denominator = extremeDistance + front.length * mean;
+        return denominator > 0 ? (extremeDistance + deviation) / denominator : 0;
+    }
+
+    /**
+     * 把解决方案转换为目标向量数组
+     * @param solutions 解决方案列表
+     * @return 目标向量 [解][目标]
+     */
+    public static double[][] toPoints(List<MealSolution> solutions) {
+        double[][] points = new double[solutions.size()][];
+        for (int s = 0; s < points.length; s++) {
+            List<ObjectiveValue> values = solutions.get(s).getRankingObjectiveValues();
+            double[] point = new double[values.size()];
+            for (int i = 0; i < point.length; i++) {
+                point[i] = values.get(i).getValue();
+            }
+            points[s] = point;
+        }
+        return points;
+    }
+
+    private static boolean weaklyDominates(double[] a, double[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] < b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double squaredDistance(double[] a, double[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            double diff = a[i] - b[i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,372 @@
+package com.mealplanner.genetic.algorithm;
+
+import com.mealplanner.genetic.model.MealSolution;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * NSGA-III基于参考点的环境选择
+ * 目标数量较多（本问题为14个）时几乎所有解都互不支配，拥挤度失去选择压力。
+ * 该选择器用Das-Dennis参考方向代替拥挤度：对合并种群按前沿逐层加入，
+ * 最后一个放不下的前沿先做归一化，再把每个解关联到最近的参考方向，按小生境计数挑选。
+ */
+public class ReferencePointSelection {
+    // 构造极点时非当前轴方向的权重
+    private static final double EXTREME_WEIGHT_EPSILON = 1e-6;
+
+    // 截距小于该值时视为退化
+    private static final double INTERCEPT_EPSILON = 1e-10;
+
+    // 外层参考点的划分数
+    private final int outerDivisions;
+
+    // 内层参考点的划分数（0表示只使用单层参考点）
+    private final int innerDivisions;
+
+    // 按目标数量缓存的参考点
+    private int objectiveCount = -1;
+    private double[][] referencePoints;
+
+    /**
+     * 构造函数
+     * @param outerDivisions 外层参考点的划分数
+     * @param innerDivisions 内层参考点的划分数，0表示不使用内层
+     */
+    public ReferencePointSelection(int outerDivisions, int innerDivisions) {
+        if (outerDivisions <= 0) {
+            throw new IllegalArgumentException("参考点划分数必须为正整数");
+        }
+        if (innerDivisions < 0) {
+            throw new IllegalArgumentException("内层参考点划分数不能为负数");
+        }
+        this.outerDivisions = outerDivisions;
+        this.innerDivisions = innerDivisions;
+    }
+
+    /**
+     * 生成Das-Dennis参考点（单位单纯形上的均匀网格）
+     * 目标数量较多时可使用双层参考点：内层点向单纯形中心收缩一半，补充内部方向
+     * @param objectiveCount 目标数量
+     * @param outerDivisions 外层划分数
+     * @param innerDivisions 内层划分数，0表示不使用内层
+     * @return 参考点数组 [点][目标]
+     */
+    public static double[][] generateReferencePoints(int objectiveCount, int outerDivisions, int innerDivisions) {
+        List<double[]> points = new ArrayList<>();
+        generateRecursive(points, new double[objectiveCount], 0, outerDivisions, outerDivisions);
+
+        if (innerDivisions > 0) {
+            List<double[]> inner = new ArrayList<>();
+            generateRecursive(inner, new double[objectiveCount], 0, innerDivisions, innerDivisions);
+            double center = 1.0 / objectiveCount;
+            for (double[] point : inner) {
+                for (int i = 0; i < objectiveCount; i++) {
+                    point[i] = (point[i] + center) / 2.0;
+                }
+                points.add(point);
+            }
+        }
+        return points.toArray(new double[0][]);
+    }
+
+    private static void generateRecursive(List<double[]> points, double[] point, int index, int left, int divisions) {
+        if (index == point.length - 1) {
+            point[index] = (double) left / divisions;
+            points.add(point.clone());
+            return;
+        }
+        for (int i = 0; i <= left; i++) {
+            point[index] = (double) i / divisions;
+            generateRecursive(points, point, index + 1, left - i, divisions);
+        }
+    }
+
+    /**
+     * 从已完成非支配排序的合并种群中选择下一代
+     * @param combinedSolutions 合并种群（rank已赋值）
+     * @param populationSize 下一代种群大小
+     * @return 下一代解决方案
+     */
+    public List<MealSolution> select(List<MealSolution> combinedSolutions, int populationSize) {
+        // 按前沿分组
+        List<MealSolution> sorted = new ArrayList<>(combinedSolutions);
+        sorted.sort(Comparator.comparingInt(MealSolution::getRank));
+
+        List<MealSolution> selected = new ArrayList<>(populationSize);
+        List<MealSolution> lastFront = new ArrayList<>();
+        int index = 0;
+        while (index < sorted.size() && selected.size() < populationSize) {
+            int rank = sorted.get(index).getRank();
+            int end = index;
+            while (end < sorted.size() && sorted.get(end).getRank() == rank) {
+                end++;
+            }
+            if (selected.size() + (end - index) <= populationSize) {
+                selected.addAll(sorted.subList(index, end));
+            } else {
+                lastFront.addAll(sorted.subList(index, end));
+            }
+            index = end;
+            if (!lastFront.isEmpty()) {
+                break;
+            }
+        }
+
+        int remaining = populationSize - selected.size();
+        if (remaining <= 0 || lastFront.isEmpty()) {
+            return selected;
+        }
+
+        niching(selected, lastFront, remaining);
+        return selected;
+    }
+
+    /**
+     * 对最后一个前沿执行归一化、参考点关联和小生境选择
+     */
+    private void niching(List<MealSolution> selected, List<MealSolution> lastFront, int remaining) {
+        List<MealSolution> candidates = new ArrayList<>(selected.size() + lastFront.size());
+        candidates.addAll(selected);
+        candidates.addAll(lastFront);
+
+        int m = candidates.get(0).getRankingObjectiveValues().size();
+        double[][] references = getReferencePoints(m);
+        double[][] normalized = normalize(candidates, m);
+
+        // 关联：每个解关联到垂直距离最近的参考方向
+        int[] association = new int[candidates.size()];
+        double[] distance = new double[candidates.size()];
+        double[] referenceNorms = new double[references.length];
+        for (int r = 0; r < references.length; r++) {
+            referenceNorms[r] = dot(references[r], references[r]);
+        }
+        for (int i = 0; i < candidates.size(); i++) {
+            double best = Double.POSITIVE_INFINITY;
+            int bestReference = 0;
+            double pointNorm = dot(normalized[i], normalized[i]);
+            for (int r = 0; r < references.length; r++) {
+                double projection = dot(normalized[i], references[r]);
+                // 到参考方向的垂直距离平方 = |f|² - (f·w)² / |w|²
+                double perpendicular = Math.max(0.0, pointNorm - projection * projection / referenceNorms[r]);
+                if (perpendicular < best) {
+                    best = perpendicular;
+                    bestReference = r;
+                }
+            }
+            association[i] = bestReference;
+            distance[i] = best;
+        }
+
+        // 已选解的小生境计数
+        int[] nicheCount = new int[references.length];
+        for (int i = 0; i < selected.size(); i++) {
+            nicheCount[association[i]]++;
+        }
+
+        // 最后前沿中各参考方向的候选
+        List<List<Integer>> members = new ArrayList<>(references.length);
+        for (int r = 0; r < references.length; r++) {
+            members.add(new ArrayList<>());
+        }
+        for (int i = selected.size(); i < candidates.size(); i++) {
+            members.get(association[i]).add(i);
+        }
+
+        Random random = ThreadLocalRandom.current();
+        boolean[] excluded = new boolean[references.length];
+        for (int r = 0; r < references.length; r++) {
+            excluded[r] = members.get(r).isEmpty();
+        }
+
+        List<Integer> minReferences = new ArrayList<>();
+        while (remaining > 0) {
+            // 找出计数最小的参考方向
+            int minCount = Integer.MAX_VALUE;
+            minReferences.clear();
+            for (int r = 0; r < references.length; r++) {
+                if (excluded[r]) {
+                    continue;
+                }
+                if (nicheCount[r] < minCount) {
+                    minCount = nicheCount[r];
+                    minReferences.clear();
+                }
+                if (nicheCount[r] == minCount) {
+                    minReferences.add(r);
+                }
+            }
+            if (minReferences.isEmpty()) {
+                break;
+            }
+
+            int reference = minReferences.get(random.nextInt(minReferences.size()));
+            List<Integer> referenceMembers = members.get(reference);
+
+            // 空小生境选距离最近的解，否则随机选择
+            int position;
+            if (nicheCount[reference] == 0) {
+                position = 0;
+                for (int k = 1; k < referenceMembers.size(); k++) {
+                    if (distance[referenceMembers.get(k)] < distance[referenceMembers.get(position)]) {
+                        position = k;
+                    }
+                }
+            } else {
+                position = random.nextInt(referenceMembers.size());
+            }
+
+            int chosen = referenceMembers.remove(position);
+            selected.add(candidates.get(chosen));
+            nicheCount[reference]++;
+            remaining--;
+            if (referenceMembers.isEmpty()) {
+                excluded[reference] = true;
+            }
+        }
+    }
+
+    /**
+     * 自适应归一化
+     * 目标值越大越好，先取负转为最小化问题；平移理想点后，用ASF找每个轴的极点，
+     * 由极点构成的超平面求截距；超平面退化时退化为各目标的最大值
+     * @return 归一化后的目标矩阵 [解][目标]
+     */
+    private double[][] normalize(List<MealSolution> solutions, int m) {
+        int n = solutions.size();
+        double[][] f = new double[n][m];
+        double[] ideal = new double[m];
+        Arrays.fill(ideal, Double.POSITIVE_INFINITY);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                f[i][j] = -solutions.get(i).getRankingObjectiveValues().get(j).getValue();
+                ideal[j] = Math.min(ideal[j], f[i][j]);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                f[i][j] -= ideal[j];
+            }
+        }
+
+        // 每个轴的极点
+        double[][] extremes = new double[m][];
+        for (int axis = 0; axis < m; axis++) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < n; i++) {
+                double asf = 0;
+                for (int j = 0; j < m; j++) {
+                    double weight = j == axis ? 1.0 : EXTREME_WEIGHT_EPSILON;
+                    asf = Math.max(asf, f[i][j] / weight);
+                }
+                if (asf < best) {
+                    best = asf;
+                    extremes[axis] = f[i];
+                }
+            }
+        }
+
+        double[] intercepts = computeIntercepts(extremes, m);
+        if (intercepts == null) {
+            // 退化时使用各目标的最大值
+            intercepts = new double[m];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < m; j++) {
+                    intercepts[j] = Math.max(intercepts[j], f[i][j]);
+                }
+            }
+        }
+        for (int j = 0; j < m; j++) {
+            if (intercepts[j] < INTERCEPT_EPSILON) {
+                intercepts[j] = 1.0;
+            }
+        }
+
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                f[i][j] /= intercepts[j];
+            }
+        }
+        return f;
+    }
+
+    /**
+     * 求经过各极点的超平面在各轴上的截距：解 E·b = 1，截距为 1/b
+     * @return 截距；矩阵奇异或截距非正时返回null
+     */
+    private static double[] computeIntercepts(double[][] extremes, int m) {
+        double[][] matrix = new double[m][m + 1];
+        for (int i = 0; i < m; i++) {
+            System.arraycopy(extremes[i], 0, matrix[i], 0, m);
+            matrix[i][m] = 1.0;
+        }
+
+        for (int col = 0; col < m; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < m; row++) {
+                if (Math.abs(matrix[row][col]) > Math.abs(matrix[pivot][col])) {
+                    pivot = row;
+                }
+            }
+            if (Math.abs(matrix[pivot][col]) < 1e-12) {
+                return null;
+            }
+            double[] temp = matrix[col];
+            matrix[col] = matrix[pivot];
+            matrix[pivot] = temp;
+            for (int row = col + 1; row < m; row++) {
+                double factor = matrix[row][col] / matrix[col][col];
+                for (int k = col; k <= m; k++) {
+                    matrix[row][k] -= factor * matrix[col][k];
+                }
+            }
+        }
+
+        double[] b = new double[m];
+        for (int i = m - 1; i >= 0; i--) {
+            double sum = matrix[i][m];
+            for (int j = i + 1; j < m; j++) {
+                sum -= matrix[i][j] * b[j];
+            }
+            b[i] = sum / matrix[i][i];
+        }
+
+        double[] intercepts = new double[m];
+        for (int j = 0; j < m; j++) {
+            if (b[j] <= 0 || Double.isNaN(b[j])) {
+                return null;
+            }
+            intercepts[j] = 1.0 / b[j];
+        }
+        return intercepts;
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    /**
+     * 获取指定目标数量下的参考点（首次调用时生成并缓存）
+     * @param objectiveCount 目标数量
+     * @return 参考点数组
+     */
+    public synchronized double[][] getReferencePoints(int objectiveCount) {
+        if (this.objectiveCount != objectiveCount) {
+            this.referencePoints = generateReferencePoints(objectiveCount, outerDivisions, innerDivisions);
+            this.objectiveCount = objectiveCount;
+        }
+        return referencePoints;
+    }
+
+    public int getOuterDivisions() {
+        return outerDivisions;
+    }
+
+    public int getInnerDivisions() {
+        return innerDivisions;
+    }
+}
@@ -0,0 +1,179 @@
+package com.mealplanner.genetic.index;
+
+import com.mealplanner.genetic.model.FoodGene;
+import com.mealplanner.genetic.util.AliasTable;
+import com.mealplanner.model.Food;
+import com.mealplanner.model.FoodCategory;
+
+import java.util.*;
+
+/**
+ * 按类别预先分组的食物索引
+ * 使用Walker别名表按FoodCategory.getSelectionProbability进行O(1)类别采样，
+ * 使随机构造膳食的开销只与膳食中的食物数量相关，而与数据库大小无关
+ */
+public class FoodCategoryIndex {
+    // 类别内随机抽取食物时的最大尝试次数，超过后退化为顺序查找
+    private static final int MAX_SAMPLE_ATTEMPTS = 32;
+
+    // 原始食物数据库
+    private final List<Food> foodDatabase;
+
+    // 按类别ordinal索引的食物列表
+    private final List<List<Food>> foodsByCategory;
+
+    // 包含主食的非空类别及其别名表
+    private final FoodCategory[] allCategories;
+    private final AliasTable allCategoryTable;
+
+    // 不含主食的非空类别及其别名表
+    private final FoodCategory[] nonStapleCategories;
+    private final AliasTable nonStapleCategoryTable;
+
+    /**
+     * 构造函数，O(n)建立索引
+     * @param foodDatabase 食物数据库
+     */
+    public FoodCategoryIndex(List<Food> foodDatabase) {
+        if (foodDatabase == null || foodDatabase.isEmpty()) {
+            throw new IllegalArgumentException("食物数据库不能为空");
+        }
+        this.foodDatabase = foodDatabase;
+
+        FoodCategory[] categories = FoodCategory.values();
+        List<List<Food>> grouped = new ArrayList<>(categories.length);
+        for (int i = 0; i < categories.length; i++) {
+            grouped.add(new ArrayList<>());
+        }
+        for (Food food : foodDatabase) {
+            grouped.get(food.getCategory().ordinal()).add(food);
+        }
+
+        List<FoodCategory> all = new ArrayList<>();
+        List<FoodCategory> nonStaple = new ArrayList<>();
+        for (FoodCategory category : categories) {
+            if (!grouped.get(category.ordinal()).isEmpty()) {
+                all.add(category);
+                if (category != FoodCategory.STAPLE) {
+                    nonStaple.add(category);
+                }
+            }
+        }
+
+        List<List<Food>> readOnly = new ArrayList<>(categories.length);
+        for (List<Food> foods : grouped) {
+            readOnly.add(Collections.unmodifiableList(foods));
+        }
+        this.foodsByCategory = Collections.unmodifiableList(readOnly);
+
+        this.allCategories = all.toArray(new FoodCategory[0]);
+        this.allCategoryTable = buildCategoryTable(allCategories);
+        this.nonStapleCategories = nonStaple.toArray(new FoodCategory[0]);
+        this.nonStapleCategoryTable = buildCategoryTable(nonStapleCategories);
+    }
+
+    /**
+     * 根据类别的选中概率构建别名表
+     * 所有类别概率都为0时，退化为等概率
+     * @param categories 类别数组
+     * @return 别名表，类别为空时返回null
+     */
+    private static AliasTable buildCategoryTable(FoodCategory[] categories) {
+        if (categories.length == 0) {
+            return null;
+        }
+
+        double[] weights = new double[categories.length];
+        double total = 0;
+        for (int i = 0; i < categories.length; i++) {
+            weights[i] = categories[i].getSelectionProbability();
+            total += weights[i];
+        }
+        if (total <= 0) {
+            Arrays.fill(weights, 1.0);
+        }
+
+        return new AliasTable(weights);
+    }
+
+    /**
+     * 随机选择一个主食
+     * @param random 随机数生成器
+     * @return 主食，数据库中没有主食时返回null
+     */
+    public Food sampleStaple(Random random) {
+        List<Food> staples = getFoods(FoodCategory.STAPLE);
+        if (staples.isEmpty()) {
+            return null;
+        }
+        return staples.get(random.nextInt(staples.size()));
+    }
+
+    /**
+     * 按类别选中概率随机选择一个尚未出现在基因列表中的食物（不放回采样）
+     * 已选基因数量很小，直接作为拒绝集合使用，无需额外分配
+     * @param excludeStaple 是否排除主食
+     * @param chosen 已选择的食物基因（拒绝集合）
+     * @param random 随机数生成器
+     * @return 选中的食物，没有可选食物时返回null
+     */
+    public Food sampleFood(boolean excludeStaple, List<FoodGene> chosen, Random random) {
+        FoodCategory[] categories = excludeStaple ? nonStapleCategories : allCategories;
+        AliasTable table = excludeStaple ? nonStapleCategoryTable : allCategoryTable;
+        if (table == null) {
+            return null;
+        }
+
+        for (int attempt = 0; attempt < MAX_SAMPLE_ATTEMPTS; attempt++) {
+            List<Food> foods = getFoods(categories[table.sample(random)]);
+            Food food = foods.get(random.nextInt(foods.size()));
+            if (!containsFood(chosen, food)) {
+                return food;
+            }
+        }
+
+        // 高概率类别已基本用尽，从随机起点顺序查找任一未被选择的食物
+        int start = random.nextInt(categories.length);
+        for (int i = 0; i < categories.length; i++) {
+            for (Food food : getFoods(categories[(start + i) % categories.length])) {
+                if (!containsFood(chosen, food)) {
+                    return food;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * 检查基因列表中是否已包含该食物
+     * @param genes 食物基因列表
+     * @param food 食物
+     * @return 是否已包含
+     */
+    private static boolean containsFood(List<FoodGene> genes, Food food) {
+        for (int i = 0; i < genes.size(); i++) {
+            if (genes.get(i).getFood() == food) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 获取指定类别的全部食物
+     * @param category 食物类别
+     * @return 只读食物列表
+     */
+    public List<Food> getFoods(FoodCategory category) {
+        return foodsByCategory.get(category.ordinal());
+    }
+
+    /**
+     * 获取原始食物数据库
+     * @return 食物数据库
+     */
+    public List<Food> getFoodDatabase() {
+        return foodDatabase;
+    }
+}
@@ -0,0 +1,439 @@
+package com.mealplanner.genetic.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * 基于ND-tree的帕累托存档（目标值越大越好）
+ * 存档中的点互不支配。每个节点保存子树中各点的理想点（各维最大值）和最差点（各维最小值）的近似边界，
+ * 据此整棵子树可以被一次判定：最差点弱支配查询点时查询点被支配；查询点弱支配理想点时整棵子树被支配；
+ * 查询点与两者都不可比时子树中既没有支配它的点，也没有被它支配的点，直接跳过。
+ * 因此“是否被支配”和“插入并移除被支配点”两种操作通常只访问少量节点，而不是线性扫描全部点。
+ * 删除点后边界不收缩，仍是有效的外包边界。
+ * @param <T> 点携带的数据类型
+ */
+public class NDTreeParetoArchive<T> {
+    // 维度
+    private final int dimensions;
+
+    // 叶节点最多容纳的点数，超过时分裂
+    private final int maxLeafSize;
+
+    // 分裂时产生的子节点数量
+    private final int branchingFactor;
+
+    // 根节点
+    private Node<T> root;
+
+    // 点的数量
+    private int size;
+
+    /**
+     * 构造函数，叶节点容量为20，分支数为维度+1
+     * @param dimensions 维度
+     */
+    public NDTreeParetoArchive(int dimensions) {
+        this(dimensions, 20, dimensions + 1);
+    }
+
+    /**
+     * 构造函数
+     * @param dimensions 维度
+     * @param maxLeafSize 叶节点最多容纳的点数
+     * @param branchingFactor 分裂时产生的子节点数量
+     */
+    public NDTreeParetoArchive(int dimensions, int maxLeafSize, int branchingFactor) {
+        if (dimensions <= 0) {
+            throw new IllegalArgumentException("维度必须为正整数");
+        }
+        if (maxLeafSize < 2) {
+            throw new IllegalArgumentException("叶节点容量不能小于2");
+        }
+        if (branchingFactor < 2 || branchingFactor > maxLeafSize + 1) {
+            throw new IllegalArgumentException("分支数必须在2到叶节点容量+1之间");
+        }
+        this.dimensions = dimensions;
+        this.maxLeafSize = maxLeafSize;
+        this.branchingFactor = branchingFactor;
+    }
+
+    /**
+     * 判断点是否被存档中的某个点弱支配（各维不小于它，包括相等的点）
+     * @param point 查询点
+     * @return 是否被支配
+     */
+    public boolean isDominated(double[] point) {
+        checkDimensions(point);
+        return root != null && isDominated(root, point);
+    }
+
+    private boolean isDominated(Node<T> node, double[] point) {
+        if (weaklyDominates(node.nadir, point)) {
+            return true;
+        }
+        if (!weaklyDominates(node.ideal, point)) {
+            return false;
+        }
+        if (node.isLeaf()) {
+            for (double[] existing : node.points) {
+                if (weaklyDominates(existing, point)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        for (Node<T> child : node.children) {
+            if (isDominated(child, point)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 插入点：被存档弱支配时拒绝，否则移除所有被它支配的点后加入存档
+     * @param point 点（存档持有该数组，调用方不应再修改）
+     * @param value 点携带的数据
+     * @param removed 接收被移除点的数据，可为null
+     * @return 是否插入成功
+     */
+    public boolean insert(double[] point, T value, List<T> removed) {
+        checkDimensions(point);
+        if (root == null) {
+            root = new Node<>(dimensions);
+            root.add(point, value);
+            size = 1;
+            return true;
+        }
+
+        BiConsumer<double[], T> onRemove = removed != null ? (p, v) -> removed.add(v) : (p, v) -> { };
+        if (update(root, point, onRemove)) {
+            return false;
+        }
+        if (root.isEmpty()) {
+            root = new Node<>(dimensions);
+        }
+        insertInto(root, point, value);
+        size++;
+        return true;
+    }
+
+    /**
+     * 在子树中检查支配关系并移除被新点支配的点
+     * @return 新点是否被子树中的点弱支配
+     */
+    private boolean update(Node<T> node, double[] point, BiConsumer<double[], T> onRemove) {
+        if (weaklyDominates(node.nadir, point)) {
+            return true;
+        }
+        if (weaklyDominates(point, node.ideal)) {
+            // 整棵子树被支配
+            removeAll(node, onRemove);
+            return false;
+        }
+        if (!weaklyDominates(node.ideal, point) && !weaklyDominates(point, node.nadir)) {
+            return false;
+        }
+
+        if (node.isLeaf()) {
+            for (int i = node.points.size() - 1; i >= 0; i--) {
+                double[] existing = node.points.get(i);
+                if (weaklyDominates(existing, point)) {
+                    // 存档互不支配，此时不可能已经移除过被新点支配的点
+                    return true;
+                }
+                if (weaklyDominates(point, existing)) {
+                    onRemove.accept(existing, node.values.get(i));
+                    node.removeAt(i);
+                    size--;
+                }
+            }
+            return false;
+        }
+
+        for (int i = node.children.size() - 1; i >= 0; i--) {
+            Node<T> child = node.children.get(i);
+            if (update(child, point, onRemove)) {
+                return true;
+            }
+            if (child.isEmpty()) {
+                node.children.remove(i);
+            }
+        }
+        // 只剩一个子节点时上提，保持树的高度
+        if (node.children.size() == 1) {
+            node.absorb(node.children.get(0));
+        }
+        return false;
+    }
+
+    private void removeAll(Node<T> node, BiConsumer<double[], T> onRemove) {
+        if (node.isLeaf()) {
+            for (int i = 0; i < node.points.size(); i++) {
+                onRemove.accept(node.points.get(i), node.values.get(i));
+            }
+            size -= node.points.size();
+            node.points.clear();
+            node.values.clear();
+        } else {
+            for (Node<T> child : node.children) {
+                removeAll(child, onRemove);
+            }
+            node.children.clear();
+        }
+    }
+
+    /**
+     * 沿中点最近的子节点下降到叶节点并插入，叶节点超过容量时分裂
+     */
+    private void insertInto(Node<T> node, double[] point, T value) {
+        while (!node.isLeaf()) {
+            node.expand(point);
+            Node<T> closest = null;
+            double bestDistance = Double.POSITIVE_INFINITY;
+            for (Node<T> child : node.children) {
+                double distance = child.midpointDistance(point);
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    closest = child;
+                }
+            }
+            node = closest;
+        }
+        node.add(point, value);
+        if (node.points.size() > maxLeafSize) {
+            split(node);
+        }
+    }
+
+    /**
+     * 分裂叶节点：依次选择与已选种子平均距离最远的点作为子节点种子，其余点分配给中点最近的子节点
+     */
+    private void split(Node<T> node) {
+        List<double[]> points = node.points;
+        List<T> values = node.values;
+        int count = points.size();
+        boolean[] assigned = new boolean[count];
+
+        // 第一个种子为与其他点平均距离最远的点
+        int first = 0;
+        double bestTotal = -1;
+        for (int i = 0; i < count; i++) {
+            double total = 0;
+            for (int j = 0; j < count; j++) {
+                total += squaredDistance(points.get(i), points.get(j));
+            }
+            if (total > bestTotal) {
+                bestTotal = total;
+                first = i;
+            }
+        }
+
+        List<Node<T>> children = new ArrayList<>(branchingFactor);
+        double[] seedDistance = new double[count];
+        int seed = first;
+        while (true) {
+            Node<T> child = new Node<>(dimensions);
+            child.add(points.get(seed), values.get(seed));
+            assigned[seed] = true;
+            children.add(child);
+            if (children.size() == branchingFactor) {
+                break;
+            }
+            int next = -1;
+            double farthest = -1;
+            for (int i = 0; i < count; i++) {
+                if (assigned[i]) {
+                    continue;
+                }
+                seedDistance[i] += squaredDistance(points.get(i), points.get(seed));
+                if (seedDistance[i] > farthest) {
+                    farthest = seedDistance[i];
+                    next = i;
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            seed = next;
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (assigned[i]) {
+                continue;
+            }
+            Node<T> closest = children.get(0);
+            double bestDistance = Double.POSITIVE_INFINITY;
+            for (Node<T> child : children) {
+                double distance = child.midpointDistance(points.get(i));
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    closest = child;
+                }
+            }
+            closest.add(points.get(i), values.get(i));
+        }
+
+        node.points = null;
+        node.values = null;
+        node.children = children;
+    }
+
+    /**
+     * 获取存档中全部点携带的数据
+     * @return 数据列表
+     */
+    public List<T> values() {
+        List<T> result = new ArrayList<>(size);
+        if (root != null) {
+            collect(root, result, null);
+        }
+        return result;
+    }
+
+    /**
+     * 获取存档中的全部点
+     * @return 点列表
+     */
+    public List<double[]> points() {
+        List<double[]> result = new ArrayList<>(size);
+        if (root != null) {
+            collect(root, null, result);
+        }
+        return result;
+    }
+
+    private void collect(Node<T> node, List<T> values, List<double[]> points) {
+        if (node.isLeaf()) {
+            if (values != null) {
+                values.addAll(node.values);
+            }
+            if (points != null) {
+                points.addAll(node.points);
+            }
+            return;
+        }
+        for (Node<T> child : node.children) {
+            collect(child, values, points);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        root = null;
+        size = 0;
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    private void checkDimensions(double[] point) {
+        if (point.length != dimensions) {
+            throw new IllegalArgumentException("点的维度与存档维度不一致");
+        }
+    }
+
+    /**
+     * a是否弱支配b（各维都不小于b）
+     */
+    private static boolean weaklyDominates(double[] a, double[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] < b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double squaredDistance(double[] a, double[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            double diff = a[i] - b[i];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    /**
+     * 树节点：叶节点保存点，内部节点保存子节点
+     */
+    private static final class Node<T> {
+        // 子树中各维的最大值（上界）
+        private final double[] ideal;
+        // 子树中各维的最小值（下界）
+        private final double[] nadir;
+        // 叶节点的点和数据
+        private List<double[]> points = new ArrayList<>();
+        private List<T> values = new ArrayList<>();
+        // 内部节点的子节点
+        private List<Node<T>> children;
+
+        Node(int dimensions) {
+            ideal = new double[dimensions];
+            nadir = new double[dimensions];
+            Arrays.fill(ideal, Double.NEGATIVE_INFINITY);
+            Arrays.fill(nadir, Double.POSITIVE_INFINITY);
+        }
+
+        boolean isLeaf() {
+            return children == null;
+        }
+
+        boolean isEmpty() {
+            return isLeaf() ? points.isEmpty() : children.isEmpty();
+        }
+
+        void add(double[] point, T value) {
+            points.add(point);
+            values.add(value);
+            expand(point);
+        }
+
+        void removeAt(int index) {
+            int last = points.size() - 1;
+            points.set(index, points.get(last));
+            values.set(index, values.get(last));
+            points.remove(last);
+            values.remove(last);
+        }
+
+        void expand(double[] point) {
+            for (int i = 0; i < point.length; i++) {
+                if (point[i] > ideal[i]) {
+                    ideal[i] = point[i];
+                }
+                if (point[i] < nadir[i]) {
+                    nadir[i] = point[i];
+                }
+            }
+        }
+
+        /**
+         * 用唯一的子节点替换自身内容
+         */
+        void absorb(Node<T> child) {
+            points = child.points;
+            values = child.values;
+            children = child.children;
+        }
+
+        double midpointDistance(double[] point) {
+            double sum = 0;
+            for (int i = 0; i < point.length; i++) {
+                double diff = (ideal[i] + nadir[i]) / 2 - point[i];
+                sum += diff * diff;
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.mealplanner.genetic.index;
+
+import com.mealplanner.model.Food;
+import com.mealplanner.model.FoodCategory;
+import com.mealplanner.model.NutrientType;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * 按营养素密度排序的食物索引
+ * 对每种营养素、每个类别分区，预先按密度（每100g或每千卡）降序保存食物编号，
+ * 用于快速查找"某类别中富含某营养素且另一营养素较低"的食物
+ * 食物编号即食物在数据库列表中的下标
+ */
+public class NutrientFoodIndex {
+    /**
+     * 营养素密度的计算基准
+     */
+    public enum DensityBasis {
+        PER_100G,   // 每100g食物的营养素含量
+        PER_KCAL    // 每千卡热量的营养素含量
+    }
+
+    // 单次查询最多扫描的候选数量倍数，保证查询开销与数据库大小无关
+    private static final int SCAN_FACTOR = 8;
+
+    private static final NutrientType[] NUTRIENTS = NutrientType.values();
+    private static final int CATEGORY_COUNT = FoodCategory.values().length;
+
+    // 全部类别对应的分区下标
+    private static final int ALL_PARTITION = CATEGORY_COUNT;
+
+    // 食物数据库
+    private final List<Food> foods;
+
+    // 营养素密度 [基准][食物编号][营养素ordinal]
+    private final double[][][] densities;
+
+    // 降序排列的食物编号 [基准][分区][营养素ordinal]
+    private final int[][][][] rankedIds;
+
+    // 与rankedIds对应的密度值，降序 [基准][分区][营养素ordinal]
+    private final double[][][][] rankedDensities;
+
+    /**
+     * 构造函数，O(N·M·logN)建立索引
+     * @param foodDatabase 食物数据库
+     */
+    public NutrientFoodIndex(List<Food> foodDatabase) {
+        this.foods = foodDatabase;
+        int foodCount = foodDatabase.size();
+        int basisCount = DensityBasis.values().length;
+
+        // 计算各食物的营养素密度
+        densities = new double[basisCount][foodCount][NUTRIENTS.length];
+        for (int id = 0; id < foodCount; id++) {
+            Map<NutrientType, Double> items = foodDatabase.get(id).getNutritionItems();
+            double calories = nutrientValue(items, NutrientType.CALORIES);
+            for (NutrientType nutrient : NUTRIENTS) {
+                double value = nutrientValue(items, nutrient);
+                densities[DensityBasis.PER_100G.ordinal()][id][nutrient.ordinal()] = value;
+                // 热量为0的食物按1千卡计算，避免除以零
+                densities[DensityBasis.PER_KCAL.ordinal()][id][nutrient.ordinal()] = value / Math.max(1.0, calories);
+            }
+        }
+
+        // 按类别分区
+        List<List<Integer>> partitions = new ArrayList<>(CATEGORY_COUNT + 1);
+        for (int i = 0; i <= CATEGORY_COUNT; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (int id = 0; id < foodCount; id++) {
+            partitions.get(foodDatabase.get(id).getCategory().ordinal()).add(id);
+            partitions.get(ALL_PARTITION).add(id);
+        }
+
+        // 每个分区、每种营养素按密度降序排序
+        rankedIds = new int[basisCount][CATEGORY_COUNT + 1][NUTRIENTS.length][];
+        rankedDensities = new double[basisCount][CATEGORY_COUNT + 1][NUTRIENTS.length][];
+        for (DensityBasis basis : DensityBasis.values()) {
+            double[][] basisDensities = densities[basis.ordinal()];
+            for (int partition = 0; partition <= CATEGORY_COUNT; partition++) {
+                List<Integer> members = partitions.get(partition);
+                for (NutrientType nutrient : NUTRIENTS) {
+                    int n = nutrient.ordinal();
+                    Integer[] ids = members.toArray(new Integer[0]);
+                    Arrays.sort(ids, (a, b) -> Double.compare(basisDensities[b][n], basisDensities[a][n]));
+
+                    int[] sortedIds = new int[ids.length];
+                    double[] sortedValues = new double[ids.length];
+                    for (int i = 0; i < ids.length; i++) {
+                        sortedIds[i] = ids[i];
+                        sortedValues[i] = basisDensities[ids[i]][n];
+                    }
+                    rankedIds[basis.ordinal()][partition][n] = sortedIds;
+                    rankedDensities[basis.ordinal()][partition][n] = sortedValues;
+                }
+            }
+        }
+    }
+
+    /**
+     * 读取营养素含量，缺失时视为0
+     */
+    private static double nutrientValue(Map<NutrientType, Double> items, NutrientType nutrient) {
+        Double value = items.get(nutrient);
+        return value != null ? value : 0.0;
+    }
+
+    /**
+     * 获取类别对应的分区下标
+     * @param category 食物类别，null表示全部类别
+     * @return 分区下标
+     */
+    private static int partitionOf(FoodCategory category) {
+        return category == null ? ALL_PARTITION : category.ordinal();
+    }
+
+    /**
+     * 获取食物编号对应的食物
+     * @param foodId 食物编号
+     * @return 食物
+     */
+    public Food getFood(int foodId) {
+        return foods.get(foodId);
+    }
+
+    /**
+     * 获取食物的营养素密度
+     * @param foodId 食物编号
+     * @param nutrient 营养素
+     * @param basis 密度基准
+     * @return 营养素密度
+     */
+    public double getDensity(int foodId, NutrientType nutrient, DensityBasis basis) {
+        return densities[basis.ordinal()][foodId][nutrient.ordinal()];
+    }
+
+    /**
+     * 计算食物的营养素密度
+     * @param food 食物
+     * @param nutrient 营养素
+     * @param basis 密度基准
+     * @return 营养素密度
+     */
+    public static double densityOf(Food food, NutrientType nutrient, DensityBasis basis) {
+        double value = nutrientValue(food.getNutritionItems(), nutrient);
+        if (basis == DensityBasis.PER_KCAL) {
+            return value / Math.max(1.0, nutrientValue(food.getNutritionItems(), NutrientType.CALORIES));
+        }
+        return value;
+    }
+
+    /**
+     * 获取分区中的食物数量
+     * @param category 食物类别，null表示全部类别
+     * @return 食物数量
+     */
+    public int countFoods(FoodCategory category) {
+        return rankedIds[0][partitionOf(category)][0].length;
+    }
+
+    /**
+     * 获取按营养素密度降序排列的第rank个食物编号
+     * @param category 食物类别，null表示全部类别
+     * @param nutrient 营养素
+     * @param basis 密度基准
+     * @param rank 排名（从0开始）
+     * @return 食物编号
+     */
+    public int getFoodIdAtRank(FoodCategory category, NutrientType nutrient, DensityBasis basis, int rank) {
+        return rankedIds[basis.ordinal()][partitionOf(category)][nutrient.ordinal()][rank];
+    }
+
+    /**
+     * 统计分区中营养素密度不低于给定值的食物数量（二分查找，O(logN)）
+     * 这些食物正好是排名在[0, 返回值)之间的食物
+     * @param category 食物类别，null表示全部类别
+     * @param nutrient 营养素
+     * @param basis 密度基准
+     * @param minDensity 最低密度
+     * @return 食物数量
+     */
+    public int countAtLeast(FoodCategory category, NutrientType nutrient, DensityBasis basis, double minDensity) {
+        double[] values = rankedDensities[basis.ordinal()][partitionOf(category)][nutrient.ordinal()];
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] >= minDensity) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 查找富含某营养素、同时另一营养素不超过上限的食物
+     * 从密度最高处开始扫描，收集至多poolSize个候选后随机返回一个；
+     * 扫描长度有上限，查询开销与数据库大小无关
+     * @param category 食物类别，null表示全部类别
+     * @param richNutrient 需要富含的营养素
+     * @param limitNutrient 需要限制的营养素，为null时不限制
+     * @param maxLimitDensity 限制营养素的最大密度
+     * @param basis 密度基准
+     * @param poolSize 候选池大小
+     * @param exclude 需要排除的食物
+     * @param random 随机数生成器
+     * @return 选中的食物，找不到时返回null
+     */
+    public Food findRichFood(FoodCategory category, NutrientType richNutrient, NutrientType limitNutrient,
+                             double maxLimitDensity, DensityBasis basis, int poolSize,
+                             Predicate<Food> exclude, Random random) {
+        int[] ids = rankedIds[basis.ordinal()][partitionOf(category)][richNutrient.ordinal()];
+        double[][] basisDensities = densities[basis.ordinal()];
+        int scanLimit = Math.min(ids.length, poolSize * SCAN_FACTOR);
+
+        int[] pool = new int[poolSize];
+        int poolCount = 0;
+        for (int rank = 0; rank < scanLimit && poolCount < poolSize; rank++) {
+            int id = ids[rank];
+            if (limitNutrient != null && basisDensities[id][limitNutrient.ordinal()] > maxLimitDensity) {
+                continue;
+            }
+            if (exclude != null && exclude.test(foods.get(id))) {
+                continue;
+            }
+            pool[poolCount++] = id;
+        }
+
+        if (poolCount == 0) {
+            return null;
+        }
+        return foods.get(pool[random.nextInt(poolCount)]);
+    }
+
+    /**
+     * 获取食物数据库
+     * @return 食物数据库
+     */
+    public List<Food> getFoodDatabase() {
+        return foods;
+    }
+}
@@ -0,0 +1,377 @@
+package com.mealplanner.genetic.index;
+
+import com.mealplanner.genetic.model.FoodGene;
+import com.mealplanner.model.Food;
+import com.mealplanner.model.FoodCategory;
+import com.mealplanner.model.NutrientType;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * 营养素近邻索引
+ * 将每种食物的营养素含量按全库均值和标准差标准化为向量，
+ * 并为每个食物类别建立一棵k-d树，用于快速查找营养成分相近的替代食物
+ */
+public class NutrientNeighborIndex {
+    private static final NutrientType[] NUTRIENTS = NutrientType.values();
+    private static final int DIMENSIONS = NUTRIENTS.length;
+
+    // 食物数据库
+    private final List<Food> foods;
+
+    // 食物到编号的映射（按对象标识）
+    private final Map<Food, Integer> foodIds;
+
+    // 标准化后的营养素向量 [食物编号][营养素ordinal]
+    private final double[][] vectors;
+
+    // 各营养素的全库均值和标准差（每100g）
+    private final double[] means = new double[DIMENSIONS];
+    private final double[] scales = new double[DIMENSIONS];
+
+    // 按类别ordinal索引的k-d树
+    private final KdTree[] trees;
+
+    /**
+     * 构造函数，O(N·logN)建立索引
+     * @param foodDatabase 食物数据库
+     */
+    public NutrientNeighborIndex(List<Food> foodDatabase) {
+        this.foods = foodDatabase;
+        int foodCount = foodDatabase.size();
+
+        // 计算各营养素的均值和标准差
+        double[][] raw = new double[foodCount][DIMENSIONS];
+        for (int id = 0; id < foodCount; id++) {
+            Map<NutrientType, Double> items = foodDatabase.get(id).getNutritionItems();
+            for (NutrientType nutrient : NUTRIENTS) {
+                Double value = items.get(nutrient);
+                raw[id][nutrient.ordinal()] = value != null ? value : 0.0;
+            }
+        }
+        for (int d = 0; d < DIMENSIONS; d++) {
+            double sum = 0;
+            double sumSquared = 0;
+            for (double[] row : raw) {
+                sum += row[d];
+                sumSquared += row[d] * row[d];
+            }
+            double mean = foodCount > 0 ? sum / foodCount : 0;
+            double variance = foodCount > 0 ? sumSquared / foodCount - mean * mean : 0;
+            means[d] = mean;
+            // 标准差为0时不缩放，避免除以零
+            scales[d] = variance > 1e-12 ? Math.sqrt(variance) : 1.0;
+        }
+
+        // 标准化
+        vectors = new double[foodCount][];
+        foodIds = new IdentityHashMap<>(foodCount * 2);
+        List<List<Integer>> members = new ArrayList<>();
+        for (int i = 0; i < FoodCategory.values().length; i++) {
+            members.add(new ArrayList<>());
+        }
+        for (int id = 0; id < foodCount; id++) {
+            double[] vector = new double[DIMENSIONS];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                vector[d] = (raw[id][d] - means[d]) / scales[d];
+            }
+            vectors[id] = vector;
+            foodIds.put(foodDatabase.get(id), id);
+            members.get(foodDatabase.get(id).getCategory().ordinal()).add(id);
+        }
+
+        // 为每个类别建立k-d树
+        trees = new KdTree[members.size()];
+        for (int c = 0; c < members.size(); c++) {
+            List<Integer> ids = members.get(c);
+            int[] idArray = new int[ids.size()];
+            for (int i = 0; i < idArray.length; i++) {
+                idArray[i] = ids.get(i);
+            }
+            trees[c] = new KdTree(idArray, vectors);
+        }
+    }
+
+    /**
+     * 获取食物的标准化营养素向量（返回副本）
+     * @param food 食物
+     * @return 标准化向量
+     */
+    public double[] getVector(Food food) {
+        Integer id = foodIds.get(food);
+        if (id != null) {
+            return vectors[id].clone();
+        }
+
+        double[] vector = new double[DIMENSIONS];
+        for (NutrientType nutrient : NUTRIENTS) {
+            Double value = food.getNutritionItems().get(nutrient);
+            int d = nutrient.ordinal();
+            vector[d] = ((value != null ? value : 0.0) - means[d]) / scales[d];
+        }
+        return vector;
+    }
+
+    /**
+     * 将每100g营养素含量的变化量换算为标准化空间中的偏移量
+     * @param nutrient 营养素
+     * @param deltaPer100g 每100g的变化量
+     * @return 标准化偏移量
+     */
+    public double toNormalizedDelta(NutrientType nutrient, double deltaPer100g) {
+        return deltaPer100g / scales[nutrient.ordinal()];
+    }
+
+    /**
+     * 为食物基因推荐营养成分最相近的k个同类别替代食物
+     * @param gene 食物基因
+     * @param k 推荐数量
+     * @return 按距离升序排列的替代食物（不包含原食物）
+     */
+    public List<Food> suggestSubstitutes(FoodGene gene, int k) {
+        Food food = gene.getFood();
+        return findNearest(food.getCategory(), getVector(food), k, candidate -> candidate == food);
+    }
+
+    /**
+     * 在指定类别中查找与查询向量最近的k个食物
+     * @param category 食物类别
+     * @param query 标准化空间中的查询向量
+     * @param k 数量
+     * @param excluded 需要排除的食物，可为null
+     * @return 按距离升序排列的食物
+     */
+    public List<Food> findNearest(FoodCategory category, double[] query, int k, Predicate<Food> excluded) {
+        if (k <= 0) {
+            return new ArrayList<>();
+        }
+
+        NeighborHeap heap = new NeighborHeap(k);
+        trees[category.ordinal()].search(query, heap, excluded, foods);
+
+        int[] ids = heap.drainSorted();
+        List<Food> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(foods.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * 计算两个向量之间的欧氏距离平方
+     */
+    private static double squaredDistance(double[] a, double[] b) {
+        double sum = 0;
+        for (int d = 0; d < a.length; d++) {
+            double diff = a[d] - b[d];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    /**
+     * 隐式存储的k-d树：每个区间[lo, hi)的中点是该子树的根节点
+     */
+    private static final class KdTree {
+        // 按树结构排列的食物编号
+        private final int[] ids;
+        // 每个节点的切分维度
+        private final int[] splitDimensions;
+        // 全部标准化向量
+        private final double[][] vectors;
+
+        KdTree(int[] ids, double[][] vectors) {
+            this.ids = ids;
+            this.vectors = vectors;
+            this.splitDimensions = new int[ids.length];
+            build(0, ids.length);
+        }
+
+        private void build(int lo, int hi) {
+            if (hi - lo <= 1) {
+                return;
+            }
+
+            // 选择当前区间中分布范围最大的维度作为切分维度
+            int bestDimension = 0;
+            double bestSpread = -1;
+            for (int d = 0; d < DIMENSIONS; d++) {
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int i = lo; i < hi; i++) {
+                    double value = vectors[ids[i]][d];
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+                if (max - min > bestSpread) {
+                    bestSpread = max - min;
+                    bestDimension = d;
+                }
+            }
+
+            int mid = (lo + hi) >>> 1;
+            select(lo, hi - 1, mid, bestDimension);
+            splitDimensions[mid] = bestDimension;
+
+            build(lo, mid);
+            build(mid + 1, hi);
+        }
+
+        /**
+         * 快速选择：使ids[k]为区间内第k小的元素，左侧不大于它，右侧不小于它
+         */
+        private void select(int left, int right, int k, int dimension) {
+            while (left < right) {
+                double pivot = vectors[ids[(left + right) >>> 1]][dimension];
+                int i = left;
+                int j = right;
+                while (i <= j) {
+                    while (vectors[ids[i]][dimension] < pivot) {
+                        i++;
+                    }
+                    while (vectors[ids[j]][dimension] > pivot) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        int temp = ids[i];
+                        ids[i] = ids[j];
+                        ids[j] = temp;
+                        i++;
+                        j--;
+                    }
+                }
+                if (k <= j) {
+                    right = j;
+                } else if (k >= i) {
+                    left = i;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        void search(double[] query, NeighborHeap heap, Predicate<Food> excluded, List<Food> foods) {
+            search(0, ids.length, query, heap, excluded, foods);
+        }
+
+        private void search(int lo, int hi, double[] query, NeighborHeap heap, Predicate<Food> excluded, List<Food> foods) {
+            if (lo >= hi) {
+                return;
+            }
+
+            int mid = (lo + hi) >>> 1;
+            int id = ids[mid];
+            if (excluded == null || !excluded.test(foods.get(id))) {
+                heap.offer(id, squaredDistance(query, vectors[id]));
+            }
+
+            if (hi - lo == 1) {
+                return;
+            }
+
+            int dimension = splitDimensions[mid];
+            double diff = query[dimension] - vectors[id][dimension];
+
+            // 先搜索查询点所在一侧，再视剪枝条件搜索另一侧
+            if (diff < 0) {
+                search(lo, mid, query, heap, excluded, foods);
+                if (!heap.isFull() || diff * diff < heap.worstDistance()) {
+                    search(mid + 1, hi, query, heap, excluded, foods);
+                }
+            } else {
+                search(mid + 1, hi, query, heap, excluded, foods);
+                if (!heap.isFull() || diff * diff < heap.worstDistance()) {
+                    search(lo, mid, query, heap, excluded, foods);
+                }
+            }
+        }
+    }
+
+    /**
+     * 容量固定的最大堆，保存当前最近的k个候选
+     */
+    private static final class NeighborHeap {
+        private final int[] ids;
+        private final double[] distances;
+        private int size;
+
+        NeighborHeap(int capacity) {
+            this.ids = new int[capacity];
+            this.distances = new double[capacity];
+        }
+
+        boolean isFull() {
+            return size == ids.length;
+        }
+
+        double worstDistance() {
+            return distances[0];
+        }
+
+        void offer(int id, double distance) {
+            if (size < ids.length) {
+                ids[size] = id;
+                distances[size] = distance;
+                siftUp(size++);
+            } else if (distance < distances[0]) {
+                ids[0] = id;
+                distances[0] = distance;
+                siftDown(0);
+            }
+        }
+
+        /**
+         * 取出全部候选，按距离升序排列
+         */
+        int[] drainSorted() {
+            int[] result = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                result[i] = ids[0];
+                size--;
+                ids[0] = ids[size];
+                distances[0] = distances[size];
+                siftDown(0);
+            }
+            return result;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (distances[parent] >= distances[index]) {
+                    break;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int left = index * 2 + 1;
+                if (left >= size) {
+                    break;
+                }
+                int largest = left;
+                if (left + 1 < size && distances[left + 1] > distances[left]) {
+                    largest = left + 1;
+                }
+                if (distances[index] >= distances[largest]) {
+                    break;
+                }
+                swap(index, largest);
+                index = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int tempId = ids[a];
+            ids[a] = ids[b];
+            ids[b] = tempId;
+            double tempDistance = distances[a];
+            distances[a] = distances[b];
+            distances[b] = tempDistance;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.mealplanner.genetic.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.mealplanner.model.Food;
+import com.mealplanner.model.NutrientType;
+
+/**
+ * 用户对膳食方案的一次交互式修改
+ * 增量重规划时作为约束作用于已有前沿和之后产生的所有子代：
+ * - 锁定食物：每个方案都必须包含该食物
+ * - 移除食物：任何方案都不能包含该食物，已有的用营养相近的同类食物替换
+ * - 调整目标：修改部分营养素的目标值，其余保持不变
+ */
+public class MealEdit {
+    /**
+     * 修改类型
+     */
+    public enum EditType {
+        LOCK_FOOD,      // 锁定食物
+        REMOVE_FOOD,    // 移除食物
+        CHANGE_TARGETS  // 调整目标营养素
+    }
+
+    // 修改类型
+    private final EditType type;
+
+    // 锁定或移除的食物
+    private final Food food;
+
+    // 调整后的目标营养素（只包含修改的部分）
+    private final Map<NutrientType, Double> targetChanges;
+
+    private MealEdit(EditType type, Food food, Map<NutrientType, Double> targetChanges) {
+        this.type = type;
+        this.food = food;
+        this.targetChanges = targetChanges;
+    }
+
+    /**
+     * 锁定食物
+     * @param food 必须包含的食物
+     * @return 修改
+     */
+    public static MealEdit lockFood(Food food) {
+        if (food == null) {
+            throw new IllegalArgumentException("锁定的食物不能为空");
+        }
+        return new MealEdit(EditType.LOCK_FOOD, food, Collections.emptyMap());
+    }
+
+    /**
+     * 移除食物
+     * @param food 不能包含的食物
+     * @return 修改
+     */
+    public static MealEdit removeFood(Food food) {
+        if (food == null) {
+            throw new IllegalArgumentException("移除的食物不能为空");
+        }
+        return new MealEdit(EditType.REMOVE_FOOD, food, Collections.emptyMap());
+    }
+
+    /**
+     * 调整目标营养素
+     * @param targetChanges 修改的营养素目标值
+     * @return 修改
+     */
+    public static MealEdit changeTargets(Map<NutrientType, Double> targetChanges) {
+        if (targetChanges == null || targetChanges.isEmpty()) {
+            throw new IllegalArgumentException("目标营养素修改不能为空");
+        }
+        for (Double value : targetChanges.values()) {
+            if (value == null || value < 0) {
+                throw new IllegalArgumentException("目标营养素不能为负数");
+            }
+        }
+        return new MealEdit(EditType.CHANGE_TARGETS, null,
+                Collections.unmodifiableMap(new EnumMap<>(targetChanges)));
+    }
+
+    /**
+     * 把目标修改应用到目标营养素上
+     * @param targetNutrients 原目标营养素
+     * @return 修改后的目标营养素（新映射），非目标修改时内容与原目标相同
+     */
+    public Map<NutrientType, Double> applyToTargets(Map<NutrientType, Double> targetNutrients) {
+        Map<NutrientType, Double> result = new EnumMap<>(NutrientType.class);
+        result.putAll(targetNutrients);
+        result.putAll(targetChanges);
+        return result;
+    }
+
+    /**
+     * 判断方案是否满足该修改
+     * @param solution 膳食方案
+     * @return 是否满足
+     */
+    public boolean isSatisfiedBy(MealSolution solution) {
+        if (type == EditType.CHANGE_TARGETS) {
+            return true;
+        }
+        boolean contains = false;
+        for (FoodGene gene : solution.getFoodGenes()) {
+            if (gene.getFood().getName().equals(food.getName())) {
+                contains = true;
+                break;
+            }
+        }
+        return type == EditType.LOCK_FOOD ? contains : !contains;
+    }
+
+    public EditType getType() {
+        return type;
+    }
+
+    public Food getFood() {
+        return food;
+    }
+
+    public Map<NutrientType, Double> getTargetChanges() {
+        return targetChanges;
+    }
+
+    @Override
+    public String toString() {
+        switch (type) {
+            case LOCK_FOOD:
+                return "锁定食物: " + food.getName();
+            case REMOVE_FOOD:
+                return "移除食物: " + food.getName();
+            default:
+                return "调整目标: " + targetChanges;
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.mealplanner.genetic.model;
 
+import com.mealplanner.genetic.index.FoodCategoryIndex;
 import com.mealplanner.model.Food;
 import com.mealplanner.model.FoodCategory;
 import com.mealplanner.model.NutrientType;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 /**
@@ -23,6 +25,12 @@ public class MealSolution {
     // 目标值列表
     private List<ObjectiveValue> objectiveValues;
     
+    // 用于支配比较和选择的目标值列表（启用目标空间约简时为聚合后的目标，为null时使用objectiveValues）
+    private List<ObjectiveValue> rankingObjectiveValues;
+    
+    // 约束违反程度（0表示可行解）
+    private double constraintViolation;
+    
     // 缓存的营养素总和，避免重复计算
     private Map<NutrientType, Double> cachedTotalNutrients;
     
@@ -40,6 +48,7 @@ public class MealSolution {
     
     /**
      * 创建随机的膳食解决方案
+     * 每次调用都会重新建立类别索引，批量创建时应使用{@link #createRandom(FoodCategoryIndex, int, int, boolean)}
      * @param foodDatabase 食物数据库
      * @param minFoods 最少食物数量
      * @param maxFoods 最多食物数量
@@ -51,136 +60,59 @@ public class MealSolution {
             throw new IllegalArgumentException("食物数据库不能为空");
         }
         
-        Random random = new Random();
-        List<FoodGene> genes = new ArrayList<>();
+        return createRandom(new FoodCategoryIndex(foodDatabase), minFoods, maxFoods, requireStaple);
+    }
+    
+    /**
+     * 基于预先建立的类别索引创建随机的膳食解决方案
+     * 开销为O(食物数量)，与数据库大小无关
+     * @param foodIndex 食物类别索引
+     * @param minFoods 最少食物数量
+     * @param maxFoods 最多食物数量
+     * @param requireStaple 是否需要主食
+     * @return 随机创建的膳食解决方案
+     */
+    public static MealSolution createRandom(FoodCategoryIndex foodIndex, int minFoods, int maxFoods, boolean requireStaple) {
+        Random random = ThreadLocalRandom.current();
         
         // 食物数量
         int foodCount = random.nextInt(maxFoods - minFoods + 1) + minFoods;
+        List<FoodGene> genes = new ArrayList<>(foodCount);
         
         // 如果需要主食，先添加一个主食
         if (requireStaple) {
-            // 筛选所有主食
-            List<Food> staples = foodDatabase.stream()
-                    .filter(food -> FoodCategory.STAPLE.equals(food.getCategory()))
-                    .collect(Collectors.toList());
-            
-            if (!staples.isEmpty()) {
-                // 随机选择一个主食
-                Food staple = staples.get(random.nextInt(staples.size()));
-                
-                // 为主食随机生成一个在推荐范围内的摄入量
-                double minIntake = staple.getRecommendedIntakeRange().getMinIntake();
-                double maxIntake = staple.getRecommendedIntakeRange().getMaxIntake();
-                double intake = minIntake + random.nextDouble() * (maxIntake - minIntake);
-                
-                // 将摄入量四舍五入为整数
-                intake = Math.round(intake);
-                
-                // 添加主食基因
-                genes.add(new FoodGene(staple, intake));
+            Food staple = foodIndex.sampleStaple(random);
+            if (staple != null) {
+                genes.add(new FoodGene(staple, randomIntake(staple, random)));
                 
                 // 减少需要随机选择的食物数量
                 foodCount--;
             }
         }
         
-        // 创建候选食物列表，排除已选择的食物
-        List<Food> candidateFoods = new ArrayList<>(foodDatabase);
-        candidateFoods.removeAll(genes.stream().map(FoodGene::getFood).collect(Collectors.toList()));
-        
-        // 如果要求主食有且只有一个，则从候选列表中移除所有主食
-        if (requireStaple) {
-            candidateFoods.removeIf(food -> FoodCategory.STAPLE.equals(food.getCategory()));
-        }
-        
-        // 根据类别对食物进行分组
-        Map<FoodCategory, List<Food>> foodsByCategory = candidateFoods.stream()
-                .collect(Collectors.groupingBy(Food::getCategory));
-        
-        // 随机选择其余食物
-        for (int i = 0; i < foodCount && !candidateFoods.isEmpty(); i++) {
-            // 基于概率选择食物类别
-            FoodCategory selectedCategory = selectCategoryByProbability(foodsByCategory.keySet(), random);
-            
-            // 如果没有选中任何类别或者该类别没有剩余食物，随机选择一个非空类别
-            if (selectedCategory == null || foodsByCategory.get(selectedCategory) == null || foodsByCategory.get(selectedCategory).isEmpty()) {
-                // 筛选出有食物的类别
-                List<FoodCategory> availableCategories = foodsByCategory.keySet().stream()
-                        .filter(category -> foodsByCategory.get(category) != null && !foodsByCategory.get(category).isEmpty())
-                        .collect(Collectors.toList());
-                
-                if (availableCategories.isEmpty()) {
-                    break; // 没有剩余可选食物
-                }
-                
-                // 随机选择一个有食物的类别
-                selectedCategory = availableCategories.get(random.nextInt(availableCategories.size()));
+        // 按类别概率随机选择其余食物；如果要求主食有且只有一个，则不再选择主食
+        for (int i = 0; i < foodCount; i++) {
+            Food selectedFood = foodIndex.sampleFood(requireStaple, genes, random);
+            if (selectedFood == null) {
+                break; // 没有剩余可选食物
             }
             
-            // 从选定类别中随机选择一个食物
-            List<Food> foodsInCategory = foodsByCategory.get(selectedCategory);
-            Food selectedFood = foodsInCategory.get(random.nextInt(foodsInCategory.size()));
-            
-            // 为食物随机生成一个在推荐范围内的摄入量
-            double minIntake = selectedFood.getRecommendedIntakeRange().getMinIntake();
-            double maxIntake = selectedFood.getRecommendedIntakeRange().getMaxIntake();
-            double intake = minIntake + random.nextDouble() * (maxIntake - minIntake);
-            
-            // 将摄入量四舍五入为整数
-            intake = Math.round(intake);
-            
-            // 添加食物基因
-            genes.add(new FoodGene(selectedFood, intake));
-            
-            // 从候选食物列表中移除已选食物
-            foodsInCategory.remove(selectedFood);
-            candidateFoods.remove(selectedFood);
-            
-            // 如果该类别的食物已经用完，从分组中移除该类别
-            if (foodsInCategory.isEmpty()) {
-                foodsByCategory.remove(selectedCategory);
-            }
+            genes.add(new FoodGene(selectedFood, randomIntake(selectedFood, random)));
         }
         
         return new MealSolution(genes);
     }
     
     /**
-     * 根据类别的选中概率选择食物类别
-     * @param categories 可选类别集合
+     * 为食物随机生成一个在推荐范围内的整数摄入量
+     * @param food 食物
      * @param random 随机数生成器
-     * @return 选中的类别
+     * @return 摄入量(g)
      */
-    private static FoodCategory selectCategoryByProbability(Set<FoodCategory> categories, Random random) {
-        if (categories == null || categories.isEmpty()) {
-            return null;
-        }
-        
-        // 计算所有可用类别的总概率
-        double totalProbability = categories.stream()
-                .mapToDouble(FoodCategory::getSelectionProbability)
-                .sum();
-        
-        // 如果总概率为0，则所有类别等概率选择
-        if (totalProbability <= 0) {
-            List<FoodCategory> categoryList = new ArrayList<>(categories);
-            return categoryList.get(random.nextInt(categoryList.size()));
-        }
-        
-        // 生成0到总概率之间的随机数
-        double randomValue = random.nextDouble() * totalProbability;
-        
-        // 按概率选择类别
-        double cumulativeProbability = 0.0;
-        for (FoodCategory category : categories) {
-            cumulativeProbability += category.getSelectionProbability();
-            if (randomValue <= cumulativeProbability) {
-                return category;
-            }
-        }
-        
-        // 如果由于浮点数误差没有选中任何类别，返回第一个
-        return categories.iterator().next();
+    private static double randomIntake(Food food, Random random) {
+        double minIntake = food.getRecommendedIntakeRange().getMinIntake();
+        double maxIntake = food.getRecommendedIntakeRange().getMaxIntake();
+        return Math.round(minIntake + random.nextDouble() * (maxIntake - minIntake));
     }
     
     /**
@@ -195,12 +127,18 @@ public class MealSolution {
         MealSolution copy = new MealSolution(genesCopy);
         copy.rank = this.rank;
         copy.crowdingDistance = this.crowdingDistance;
+        copy.constraintViolation = this.constraintViolation;
         
         if (this.objectiveValues != null) {
             copy.objectiveValues = this.objectiveValues.stream()
                     .map(ObjectiveValue::copy)
                     .collect(Collectors.toList());
         }
+        if (this.rankingObjectiveValues != null) {
+            copy.rankingObjectiveValues = this.rankingObjectiveValues.stream()
+                    .map(ObjectiveValue::copy)
+                    .collect(Collectors.toList());
+        }
         
         return copy;
     }
@@ -333,16 +271,25 @@ public class MealSolution {
     
     /**
      * 检查该解决方案是否支配另一个解决方案
+     * 采用约束支配规则（Deb规则）：
+     * 可行解支配不可行解；两个不可行解中违反程度小的支配违反程度大的；
+     * 两个可行解之间按帕累托支配比较（使用排序目标值）
      * @param other 另一个解决方案
      * @return 是否支配
      */
     public boolean dominates(MealSolution other) {
+        if (constraintViolation > 0 || other.constraintViolation > 0) {
+            return constraintViolation < other.constraintViolation;
+        }
+        
         boolean atLeastOneBetter = false;
+        List<ObjectiveValue> thisValues = getRankingObjectiveValues();
+        List<ObjectiveValue> otherValues = other.getRankingObjectiveValues();
         
         // 比较每个目标值
-        for (int i = 0; i < objectiveValues.size(); i++) {
-            ObjectiveValue thisObj = objectiveValues.get(i);
-            ObjectiveValue otherObj = other.objectiveValues.get(i);
+        for (int i = 0; i < thisValues.size(); i++) {
+            ObjectiveValue thisObj = thisValues.get(i);
+            ObjectiveValue otherObj = otherValues.get(i);
             
             // 如果本解在任何目标上更差，则不支配other
             if (thisObj.getValue() < otherObj.getValue()) {
@@ -386,6 +333,22 @@ public class MealSolution {
         this.crowdingDistance = crowdingDistance;
     }
     
+    public double getConstraintViolation() {
+        return constraintViolation;
+    }
+    
+    public void setConstraintViolation(double constraintViolation) {
+        this.constraintViolation = constraintViolation;
+    }
+    
+    /**
+     * 检查是否为可行解（不违反任何硬性约束）
+     * @return 是否可行
+     */
+    public boolean isFeasible() {
+        return constraintViolation <= 0;
+    }
+    
     public List<ObjectiveValue> getObjectiveValues() {
         return objectiveValues;
     }
@@ -394,6 +357,19 @@ public class MealSolution {
         this.objectiveValues = objectiveValues;
     }
     
+    /**
+     * 获取用于支配比较和选择的目标值列表
+     * 启用目标空间约简时返回聚合后的目标，否则与 {@link #getObjectiveValues()} 相同
+     * @return 排序目标值列表
+     */
+    public List<ObjectiveValue> getRankingObjectiveValues() {
+        return rankingObjectiveValues != null ? rankingObjectiveValues : objectiveValues;
+    }
+    
+    public void setRankingObjectiveValues(List<ObjectiveValue> rankingObjectiveValues) {
+        this.rankingObjectiveValues = rankingObjectiveValues;
+    }
+    
     public ObjectiveValue getObjectiveValue(int index) {
         if (index >= 0 && index < objectiveValues.size()) {
             return objectiveValues.get(index);
@@ -75,6 +75,18 @@ public class ObjectiveValue {
         return value >= hardConstraintThreshold;
     }
     
+    /**
+     * 计算硬性约束的违反程度
+     * @return 违反程度（0表示满足或不是硬性约束，值越大违反越严重）
+     */
+    public double getConstraintViolation() {
+        if (!isHardConstraint) {
+            return 0;
+        }
+        
+        return Math.max(0, hardConstraintThreshold - value);
+    }
+    
     /**
      * 获取加权值
      * @return 加权后的目标值
@@ -8,21 +8,21 @@ import com.mealplanner.model.NutrientType;
 
 /**
  * 目标评估器抽象类，定义评估膳食解决方案的基本方法和通用实现
+ * 名称和权重在构造时确定，评估器可被多个线程共享；需要不同权重时由子类创建新实例
  */
 public abstract class AbstractObjectiveEvaluator {
     
     // 目标名称
-    protected String name;
+    protected final String name;
     
     // 目标权重
-    protected double weight=0.2;
+    protected final double weight;
     /**
-     * 构造函数
+     * 构造函数，权重为0.2
      * @param name 目标名称
-     * @param weight 目标权重
      */
     public AbstractObjectiveEvaluator(String name) {
-        this.name = name;
+        this(name, 0.2);
     }
     
     /**
@@ -51,14 +51,6 @@ public abstract class AbstractObjectiveEvaluator {
         return name;
     }
     
-    /**
-     * 设置目标名称
-     * @param name 目标名称
-     */
-    public void setName(String name) {
-        this.name = name;
-    }
-    
     /**
      * 获取目标权重
      * @return 目标权重
@@ -66,12 +58,4 @@ public abstract class AbstractObjectiveEvaluator {
     public double getWeight() {
         return weight;
     }
-    
-    /**
-     * 设置目标权重
-     * @param weight 目标权重
-     */
-    public void setWeight(double weight) {
-        this.weight = weight;
-    }
-} 
\ No newline at end of file
+}
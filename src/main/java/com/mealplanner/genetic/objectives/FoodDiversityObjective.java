@@ -10,31 +10,40 @@ import java.util.*;
 
 /**
  * 多样性目标类，专注于评估膳食解决方案的食物多样性和食物组合合理性
+ * 各项权重和理想类别分布在构造后不再修改，可被多个规划线程共享；
+ * 需要不同权重时用with开头的方法得到一个新实例
  */
 public class FoodDiversityObjective extends AbstractObjectiveEvaluator {
     // 类别多样性权重
-    private double categoryWeight = 0.5;
+    private final double categoryWeight;
     
     // 食物特性多样性权重，暂时不考虑特性多样性
-    private double attributeWeight = 0;
+    private final double attributeWeight;
     
     // 食物组合合理性权重：主食、蔬菜、蛋奶等组合
-    private double foodCombinationWeight = 0.2;
+    private final double foodCombinationWeight;
     
     // 类别覆盖率在类别多样性中的权重
-    private double categoryCoverageWeight = 0.2;
+    private final double categoryCoverageWeight;
     
     // 类别分布在类别多样性中的权重
-    private double categoryDistributionWeight = 0.8;
-    // 理想的类别分布
-    private Map<FoodCategory, Double> idealCategoryDistribution;
+    private final double categoryDistributionWeight;
+    // 理想的类别分布中包含的类别（按ordinal记录）
+    private final int[] idealCategoryOrdinals;
+    // 理想的类别分布，按FoodCategory.ordinal()索引
+    private final double[] idealCategoryDistribution;
+    
+    // 类别数量
+    private static final int CATEGORY_COUNT = FoodCategory.values().length;
+    
+    // 每个线程复用的类别计数器，避免每次评估分配新的集合
+    private static final ThreadLocal<int[]> CATEGORY_COUNTER = ThreadLocal.withInitial(() -> new int[CATEGORY_COUNT]);
     
     /**
      * 构造函数
      */
     public FoodDiversityObjective() {
-        super("diversity_objective", 0.2);
-        initializeIdealDistribution();
+        this(0.2);
     }
     
     /**
@@ -42,23 +51,45 @@ public class FoodDiversityObjective extends AbstractObjectiveEvaluator {
      * @param weight 目标权重
      */
     public FoodDiversityObjective(double weight) {
+        this(weight, 0.5, 0, 0.2, 0.2, 0.8, defaultIdealDistribution());
+    }
+    
+    private FoodDiversityObjective(double weight, double categoryWeight, double attributeWeight,
+                                   double foodCombinationWeight, double categoryCoverageWeight,
+                                   double categoryDistributionWeight, Map<FoodCategory, Double> distribution) {
         super("diversity_objective", weight);
-        initializeIdealDistribution();
+        this.categoryWeight = categoryWeight;
+        this.attributeWeight = attributeWeight;
+        this.foodCombinationWeight = foodCombinationWeight;
+        this.categoryCoverageWeight = categoryCoverageWeight;
+        this.categoryDistributionWeight = categoryDistributionWeight;
+        
+        double[] values = new double[CATEGORY_COUNT];
+        int[] ordinals = new int[distribution.size()];
+        int index = 0;
+        for (Map.Entry<FoodCategory, Double> entry : distribution.entrySet()) {
+            int ordinal = entry.getKey().ordinal();
+            values[ordinal] = entry.getValue();
+            ordinals[index++] = ordinal;
+        }
+        this.idealCategoryDistribution = values;
+        this.idealCategoryOrdinals = ordinals;
     }
     
     /**
-     * 初始化理想的食物类别分布
+     * 默认的理想食物类别分布
      */
-    private void initializeIdealDistribution() {
-        idealCategoryDistribution = new HashMap<>();
-        idealCategoryDistribution.put(FoodCategory.STAPLE, 0.20);      // 主食
-        idealCategoryDistribution.put(FoodCategory.VEGETABLE, 0.30);   // 蔬菜
-        idealCategoryDistribution.put(FoodCategory.FRUIT, 0.15);       // 水果
-        idealCategoryDistribution.put(FoodCategory.MEAT, 0.15);        // 肉类
-        idealCategoryDistribution.put(FoodCategory.FISH, 0.05);        // 鱼类
-        idealCategoryDistribution.put(FoodCategory.EGG, 0.05);         // 蛋类
-        idealCategoryDistribution.put(FoodCategory.MILK, 0.05);        // 乳制品
-        idealCategoryDistribution.put(FoodCategory.OIL, 0.05);         // 油脂
+    private static Map<FoodCategory, Double> defaultIdealDistribution() {
+        Map<FoodCategory, Double> distribution = new HashMap<>();
+        distribution.put(FoodCategory.STAPLE, 0.20);      // 主食
+        distribution.put(FoodCategory.VEGETABLE, 0.30);   // 蔬菜
+        distribution.put(FoodCategory.FRUIT, 0.15);       // 水果
+        distribution.put(FoodCategory.MEAT, 0.15);        // 肉类
+        distribution.put(FoodCategory.FISH, 0.05);        // 鱼类
+        distribution.put(FoodCategory.EGG, 0.05);         // 蛋类
+        distribution.put(FoodCategory.MILK, 0.05);        // 乳制品
+        distribution.put(FoodCategory.OIL, 0.05);         // 油脂
+        return distribution;
     }
     
     /**
@@ -84,14 +115,21 @@ public class FoodDiversityObjective extends AbstractObjectiveEvaluator {
             return new ObjectiveValue(getName(), 0.0, getWeight());
         }
 
+        // 单次遍历基因，统计各类别食物数量
+        int[] categoryCount = CATEGORY_COUNTER.get();
+        Arrays.fill(categoryCount, 0);
+        for (int i = 0; i < genes.size(); i++) {
+            categoryCount[genes.get(i).getFood().getCategory().ordinal()]++;
+        }
+
         // 计算类别多样性得分
-        double categoryScore = evaluateCategoryDiversity(genes);
+        double categoryScore = evaluateCategoryDiversity(categoryCount, genes.size());
         
-        // 计算食物特性多样性得分
-        double attributeScore = evaluateAttributeDiversity(genes);
+        // 计算食物特性多样性得分（权重为0时跳过，避免无谓的集合分配）
+        double attributeScore = attributeWeight > 0 ? evaluateAttributeDiversity(genes) : 0;
         
         // 计算食物组合合理性得分
-        double foodCombinationScore = evaluateFoodCombination(genes);
+        double foodCombinationScore = evaluateFoodCombination(categoryCount);
         
         // 计算加权总分
         double totalScore = categoryScore * categoryWeight + 
@@ -103,39 +141,39 @@ public class FoodDiversityObjective extends AbstractObjectiveEvaluator {
     
     /**
      * 评估食物类别多样性
-     * @param genes 食物基因列表
+     * @param categoryCount 按类别ordinal索引的食物数量
+     * @param geneCount 食物总数
      * @return 类别多样性得分（0-1之间）
      */
-    private double evaluateCategoryDiversity(List<FoodGene> genes) {
-        // 统计各类别食物数量
-        Map<FoodCategory, Integer> categoryCount = new HashMap<>();
-        for (FoodGene gene : genes) {
-            FoodCategory category = gene.getFood().getCategory();
-            categoryCount.put(category, categoryCount.getOrDefault(category, 0) + 1);
+    private double evaluateCategoryDiversity(int[] categoryCount, int geneCount) {
+        int idealSize = idealCategoryOrdinals.length;
+        if (idealSize == 0) {
+            return 0;
+        }
+        
+        // 统计出现的类别数量
+        int presentCategories = 0;
+        for (int count : categoryCount) {
+            if (count > 0) {
+                presentCategories++;
+            }
         }
         
         // 计算类别覆盖率
-        double coverageScore = (double) categoryCount.size() / idealCategoryDistribution.size();
+        double coverageScore = (double) presentCategories / idealSize;
         
-        // 计算类别分布与理想分布的差异
+        // 计算类别分布与理想分布的相似度
         double distributionScore = 0;
-        if (!categoryCount.isEmpty()) {
-            // 当前分布
-            Map<FoodCategory, Double> actualDistribution = new HashMap<>();
-            for (Map.Entry<FoodCategory, Integer> entry : categoryCount.entrySet()) {
-                actualDistribution.put(entry.getKey(), (double) entry.getValue() / genes.size());
-            }
-            
-            // 计算与理想分布的相似度
+        if (presentCategories > 0) {
             double similarity = 0;
-            for (FoodCategory category : idealCategoryDistribution.keySet()) {
-                double ideal = idealCategoryDistribution.get(category);
-                double actual = actualDistribution.getOrDefault(category, 0.0);
+            for (int ordinal : idealCategoryOrdinals) {
+                double ideal = idealCategoryDistribution[ordinal];
+                double actual = (double) categoryCount[ordinal] / geneCount;
                 // 使用 1 - 绝对差异 作为相似度，增加差异的惩罚力度
                 similarity += 1 - Math.min(1, Math.abs(ideal - actual) * 3); // 从2增加到3，增加惩罚力度
             }
             
-            distributionScore = similarity / idealCategoryDistribution.size();
+            distributionScore = similarity / idealSize;
         }
         
         // 综合覆盖率和分布得分
@@ -190,26 +228,16 @@ public class FoodDiversityObjective extends AbstractObjectiveEvaluator {
     
     /**
      * 评估食物组合的合理性
-     * @param genes 食物基因列表
+     * @param categoryCount 按类别ordinal索引的食物数量
      * @return 食物组合合理性得分（0-1之间）
      */
-    private double evaluateFoodCombination(List<FoodGene> genes) {
-        boolean hasStaple = false;
-        boolean hasVegetable = false;
-        boolean hasProteinSource = false;
-        
-        for (FoodGene gene : genes) {
-            FoodCategory category = gene.getFood().getCategory();
-            
-            if (FoodCategory.STAPLE.equals(category)) {
-                hasStaple = true;
-            } else if (FoodCategory.VEGETABLE.equals(category)) {
-                hasVegetable = true;
-            } else if (FoodCategory.MEAT.equals(category) || FoodCategory.FISH.equals(category) || 
-                       FoodCategory.EGG.equals(category) || FoodCategory.BEAN.equals(category)) {
-                hasProteinSource = true;
-            }
-        }
+    private double evaluateFoodCombination(int[] categoryCount) {
+        boolean hasStaple = categoryCount[FoodCategory.STAPLE.ordinal()] > 0;
+        boolean hasVegetable = categoryCount[FoodCategory.VEGETABLE.ordinal()] > 0;
+        boolean hasProteinSource = categoryCount[FoodCategory.MEAT.ordinal()] > 0
+                || categoryCount[FoodCategory.FISH.ordinal()] > 0
+                || categoryCount[FoodCategory.EGG.ordinal()] > 0
+                || categoryCount[FoodCategory.BEAN.ordinal()] > 0;
         
         // 基础得分：是否包含基本营养成分
         double baseScore = 0;
@@ -219,16 +247,10 @@ public class FoodDiversityObjective extends AbstractObjectiveEvaluator {
         
         // 检查类别平衡性
         double balanceScore = 0;
-        Map<FoodCategory, Integer> categoryCount = new HashMap<>();
-        for (FoodGene gene : genes) {
-            FoodCategory category = gene.getFood().getCategory();
-            categoryCount.put(category, categoryCount.getOrDefault(category, 0) + 1);
-        }
-        
-        for (Map.Entry<FoodCategory, Integer> entry : categoryCount.entrySet()) {
-            if (entry.getValue() > 3) {
+        for (int count : categoryCount) {
+            if (count > 3) {
                 // 扣分：某一类别食物过多
-                balanceScore -= 0.05 * (entry.getValue() - 3);
+                balanceScore -= 0.05 * (count - 3);
             }
         }
         
@@ -245,16 +267,25 @@ public class FoodDiversityObjective extends AbstractObjectiveEvaluator {
     }
     
     /**
-     * 设置类别多样性权重
+     * 返回目标权重不同的新实例
+     * @param weight 目标权重
+     * @return 新实例
+     */
+    public FoodDiversityObjective withWeight(double weight) {
+        return new FoodDiversityObjective(weight, categoryWeight, attributeWeight, foodCombinationWeight,
+                categoryCoverageWeight, categoryDistributionWeight, getIdealCategoryDistribution());
+    }
+    
+    /**
+     * 返回类别多样性权重不同的新实例，其他两项权重按原比例分配剩余部分，确保总和为1
      * @param categoryWeight 类别多样性权重
+     * @return 新实例
      */
-    public void setCategoryWeight(double categoryWeight) {
-        this.categoryWeight = categoryWeight;
-        // 调整其他权重，确保总和为1
+    public FoodDiversityObjective withCategoryWeight(double categoryWeight) {
         double remainingWeight = 1 - categoryWeight;
         double ratio = attributeWeight / (attributeWeight + foodCombinationWeight);
-        this.attributeWeight = remainingWeight * ratio;
-        this.foodCombinationWeight = remainingWeight * (1 - ratio);
+        return new FoodDiversityObjective(weight, categoryWeight, remainingWeight * ratio, remainingWeight * (1 - ratio),
+                categoryCoverageWeight, categoryDistributionWeight, getIdealCategoryDistribution());
     }
     
     /**
@@ -266,16 +297,15 @@ public class FoodDiversityObjective extends AbstractObjectiveEvaluator {
     }
     
     /**
-     * 设置食物特性多样性权重
+     * 返回食物特性多样性权重不同的新实例，其他两项权重按原比例分配剩余部分，确保总和为1
      * @param attributeWeight 食物特性多样性权重
+     * @return 新实例
      */
-    public void setAttributeWeight(double attributeWeight) {
-        this.attributeWeight = attributeWeight;
-        // 调整其他权重，确保总和为1
+    public FoodDiversityObjective withAttributeWeight(double attributeWeight) {
         double remainingWeight = 1 - attributeWeight;
         double ratio = categoryWeight / (categoryWeight + foodCombinationWeight);
-        this.categoryWeight = remainingWeight * ratio;
-        this.foodCombinationWeight = remainingWeight * (1 - ratio);
+        return new FoodDiversityObjective(weight, remainingWeight * ratio, attributeWeight, remainingWeight * (1 - ratio),
+                categoryCoverageWeight, categoryDistributionWeight, getIdealCategoryDistribution());
     }
     
     /**
@@ -287,24 +317,25 @@ public class FoodDiversityObjective extends AbstractObjectiveEvaluator {
     }
     
     /**
-     * 设置食物组合合理性权重
+     * 返回食物组合合理性权重不同的新实例，其他两项权重按原比例分配剩余部分，确保总和为1
      * @param foodCombinationWeight 食物组合合理性权重
+     * @return 新实例
      */
-    public void setFoodCombinationWeight(double foodCombinationWeight) {
-        this.foodCombinationWeight = foodCombinationWeight;
-        // 调整其他权重，确保总和为1
+    public FoodDiversityObjective withFoodCombinationWeight(double foodCombinationWeight) {
         double remainingWeight = 1 - foodCombinationWeight;
         double ratio = categoryWeight / (categoryWeight + attributeWeight);
-        this.categoryWeight = remainingWeight * ratio;
-        this.attributeWeight = remainingWeight * (1 - ratio);
+        return new FoodDiversityObjective(weight, remainingWeight * ratio, remainingWeight * (1 - ratio), foodCombinationWeight,
+                categoryCoverageWeight, categoryDistributionWeight, getIdealCategoryDistribution());
     }
     
     /**
-     * 设置理想的类别分布
+     * 返回理想类别分布不同的新实例
      * @param distribution 类别分布映射
+     * @return 新实例
      */
-    public void setIdealCategoryDistribution(Map<FoodCategory, Double> distribution) {
-        this.idealCategoryDistribution = new HashMap<>(distribution);
+    public FoodDiversityObjective withIdealCategoryDistribution(Map<FoodCategory, Double> distribution) {
+        return new FoodDiversityObjective(weight, categoryWeight, attributeWeight, foodCombinationWeight,
+                categoryCoverageWeight, categoryDistributionWeight, distribution);
     }
     
     /**
@@ -312,15 +343,21 @@ public class FoodDiversityObjective extends AbstractObjectiveEvaluator {
      * @return 类别分布映射
      */
     public Map<FoodCategory, Double> getIdealCategoryDistribution() {
-        return new HashMap<>(idealCategoryDistribution);
+        FoodCategory[] categories = FoodCategory.values();
+        Map<FoodCategory, Double> distribution = new HashMap<>();
+        for (int ordinal : idealCategoryOrdinals) {
+            distribution.put(categories[ordinal], idealCategoryDistribution[ordinal]);
+        }
+        return distribution;
     }
     
     /**
-     * 调整类别分布在多样性评分中的权重
+     * 返回调整了类别分布权重的新实例
      * @param categoryDistributionWeight 类别分布权重（在类别多样性评分中的权重）
      * @param categoryWeight 类别多样性在总体多样性评分中的权重
+     * @return 新实例
      */
-    public void adjustCategoryDistributionWeight(double categoryDistributionWeight, double categoryWeight) {
+    public FoodDiversityObjective withCategoryDistributionWeight(double categoryDistributionWeight, double categoryWeight) {
         if (categoryDistributionWeight < 0 || categoryDistributionWeight > 1) {
             throw new IllegalArgumentException("类别分布权重必须在0到1之间");
         }
@@ -328,19 +365,18 @@ public class FoodDiversityObjective extends AbstractObjectiveEvaluator {
             throw new IllegalArgumentException("类别多样性权重必须在0到1之间");
         }
         
-        // 设置类别分布在类别多样性评分中的权重
-        double coverageWeight = 1 - categoryDistributionWeight;
-        this.categoryDistributionWeight = categoryDistributionWeight;
-        this.categoryCoverageWeight = coverageWeight;
-        
-        // 修改类别多样性在总体多样性中的权重
-        setCategoryWeight(categoryWeight);
-        
-        System.out.println("已调整类别分布权重：");
-        System.out.println("- 类别分布在类别多样性中的权重: " + categoryDistributionWeight);
-        System.out.println("- 类别覆盖率在类别多样性中的权重: " + coverageWeight);
-        System.out.println("- 类别多样性在总体多样性中的权重: " + categoryWeight);
-        System.out.println("- 食物特性多样性在总体多样性中的权重: " + attributeWeight);
-        System.out.println("- 食物组合合理性在总体多样性中的权重: " + foodCombinationWeight);
+        // 类别分布和类别覆盖率在类别多样性评分中的权重之和为1
+        FoodDiversityObjective adjusted = withCategoryWeight(categoryWeight);
+        return new FoodDiversityObjective(weight, adjusted.categoryWeight, adjusted.attributeWeight,
+                adjusted.foodCombinationWeight, 1 - categoryDistributionWeight, categoryDistributionWeight,
+                getIdealCategoryDistribution());
+    }
+    
+    public double getCategoryCoverageWeight() {
+        return categoryCoverageWeight;
+    }
+    
+    public double getCategoryDistributionWeight() {
+        return categoryDistributionWeight;
     }
-} 
\ No newline at end of file
+}
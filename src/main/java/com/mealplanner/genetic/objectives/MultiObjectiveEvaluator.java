@@ -8,30 +8,119 @@ import java.util.*;
 
 /**
  * 多目标评价器，评估膳食解决方案在多个目标上的表现
+ * 各目标评估器、约束支配开关和目标约简方式在构造后不再修改，可被多个规划线程共享；
+ * 需要不同配置时用with开头的方法得到一个新实例
  */
 public class MultiObjectiveEvaluator {
+    /**
+     * 目标空间约简方式
+     */
+    public enum ObjectiveReduction {
+        NONE,               // 按全部营养素目标分别比较
+        NUTRIENT_GROUPS     // 营养素目标按组聚合后再比较
+    }
+    
+    /**
+     * 营养素目标分组
+     */
+    public enum NutrientGroup {
+        MACRO("宏量营养素"),     // 热量、碳水化合物、蛋白质、脂肪、膳食纤维
+        MICRO("微量营养素"),     // 钙、钾、镁、铁、磷等矿物质
+        LIMIT("限制性营养素");   // 需要控制上限的营养素（钠）
+        
+        private final String displayName;
+        
+        NutrientGroup(String displayName) {
+            this.displayName = displayName;
+        }
+        
+        public String getDisplayName() {
+            return displayName;
+        }
+        
+        /**
+         * 获取营养素所属的分组
+         * @param nutrient 营养素
+         * @return 分组
+         */
+        public static NutrientGroup of(NutrientType nutrient) {
+            switch (nutrient) {
+                case CALORIES:
+                case CARBOHYDRATES:
+                case PROTEIN:
+                case FAT:
+                case FIBER:
+                    return MACRO;
+                case SODIUM:
+                    return LIMIT;
+                default:
+                    return MICRO;
+            }
+        }
+    }
+    
     // 各个目标评估器
-    private List<NutrientObjective> nutrientObjectives = new ArrayList<>();
-    private UserPreferenceObjective preferenceObjective;
-    private FoodDiversityObjective diversityObjective;
-    private NutrientBalanceObjective balanceObjective;
+    private final List<NutrientObjective> nutrientObjectives;
+    private final UserPreferenceObjective preferenceObjective;
+    private final FoodDiversityObjective diversityObjective;
+    private final NutrientBalanceObjective balanceObjective;
     
     // 评分阈值
-    private double goodEnoughThreshold = 0.8;
+    private final double goodEnoughThreshold;
+    
+    // 是否计算约束违反程度并用于约束支配排序
+    private final boolean constraintDominationEnabled;
+    
+    // 目标空间约简方式
+    private final ObjectiveReduction objectiveReduction;
+    
+    // 各营养素的重要程度权重，用于组内聚合
+    private final Map<NutrientType, Double> nutrientWeights;
+    
+    // 各营养素的达成率范围，用于计算约束违反程度
+    private final Map<NutrientType, double[]> nutrientRates;
     
     /**
-     * 构造函数
+     * 构造函数，启用约束支配，不做目标约简
      * @param userProfile 用户档案
      */
     public MultiObjectiveEvaluator(UserProfile userProfile) {
-        // 初始化营养素评估器
-        this.nutrientObjectives = NutrientObjective.createStandardNutrientObjectives(userProfile);
-        // 初始化偏好目标评估器,用于评估食物是否符合用户偏好
-        this.preferenceObjective = new UserPreferenceObjective(userProfile);
-        // 初始化多样性目标评估器,用于评估食物种类的多样性
-        this.diversityObjective = new FoodDiversityObjective();
-        // 初始化平衡性目标评估器,用于评估营养素的平衡性
-        this.balanceObjective = new NutrientBalanceObjective(userProfile);
+        this(userProfile, true, ObjectiveReduction.NONE);
+    }
+    
+    /**
+     * 构造函数
+     * @param userProfile 用户档案
+     * @param constraintDominationEnabled 是否启用约束支配排序，关闭时所有解的约束违反程度视为0
+     * @param objectiveReduction 目标空间约简方式
+     */
+    public MultiObjectiveEvaluator(UserProfile userProfile, boolean constraintDominationEnabled,
+                                   ObjectiveReduction objectiveReduction) {
+        // 初始化营养素评估器、偏好目标评估器（评估食物是否符合用户偏好）、
+        // 多样性目标评估器（评估食物种类的多样性）和平衡性目标评估器（评估营养素的平衡性）
+        this(Collections.unmodifiableList(NutrientObjective.createStandardNutrientObjectives(userProfile)),
+                new UserPreferenceObjective(userProfile), new FoodDiversityObjective(),
+                new NutrientBalanceObjective(userProfile), 0.8, constraintDominationEnabled, objectiveReduction,
+                NutrientType.getNutrientWeights(userProfile), NutrientType.getNutrientRates(userProfile));
+    }
+    
+    private MultiObjectiveEvaluator(List<NutrientObjective> nutrientObjectives, UserPreferenceObjective preferenceObjective,
+                                    FoodDiversityObjective diversityObjective, NutrientBalanceObjective balanceObjective,
+                                    double goodEnoughThreshold, boolean constraintDominationEnabled,
+                                    ObjectiveReduction objectiveReduction, Map<NutrientType, Double> nutrientWeights,
+                                    Map<NutrientType, double[]> nutrientRates) {
+        if (objectiveReduction == null) {
+            throw new IllegalArgumentException("目标约简方式不能为空");
+        }
+        this.nutrientObjectives = nutrientObjectives;
+        this.preferenceObjective = preferenceObjective;
+        this.diversityObjective = diversityObjective;
+        this.balanceObjective = balanceObjective;
+        this.goodEnoughThreshold = goodEnoughThreshold;
+        this.constraintDominationEnabled = constraintDominationEnabled;
+        this.objectiveReduction = objectiveReduction;
+        this.nutrientWeights = nutrientWeights;
+        this.nutrientRates = nutrientRates;
     }
     
     /**
@@ -56,9 +145,74 @@ public class MultiObjectiveEvaluator {
         // 评估平衡性目标
         objectiveValues.add(balanceObjective.evaluate(solution, targetNutrients));
         
+        // 计算约束违反程度，供约束支配排序使用
+        solution.setConstraintViolation(constraintDominationEnabled ? calculateConstraintViolation(solution, targetNutrients) : 0);
+        
+        // 启用约简时支配比较使用聚合目标，全部营养素目标仍保留用于报告和筛选
+        solution.setRankingObjectiveValues(objectiveReduction == ObjectiveReduction.NONE ? null : reduce(objectiveValues));
+        
         return objectiveValues;
     }
     
+    /**
+     * 把营养素目标按分组聚合，其余目标保持不变
+     * 组内得分为各营养素得分按营养素权重的加权平均，组权重为组内权重之和；
+     * 硬性约束已计入约束违反程度，聚合目标不再作为硬性约束
+     * @param objectiveValues evaluate返回的完整目标值列表
+     * @return 约简后的目标值列表：各营养素分组（按MACRO、MICRO、LIMIT顺序，跳过空组）加上其他目标
+     */
+    public List<ObjectiveValue> reduce(List<ObjectiveValue> objectiveValues) {
+        NutrientGroup[] groups = NutrientGroup.values();
+        double[] weightedScores = new double[groups.length];
+        double[] groupWeights = new double[groups.length];
+        
+        int nutrientCount = nutrientObjectives.size();
+        for (int i = 0; i < nutrientCount; i++) {
+            NutrientType nutrient = nutrientObjectives.get(i).getNutrientType();
+            Double weight = nutrientWeights.get(nutrient);
+            double w = weight != null ? weight : nutrient.getDefaultWeight();
+            int group = NutrientGroup.of(nutrient).ordinal();
+            weightedScores[group] += w * objectiveValues.get(i).getValue();
+            groupWeights[group] += w;
+        }
+        
+        List<ObjectiveValue> reduced = new ArrayList<>(groups.length + objectiveValues.size() - nutrientCount);
+        for (NutrientGroup group : groups) {
+            int g = group.ordinal();
+            if (groupWeights[g] > 0) {
+                reduced.add(new ObjectiveValue(group.getDisplayName(), weightedScores[g] / groupWeights[g], groupWeights[g]));
+            }
+        }
+        reduced.addAll(objectiveValues.subList(nutrientCount, objectiveValues.size()));
+        return reduced;
+    }
+    
+    /**
+     * 计算解决方案的约束违反程度
+     * 即各营养素实际摄入量与目标值之比超出达成率范围部分的总和，
+     * 与最终筛选方案时"所有营养素都在达成率范围内"的判定一致：违反程度为0当且仅当满足该要求
+     * @param solution 解决方案
+     * @param targetNutrients 目标营养素
+     * @return 约束违反程度（0表示满足所有营养素达成率范围）
+     */
+    public double calculateConstraintViolation(MealSolution solution, Map<NutrientType, Double> targetNutrients) {
+        if (targetNutrients == null) {
+            return 0;
+        }
+        Map<NutrientType, Double> actualNutrients = solution.calculateTotalNutrients();
+        double violation = 0;
+        for (Map.Entry<NutrientType, Double> entry : targetNutrients.entrySet()) {
+            Double target = entry.getValue();
+            double[] range = nutrientRates.get(entry.getKey());
+            if (target == null || target <= 0 || range == null) {
+                continue;
+            }
+            double ratio = actualNutrients.getOrDefault(entry.getKey(), 0.0) / target;
+            violation += Math.max(0, range[0] - ratio) + Math.max(0, ratio - range[1]);
+        }
+        return violation;
+    }
+    
     /**
      * 计算解决方案的总体加权评分
      * @param solution 解决方案
@@ -102,7 +256,7 @@ public class MultiObjectiveEvaluator {
     
     /**
      * 获取营养素目标
-     * @return 营养素目标列表
+     * @return 营养素目标列表（只读）
      */
     public List<NutrientObjective> getNutrientObjectives() {
         return nutrientObjectives;
@@ -116,6 +270,16 @@ public class MultiObjectiveEvaluator {
         return preferenceObjective;
     }
     
+    /**
+     * 返回使用指定用户偏好目标的新实例
+     * @param preferenceObjective 用户偏好目标
+     * @return 新实例
+     */
+    public MultiObjectiveEvaluator withPreferenceObjective(UserPreferenceObjective preferenceObjective) {
+        return new MultiObjectiveEvaluator(nutrientObjectives, preferenceObjective, diversityObjective, balanceObjective,
+                goodEnoughThreshold, constraintDominationEnabled, objectiveReduction, nutrientWeights, nutrientRates);
+    }
+    
     /**
      * 获取多样性目标
      * @return 多样性目标
@@ -124,6 +288,16 @@ public class MultiObjectiveEvaluator {
         return diversityObjective;
     }
     
+    /**
+     * 返回使用指定多样性目标的新实例
+     * @param diversityObjective 多样性目标
+     * @return 新实例
+     */
+    public MultiObjectiveEvaluator withDiversityObjective(FoodDiversityObjective diversityObjective) {
+        return new MultiObjectiveEvaluator(nutrientObjectives, preferenceObjective, diversityObjective, balanceObjective,
+                goodEnoughThreshold, constraintDominationEnabled, objectiveReduction, nutrientWeights, nutrientRates);
+    }
+    
     /**
      * 获取平衡目标
      * @return 平衡目标
@@ -132,14 +306,14 @@ public class MultiObjectiveEvaluator {
         return balanceObjective;
     }
     
-    
-    
     /**
-     * 设置"足够好"的阈值
-     * @param threshold 阈值
+     * 返回使用指定平衡目标的新实例
+     * @param balanceObjective 平衡目标
+     * @return 新实例
      */
-    public void setGoodEnoughThreshold(double threshold) {
-        this.goodEnoughThreshold = threshold;
+    public MultiObjectiveEvaluator withBalanceObjective(NutrientBalanceObjective balanceObjective) {
+        return new MultiObjectiveEvaluator(nutrientObjectives, preferenceObjective, diversityObjective, balanceObjective,
+                goodEnoughThreshold, constraintDominationEnabled, objectiveReduction, nutrientWeights, nutrientRates);
     }
     
     /**
@@ -149,4 +323,37 @@ public class MultiObjectiveEvaluator {
     public double getGoodEnoughThreshold() {
         return goodEnoughThreshold;
     }
-}
\ No newline at end of file
+    
+    /**
+     * 返回"足够好"的阈值不同的新实例
+     * @param goodEnoughThreshold 阈值
+     * @return 新实例
+     */
+    public MultiObjectiveEvaluator withGoodEnoughThreshold(double goodEnoughThreshold) {
+        return new MultiObjectiveEvaluator(nutrientObjectives, preferenceObjective, diversityObjective, balanceObjective,
+                goodEnoughThreshold, constraintDominationEnabled, objectiveReduction, nutrientWeights, nutrientRates);
+    }
+    
+    /**
+     * 是否启用约束支配排序
+     * @return 是否启用
+     */
+    public boolean isConstraintDominationEnabled() {
+        return constraintDominationEnabled;
+    }
+    
+    public ObjectiveReduction getObjectiveReduction() {
+        return objectiveReduction;
+    }
+    
+    /**
+     * 是否与给定的约束支配开关和目标约简方式一致
+     * @param constraintDominationEnabled 是否启用约束支配排序
+     * @param objectiveReduction 目标空间约简方式
+     * @return 是否一致
+     */
+    public boolean matches(boolean constraintDominationEnabled, ObjectiveReduction objectiveReduction) {
+        return this.constraintDominationEnabled == constraintDominationEnabled
+                && this.objectiveReduction == objectiveReduction;
+    }
+}
@@ -11,32 +11,29 @@ import java.util.*;
 
 /**
  * 平衡目标类，专注于评估膳食解决方案的营养平衡和摄入量合理性
+ * 各项权重和理想宏量营养素比例在构造后不再修改，可被多个规划线程共享；
+ * 需要不同权重时用with开头的方法得到一个新实例
  */
 public class NutrientBalanceObjective extends AbstractObjectiveEvaluator {
     // 宏量营养素比例权重
-    private double macroRatioWeight = 0.6;
+    private final double macroRatioWeight;
     // 摄入量合理性权重
-    private double intakeRationalityWeight = 0.4;
+    private final double intakeRationalityWeight;
 // 综合评分：热量合理性占60%，食物摄入量合理性占40%
-    private double intakeRationalCaloriesWeight = 0.6;
-    private double intakeRationalFoodWeight = 0.4;
+    private final double intakeRationalCaloriesWeight = 0.6;
+    private final double intakeRationalFoodWeight = 0.4;
 
 
     // 理想的宏量营养素比例
-    private double idealCarbPercentage; // 碳水占60%
-    private double idealProteinPercentage; // 蛋白质占15%
-    private double idealFatPercentage; // 脂肪占25%
+    private final double idealCarbPercentage; // 碳水占60%
+    private final double idealProteinPercentage; // 蛋白质占15%
+    private final double idealFatPercentage; // 脂肪占25%
     
     /**
      * 构造函数
      */
     public NutrientBalanceObjective(UserProfile userProfile) {
-        super("balance_objective", 0.2);
-
-        NutrientRatio ratio = NutrientRatio.calculateNutrientRatio(userProfile);
-        this.idealCarbPercentage = ratio.getCarbRatio();
-        this.idealProteinPercentage = ratio.getProteinRatio();
-        this.idealFatPercentage = ratio.getFatRatio();
+        this(0.2, 0.6, NutrientRatio.calculateNutrientRatio(userProfile));
     }
     
     /**
@@ -44,7 +41,22 @@ public class NutrientBalanceObjective extends AbstractObjectiveEvaluator {
      * @param weight 目标权重
      */
     public NutrientBalanceObjective(double weight) {
+        this(weight, 0.6, 0, 0, 0);
+    }
+    
+    private NutrientBalanceObjective(double weight, double macroRatioWeight, NutrientRatio ratio) {
+        this(weight, macroRatioWeight, ratio.getCarbRatio(), ratio.getProteinRatio(), ratio.getFatRatio());
+    }
+    
+    private NutrientBalanceObjective(double weight, double macroRatioWeight,
+                                     double idealCarbPercentage, double idealProteinPercentage, double idealFatPercentage) {
         super("balance_objective", weight);
+        // 确保权重总和为1
+        this.macroRatioWeight = macroRatioWeight;
+        this.intakeRationalityWeight = 1 - macroRatioWeight;
+        this.idealCarbPercentage = idealCarbPercentage;
+        this.idealProteinPercentage = idealProteinPercentage;
+        this.idealFatPercentage = idealFatPercentage;
     }
     
     /**
@@ -169,13 +181,23 @@ public class NutrientBalanceObjective extends AbstractObjectiveEvaluator {
     }
     
     /**
-     * 设置宏量营养素比例权重
+     * 返回目标权重不同的新实例
+     * @param weight 目标权重
+     * @return 新实例
+     */
+    public NutrientBalanceObjective withWeight(double weight) {
+        return new NutrientBalanceObjective(weight, macroRatioWeight,
+                idealCarbPercentage, idealProteinPercentage, idealFatPercentage);
+    }
+    
+    /**
+     * 返回宏量营养素比例权重不同的新实例（摄入量合理性权重为其余部分）
      * @param macroRatioWeight 宏量营养素比例权重
+     * @return 新实例
      */
-    public void setMacroRatioWeight(double macroRatioWeight) {
-        this.macroRatioWeight = macroRatioWeight;
-        // 确保权重总和为1
-        this.intakeRationalityWeight = 1 - macroRatioWeight;
+    public NutrientBalanceObjective withMacroRatioWeight(double macroRatioWeight) {
+        return new NutrientBalanceObjective(weight, macroRatioWeight,
+                idealCarbPercentage, idealProteinPercentage, idealFatPercentage);
     }
     
     /**
@@ -187,33 +209,29 @@ public class NutrientBalanceObjective extends AbstractObjectiveEvaluator {
     }
     
     /**
-     * 设置摄入量合理性权重
+     * 返回摄入量合理性权重不同的新实例（宏量营养素比例权重为其余部分）
      * @param intakeRationalityWeight 摄入量合理性权重
+     * @return 新实例
      */
-    public void setIntakeRationalityWeight(double intakeRationalityWeight) {
-        this.intakeRationalityWeight = intakeRationalityWeight;
-        // 确保权重总和为1
-        this.macroRatioWeight = 1 - intakeRationalityWeight;
+    public NutrientBalanceObjective withIntakeRationalityWeight(double intakeRationalityWeight) {
+        return withMacroRatioWeight(1 - intakeRationalityWeight);
     }
     
     /**
-     * 设置理想的宏量营养素比例
+     * 返回理想宏量营养素比例不同的新实例，比例之和不为1时先标准化
      * @param carbPercentage 碳水化合物百分比
      * @param proteinPercentage 蛋白质百分比
      * @param fatPercentage 脂肪百分比
+     * @return 新实例
      */
-    public void setIdealMacroRatio(double carbPercentage, double proteinPercentage, double fatPercentage) {
+    public NutrientBalanceObjective withIdealMacroRatio(double carbPercentage, double proteinPercentage, double fatPercentage) {
         double sum = carbPercentage + proteinPercentage + fatPercentage;
         
         if (Math.abs(sum - 1.0) > 0.001) {
             // 总和不为1，需要标准化
-            this.idealCarbPercentage = carbPercentage / sum;
-            this.idealProteinPercentage = proteinPercentage / sum;
-            this.idealFatPercentage = fatPercentage / sum;
-        } else {
-            this.idealCarbPercentage = carbPercentage;
-            this.idealProteinPercentage = proteinPercentage;
-            this.idealFatPercentage = fatPercentage;
+            return new NutrientBalanceObjective(weight, macroRatioWeight,
+                    carbPercentage / sum, proteinPercentage / sum, fatPercentage / sum);
         }
+        return new NutrientBalanceObjective(weight, macroRatioWeight, carbPercentage, proteinPercentage, fatPercentage);
     }
-}
\ No newline at end of file
+}
@@ -12,25 +12,26 @@ import java.util.Map;
 
 /**
  * 用户偏好目标类，评估解决方案与用户偏好的匹配度
+ * 各偏好因素的权重在构造后不再修改，可被多个规划线程共享；
+ * 需要不同权重时用with开头的方法得到一个新实例
  */
 public class UserPreferenceObjective extends AbstractObjectiveEvaluator {
     // 用户档案
-    private UserProfile userProfile;
+    private final UserProfile userProfile;
     
     // 各种偏好因素的权重
-    private double flavorWeight = 0.3;
-    private double allergenWeight = 1.0;
-    private double religionWeight = 1.0;
-    private double dislikeWeight = 0.8;
-    private double spicyWeight = 0.6;
+    private final double flavorWeight;
+    private final double allergenWeight;
+    private final double religionWeight;
+    private final double dislikeWeight;
+    private final double spicyWeight;
     
     /**
      * 构造函数
      * @param userProfile 用户档案
      */
     public UserPreferenceObjective(UserProfile userProfile) {
-        super("preference_objective", 0.2);
-        this.userProfile = userProfile;
+        this(userProfile, 0.2);
     }
     
     /**
@@ -39,8 +40,18 @@ public class UserPreferenceObjective extends AbstractObjectiveEvaluator {
      * @param weight 目标权重
      */
     public UserPreferenceObjective(UserProfile userProfile, double weight) {
+        this(userProfile, weight, 0.3, 1.0, 1.0, 0.8, 0.6);
+    }
+    
+    private UserPreferenceObjective(UserProfile userProfile, double weight, double flavorWeight, double allergenWeight,
+                                    double religionWeight, double dislikeWeight, double spicyWeight) {
         super("preference_objective", weight);
         this.userProfile = userProfile;
+        this.flavorWeight = flavorWeight;
+        this.allergenWeight = allergenWeight;
+        this.religionWeight = religionWeight;
+        this.dislikeWeight = dislikeWeight;
+        this.spicyWeight = spicyWeight;
     }
     
     /**
@@ -143,6 +154,16 @@ public class UserPreferenceObjective extends AbstractObjectiveEvaluator {
         return Math.max(0, Math.min(1, score));
     }
     
+    /**
+     * 返回目标权重不同的新实例
+     * @param weight 目标权重
+     * @return 新实例
+     */
+    public UserPreferenceObjective withWeight(double weight) {
+        return new UserPreferenceObjective(userProfile, weight, flavorWeight, allergenWeight, religionWeight,
+                dislikeWeight, spicyWeight);
+    }
+    
     /**
      * 获取口味因素权重
      * @return 口味因素权重
@@ -152,11 +173,13 @@ public class UserPreferenceObjective extends AbstractObjectiveEvaluator {
     }
     
     /**
-     * 设置口味因素权重
+     * 返回口味因素权重不同的新实例
      * @param flavorWeight 口味因素权重
+     * @return 新实例
      */
-    public void setFlavorWeight(double flavorWeight) {
-        this.flavorWeight = flavorWeight;
+    public UserPreferenceObjective withFlavorWeight(double flavorWeight) {
+        return new UserPreferenceObjective(userProfile, weight, flavorWeight, allergenWeight, religionWeight,
+                dislikeWeight, spicyWeight);
     }
     
     /**
@@ -168,11 +191,13 @@ public class UserPreferenceObjective extends AbstractObjectiveEvaluator {
     }
     
     /**
-     * 设置过敏原因素权重
+     * 返回过敏原因素权重不同的新实例
      * @param allergenWeight 过敏原因素权重
+     * @return 新实例
      */
-    public void setAllergenWeight(double allergenWeight) {
-        this.allergenWeight = allergenWeight;
+    public UserPreferenceObjective withAllergenWeight(double allergenWeight) {
+        return new UserPreferenceObjective(userProfile, weight, flavorWeight, allergenWeight, religionWeight,
+                dislikeWeight, spicyWeight);
     }
     
     /**
@@ -184,11 +209,13 @@ public class UserPreferenceObjective extends AbstractObjectiveEvaluator {
     }
     
     /**
-     * 设置宗教限制因素权重
+     * 返回宗教限制因素权重不同的新实例
      * @param religionWeight 宗教限制因素权重
+     * @return 新实例
      */
-    public void setReligionWeight(double religionWeight) {
-        this.religionWeight = religionWeight;
+    public UserPreferenceObjective withReligionWeight(double religionWeight) {
+        return new UserPreferenceObjective(userProfile, weight, flavorWeight, allergenWeight, religionWeight,
+                dislikeWeight, spicyWeight);
     }
     
     /**
@@ -200,11 +227,13 @@ public class UserPreferenceObjective extends AbstractObjectiveEvaluator {
     }
     
     /**
-     * 设置不喜欢食物因素权重
+     * 返回不喜欢食物因素权重不同的新实例
      * @param dislikeWeight 不喜欢食物因素权重
+     * @return 新实例
      */
-    public void setDislikeWeight(double dislikeWeight) {
-        this.dislikeWeight = dislikeWeight;
+    public UserPreferenceObjective withDislikeWeight(double dislikeWeight) {
+        return new UserPreferenceObjective(userProfile, weight, flavorWeight, allergenWeight, religionWeight,
+                dislikeWeight, spicyWeight);
     }
     
     /**
@@ -216,10 +245,12 @@ public class UserPreferenceObjective extends AbstractObjectiveEvaluator {
     }
     
     /**
-     * 设置辣度因素权重
+     * 返回辣度因素权重不同的新实例
      * @param spicyWeight 辣度因素权重
+     * @return 新实例
      */
-    public void setSpicyWeight(double spicyWeight) {
-        this.spicyWeight = spicyWeight;
+    public UserPreferenceObjective withSpicyWeight(double spicyWeight) {
+        return new UserPreferenceObjective(userProfile, weight, flavorWeight, allergenWeight, religionWeight,
+                dislikeWeight, spicyWeight);
     }
-} 
\ No newline at end of file
+}
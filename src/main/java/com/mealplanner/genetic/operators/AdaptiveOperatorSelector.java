@@ -0,0 +1,377 @@
+package com.mealplanner.genetic.operators;
+
+import com.mealplanner.genetic.model.MealSolution;
+import com.mealplanner.genetic.operators.MealMutation.MutationType;
+
+import java.util.*;
+
+/**
+ * 自适应变异算子选择器（多臂老虎机）
+ * 根据子代的表现为每个变异算子累计信用值，并用UCB1或概率匹配选择下一次使用的算子，
+ * 使算法把评估次数集中在当前最有效的算子上
+ */
+public class AdaptiveOperatorSelector {
+    /**
+     * 算子选择策略
+     */
+    public enum SelectionStrategy {
+        UCB1,                   // 置信上界：平均信用 + 探索奖励
+        PROBABILITY_MATCHING    // 概率匹配：按信用估计值成比例选择，保留最低选择概率
+    }
+
+    /**
+     * 信用分配方式
+     */
+    public enum CreditAssignment {
+        FRONT_ENTRY,            // 子代进入合并种群的第一非支配层得1分，否则得0分
+        DOMINANCE_IMPROVEMENT   // 子代支配父代得1分，与父代互不支配得0.5分，被父代支配得0分
+    }
+
+    // 可选择的变异算子
+    private final MutationType[] operators;
+
+    // 选择策略
+    private SelectionStrategy strategy = SelectionStrategy.UCB1;
+
+    // 信用分配方式
+    private CreditAssignment creditAssignment = CreditAssignment.FRONT_ENTRY;
+
+    // UCB1的探索系数
+    private double explorationCoefficient = Math.sqrt(2);
+
+    // 概率匹配中每个算子的最低选择概率
+    private double minProbability = 0.05;
+
+    // 概率匹配中信用估计值的更新速率
+    private double adaptationRate = 0.3;
+
+    // 各算子的统计信息（按operators下标）
+    private final long[] selectionCounts;   // 被选择次数
+    private final long[] creditCounts;      // 已获得信用的子代数量
+    private final double[] totalCredits;    // 累计信用
+    private final double[] qualities;       // 概率匹配的信用估计值
+    private long totalSelections;
+
+    // 等待分配信用的子代
+    private final List<PendingCredit> pendingCredits = new ArrayList<>();
+
+    /**
+     * 构造函数
+     * @param operators 可选择的变异算子
+     */
+    public AdaptiveOperatorSelector(MutationType... operators) {
+        if (operators == null || operators.length == 0) {
+            throw new IllegalArgumentException("变异算子列表不能为空");
+        }
+        this.operators = operators.clone();
+        this.selectionCounts = new long[operators.length];
+        this.creditCounts = new long[operators.length];
+        this.totalCredits = new double[operators.length];
+        this.qualities = new double[operators.length];
+        reset();
+    }
+
+    /**
+     * 选择一个变异算子，并记录一次选择
+     * @param random 随机数生成器
+     * @return 选中的变异算子
+     */
+    public MutationType select(Random random) {
+        int index = strategy == SelectionStrategy.UCB1 ? selectByUcb(random) : selectByProbability(random);
+        selectionCounts[index]++;
+        totalSelections++;
+        return operators[index];
+    }
+
+    /**
+     * UCB1选择：尚未选择过的算子优先，否则选择平均信用与探索奖励之和最大的算子
+     */
+    private int selectByUcb(Random random) {
+        int untried = 0;
+        int untriedIndex = -1;
+        for (int i = 0; i < operators.length; i++) {
+            // 蓄水池抽样，在所有未尝试的算子中等概率选择
+            if (selectionCounts[i] == 0 && random.nextInt(++untried) == 0) {
+                untriedIndex = i;
+            }
+        }
+        if (untriedIndex >= 0) {
+            return untriedIndex;
+        }
+
+        double logTotal = Math.log(totalSelections);
+        int best = 0;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < operators.length; i++) {
+            double score = getAverageCredit(i) + explorationCoefficient * Math.sqrt(logTotal / selectionCounts[i]);
+            if (score > bestScore) {
+                bestScore = score;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 概率匹配选择：P(i) = pMin + (1 - K·pMin) · q(i) / Σq
+     */
+    private int selectByProbability(Random random) {
+        double r = random.nextDouble();
+        double cumulative = 0;
+        for (int i = 0; i < operators.length - 1; i++) {
+            cumulative += getSelectionProbability(i);
+            if (r < cumulative) {
+                return i;
+            }
+        }
+        return operators.length - 1;
+    }
+
+    /**
+     * 记录由某个算子产生的子代，待其所在种群排序后再分配信用
+     * @param child 子代（须在分配信用前完成评估）
+     * @param operator 产生该子代的变异算子
+     * @param parents 子代的父代
+     */
+    public void track(MealSolution child, MutationType operator, List<MealSolution> parents) {
+        int index = indexOf(operator);
+        if (index < 0) {
+            return;
+        }
+        pendingCredits.add(new PendingCredit(child, index, parents));
+    }
+
+    /**
+     * 为所有等待中的子代分配信用
+     * 使用FRONT_ENTRY时，须在子代所在的合并种群完成非支配排序后调用
+     */
+    public void assignCredits() {
+        for (PendingCredit pending : pendingCredits) {
+            update(pending.operatorIndex, calculateCredit(pending));
+        }
+        pendingCredits.clear();
+    }
+
+    /**
+     * 计算子代获得的信用值（0到1之间）
+     */
+    private double calculateCredit(PendingCredit pending) {
+        MealSolution child = pending.child;
+        if (creditAssignment == CreditAssignment.FRONT_ENTRY) {
+            return child.getRank() == 1 ? 1.0 : 0.0;
+        }
+
+        if (pending.parents.isEmpty()) {
+            return 0.0;
+        }
+        double credit = 0;
+        for (MealSolution parent : pending.parents) {
+            if (child.dominates(parent)) {
+                credit += 1.0;
+            } else if (!parent.dominates(child)) {
+                credit += 0.5;
+            }
+        }
+        return credit / pending.parents.size();
+    }
+
+    /**
+     * 直接为算子累计一次信用
+     * @param operator 变异算子
+     * @param credit 信用值（0到1之间）
+     */
+    public void update(MutationType operator, double credit) {
+        int index = indexOf(operator);
+        if (index >= 0) {
+            update(index, credit);
+        }
+    }
+
+    private void update(int index, double credit) {
+        creditCounts[index]++;
+        totalCredits[index] += credit;
+        qualities[index] += adaptationRate * (credit - qualities[index]);
+    }
+
+    /**
+     * 清除全部统计信息和等待中的子代
+     */
+    public void reset() {
+        Arrays.fill(selectionCounts, 0);
+        Arrays.fill(creditCounts, 0);
+        Arrays.fill(totalCredits, 0);
+        // 信用估计值初始相同，概率匹配从等概率开始
+        Arrays.fill(qualities, 1.0);
+        totalSelections = 0;
+        pendingCredits.clear();
+    }
+
+    private int indexOf(MutationType operator) {
+        for (int i = 0; i < operators.length; i++) {
+            if (operators[i] == operator) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private double getAverageCredit(int index) {
+        return creditCounts[index] > 0 ? totalCredits[index] / creditCounts[index] : 0.0;
+    }
+
+    private double getSelectionProbability(int index) {
+        double qualitySum = 0;
+        for (double quality : qualities) {
+            qualitySum += quality;
+        }
+        double pMin = Math.min(minProbability, 1.0 / operators.length);
+        if (qualitySum <= 0) {
+            return 1.0 / operators.length;
+        }
+        return pMin + (1 - operators.length * pMin) * qualities[index] / qualitySum;
+    }
+
+    /**
+     * 获取可选择的变异算子
+     * @return 变异算子数组（副本）
+     */
+    public MutationType[] getOperators() {
+        return operators.clone();
+    }
+
+    /**
+     * 获取算子被选择的次数
+     * @param operator 变异算子
+     * @return 选择次数
+     */
+    public long getSelectionCount(MutationType operator) {
+        int index = indexOf(operator);
+        return index >= 0 ? selectionCounts[index] : 0;
+    }
+
+    /**
+     * 获取算子已获得信用的子代数量
+     * @param operator 变异算子
+     * @return 子代数量
+     */
+    public long getCreditCount(MutationType operator) {
+        int index = indexOf(operator);
+        return index >= 0 ? creditCounts[index] : 0;
+    }
+
+    /**
+     * 获取算子的累计信用
+     * @param operator 变异算子
+     * @return 累计信用
+     */
+    public double getTotalCredit(MutationType operator) {
+        int index = indexOf(operator);
+        return index >= 0 ? totalCredits[index] : 0.0;
+    }
+
+    /**
+     * 获取算子的平均信用
+     * @param operator 变异算子
+     * @return 平均信用
+     */
+    public double getAverageCredit(MutationType operator) {
+        int index = indexOf(operator);
+        return index >= 0 ? getAverageCredit(index) : 0.0;
+    }
+
+    /**
+     * 获取概率匹配策略下算子当前的选择概率
+     * @param operator 变异算子
+     * @return 选择概率
+     */
+    public double getSelectionProbability(MutationType operator) {
+        int index = indexOf(operator);
+        return index >= 0 ? getSelectionProbability(index) : 0.0;
+    }
+
+    /**
+     * 获取算子选择统计信息
+     * @return 统计信息字符串
+     */
+    public String getStatistics() {
+        StringBuilder sb = new StringBuilder("算子选择统计(").append(strategy).append(", ")
+                .append(creditAssignment).append("):");
+        for (int i = 0; i < operators.length; i++) {
+            sb.append(' ').append(operators[i])
+                    .append("[选择=").append(selectionCounts[i])
+                    .append(", 平均信用=").append(String.format("%.3f", getAverageCredit(i)))
+                    .append(']');
+        }
+        return sb.toString();
+    }
+
+    public SelectionStrategy getStrategy() {
+        return strategy;
+    }
+
+    public void setStrategy(SelectionStrategy strategy) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("选择策略不能为空");
+        }
+        this.strategy = strategy;
+    }
+
+    public CreditAssignment getCreditAssignment() {
+        return creditAssignment;
+    }
+
+    public void setCreditAssignment(CreditAssignment creditAssignment) {
+        if (creditAssignment == null) {
+            throw new IllegalArgumentException("信用分配方式不能为空");
+        }
+        this.creditAssignment = creditAssignment;
+    }
+
+    public double getExplorationCoefficient() {
+        return explorationCoefficient;
+    }
+
+    public void setExplorationCoefficient(double explorationCoefficient) {
+        if (explorationCoefficient < 0) {
+            throw new IllegalArgumentException("探索系数不能为负数");
+        }
+        this.explorationCoefficient = explorationCoefficient;
+    }
+
+    public double getMinProbability() {
+        return minProbability;
+    }
+
+    public void setMinProbability(double minProbability) {
+        if (minProbability < 0 || minProbability > 1) {
+            throw new IllegalArgumentException("最低选择概率必须在0到1之间");
+        }
+        this.minProbability = minProbability;
+    }
+
+    public double getAdaptationRate() {
+        return adaptationRate;
+    }
+
+    public void setAdaptationRate(double adaptationRate) {
+        if (adaptationRate <= 0 || adaptationRate > 1) {
+            throw new IllegalArgumentException("更新速率必须在0到1之间");
+        }
+        this.adaptationRate = adaptationRate;
+    }
+
+    /**
+     * 等待分配信用的子代记录
+     */
+    private static final class PendingCredit {
+        private final MealSolution child;
+        private final int operatorIndex;
+        private final List<MealSolution> parents;
+
+        PendingCredit(MealSolution child, int operatorIndex, List<MealSolution> parents) {
+            this.child = child;
+            this.operatorIndex = operatorIndex;
+            this.parents = parents;
+        }
+    }
+}
@@ -0,0 +1,772 @@
+package com.mealplanner.genetic.operators;
+
+import com.mealplanner.genetic.model.FoodGene;
+import com.mealplanner.genetic.model.MealSolution;
+import com.mealplanner.model.Food;
+import com.mealplanner.model.IntakeRange;
+import com.mealplanner.model.NutrientType;
+
+import java.util.*;
+
+/**
+ * 摄入量局部优化器（文化基因算法的局部搜索阶段）
+ * 食物组合固定后，摄入量的选择是一个小规模的有界最小二乘问题：
+ *   min Σ w(n) · ((Σ a(n,g)·x(g) - c(n)) / c(n))²，  s.t. min(g) ≤ x(g) ≤ max(g)
+ * 其中a(n,g)为食物g每克的营养素n含量，c(n)为目标值乘以达成率范围中点，
+ * 边界为各食物的推荐摄入量范围。使用投影牛顿有效集法求解。
+ * {@link #minimizeConstrained} 还可把营养素达成率范围作为线性约束，用对偶有效集法求精确解。
+ */
+public class IntakeOptimizer {
+    // 判断变量位于边界的容差(g)
+    private static final double BOUND_TOLERANCE = 1e-6;
+
+    // 线搜索最多回退次数
+    private static final int MAX_LINE_SEARCH_STEPS = 10;
+
+    // 摄入量变化小于该值(g)时认为已收敛
+    private static final double CONVERGENCE_THRESHOLD = 0.5;
+
+    // 二次规划判断约束违反的相对容差
+    private static final double QP_TOLERANCE = 1e-9;
+
+    private static final NutrientType[] NUTRIENTS = NutrientType.values();
+
+    // 各营养素的权重
+    private final Map<NutrientType, Double> nutrientWeights;
+
+    // 目标营养素
+    private Map<NutrientType, Double> targetNutrients;
+
+    // 各营养素的达成率范围
+    private Map<NutrientType, double[]> nutrientRates;
+
+    // 单次优化的最大迭代次数
+    private int maxIterations;
+
+    // 优化统计
+    private long optimizedCount;    // 执行优化的解决方案数量
+    private long improvedCount;     // 目标值得到改善的解决方案数量
+    private long iterationCount;    // 累计迭代次数
+
+    /**
+     * 构造函数
+     * @param nutrientWeights 营养素权重
+     * @param maxIterations 单次优化的最大迭代次数
+     */
+    public IntakeOptimizer(Map<NutrientType, Double> nutrientWeights, int maxIterations) {
+        this.nutrientWeights = nutrientWeights;
+        setMaxIterations(maxIterations);
+    }
+
+    /**
+     * 在推荐摄入量范围内优化解决方案中各食物的摄入量
+     * 只有四舍五入后的目标值优于原摄入量时才写回
+     * @param solution 解决方案
+     * @return 是否改善了解决方案
+     */
+    public boolean optimize(MealSolution solution) {
+        List<FoodGene> genes = solution.getFoodGenes();
+        int geneCount = genes.size();
+        if (geneCount == 0 || targetNutrients == null) {
+            return false;
+        }
+        optimizedCount++;
+
+        List<Food> foods = new ArrayList<>(geneCount);
+        double[] original = new double[geneCount];
+        for (int g = 0; g < geneCount; g++) {
+            foods.add(genes.get(g).getFood());
+            original[g] = genes.get(g).getIntake();
+        }
+
+        LeastSquaresProblem problem = buildProblem(foods);
+        if (problem == null) {
+            return false;
+        }
+
+        double[] x = original.clone();
+        iterationCount += solve(problem, x);
+        if (problem.residual(x) >= problem.residual(original) - 1e-12) {
+            return false;
+        }
+
+        for (int g = 0; g < geneCount; g++) {
+            if (x[g] != original[g]) {
+                solution.updateFoodIntake(g, x[g]);
+            }
+        }
+        improvedCount++;
+        return true;
+    }
+
+    /**
+     * 求解给定食物组合在推荐摄入量范围内的最优摄入量
+     * 不修改统计信息，可在多个线程中同时调用
+     * @param foods 食物组合
+     * @param intakes 初始摄入量，返回时写入取整后的最优摄入量
+     * @return 取整后摄入量的目标值，没有可用目标营养素时返回0
+     */
+    public double minimize(List<Food> foods, double[] intakes) {
+        LeastSquaresProblem problem = buildProblem(foods);
+        if (problem == null) {
+            return 0.0;
+        }
+        solve(problem, intakes);
+        return problem.residual(intakes);
+    }
+
+    /**
+     * 精确求解给定食物组合的最优摄入量，可同时把营养素达成率范围作为约束
+     *   min ||A·x - t||²，  s.t. min(g) ≤ x(g) ≤ max(g)，  目标值·最小达成率 ≤ Σ a(n,g)·x(g) ≤ 目标值·最大达成率
+     * 这是带线性不等式约束的严格凸二次规划，使用Goldfarb-Idnani对偶有效集法：
+     * 从无约束最优解出发，每次加入违反最严重的约束，乘子降为零的约束被移出有效集，
+     * 有限步内得到最优解或判定约束无法同时满足。
+     * 超过迭代步数上限或出现数值问题时退回投影牛顿法（只考虑摄入量范围），
+     * 其结果满足达成率约束时作为可行解返回，但不能证明最优。
+     * 不修改统计信息，可在多个线程中同时调用
+     * @param foods 食物组合
+     * @param intakes 返回时写入摄入量（取整后仍满足约束时取整，否则保留连续解）
+     * @param enforceRates 是否把营养素达成率范围作为约束
+     * @return 求解状态和目标值；没有可用目标营养素时为最优、目标值0
+     */
+    public ConstrainedResult minimizeConstrained(List<Food> foods, double[] intakes, boolean enforceRates) {
+        LeastSquaresProblem problem = buildProblem(foods);
+        if (problem == null) {
+            return new ConstrainedResult(ConstrainedStatus.OPTIMAL, 0.0);
+        }
+        double[] x = new double[intakes.length];
+        ConstrainedStatus status = solveQuadraticProgram(problem, enforceRates, x);
+        switch (status) {
+            case OPTIMAL:
+                break;
+            case INFEASIBLE:
+                return new ConstrainedResult(status, Double.POSITIVE_INFINITY);
+            default:
+                // 二次规划未能完成：退回投影牛顿法，结果不满足达成率约束时不能作为可行解
+                solve(problem, intakes);
+                double value = !enforceRates || problem.withinRates(intakes)
+                        ? problem.residual(intakes) : Double.POSITIVE_INFINITY;
+                return new ConstrainedResult(status, value);
+        }
+
+        double[] rounded = new double[x.length];
+        for (int g = 0; g < x.length; g++) {
+            rounded[g] = Math.max(problem.lower[g], Math.min(problem.upper[g], Math.round(x[g])));
+        }
+        double[] result = !enforceRates || problem.withinRates(rounded) ? rounded : x;
+        System.arraycopy(result, 0, intakes, 0, intakes.length);
+        return new ConstrainedResult(status, problem.residual(intakes));
+    }
+
+    /**
+     * Goldfarb-Idnani对偶有效集法求解 min ½xᵀGx + cᵀx，s.t. nⱼᵀx ≥ bⱼ
+     * 其中G = AᵀA（加微小岭项），c = -Aᵀt，与残差平方和只差常数和倍数。
+     * 每步求解KKT方程 [G N; Nᵀ 0]·[z; r] = [n_p; 0]，z为原始方向，r为有效约束乘子的变化
+     * @param x 返回时写入最优摄入量（未取整），只在状态为OPTIMAL时有效
+     * @return 求解状态
+     */
+    private ConstrainedStatus solveQuadraticProgram(LeastSquaresProblem problem, boolean enforceRates, double[] x) {
+        int n = problem.lower.length;
+        double[][] g = new double[n][n];
+        double[] c = new double[n];
+        double trace = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j < n; j++) {
+                double sum = 0;
+                for (int r = 0; r < problem.rowCount; r++) {
+                    sum += problem.a[r][i] * problem.a[r][j];
+                }
+                g[i][j] = sum;
+                g[j][i] = sum;
+            }
+            trace += g[i][i];
+            for (int r = 0; r < problem.rowCount; r++) {
+                c[i] -= problem.a[r][i] * problem.t[r];
+            }
+        }
+        double ridge = Math.max(1e-12, trace * 1e-9);
+        for (int i = 0; i < n; i++) {
+            g[i][i] += ridge;
+        }
+
+        // 约束 nⱼᵀx ≥ bⱼ：摄入量上下限，以及（可选）各营养素总量的上下限
+        List<double[]> normals = new ArrayList<>();
+        List<Double> bounds = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            double[] lowerNormal = new double[n];
+            lowerNormal[i] = 1.0;
+            normals.add(lowerNormal);
+            bounds.add(problem.lower[i]);
+            double[] upperNormal = new double[n];
+            upperNormal[i] = -1.0;
+            normals.add(upperNormal);
+            bounds.add(-problem.upper[i]);
+        }
+        if (enforceRates) {
+            for (int r = 0; r < problem.rowCount; r++) {
+                if (problem.rateLower[r] > Double.NEGATIVE_INFINITY) {
+                    normals.add(problem.a[r]);
+                    bounds.add(problem.rateLower[r]);
+                }
+                if (problem.rateUpper[r] < Double.POSITIVE_INFINITY) {
+                    double[] negated = new double[n];
+                    for (int i = 0; i < n; i++) {
+                        negated[i] = -problem.a[r][i];
+                    }
+                    normals.add(negated);
+                    bounds.add(-problem.rateUpper[r]);
+                }
+            }
+        }
+        int m = normals.size();
+
+        // 无约束最优解
+        double[] negC = new double[n];
+        for (int i = 0; i < n; i++) {
+            negC[i] = -c[i];
+        }
+        double[] unconstrainedOptimum = solveKkt(g, normals, new int[0], 0, negC);
+        if (unconstrainedOptimum == null) {
+            return ConstrainedStatus.NUMERICAL_FAILURE;
+        }
+        System.arraycopy(unconstrainedOptimum, 0, x, 0, n);
+
+        int[] active = new int[n];
+        double[] multipliers = new double[n];
+        int activeCount = 0;
+        int maxSteps = 10 * (m + n);
+        for (int steps = 0; steps < maxSteps; steps++) {
+            // 选择违反最严重的约束
+            int p = -1;
+            double worst = 0;
+            for (int j = 0; j < m; j++) {
+                double slack = dot(normals.get(j), x) - bounds.get(j);
+                if (slack < worst && slack < -QP_TOLERANCE * Math.max(1.0, Math.abs(bounds.get(j)))) {
+                    worst = slack;
+                    p = j;
+                }
+            }
+            if (p < 0) {
+                return ConstrainedStatus.OPTIMAL;
+            }
+
+            double[] np = normals.get(p);
+            double[] unconstrained = solveKkt(g, normals, active, 0, np);
+            double reference = unconstrained != null ? dot(np, unconstrained) : 1.0;
+            double multiplierP = 0;
+            boolean added = false;
+            while (!added) {
+                if (++steps > maxSteps) {
+                    return ConstrainedStatus.STEP_LIMIT;
+                }
+                double[] rhs = new double[n + activeCount];
+                System.arraycopy(np, 0, rhs, 0, n);
+                double[] solution = solveKkt(g, normals, active, activeCount, rhs);
+                if (solution == null) {
+                    return ConstrainedStatus.NUMERICAL_FAILURE;
+                }
+                double[] z = Arrays.copyOf(solution, n);
+                double zn = dot(z, np);
+                boolean zeroStep = zn <= 1e-10 * Math.abs(reference);
+
+                // 部分步长：有效约束的乘子降为零
+                double partial = Double.POSITIVE_INFINITY;
+                int drop = -1;
+                for (int k = 0; k < activeCount; k++) {
+                    double rk = solution[n + k];
+                    if (rk > 1e-14 && multipliers[k] / rk < partial) {
+                        partial = multipliers[k] / rk;
+                        drop = k;
+                    }
+                }
+                // 完全步长：约束p恰好满足
+                double full = zeroStep ? Double.POSITIVE_INFINITY
+                        : -(dot(np, x) - bounds.get(p)) / zn;
+                if (partial == Double.POSITIVE_INFINITY && full == Double.POSITIVE_INFINITY) {
+                    return ConstrainedStatus.INFEASIBLE; // 约束无法同时满足
+                }
+
+                double step = Math.min(partial, full);
+                if (!zeroStep) {
+                    for (int i = 0; i < n; i++) {
+                        x[i] += step * z[i];
+                    }
+                }
+                for (int k = 0; k < activeCount; k++) {
+                    multipliers[k] -= step * solution[n + k];
+                }
+                multiplierP += step;
+
+                if (!zeroStep && full <= partial) {
+                    if (activeCount == n) {
+                        // 有效约束的法向量应线性无关，超过变量个数说明出现了数值问题
+                        return ConstrainedStatus.NUMERICAL_FAILURE;
+                    }
+                    active[activeCount] = p;
+                    multipliers[activeCount] = multiplierP;
+                    activeCount++;
+                    added = true;
+                } else {
+                    activeCount--;
+                    active[drop] = active[activeCount];
+                    multipliers[drop] = multipliers[activeCount];
+                }
+            }
+        }
+        return ConstrainedStatus.STEP_LIMIT;
+    }
+
+    /**
+     * 求解KKT方程 [G N; Nᵀ 0]·[z; r] = rhs，N的列为有效约束的法向量
+     * @return [z; r]；矩阵奇异时返回null
+     */
+    private static double[] solveKkt(double[][] g, List<double[]> normals, int[] active, int activeCount, double[] rhs) {
+        int n = g.length;
+        int size = n + activeCount;
+        double[][] m = new double[size][size + 1];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(g[i], 0, m[i], 0, n);
+        }
+        for (int k = 0; k < activeCount; k++) {
+            double[] normal = normals.get(active[k]);
+            for (int i = 0; i < n; i++) {
+                m[i][n + k] = normal[i];
+                m[n + k][i] = normal[i];
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            m[i][size] = i < rhs.length ? rhs[i] : 0.0;
+        }
+        return gaussianElimination(m, size);
+    }
+
+    /**
+     * 部分主元高斯消元求解增广矩阵 [M | b]
+     * @return 解向量；矩阵奇异时返回null
+     */
+    private static double[] gaussianElimination(double[][] h, int m) {
+        for (int col = 0; col < m; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < m; row++) {
+                if (Math.abs(h[row][col]) > Math.abs(h[pivot][col])) {
+                    pivot = row;
+                }
+            }
+            if (Math.abs(h[pivot][col]) < 1e-300) {
+                return null;
+            }
+            double[] temp = h[col];
+            h[col] = h[pivot];
+            h[pivot] = temp;
+
+            for (int row = col + 1; row < m; row++) {
+                double factor = h[row][col] / h[col][col];
+                for (int k = col; k <= m; k++) {
+                    h[row][k] -= factor * h[col][k];
+                }
+            }
+        }
+        double[] solution = new double[m];
+        for (int i = m - 1; i >= 0; i--) {
+            double sum = h[i][m];
+            for (int j = i + 1; j < m; j++) {
+                sum -= h[i][j] * solution[j];
+            }
+            solution[i] = sum / h[i][i];
+        }
+        return solution;
+    }
+
+    /**
+     * 计算给定食物组合和摄入量的目标值（加权营养素相对偏差平方和）
+     * @param foods 食物组合
+     * @param intakes 摄入量
+     * @return 目标值，没有可用目标营养素时返回0
+     */
+    public double evaluate(List<Food> foods, double[] intakes) {
+        LeastSquaresProblem problem = buildProblem(foods);
+        return problem != null ? problem.residual(intakes) : 0.0;
+    }
+
+    /**
+     * 获取营养素的优化目标值：目标摄入量乘以达成率范围中点
+     * @param nutrient 营养素
+     * @return 优化目标值，该营养素没有目标时返回0
+     */
+    public double getNutrientCenter(NutrientType nutrient) {
+        Double target = targetNutrients != null ? targetNutrients.get(nutrient) : null;
+        if (target == null || target <= 0) {
+            return 0.0;
+        }
+        double[] range = nutrientRates != null ? nutrientRates.get(nutrient) : null;
+        return target * (range != null ? (range[0] + range[1]) / 2 : 1.0);
+    }
+
+    /**
+     * 获取营养素在目标值中的权重
+     * @param nutrient 营养素
+     * @return 权重
+     */
+    public double getNutrientWeight(NutrientType nutrient) {
+        return nutrientWeights != null ? nutrientWeights.getOrDefault(nutrient, 1.0) : 1.0;
+    }
+
+    /**
+     * 构建缩放后的最小二乘问题 ||A·x - t||²
+     * @param foods 食物组合
+     * @return 最小二乘问题，没有可用目标营养素时返回null
+     */
+    private LeastSquaresProblem buildProblem(List<Food> foods) {
+        int geneCount = foods.size();
+        if (geneCount == 0 || targetNutrients == null) {
+            return null;
+        }
+
+        double[][] a = new double[NUTRIENTS.length][];
+        double[] t = new double[NUTRIENTS.length];
+        double[] rateLower = new double[NUTRIENTS.length];
+        double[] rateUpper = new double[NUTRIENTS.length];
+        int rowCount = 0;
+        for (NutrientType nutrient : NUTRIENTS) {
+            double center = getNutrientCenter(nutrient);
+            if (center <= 0) {
+                continue;
+            }
+            double scale = Math.sqrt(getNutrientWeight(nutrient)) / center;
+            double[] range = nutrientRates != null ? nutrientRates.get(nutrient) : null;
+            double target = targetNutrients.get(nutrient);
+            rateLower[rowCount] = range != null ? target * range[0] * scale : Double.NEGATIVE_INFINITY;
+            rateUpper[rowCount] = range != null ? target * range[1] * scale : Double.POSITIVE_INFINITY;
+
+            double[] row = new double[geneCount];
+            for (int g = 0; g < geneCount; g++) {
+                Double value = foods.get(g).getNutritionItems().get(nutrient);
+                row[g] = value != null ? value / 100.0 * scale : 0.0;
+            }
+            a[rowCount] = row;
+            t[rowCount] = center * scale;
+            rowCount++;
+        }
+        if (rowCount == 0) {
+            return null;
+        }
+
+        double[] lower = new double[geneCount];
+        double[] upper = new double[geneCount];
+        for (int g = 0; g < geneCount; g++) {
+            IntakeRange range = foods.get(g).getRecommendedIntakeRange();
+            lower[g] = range.getMinIntake();
+            upper[g] = range.getMaxIntake();
+        }
+        return new LeastSquaresProblem(a, t, rowCount, lower, upper, rateLower, rateUpper);
+    }
+
+    /**
+     * 投影牛顿有效集法
+     * 每次迭代把位于边界且梯度指向外侧的变量固定，对其余自由变量求解正规方程得到牛顿方向，
+     * 再沿该方向做投影回溯线搜索，最后将摄入量取整
+     * @param problem 最小二乘问题
+     * @param x 初始摄入量，返回时写入取整后的结果
+     * @return 实际迭代次数
+     */
+    private int solve(LeastSquaresProblem problem, double[] x) {
+        double[][] a = problem.a;
+        double[] t = problem.t;
+        int rowCount = problem.rowCount;
+        double[] lower = problem.lower;
+        double[] upper = problem.upper;
+        int n = x.length;
+        for (int g = 0; g < n; g++) {
+            x[g] = Math.max(lower[g], Math.min(upper[g], x[g]));
+        }
+        double[] gradient = new double[n];
+        double[] direction = new double[n];
+        double[] candidate = new double[n];
+        boolean[] free = new boolean[n];
+        double current = problem.residual(x);
+
+        int iteration = 0;
+        while (iteration < maxIterations) {
+            iteration++;
+
+            // 梯度 Aᵀ(Ax - t)（省略常数因子2）
+            Arrays.fill(gradient, 0.0);
+            for (int r = 0; r < rowCount; r++) {
+                double diff = dot(a[r], x) - t[r];
+                for (int g = 0; g < n; g++) {
+                    gradient[g] += a[r][g] * diff;
+                }
+            }
+
+            // 确定自由变量
+            int freeCount = 0;
+            for (int g = 0; g < n; g++) {
+                boolean atLower = x[g] <= lower[g] + BOUND_TOLERANCE && gradient[g] > 0;
+                boolean atUpper = x[g] >= upper[g] - BOUND_TOLERANCE && gradient[g] < 0;
+                free[g] = !atLower && !atUpper;
+                if (free[g]) {
+                    freeCount++;
+                }
+            }
+            if (freeCount == 0) {
+                break; // 满足KKT条件
+            }
+
+            if (!newtonDirection(a, rowCount, gradient, free, direction)) {
+                break;
+            }
+
+            // 投影回溯线搜索
+            double step = 1.0;
+            boolean accepted = false;
+            for (int s = 0; s < MAX_LINE_SEARCH_STEPS; s++) {
+                for (int g = 0; g < n; g++) {
+                    candidate[g] = Math.max(lower[g], Math.min(upper[g], x[g] + step * direction[g]));
+                }
+                double value = problem.residual(candidate);
+                if (value < current - 1e-12) {
+                    current = value;
+                    accepted = true;
+                    break;
+                }
+                step *= 0.5;
+            }
+            if (!accepted) {
+                break;
+            }
+
+            double maxChange = 0;
+            for (int g = 0; g < n; g++) {
+                maxChange = Math.max(maxChange, Math.abs(candidate[g] - x[g]));
+                x[g] = candidate[g];
+            }
+            if (maxChange < CONVERGENCE_THRESHOLD) {
+                break;
+            }
+        }
+
+        for (int g = 0; g < n; g++) {
+            x[g] = Math.max(lower[g], Math.min(upper[g], Math.round(x[g])));
+        }
+        return iteration;
+    }
+
+    /**
+     * 对自由变量求解 (A_FᵀA_F)·d = -gradient_F，固定变量的方向为0
+     * 加入与矩阵迹成比例的微小岭项，保证营养成分线性相关的食物也能求解
+     * @return 是否求解成功
+     */
+    private boolean newtonDirection(double[][] a, int rowCount, double[] gradient, boolean[] free, double[] direction) {
+        int n = gradient.length;
+        int[] indices = new int[n];
+        int m = 0;
+        for (int g = 0; g < n; g++) {
+            direction[g] = 0.0;
+            if (free[g]) {
+                indices[m++] = g;
+            }
+        }
+
+        // 增广矩阵 [H | -gradient]
+        double[][] h = new double[m][m + 1];
+        double trace = 0;
+        for (int i = 0; i < m; i++) {
+            for (int j = i; j < m; j++) {
+                double sum = 0;
+                for (int r = 0; r < rowCount; r++) {
+                    sum += a[r][indices[i]] * a[r][indices[j]];
+                }
+                h[i][j] = sum;
+                h[j][i] = sum;
+            }
+            trace += h[i][i];
+            h[i][m] = -gradient[indices[i]];
+        }
+        double ridge = Math.max(1e-12, trace * 1e-9);
+        for (int i = 0; i < m; i++) {
+            h[i][i] += ridge;
+        }
+
+        // 部分主元高斯消元
+        for (int col = 0; col < m; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < m; row++) {
+                if (Math.abs(h[row][col]) > Math.abs(h[pivot][col])) {
+                    pivot = row;
+                }
+            }
+            if (Math.abs(h[pivot][col]) < 1e-300) {
+                return false;
+            }
+            double[] temp = h[col];
+            h[col] = h[pivot];
+            h[pivot] = temp;
+
+            for (int row = col + 1; row < m; row++) {
+                double factor = h[row][col] / h[col][col];
+                for (int k = col; k <= m; k++) {
+                    h[row][k] -= factor * h[col][k];
+                }
+            }
+        }
+        for (int i = m - 1; i >= 0; i--) {
+            double sum = h[i][m];
+            for (int j = i + 1; j < m; j++) {
+                sum -= h[i][j] * direction[indices[j]];
+            }
+            direction[indices[i]] = sum / h[i][i];
+        }
+        return true;
+    }
+
+
+    private static double dot(double[] row, double[] x) {
+        double sum = 0;
+        for (int g = 0; g < x.length; g++) {
+            sum += row[g] * x[g];
+        }
+        return sum;
+    }
+
+    /**
+     * 带约束求解的状态
+     */
+    public enum ConstrainedStatus {
+        OPTIMAL,            // 求得最优解
+        INFEASIBLE,         // 约束无法同时满足
+        STEP_LIMIT,         // 超过有效集迭代步数上限
+        NUMERICAL_FAILURE   // KKT方程奇异等数值问题
+    }
+
+    /**
+     * 带约束求解的结果
+     */
+    public static final class ConstrainedResult {
+        // 求解状态
+        private final ConstrainedStatus status;
+
+        // 目标值，没有可行的摄入量时为正无穷
+        private final double value;
+
+        ConstrainedResult(ConstrainedStatus status, double value) {
+            this.status = status;
+            this.value = value;
+        }
+
+        public ConstrainedStatus getStatus() {
+            return status;
+        }
+
+        public double getValue() {
+            return value;
+        }
+
+        /**
+         * 目标值是否为该食物组合的最优值（或已证明不可行）
+         * 二次规划未完成时为false：此时目标值来自投影牛顿法，不可行也不代表该组合确实不可行
+         */
+        public boolean isExact() {
+            return status == ConstrainedStatus.OPTIMAL || status == ConstrainedStatus.INFEASIBLE;
+        }
+    }
+
+    /**
+     * 缩放后的有界最小二乘问题
+     */
+    private static final class LeastSquaresProblem {
+        private final double[][] a;
+        private final double[] t;
+        private final int rowCount;
+        private final double[] lower;
+        private final double[] upper;
+        // 缩放后的营养素达成率范围对应的总量，没有范围时为无穷
+        private final double[] rateLower;
+        private final double[] rateUpper;
+
+        LeastSquaresProblem(double[][] a, double[] t, int rowCount, double[] lower, double[] upper,
+                            double[] rateLower, double[] rateUpper) {
+            this.a = a;
+            this.t = t;
+            this.rowCount = rowCount;
+            this.lower = lower;
+            this.upper = upper;
+            this.rateLower = rateLower;
+            this.rateUpper = rateUpper;
+        }
+
+        /**
+         * 检查营养素总量是否位于达成率范围内
+         */
+        boolean withinRates(double[] x) {
+            for (int r = 0; r < rowCount; r++) {
+                double total = dot(a[r], x);
+                if (total < rateLower[r] || total > rateUpper[r]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 计算残差平方和 ||A·x - t||²
+         */
+        double residual(double[] x) {
+            double sum = 0;
+            for (int r = 0; r < rowCount; r++) {
+                double diff = dot(a[r], x) - t[r];
+                sum += diff * diff;
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * 重置优化统计
+     */
+    public void resetStatistics() {
+        optimizedCount = 0;
+        improvedCount = 0;
+        iterationCount = 0;
+    }
+
+    /**
+     * 获取优化统计信息
+     * @return 统计信息字符串
+     */
+    public String getStatistics() {
+        return "摄入量优化统计: 优化=" + optimizedCount +
+                ", 改善=" + improvedCount +
+                ", 迭代=" + iterationCount;
+    }
+
+    public long getOptimizedCount() {
+        return optimizedCount;
+    }
+
+    public long getImprovedCount() {
+        return improvedCount;
+    }
+
+    public long getIterationCount() {
+        return iterationCount;
+    }
+
+    public void setTargetNutrients(Map<NutrientType, Double> targetNutrients) {
+        this.targetNutrients = targetNutrients;
+    }
+
+    public void setNutrientRates(Map<NutrientType, double[]> nutrientRates) {
+        this.nutrientRates = nutrientRates;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        if (maxIterations <= 0) {
+            throw new IllegalArgumentException("最大迭代次数必须为正整数");
+        }
+        this.maxIterations = maxIterations;
+    }
+}
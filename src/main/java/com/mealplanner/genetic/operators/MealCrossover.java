@@ -3,6 +3,7 @@ package com.mealplanner.genetic.operators;
 import com.mealplanner.genetic.model.FoodGene;
 import com.mealplanner.genetic.model.MealSolution;
 import com.mealplanner.model.FoodCategory;
+import com.mealplanner.model.IntakeRange;
 
 import java.util.*;
 
@@ -15,15 +16,18 @@ public class MealCrossover {
     
     // 交叉类型枚举
     public enum CrossoverType {
-        UNIFORM,      // 均匀交叉
+        UNIFORM,      // 均匀交叉：共有食物两个子代都继承，其余食物随机分给其中一个子代
         ONE_POINT,    // 单点交叉
         TWO_POINT,    // 两点交叉
-        BLENDING      // 混合交叉
+        BLENDING      // 混合交叉：在均匀交叉基础上，对共有食物的摄入量执行模拟二进制交叉(SBX)
     }
     
     // 默认交叉类型
     private CrossoverType crossoverType = CrossoverType.UNIFORM;
     
+    // 模拟二进制交叉的分布指数，值越大子代摄入量越接近父代
+    private double sbxDistributionIndex = 15.0;
+    
     /**
      * 构造函数
      * @param crossoverRate 交叉概率
@@ -113,6 +117,12 @@ public class MealCrossover {
                 child1Genes.add(parent2Staples.get(0).copy());
                 child2Genes.add(parent1Staples.get(0).copy());
             }
+            
+            // 混合交叉时，两个父代主食相同则混合其摄入量
+            if (crossoverType == CrossoverType.BLENDING
+                    && isSameFood(parent1Staples.get(0), parent2Staples.get(0))) {
+                blendIntakes(child1Genes.get(0), child2Genes.get(0), random);
+            }
         } else if (!parent1Staples.isEmpty()) {
             // 只有父代1有主食，两个子代都继承父代1的主食
             FoodGene staple = parent1Staples.get(0).copy();
@@ -125,54 +135,21 @@ public class MealCrossover {
             child2Genes.add(staple.copy());
         }
         
-        // 对非主食基因执行单点交叉
-        int parent1Size = parent1NonStaples.size();
-        int parent2Size = parent2NonStaples.size();
-        
-        if (parent1Size > 0 && parent2Size > 0) {
-            // 选择交叉点
-            int crossoverPoint1 = random.nextInt(parent1Size);
-            int crossoverPoint2 = random.nextInt(parent2Size);
-            
-            // 构建子代1：父代1前半部分 + 父代2后半部分
-            for (int i = 0; i < crossoverPoint1; i++) {
-                child1Genes.add(parent1NonStaples.get(i).copy());
-            }
-            
-            for (int i = crossoverPoint2; i < parent2Size; i++) {
-                child1Genes.add(parent2NonStaples.get(i).copy());
-            }
-            
-            // 构建子代2：父代2前半部分 + 父代1后半部分
-            for (int i = 0; i < crossoverPoint2; i++) {
-                child2Genes.add(parent2NonStaples.get(i).copy());
-            }
-            
-            for (int i = crossoverPoint1; i < parent1Size; i++) {
-                child2Genes.add(parent1NonStaples.get(i).copy());
-            }
-        } else if (parent1Size > 0) {
-            // 父代2没有非主食基因，子代均分父代1的非主食基因
-            int midPoint = parent1Size / 2;
-            
-            for (int i = 0; i < midPoint; i++) {
-                child1Genes.add(parent1NonStaples.get(i).copy());
-            }
-            
-            for (int i = midPoint; i < parent1Size; i++) {
-                child2Genes.add(parent1NonStaples.get(i).copy());
-            }
-        } else if (parent2Size > 0) {
-            // 父代1没有非主食基因，子代均分父代2的非主食基因
-            int midPoint = parent2Size / 2;
-            
-            for (int i = 0; i < midPoint; i++) {
-                child1Genes.add(parent2NonStaples.get(i).copy());
-            }
-            
-            for (int i = midPoint; i < parent2Size; i++) {
-                child2Genes.add(parent2NonStaples.get(i).copy());
-            }
+        // 按交叉类型重组非主食基因
+        switch (crossoverType) {
+            case UNIFORM:
+                uniformCrossover(parent1NonStaples, parent2NonStaples, child1Genes, child2Genes, false, random);
+                break;
+            case BLENDING:
+                uniformCrossover(parent1NonStaples, parent2NonStaples, child1Genes, child2Genes, true, random);
+                break;
+            case TWO_POINT:
+                twoPointCrossover(parent1NonStaples, parent2NonStaples, child1Genes, child2Genes, random);
+                break;
+            case ONE_POINT:
+            default:
+                onePointCrossover(parent1NonStaples, parent2NonStaples, child1Genes, child2Genes, random);
+                break;
         }
         
         // 移除重复食物
@@ -186,6 +163,201 @@ public class MealCrossover {
         return offspring;
     }
     
+    /**
+     * 单点交叉：子代1 = 父代1[0, p1) + 父代2[p2, n2)，子代2 = 父代2[0, p2) + 父代1[p1, n1)
+     */
+    private void onePointCrossover(List<FoodGene> parent1Genes, List<FoodGene> parent2Genes,
+                                   List<FoodGene> child1Genes, List<FoodGene> child2Genes, Random random) {
+        int parent1Size = parent1Genes.size();
+        int parent2Size = parent2Genes.size();
+        
+        if (parent1Size == 0 || parent2Size == 0) {
+            splitSingleParent(parent1Size > 0 ? parent1Genes : parent2Genes, child1Genes, child2Genes);
+            return;
+        }
+        
+        // 选择交叉点
+        int crossoverPoint1 = random.nextInt(parent1Size);
+        int crossoverPoint2 = random.nextInt(parent2Size);
+        
+        // 构建子代1：父代1前半部分 + 父代2后半部分
+        copyRange(parent1Genes, 0, crossoverPoint1, child1Genes);
+        copyRange(parent2Genes, crossoverPoint2, parent2Size, child1Genes);
+        
+        // 构建子代2：父代2前半部分 + 父代1后半部分
+        copyRange(parent2Genes, 0, crossoverPoint2, child2Genes);
+        copyRange(parent1Genes, crossoverPoint1, parent1Size, child2Genes);
+    }
+    
+    /**
+     * 两点交叉：交换两个父代中间片段
+     * 子代1 = 父代1[0, a1) + 父代2[a2, b2) + 父代1[b1, n1)，子代2与之对称
+     */
+    private void twoPointCrossover(List<FoodGene> parent1Genes, List<FoodGene> parent2Genes,
+                                   List<FoodGene> child1Genes, List<FoodGene> child2Genes, Random random) {
+        int parent1Size = parent1Genes.size();
+        int parent2Size = parent2Genes.size();
+        
+        if (parent1Size == 0 || parent2Size == 0) {
+            splitSingleParent(parent1Size > 0 ? parent1Genes : parent2Genes, child1Genes, child2Genes);
+            return;
+        }
+        
+        // 在每个父代中选择两个交叉点 start <= end
+        int start1 = random.nextInt(parent1Size + 1);
+        int end1 = random.nextInt(parent1Size + 1);
+        if (start1 > end1) {
+            int temp = start1;
+            start1 = end1;
+            end1 = temp;
+        }
+        int start2 = random.nextInt(parent2Size + 1);
+        int end2 = random.nextInt(parent2Size + 1);
+        if (start2 > end2) {
+            int temp = start2;
+            start2 = end2;
+            end2 = temp;
+        }
+        
+        copyRange(parent1Genes, 0, start1, child1Genes);
+        copyRange(parent2Genes, start2, end2, child1Genes);
+        copyRange(parent1Genes, end1, parent1Size, child1Genes);
+        
+        copyRange(parent2Genes, 0, start2, child2Genes);
+        copyRange(parent1Genes, start1, end1, child2Genes);
+        copyRange(parent2Genes, end2, parent2Size, child2Genes);
+    }
+    
+    /**
+     * 均匀交叉：两个父代共有的食物两个子代都继承，各自摄入量随机交换（或执行SBX混合）；
+     * 只在一个父代中出现的食物等概率分给其中一个子代
+     * @param blend 是否对共有食物的摄入量执行模拟二进制交叉
+     */
+    private void uniformCrossover(List<FoodGene> parent1Genes, List<FoodGene> parent2Genes,
+                                  List<FoodGene> child1Genes, List<FoodGene> child2Genes,
+                                  boolean blend, Random random) {
+        for (FoodGene gene1 : parent1Genes) {
+            FoodGene gene2 = findSameFood(parent2Genes, gene1);
+            if (gene2 == null) {
+                (random.nextBoolean() ? child1Genes : child2Genes).add(gene1.copy());
+                continue;
+            }
+            
+            FoodGene childGene1 = gene1.copy();
+            FoodGene childGene2 = gene2.copy();
+            if (blend) {
+                blendIntakes(childGene1, childGene2, random);
+            } else if (random.nextBoolean()) {
+                childGene1 = gene2.copy();
+                childGene2 = gene1.copy();
+            }
+            child1Genes.add(childGene1);
+            child2Genes.add(childGene2);
+        }
+        
+        for (FoodGene gene2 : parent2Genes) {
+            if (findSameFood(parent1Genes, gene2) == null) {
+                (random.nextBoolean() ? child1Genes : child2Genes).add(gene2.copy());
+            }
+        }
+    }
+    
+    /**
+     * 对同一种食物的两个摄入量执行有界模拟二进制交叉(SBX)，边界为该食物的推荐摄入量范围
+     * @param gene1 子代1的基因（原地修改摄入量）
+     * @param gene2 子代2的基因（原地修改摄入量）
+     * @param random 随机数生成器
+     */
+    private void blendIntakes(FoodGene gene1, FoodGene gene2, Random random) {
+        double x1 = gene1.getIntake();
+        double x2 = gene2.getIntake();
+        if (Math.abs(x1 - x2) < 1e-9) {
+            return;
+        }
+        
+        IntakeRange range = gene1.getFood().getRecommendedIntakeRange();
+        double lower = range.getMinIntake();
+        double upper = range.getMaxIntake();
+        double y1 = Math.min(x1, x2);
+        double y2 = Math.max(x1, x2);
+        double exponent = 1.0 / (sbxDistributionIndex + 1.0);
+        double u = random.nextDouble();
+        
+        // 向下界方向扩展的子代
+        double beta = 1.0 + 2.0 * Math.max(0.0, y1 - lower) / (y2 - y1);
+        double betaQ = sbxSpread(beta, u, exponent);
+        double c1 = 0.5 * ((y1 + y2) - betaQ * (y2 - y1));
+        
+        // 向上界方向扩展的子代
+        beta = 1.0 + 2.0 * Math.max(0.0, upper - y2) / (y2 - y1);
+        betaQ = sbxSpread(beta, u, exponent);
+        double c2 = 0.5 * ((y1 + y2) + betaQ * (y2 - y1));
+        
+        c1 = range.adjustToRange(c1);
+        c2 = range.adjustToRange(c2);
+        if (random.nextBoolean()) {
+            double temp = c1;
+            c1 = c2;
+            c2 = temp;
+        }
+        
+        gene1.setIntake(c1);
+        gene2.setIntake(c2);
+    }
+    
+    /**
+     * 计算有界SBX的扩展因子
+     * @param beta 到边界的相对距离
+     * @param u 均匀随机数
+     * @param exponent 1 / (分布指数 + 1)
+     * @return 扩展因子
+     */
+    private double sbxSpread(double beta, double u, double exponent) {
+        double alpha = 2.0 - Math.pow(beta, -(sbxDistributionIndex + 1.0));
+        if (u <= 1.0 / alpha) {
+            return Math.pow(u * alpha, exponent);
+        }
+        return Math.pow(1.0 / (2.0 - u * alpha), exponent);
+    }
+    
+    /**
+     * 只有一个父代有非主食基因时，两个子代均分该父代的非主食基因
+     */
+    private void splitSingleParent(List<FoodGene> parentGenes, List<FoodGene> child1Genes, List<FoodGene> child2Genes) {
+        int midPoint = parentGenes.size() / 2;
+        copyRange(parentGenes, 0, midPoint, child1Genes);
+        copyRange(parentGenes, midPoint, parentGenes.size(), child2Genes);
+    }
+    
+    /**
+     * 将基因列表[from, to)区间的拷贝追加到目标列表
+     */
+    private static void copyRange(List<FoodGene> source, int from, int to, List<FoodGene> target) {
+        for (int i = from; i < to; i++) {
+            target.add(source.get(i).copy());
+        }
+    }
+    
+    /**
+     * 在基因列表中查找与给定基因食物相同的基因
+     * @return 相同食物的基因，找不到时返回null
+     */
+    private static FoodGene findSameFood(List<FoodGene> genes, FoodGene gene) {
+        for (FoodGene candidate : genes) {
+            if (isSameFood(candidate, gene)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * 两个基因是否为同一种食物（与去重规则一致，按食物名称判断）
+     */
+    private static boolean isSameFood(FoodGene gene1, FoodGene gene2) {
+        return gene1.getFood().getName().equals(gene2.getFood().getName());
+    }
+    
     /**
      * 移除基因列表中的重复食物
      * @param genes 基因列表
@@ -233,4 +405,23 @@ public class MealCrossover {
     public void setCrossoverType(CrossoverType crossoverType) {
         this.crossoverType = crossoverType;
     }
+    
+    /**
+     * 获取模拟二进制交叉的分布指数
+     * @return 分布指数
+     */
+    public double getSbxDistributionIndex() {
+        return sbxDistributionIndex;
+    }
+    
+    /**
+     * 设置模拟二进制交叉的分布指数
+     * @param sbxDistributionIndex 分布指数（非负）
+     */
+    public void setSbxDistributionIndex(double sbxDistributionIndex) {
+        if (sbxDistributionIndex < 0) {
+            throw new IllegalArgumentException("SBX分布指数不能为负数");
+        }
+        this.sbxDistributionIndex = sbxDistributionIndex;
+    }
 }
\ No newline at end of file
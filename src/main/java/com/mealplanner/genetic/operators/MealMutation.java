@@ -1,24 +1,62 @@
 package com.mealplanner.genetic.operators;
 
+import com.mealplanner.genetic.index.FoodCategoryIndex;
+import com.mealplanner.genetic.index.NutrientFoodIndex;
+import com.mealplanner.genetic.index.NutrientFoodIndex.DensityBasis;
+import com.mealplanner.genetic.index.NutrientNeighborIndex;
 import com.mealplanner.genetic.model.FoodGene;
 import com.mealplanner.genetic.model.MealSolution;
 import com.mealplanner.model.Food;
 import com.mealplanner.model.FoodCategory;
 import com.mealplanner.model.NutrientType;
-import com.mealplanner.model.Nutrition;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * 实现膳食解决方案的变异操作
+ * 只持有只读的食物索引和固定参数，构造后不再修改，可被多个并发的规划线程共享；
+ * 目标营养素、达成率范围、变异策略等每次运行的状态保存在 {@link MutationContext} 中，随每次调用传入
  */
 public class MealMutation {
-    // 变异概率
-    private double mutationRate;
-    
     // 食物数据库
-    private List<Food> foodDatabase;
+    private final List<Food> foodDatabase;
+    
+    // 按类别分组的食物索引
+    private final FoodCategoryIndex foodCategoryIndex;
+    
+    // 按营养素密度排序的食物索引，用于针对营养素缺口查找候选食物
+    private final NutrientFoodIndex nutrientFoodIndex;
+    
+    // 营养素近邻索引，用于查找营养成分相近的替代食物
+    private final NutrientNeighborIndex nutrientNeighborIndex;
+    
+    // 按营养素缺口选择食物时的候选池大小
+    private final int gapCandidatePoolSize;
+    
+    // 近邻替换时的候选近邻数量
+    private final int neighborPoolSize;
+    
+    // 摄入量变异强度(0-1)
+    private final double intakeMutationStrength;
+    
+    // 近邻替换时向营养素缺口方向偏移的最大幅度（标准化空间中的标准差倍数）
+    private static final double MAX_NEIGHBOR_SHIFT = 2.0;
+    
+    // 随机选择候选食物时的最大尝试次数
+    private static final int MAX_PICK_ATTEMPTS = 32;
+    
+    private static final NutrientType[] NUTRIENTS = NutrientType.values();
+    
+    // 敏感度变异中每种不足营养素调整的食材数量，以及单次变异最多执行的调整行动数量
+    private static final int SENSITIVITY_TOP_GENES = 3;
+    private static final int SENSITIVITY_MAX_ACTIONS = 3;
+    
+    // 敏感度变异的线程私有工作区，稳态下变异过程不再分配内存
+    private static final ThreadLocal<SensitivityScratch> SENSITIVITY_SCRATCH =
+            ThreadLocal.withInitial(SensitivityScratch::new);
     
     // 变异类型枚举
     public enum MutationType {
@@ -28,48 +66,71 @@ public class MealMutation {
         FOOD_REMOVAL,         // 移除食物
         CALORIES_OPTIMIZATION, // 热量优化
         NUTRIENT_SENSITIVITY, // 基于营养素敏感度分析的精准调整
-        COMPREHENSIVE         // 综合变异（包含以上所有类型）
+        NEIGHBOR_REPLACEMENT, // 近邻替换（用营养成分相近或能弥补缺口的同类食物替换）
+        COMPREHENSIVE,        // 综合变异（包含以上所有类型）
+        ADAPTIVE              // 自适应算子选择（按子代表现在以上具体变异类型中选择）
     }
     
-    // 默认变异类型
-    private MutationType mutationType = MutationType.COMPREHENSIVE;
-    
-    // 摄入量变异强度(0-1)
-    private double intakeMutationStrength = 0.2;
-    
-    // 营养素达成率范围
-    private double minNutrientAchievementRate = 0.8;
-    private double maxNutrientAchievementRate = 1.2;
-    
-    // 不同营养素的达成率范围
-    private Map<NutrientType, double[]> nutrientAchievementRates = new HashMap<>();
-    
-    // 营养素权重，用于敏感度分析，默认都是1.0
-    private Map<String, Double> nutrientWeights = new HashMap<>();
-    
-    // 当前目标营养素（可选）
-    private Map<NutrientType, Double> targetNutrients;
+    // 自适应算子选择可使用的具体变异类型
+    static final MutationType[] ADAPTIVE_OPERATORS = {
+        MutationType.INTAKE_ADJUSTMENT,
+        MutationType.FOOD_REPLACEMENT,
+        MutationType.FOOD_ADDITION,
+        MutationType.FOOD_REMOVAL,
+        MutationType.CALORIES_OPTIMIZATION,
+        MutationType.NUTRIENT_SENSITIVITY,
+        MutationType.NEIGHBOR_REPLACEMENT
+    };
     
     /**
-     * 构造函数
-     * @param mutationRate 变异概率
+     * 构造函数，候选池大小和近邻数量为5，摄入量变异强度为0.2
      * @param foodDatabase 食物数据库
      */
-    public MealMutation(double mutationRate, List<Food> foodDatabase) {
-        this.mutationRate = mutationRate;
-        this.foodDatabase = foodDatabase;
+    public MealMutation(List<Food> foodDatabase) {
+        this(foodDatabase, 5, 5, 0.2);
     }
     
     /**
      * 构造函数
-     * @param mutationRate 变异概率
      * @param foodDatabase 食物数据库
-     * @param mutationType 变异类型
+     * @param gapCandidatePoolSize 按营养素缺口选择食物时的候选池大小，值越小越贪心，值越大随机性越强
+     * @param neighborPoolSize 近邻替换时的候选近邻数量
+     * @param intakeMutationStrength 摄入量变异强度(0-1)
      */
-    public MealMutation(double mutationRate, List<Food> foodDatabase, MutationType mutationType) {
-        this.mutationRate = mutationRate;
+    public MealMutation(List<Food> foodDatabase, int gapCandidatePoolSize, int neighborPoolSize,
+                        double intakeMutationStrength) {
+        if (gapCandidatePoolSize <= 0) {
+            throw new IllegalArgumentException("候选池大小必须为正整数");
+        }
+        if (neighborPoolSize <= 0) {
+            throw new IllegalArgumentException("候选近邻数量必须为正整数");
+        }
         this.foodDatabase = foodDatabase;
-        this.mutationType = mutationType;
+        this.foodCategoryIndex = new FoodCategoryIndex(foodDatabase);
+        this.nutrientFoodIndex = new NutrientFoodIndex(foodDatabase);
+        this.nutrientNeighborIndex = new NutrientNeighborIndex(foodDatabase);
+        this.gapCandidatePoolSize = gapCandidatePoolSize;
+        this.neighborPoolSize = neighborPoolSize;
+        this.intakeMutationStrength = intakeMutationStrength;
+    }
+    
+    /**
+     * 创建一个覆盖全部具体变异类型的自适应算子选择器
+     * @return 自适应算子选择器
+     */
+    public static AdaptiveOperatorSelector createOperatorSelector() {
+        return new AdaptiveOperatorSelector(ADAPTIVE_OPERATORS);
+    }
+    
+    /**
+     * 应用变异操作，目标热量取自上下文
+     * @param solution 解决方案
+     * @param requireStaple 是否需要主食
+     * @param context 本次运行的变异上下文
+     * @return 是否成功应用变异
+     */
+    public boolean apply(MealSolution solution, boolean requireStaple, MutationContext context) {
+        return apply(solution, requireStaple, context.getTargetCalories(), context);
     }
     
     /**
@@ -77,51 +138,40 @@ public class MealMutation {
      * @param solution 解决方案
      * @param requireStaple 是否需要主食
      * @param targetCalories 目标热量
+     * @param context 本次运行的变异上下文，实际执行的变异类型记录在其中
      * @return 是否成功应用变异
      */
-    public boolean apply(MealSolution solution, boolean requireStaple, double targetCalories) {
+    public boolean apply(MealSolution solution, boolean requireStaple, double targetCalories, MutationContext context) {
         if (solution == null) {
             return false;
         }
         
         Random random = new Random();
         boolean mutated = false;
+        double mutationRate = context.getMutationRate();
+        MutationType mutationType = context.getMutationType();
+        context.setLastAppliedType(null);
         
         // 根据变异类型应用不同的变异策略
         switch (mutationType) {
             case INTAKE_ADJUSTMENT:
-                if (random.nextDouble() < mutationRate) {
-                    mutated = mutateIntake(solution);
-                }
-                break;
-                
             case FOOD_REPLACEMENT:
-                if (random.nextDouble() < mutationRate) {
-                    mutated = mutateReplaceFood(solution, requireStaple);
-                }
-                break;
-                
             case FOOD_ADDITION:
-                if (random.nextDouble() < mutationRate) {
-                    mutated = mutateAddFood(solution, requireStaple);
-                }
-                break;
-                
             case FOOD_REMOVAL:
-                if (random.nextDouble() < mutationRate) {
-                    mutated = mutateRemoveFood(solution, requireStaple);
-                }
-                break;
-                
             case CALORIES_OPTIMIZATION:
+            case NUTRIENT_SENSITIVITY:
+            case NEIGHBOR_REPLACEMENT:
                 if (random.nextDouble() < mutationRate) {
-                    mutated = mutateOptimizeCalories(solution, targetCalories);
+                    context.setLastAppliedType(mutationType);
+                    mutated = applyOperator(mutationType, solution, requireStaple, targetCalories, context);
                 }
                 break;
                 
-            case NUTRIENT_SENSITIVITY:
+            case ADAPTIVE:
                 if (random.nextDouble() < mutationRate) {
-                    mutated = mutateByNutrientSensitivity(solution, requireStaple);
+                    MutationType selected = context.getOperatorSelector().select(random);
+                    context.setLastAppliedType(selected);
+                    mutated = applyOperator(selected, solution, requireStaple, targetCalories, context);
                 }
                 break;
                 
@@ -130,16 +180,16 @@ public class MealMutation {
                 // 综合变异：随机选择一种变异类型
                 double r = random.nextDouble();
                 if (r < mutationRate) {
-                    int mutationChoice = random.nextInt(5);
+                    int mutationChoice = random.nextInt(6);
                     switch (mutationChoice) {
                         case 0:
                             mutated = mutateIntake(solution);
                             break;
                         case 1:
-                            mutated = mutateReplaceFood(solution, requireStaple);
+                            mutated = mutateReplaceFood(solution, requireStaple, context);
                             break;
                         case 2:
-                            mutated = mutateAddFood(solution, requireStaple);
+                            mutated = mutateAddFood(solution, requireStaple, context);
                             break;
                         case 3:
                             mutated = mutateRemoveFood(solution, requireStaple);
@@ -147,6 +197,9 @@ public class MealMutation {
                         case 4:
                             mutated = mutateOptimizeCalories(solution, targetCalories);
                             break;
+                        case 5:
+                            mutated = mutateReplaceByNeighbor(solution, requireStaple, context);
+                            break;
                     }
                 }
                 break;
@@ -162,11 +215,34 @@ public class MealMutation {
     }
     
     /**
-     * 原有的apply方法重载，保持向后兼容
+     * 执行一种具体的变异类型
+     * @param type 变异类型（不能是COMPREHENSIVE或ADAPTIVE）
+     * @param solution 解决方案
+     * @param requireStaple 是否需要主食
+     * @param targetCalories 目标热量
+     * @param context 变异上下文
+     * @return 是否成功变异
      */
-    public boolean apply(MealSolution solution, boolean requireStaple) {
-        // 使用默认目标热量600（作为示例，实际应从解决方案中获取）
-        return apply(solution, requireStaple, 600);
+    private boolean applyOperator(MutationType type, MealSolution solution, boolean requireStaple, double targetCalories,
+                                  MutationContext context) {
+        switch (type) {
+            case INTAKE_ADJUSTMENT:
+                return mutateIntake(solution);
+            case FOOD_REPLACEMENT:
+                return mutateReplaceFood(solution, requireStaple, context);
+            case FOOD_ADDITION:
+                return mutateAddFood(solution, requireStaple, context);
+            case FOOD_REMOVAL:
+                return mutateRemoveFood(solution, requireStaple);
+            case CALORIES_OPTIMIZATION:
+                return mutateOptimizeCalories(solution, targetCalories);
+            case NUTRIENT_SENSITIVITY:
+                return mutateByNutrientSensitivity(solution, requireStaple, context);
+            case NEIGHBOR_REPLACEMENT:
+                return mutateReplaceByNeighbor(solution, requireStaple, context);
+            default:
+                throw new IllegalArgumentException("不是具体的变异类型: " + type);
+        }
     }
     
     /**
@@ -201,9 +277,10 @@ public class MealMutation {
      * 变异：替换食物
      * @param solution 待变异的解决方案
      * @param requireStaple 是否需要保留主食
+     * @param context 变异上下文
      * @return 是否成功变异
      */
-    private boolean mutateReplaceFood(MealSolution solution, boolean requireStaple) {
+    private boolean mutateReplaceFood(MealSolution solution, boolean requireStaple, MutationContext context) {
         List<FoodGene> genes = solution.getFoodGenes();
         
         if (genes.isEmpty() || foodDatabase.isEmpty()) {
@@ -213,10 +290,53 @@ public class MealMutation {
         Random random = new Random();
         
         // 随机选择要替换的食物
+        int index = selectReplaceableGene(genes, requireStaple, random);
+        if (index < 0) {
+            return false; // 没有可替换的非主食
+        }
+        FoodGene geneToReplace = genes.get(index);
+        
+        // 获取当前食物的类别
+        FoodCategory category = geneToReplace.getFood().getCategory();
+        
+        // 优先选择能弥补营养素缺口的同类别食物，找不到时随机选择同类别食物
+        Predicate<Food> inMeal = food -> containsFoodName(genes, food.getName());
+        Food replacementFood = findGapClosingFood(solution, category, geneToReplace.getFood(), inMeal, random, context);
+        if (replacementFood == null) {
+            replacementFood = pickRandomFood(foodCategoryIndex.getFoods(category), inMeal, random);
+        }
+        
+        if (replacementFood == null) {
+            return false; // 没有可替换的同类别食物
+        }
+        
+        // 为新食物生成一个在推荐范围内的摄入量
+        double minIntake = replacementFood.getRecommendedIntakeRange().getMinIntake();
+        double maxIntake = replacementFood.getRecommendedIntakeRange().getMaxIntake();
+        double intake = minIntake + random.nextDouble() * (maxIntake - minIntake);
+        
+        // 将摄入量四舍五入为整数
+        intake = Math.round(intake);
+        
+        // 替换食物（通过setFoodGenes写回以清除选择替换食物时缓存的总营养素）
+        genes.set(index, new FoodGene(replacementFood, intake));
+        solution.setFoodGenes(genes);
+        
+        return true;
+    }
+    
+    /**
+     * 随机选择一个可替换的食物基因
+     * 如果需要主食且选中的是唯一的主食，则改为随机选择一个非主食
+     * @param genes 食物基因列表
+     * @param requireStaple 是否需要保留主食
+     * @param random 随机数生成器
+     * @return 基因索引，没有可替换的基因时返回-1
+     */
+    private int selectReplaceableGene(List<FoodGene> genes, boolean requireStaple, Random random) {
         int index = random.nextInt(genes.size());
         FoodGene geneToReplace = genes.get(index);
         
-        // 如果需要主食且选中的是唯一的主食，则不替换
         if (requireStaple && FoodCategory.STAPLE.equals(geneToReplace.getFood().getCategory())) {
             boolean isOnlyStaple = genes.stream()
                     .filter(g -> FoodCategory.STAPLE.equals(g.getFood().getCategory()))
@@ -229,89 +349,140 @@ public class MealMutation {
                         .collect(Collectors.toList());
                 
                 if (nonStapleGenes.isEmpty()) {
-                    return false; // 没有可替换的非主食
+                    return -1;
                 }
                 
                 // 随机选择一个非主食替换
                 index = genes.indexOf(nonStapleGenes.get(random.nextInt(nonStapleGenes.size())));
-                geneToReplace = genes.get(index);
             }
         }
         
-        // 获取当前食物的类别
-        FoodCategory category = geneToReplace.getFood().getCategory();
+        return index;
+    }
+    
+    /**
+     * 变异：近邻替换
+     * 在营养素近邻索引中查找与被替换食物营养成分相近、并向营养素缺口方向偏移的同类食物，
+     * 新食物沿用原摄入量（调整到其推荐范围内）
+     * @param solution 待变异的解决方案
+     * @param requireStaple 是否需要保留主食
+     * @param context 变异上下文
+     * @return 是否成功变异
+     */
+    private boolean mutateReplaceByNeighbor(MealSolution solution, boolean requireStaple, MutationContext context) {
+        List<FoodGene> genes = solution.getFoodGenes();
         
-        // 筛选同类别的食物，排除已在解决方案中的食物
-        List<Food> candidateFoods = foodDatabase.stream()
-                .filter(f -> f.getCategory().equals(category))
-                .filter(f -> !genes.stream().anyMatch(g -> g.getFood().getName().equals(f.getName())))
-                .collect(Collectors.toList());
+        if (genes.isEmpty()) {
+            return false;
+        }
         
-        if (candidateFoods.isEmpty()) {
+        Random random = new Random();
+        int index = selectReplaceableGene(genes, requireStaple, random);
+        if (index < 0) {
+            return false;
+        }
+        
+        List<Food> neighbors = suggestSubstitutes(solution, index, neighborPoolSize, context);
+        if (neighbors.isEmpty()) {
             return false; // 没有可替换的同类别食物
         }
         
-        // 随机选择一个替换食物
-        Food replacementFood = candidateFoods.get(random.nextInt(candidateFoods.size()));
+        FoodGene geneToReplace = genes.get(index);
+        Food replacementFood = neighbors.get(random.nextInt(neighbors.size()));
+        double intake = replacementFood.getRecommendedIntakeRange().adjustToRange(geneToReplace.getIntake());
         
-        // 为新食物生成一个在推荐范围内的摄入量
-        double minIntake = replacementFood.getRecommendedIntakeRange().getMinIntake();
-        double maxIntake = replacementFood.getRecommendedIntakeRange().getMaxIntake();
-        double intake = minIntake + random.nextDouble() * (maxIntake - minIntake);
+        genes.set(index, new FoodGene(replacementFood, Math.round(intake)));
+        solution.setFoodGenes(genes);
         
-        // 将摄入量四舍五入为整数
-        intake = Math.round(intake);
+        return true;
+    }
+    
+    /**
+     * 为膳食中的某个食物推荐前k个替代食物
+     * 查询点为原食物的营养素向量，并按当前营养素缺口向需要的方向偏移：
+     * 营养素全部达标时返回营养成分最相近的食物，存在缺口时返回能弥补缺口的相近食物
+     * @param solution 膳食方案
+     * @param geneIndex 食物基因索引
+     * @param k 推荐数量
+     * @param context 变异上下文，为null时不按营养素缺口偏移，只返回营养成分最相近的食物
+     * @return 按相似度排列的替代食物（不包含膳食中已有的食物）
+     */
+    public List<Food> suggestSubstitutes(MealSolution solution, int geneIndex, int k, MutationContext context) {
+        List<FoodGene> genes = solution.getFoodGenes();
+        FoodGene gene = genes.get(geneIndex);
+        Food food = gene.getFood();
         
-        // 替换食物
-        genes.set(index, new FoodGene(replacementFood, intake));
+        double[] query = nutrientNeighborIndex.getVector(food);
+        
+        // 按营养素缺口偏移查询点：假设由该食物承担全部缺口，计算其每100g需要变化的量
+        if (context != null && context.getTargetNutrients() != null && gene.getIntake() > 0) {
+            Map<NutrientType, Double> targetNutrients = context.getTargetNutrients();
+            Map<NutrientType, Double> actualNutrients = solution.calculateTotalNutrients();
+            for (NutrientType nutrient : NutrientType.values()) {
+                Double target = targetNutrients.get(nutrient);
+                double[] range = context.getNutrientAchievementRate(nutrient);
+                if (target == null || target <= 0 || range == null) {
+                    continue;
+                }
+                
+                double actual = actualNutrients.get(nutrient);
+                double desired;
+                if (actual < target * range[0]) {
+                    desired = target * range[0];
+                } else if (actual > target * range[1]) {
+                    desired = target * range[1];
+                } else {
+                    continue;
+                }
+                
+                double deltaPer100g = (desired - actual) / gene.getIntake() * 100;
+                double shift = nutrientNeighborIndex.toNormalizedDelta(nutrient, deltaPer100g);
+                query[nutrient.ordinal()] += Math.max(-MAX_NEIGHBOR_SHIFT, Math.min(MAX_NEIGHBOR_SHIFT, shift));
+            }
+        }
         
-        return true;
+        return nutrientNeighborIndex.findNearest(food.getCategory(), query, k,
+                candidate -> containsFoodName(genes, candidate.getName()));
     }
     
     /**
      * 添加食物变异
      * @param solution 解决方案
      * @param requireStaple 是否需要主食
+     * @param context 变异上下文
      * @return 是否成功变异
      */
-    private boolean mutateAddFood(MealSolution solution, boolean requireStaple) {
+    private boolean mutateAddFood(MealSolution solution, boolean requireStaple, MutationContext context) {
         Random random = new Random();
         
-        // 获取当前解决方案中的所有食物
-        Set<String> existingFoodNames = solution.getFoodGenes().stream()
-                .map(gene -> gene.getFood().getName())
-                .collect(Collectors.toSet());
+        List<FoodGene> genes = solution.getFoodGenes();
         
-        // 获取未包含在解决方案中的候选食物
-        List<Food> candidateFoods = foodDatabase.stream()
-                .filter(food -> !existingFoodNames.contains(food.getName()))
-                .collect(Collectors.toList());
+        // 候选范围：未包含在解决方案中的食物
+        FoodCategory category = null;
+        Predicate<Food> excluded = food -> containsFoodName(genes, food.getName());
         
-        // 如果requireStaple为true，且当前已有主食，则排除所有主食
+        // 如果requireStaple为true，已有主食时排除所有主食，没有主食时只选择主食
         if (requireStaple) {
-            // 检查当前是否已有主食
-            boolean hasStaple = solution.getFoodGenes().stream()
+            boolean hasStaple = genes.stream()
                     .anyMatch(gene -> FoodCategory.STAPLE.equals(gene.getFood().getCategory()));
             
             if (hasStaple) {
-                // 已有主食，从候选食物中排除所有主食
-                candidateFoods = candidateFoods.stream()
-                        .filter(food -> !FoodCategory.STAPLE.equals(food.getCategory()))
-                        .collect(Collectors.toList());
+                excluded = excluded.or(food -> FoodCategory.STAPLE.equals(food.getCategory()));
             } else {
-                // 没有主食，只选择主食
-                candidateFoods = candidateFoods.stream()
-                        .filter(food -> FoodCategory.STAPLE.equals(food.getCategory()))
-                        .collect(Collectors.toList());
+                category = FoodCategory.STAPLE;
             }
         }
         
-        if (candidateFoods.isEmpty()) {
-            return false; // 没有可添加的候选食物
+        // 优先选择能弥补营养素缺口的食物，找不到时随机选择
+        Food selectedFood = findGapClosingFood(solution, category, null, excluded, random, context);
+        if (selectedFood == null) {
+            List<Food> candidates = category == null ? foodDatabase : foodCategoryIndex.getFoods(category);
+            selectedFood = pickRandomFood(candidates, excluded, random);
         }
         
-        // 随机选择一个食物添加到解决方案中
-        Food selectedFood = candidateFoods.get(random.nextInt(candidateFoods.size()));
+        if (selectedFood == null) {
+            return false; // 没有可添加的候选食物
+        }
         
         // 随机生成一个在推荐范围内的摄入量
         double minIntake = selectedFood.getRecommendedIntakeRange().getMinIntake();
@@ -327,6 +498,125 @@ public class MealMutation {
         return true;
     }
     
+    /**
+     * 根据当前膳食的营养素缺口查找候选食物
+     * 选择达成率最不足的营养素，在指定类别中查找富含该营养素的食物；
+     * 如果同时存在过量的营养素，则要求候选食物的该营养素密度不高于被替换食物（或当前膳食）
+     * @param solution 当前膳食方案
+     * @param category 候选食物类别，null表示不限类别
+     * @param replacedFood 被替换的食物，添加食物时为null
+     * @param excluded 需要排除的食物
+     * @param random 随机数生成器
+     * @param context 变异上下文
+     * @return 候选食物，没有营养素缺口或找不到时返回null
+     */
+    private Food findGapClosingFood(MealSolution solution, FoodCategory category, Food replacedFood,
+                                    Predicate<Food> excluded, Random random, MutationContext context) {
+        if (!context.hasTargets()) {
+            return null;
+        }
+        
+        Map<NutrientType, Double> ratios = calculateNutrientAchievementRatios(solution, context.getTargetNutrients());
+        
+        // 找出缺口最大的不足营养素和超出最多的过量营养素
+        NutrientType deficient = null;
+        NutrientType excessive = null;
+        double maxShortfall = 0;
+        double maxExcess = 0;
+        for (Map.Entry<NutrientType, Double> entry : ratios.entrySet()) {
+            double[] range = context.getNutrientAchievementRate(entry.getKey());
+            if (range == null) {
+                continue;
+            }
+            double shortfall = (range[0] - entry.getValue()) / range[0];
+            double excess = (entry.getValue() - range[1]) / range[1];
+            if (shortfall > maxShortfall) {
+                maxShortfall = shortfall;
+                deficient = entry.getKey();
+            } else if (excess > maxExcess) {
+                maxExcess = excess;
+                excessive = entry.getKey();
+            }
+        }
+        
+        if (deficient == null) {
+            return null;
+        }
+        
+        // 热量过量时按每千卡密度查找，优先选择营养素密度高而热量低的食物
+        DensityBasis basis = excessive == NutrientType.CALORIES ? DensityBasis.PER_KCAL : DensityBasis.PER_100G;
+        
+        // 过量营养素的密度上限：不高于被替换食物，或不高于当前膳食的平均密度
+        double maxLimitDensity = Double.POSITIVE_INFINITY;
+        if (excessive != null && excessive != NutrientType.CALORIES) {
+            if (replacedFood != null) {
+                maxLimitDensity = NutrientFoodIndex.densityOf(replacedFood, excessive, basis);
+            } else {
+                maxLimitDensity = calculateMealDensity(solution, excessive, basis);
+            }
+        }
+        
+        return nutrientFoodIndex.findRichFood(category, deficient,
+                Double.isInfinite(maxLimitDensity) ? null : excessive, maxLimitDensity,
+                basis, gapCandidatePoolSize, excluded, random);
+    }
+    
+    /**
+     * 计算当前膳食某营养素的平均密度
+     * @param solution 膳食方案
+     * @param nutrient 营养素
+     * @param basis 密度基准
+     * @return 平均密度
+     */
+    private double calculateMealDensity(MealSolution solution, NutrientType nutrient, DensityBasis basis) {
+        Map<NutrientType, Double> totals = solution.calculateTotalNutrients();
+        if (basis == DensityBasis.PER_KCAL) {
+            return totals.get(nutrient) / Math.max(1.0, totals.get(NutrientType.CALORIES));
+        }
+        
+        double totalIntake = 0;
+        for (FoodGene gene : solution.getFoodGenes()) {
+            totalIntake += gene.getIntake();
+        }
+        return totalIntake > 0 ? totals.get(nutrient) / totalIntake * 100 : Double.POSITIVE_INFINITY;
+    }
+    
+    /**
+     * 从候选列表中随机选择一个未被排除的食物
+     * 尝试次数有上限，开销与候选列表大小无关
+     * @param candidates 候选食物
+     * @param excluded 需要排除的食物
+     * @param random 随机数生成器
+     * @return 选中的食物，找不到时返回null
+     */
+    private Food pickRandomFood(List<Food> candidates, Predicate<Food> excluded, Random random) {
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        for (int attempt = 0; attempt < MAX_PICK_ATTEMPTS; attempt++) {
+            Food food = candidates.get(random.nextInt(candidates.size()));
+            if (!excluded.test(food)) {
+                return food;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * 检查基因列表中是否包含指定名称的食物
+     * @param genes 食物基因列表
+     * @param foodName 食物名称
+     * @return 是否包含
+     */
+    private static boolean containsFoodName(List<FoodGene> genes, String foodName) {
+        for (int i = 0; i < genes.size(); i++) {
+            if (genes.get(i).getFood().getName().equals(foodName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
      * 变异：移除食物
      * @param solution 待变异的解决方案
@@ -460,8 +750,9 @@ public class MealMutation {
             }
         }
         
-        // 设置新的摄入量
+        // 设置新的摄入量（清除计算当前热量时缓存的总营养素）
         selectedGene.setIntake(newIntake);
+        solution.setFoodGenes(genes);
         
         return true;
     }
@@ -470,65 +761,91 @@ public class MealMutation {
      * 基于营养素敏感度分析的食材克重精准调整
      * @param solution 待变异的解决方案
      * @param requireStaple 是否需要保留主食
+     * @param context 变异上下文（必须包含目标营养素）
      * @return 是否成功变异
      */
-    public boolean mutateByNutrientSensitivity(MealSolution solution, boolean requireStaple) {
+    public boolean mutateByNutrientSensitivity(MealSolution solution, boolean requireStaple, MutationContext context) {
         // 获取当前的食物基因列表
         List<FoodGene> genes = solution.getFoodGenes();
+        int geneCount = genes.size();
         
-        if (genes.isEmpty()) {
+        if (geneCount == 0) {
             return false;
         }
         
-        // 计算当前的营养素水平和目标达成率
-        // com.mealplanner.Nutrition currentNutrients = solution.calculateTotalNutrients();
-        Map<NutrientType, Double> nutrientRatios = calculateNutrientAchievementRatios(solution);
-        
-        // 找出需要调整的营养素
-        List<NutrientType> deficientNutrients = new ArrayList<>();
-        List<NutrientType> excessiveNutrients = new ArrayList<>();
+        SensitivityScratch scratch = SENSITIVITY_SCRATCH.get();
+        double[] totals = scratch.totals;
+        double[] contributions = scratch.contributions(geneCount);
+        
+        // 计算营养素总量，贡献矩阵中暂存各食材的营养素含量
+        Arrays.fill(totals, 0.0);
+        for (int g = 0; g < geneCount; g++) {
+            FoodGene gene = genes.get(g);
+            Map<NutrientType, Double> items = gene.getFood().getNutritionItems();
+            double ratio = gene.getIntake() / 100.0;
+            int row = g * NUTRIENTS.length;
+            for (int n = 0; n < NUTRIENTS.length; n++) {
+                Double value = items.get(NUTRIENTS[n]);
+                double amount = value != null ? value * ratio : 0.0;
+                contributions[row + n] = amount;
+                totals[n] += amount;
+            }
+        }
         
-        for (Map.Entry<NutrientType, Double> entry : nutrientRatios.entrySet()) {
-            NutrientType nutrient = entry.getKey();
-            double ratio = entry.getValue();
+        // 找出达成率不足的营养素，并记录是否存在过量的营养素
+        int[] deficient = scratch.deficientNutrients;
+        int deficientCount = 0;
+        boolean hasExcessive = false;
+        Map<NutrientType, Double> targetNutrients = context.getTargetNutrients();
+        for (int n = 0; n < NUTRIENTS.length; n++) {
+            Double target = targetNutrients.get(NUTRIENTS[n]);
+            if (target == null || target <= 0) {
+                continue;
+            }
             
-            if (isDeficient(ratio, nutrient)) {
-                deficientNutrients.add(nutrient);
-            } else if (isExcessive(ratio, nutrient)) {
-                excessiveNutrients.add(nutrient);
+            double ratio = totals[n] / target;
+            if (isDeficient(ratio, NUTRIENTS[n], context)) {
+                deficient[deficientCount++] = n;
+            } else if (isExcessive(ratio, NUTRIENTS[n], context)) {
+                hasExcessive = true;
             }
         }
         
-        if (deficientNutrients.isEmpty() && excessiveNutrients.isEmpty()) {
+        if (deficientCount == 0 && !hasExcessive) {
             // 所有营养素都在达成率范围内，随机选择一种变异
-            Random random = new Random();
-            int choice = random.nextInt(3);
+            int choice = ThreadLocalRandom.current().nextInt(3);
             switch (choice) {
                 case 0:
                     return mutateIntake(solution);
                 case 1:
-                    return mutateAddFood(solution, requireStaple);
+                    return mutateAddFood(solution, requireStaple, context);
                 default:
-                    return mutateReplaceFood(solution, requireStaple);
+                    return mutateReplaceFood(solution, requireStaple, context);
             }
         }
         
-        // 计算食材对各营养素的贡献度
-        Map<FoodGene, Map<NutrientType, Double>> foodNutrientContributions = calculateFoodNutrientContributions(solution);
+        // 将营养素含量换算为食材对各营养素的贡献度（占总量的比例）
+        for (int g = 0; g < geneCount; g++) {
+            int row = g * NUTRIENTS.length;
+            for (int n = 0; n < NUTRIENTS.length; n++) {
+                contributions[row + n] = totals[n] > 0 ? contributions[row + n] / totals[n] : 0.0;
+            }
+        }
         
         // 选择最适合调整的食材
-        List<AdjustmentAction> adjustmentActions = determineAdjustmentActions(
-            genes, deficientNutrients, foodNutrientContributions);
+        int actionCount = determineAdjustmentActions(genes, deficient, deficientCount, scratch, context);
         
-        if (adjustmentActions.isEmpty()) {
+        if (actionCount == 0) {
             // 如果找不到合适的调整行动，尝试添加新食物
-            return mutateAddFood(solution, requireStaple);
+            return mutateAddFood(solution, requireStaple, context);
         }
         
-        // 执行调整行动
+        // 执行调整行动；只调整摄入量，不改变主食数量和重复食物，结构有效性只需检查一次
+        boolean structurallyValid = isStructurallyValid(genes, requireStaple);
         boolean adjustmentMade = false;
-        for (AdjustmentAction action : adjustmentActions) {
-            if (applyAdjustmentAction(solution, action, requireStaple)) {
+        for (int a = 0; a < actionCount; a++) {
+            solution.updateFoodIntake(scratch.actionGenes[a], scratch.actionIntakes[a]);
+            if (structurallyValid && intakesWithinRange(genes)) {
                 adjustmentMade = true;
             }
         }
@@ -536,16 +853,166 @@ public class MealMutation {
         return adjustmentMade;
     }
     
+    /**
+     * 确定需要执行的调整行动，结果写入工作区的行动数组
+     * 对每种不足的营养素部分选择贡献度最大的前几个食材，不做完整排序
+     * @param genes 食物基因列表
+     * @param deficient 不足营养素的ordinal
+     * @param deficientCount 不足营养素的数量
+     * @param scratch 工作区（贡献度矩阵已填充）
+     * @param context 变异上下文
+     * @return 调整行动数量
+     */
+    private int determineAdjustmentActions(List<FoodGene> genes, int[] deficient, int deficientCount,
+                                           SensitivityScratch scratch, MutationContext context) {
+        int geneCount = genes.size();
+        double[] contributions = scratch.contributions;
+        int[] topGenes = scratch.topGenes;
+        double[] topValues = scratch.topValues;
+        int actionCount = 0;
+        
+        for (int d = 0; d < deficientCount; d++) {
+            int n = deficient[d];
+            NutrientType nutrient = NUTRIENTS[n];
+            double weight = context.getNutrientWeight(nutrient);
+            
+            // 部分选择贡献度最大的前几个食材，贡献度相同时保持原有顺序
+            int topCount = 0;
+            for (int g = 0; g < geneCount; g++) {
+                double value = contributions[g * NUTRIENTS.length + n];
+                if (topCount == SENSITIVITY_TOP_GENES && value <= topValues[topCount - 1]) {
+                    continue;
+                }
+                int position = topCount < SENSITIVITY_TOP_GENES ? topCount++ : topCount - 1;
+                while (position > 0 && topValues[position - 1] < value) {
+                    topGenes[position] = topGenes[position - 1];
+                    topValues[position] = topValues[position - 1];
+                    position--;
+                }
+                topGenes[position] = g;
+                topValues[position] = value;
+            }
+            
+            for (int i = 0; i < topCount; i++) {
+                FoodGene gene = genes.get(topGenes[i]);
+                
+                // 计算调整方向和幅度
+                double currentIntake = gene.getIntake();
+                double minIntake = gene.getFood().getRecommendedIntakeRange().getMinIntake();
+                double maxIntake = gene.getFood().getRecommendedIntakeRange().getMaxIntake();
+                
+                // 计算调整因子，基于达成率差距
+                double targetRatio = context.getMinNutrientAchievementRate();
+                double gap = Math.abs(currentIntake - targetRatio);
+                double adjustmentFactor = calculateAdjustmentFactor(gap);
+                
+                // 根据营养素贡献度缩放调整因子
+                adjustmentFactor *= Math.min(1.0, topValues[i] * 2); // 增强高贡献食材的调整效果
+                
+                // 计算新的摄入量
+                double newIntake;
+                if (currentIntake < targetRatio) {
+                    newIntake = currentIntake * (1 + adjustmentFactor);
+                    newIntake = Math.min(maxIntake, newIntake); // 不超过最大推荐量
+                } else {
+                    newIntake = currentIntake * (1 - adjustmentFactor);
+                    newIntake = Math.max(minIntake, newIntake); // 不低于最小推荐量
+                }
+                
+                // 四舍五入到整数
+                newIntake = Math.round(newIntake);
+                
+                // 只有当调整幅度超过一定阈值时才执行调整
+                if (Math.abs(newIntake - currentIntake) >= 5) {
+                    // 按营养素重要性权重降序插入，权重相同时保持原有顺序
+                    int position = actionCount++;
+                    while (position > 0 && scratch.actionWeights[position - 1] < weight) {
+                        scratch.actionGenes[position] = scratch.actionGenes[position - 1];
+                        scratch.actionIntakes[position] = scratch.actionIntakes[position - 1];
+                        scratch.actionWeights[position] = scratch.actionWeights[position - 1];
+                        position--;
+                    }
+                    scratch.actionGenes[position] = topGenes[i];
+                    scratch.actionIntakes[position] = newIntake;
+                    scratch.actionWeights[position] = weight;
+                }
+            }
+        }
+        
+        // 限制最大调整行动数量
+        return Math.min(SENSITIVITY_MAX_ACTIONS, actionCount);
+    }
+    
+    /**
+     * 检查主食数量和重复食物（不检查摄入量），不分配临时集合
+     * @param genes 食物基因列表
+     * @param requireStaple 是否要求包含主食
+     * @return 是否有效
+     */
+    private static boolean isStructurallyValid(List<FoodGene> genes, boolean requireStaple) {
+        int stapleCount = 0;
+        for (int i = 0; i < genes.size(); i++) {
+            Food food = genes.get(i).getFood();
+            if (FoodCategory.STAPLE.equals(food.getCategory())) {
+                stapleCount++;
+            }
+            for (int j = 0; j < i; j++) {
+                if (genes.get(j).getFood().getName().equals(food.getName())) {
+                    return false; // 有重复食物
+                }
+            }
+        }
+        return !requireStaple || stapleCount == 1;
+    }
+    
+    /**
+     * 检查所有食物的摄入量是否在推荐范围内
+     * @param genes 食物基因列表
+     * @return 是否全部在范围内
+     */
+    private static boolean intakesWithinRange(List<FoodGene> genes) {
+        for (int i = 0; i < genes.size(); i++) {
+            FoodGene gene = genes.get(i);
+            if (!gene.getFood().getRecommendedIntakeRange().isWithinRange(gene.getIntake())) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 敏感度变异的工作区
+     * 贡献度矩阵按 [基因][营养素ordinal] 行优先存放在一维数组中，容量不足时才扩容
+     */
+    private static final class SensitivityScratch {
+        private final double[] totals = new double[NUTRIENTS.length];
+        private final int[] deficientNutrients = new int[NUTRIENTS.length];
+        private final int[] topGenes = new int[SENSITIVITY_TOP_GENES];
+        private final double[] topValues = new double[SENSITIVITY_TOP_GENES];
+        private final int[] actionGenes = new int[NUTRIENTS.length * SENSITIVITY_TOP_GENES];
+        private final double[] actionIntakes = new double[NUTRIENTS.length * SENSITIVITY_TOP_GENES];
+        private final double[] actionWeights = new double[NUTRIENTS.length * SENSITIVITY_TOP_GENES];
+        private double[] contributions = new double[16 * NUTRIENTS.length];
+        
+        double[] contributions(int geneCount) {
+            int required = geneCount * NUTRIENTS.length;
+            if (contributions.length < required) {
+                contributions = new double[Math.max(required, contributions.length * 2)];
+            }
+            return contributions;
+        }
+    }
+    
     /**
      * 计算当前膳食方案中各营养素的达成率
      * @param solution 膳食方案
+     * @param targetsToUse 目标营养素
      * @return 营养素达成率映射
      */
-    private Map<NutrientType, Double> calculateNutrientAchievementRatios(MealSolution solution) {
+    private Map<NutrientType, Double> calculateNutrientAchievementRatios(MealSolution solution,
+                                                                       Map<NutrientType, Double> targetsToUse) {
         // 计算实际营养素
         Map<NutrientType, Double> actualNutrients = solution.calculateTotalNutrients();
-        // 使用已设置的目标营养素
-        Map<NutrientType, Double> targetsToUse = targetNutrients;
         
         Map<NutrientType, Double> ratios = new HashMap<>();
         
@@ -564,178 +1031,30 @@ public class MealMutation {
     
     
     
-    /**
-     * 确定营养素是否需要调整
-     * @param ratio 当前达成率
-     * @param nutrientName 营养素名称
-     * @return 是否需要调整
-     */
-    private boolean needsAdjustment(double ratio, NutrientType nutrient) {
-        double[] range = getNutrientAchievementRate(nutrient);
-        return ratio < range[0] || ratio > range[1];
-    }
-    
     /**
      * 确定营养素是否不足
      * @param ratio 当前达成率
-     * @param nutrientName 营养素名称
+     * @param nutrient 营养素
+     * @param context 变异上下文
      * @return 是否不足
      */
-    private boolean isDeficient(double ratio, NutrientType nutrient) {
-        double[] range = getNutrientAchievementRate(nutrient);
+    private boolean isDeficient(double ratio, NutrientType nutrient, MutationContext context) {
+        double[] range = context.getNutrientAchievementRate(nutrient);
         return ratio < range[0];
     }
     
     /**
      * 确定营养素是否过量
      * @param ratio 当前达成率
-     * @param nutrientName 营养素名称
+     * @param nutrient 营养素
+     * @param context 变异上下文
      * @return 是否过量
      */
-    private boolean isExcessive(double ratio, NutrientType nutrient) {
-        double[] range = getNutrientAchievementRate(nutrient);
+    private boolean isExcessive(double ratio, NutrientType nutrient, MutationContext context) {
+        double[] range = context.getNutrientAchievementRate(nutrient);
         return ratio > range[1];
     }
     
-    /**
-     * 计算每种食材对各营养素的贡献度
-     * @param solution 膳食方案
-     * @return 食材-营养素贡献度映射
-     */
-    private Map<FoodGene, Map<NutrientType, Double>> calculateFoodNutrientContributions(MealSolution solution) {
-        List<FoodGene> genes = solution.getFoodGenes();
-        Map<NutrientType, Double> totalNutrients = solution.calculateTotalNutrients();
-        Map<FoodGene, Map<NutrientType, Double>> contributions = new HashMap<>();
-        
-        for (FoodGene gene : genes) {
-            Map<NutrientType, Double> nutrientContributions = new HashMap<>();
-            Food food = gene.getFood();
-            double intake = gene.getIntake();
-            
-            // 计算该食材对各营养素的贡献比例
-            // 热量贡献
-            // 循环处理所有营养素类型
-            for (NutrientType nutrientType : NutrientType.values()) {
-                // 获取该营养素的总量
-                double totalAmount = totalNutrients.get(nutrientType);
-                
-                // 如果总量大于0,计算该食材对该营养素的贡献
-                if (totalAmount > 0) {
-                    double nutrientAmount = food.getNutritionItems().get(nutrientType);
-                    double contribution = (nutrientAmount * intake / 100) / totalAmount;
-                    nutrientContributions.put(nutrientType, contribution);
-                }
-            }
-            
-            contributions.put(gene, nutrientContributions);
-        }
-        
-        return contributions;
-    }
-    
-    /**
-     * 确定需要执行的调整行动
-     * @param genes 食物基因列表
-     * @param deficientNutrients 不足的营养素
-     * @param foodContributions 食材营养素贡献度
-     * @return 调整行动列表
-     */
-    private List<AdjustmentAction> determineAdjustmentActions(
-            List<FoodGene> genes,
-            List<NutrientType> deficientNutrients,
-            Map<FoodGene, Map<NutrientType, Double>> foodContributions) {
-        
-        List<AdjustmentAction> actions = new ArrayList<>();
-        
-        // 对每个问题营养素，找出最适合调整的食材
-        for (NutrientType nutrient : deficientNutrients) {
-            // 根据食材对该营养素的贡献度排序，选择贡献最大的食材
-            List<FoodGene> rankedGenes = rankGenesByNutrientContribution(genes, nutrient, foodContributions);
-            
-            if (!rankedGenes.isEmpty()) {
-                // 选择前三个最相关的食材（如果有的话）
-                int adjustCount = Math.min(3, rankedGenes.size());
-                
-                for (int i = 0; i < adjustCount; i++) {
-                    FoodGene gene = rankedGenes.get(i);
-                    
-                    // 计算调整方向和幅度
-                    double currentIntake = gene.getIntake();
-                    double minIntake = gene.getFood().getRecommendedIntakeRange().getMinIntake();
-                    double maxIntake = gene.getFood().getRecommendedIntakeRange().getMaxIntake();
-                    
-                    // 计算调整因子，基于达成率差距
-                    double targetRatio = minNutrientAchievementRate;
-                    double gap = Math.abs(currentIntake - targetRatio);
-                    double adjustmentFactor = calculateAdjustmentFactor(gap);
-                    
-                    // 根据营养素贡献度缩放调整因子
-                    double contribution = foodContributions.get(gene).getOrDefault(nutrient, 0.0);
-                    adjustmentFactor *= Math.min(1.0, contribution * 2); // 增强高贡献食材的调整效果
-                    
-                    // 计算新的摄入量
-                    double newIntake;
-                    if (currentIntake < targetRatio) {
-                        newIntake = currentIntake * (1 + adjustmentFactor);
-                        newIntake = Math.min(maxIntake, newIntake); // 不超过最大推荐量
-                    } else {
-                        newIntake = currentIntake * (1 - adjustmentFactor);
-                        newIntake = Math.max(minIntake, newIntake); // 不低于最小推荐量
-                    }
-                    
-                    // 四舍五入到整数
-                    newIntake = Math.round(newIntake);
-                    
-                    // 只有当调整幅度超过一定阈值时才执行调整
-                    if (Math.abs(newIntake - currentIntake) >= 5) {
-                        actions.add(new AdjustmentAction(
-                            gene, 
-                            newIntake,
-                            nutrient
-                        ));
-                    }
-                }
-            }
-        }
-        
-        // 对调整行动进行排序，优先处理影响大的营养素
-        actions.sort((a1, a2) -> {
-            // 优先级计算考虑营养素的重要性权重
-            double weight1 = nutrientWeights.getOrDefault(a1.getTargetNutrient(), 1.0);
-            double weight2 = nutrientWeights.getOrDefault(a2.getTargetNutrient(), 1.0);
-            return Double.compare(weight2, weight1); // 降序
-        });
-        
-        // 限制最大调整行动数量
-        int maxActions = Math.min(3, actions.size());
-        return actions.subList(0, maxActions);
-    }
-    
-    /**
-     * 根据对特定营养素的贡献度对食材进行排序
-     * @param genes 食物基因列表
-     * @param nutrient 目标营养素
-     * @param foodContributions 食材营养素贡献度
-     * @return 排序后的食物基因列表
-     */
-    private List<FoodGene> rankGenesByNutrientContribution(
-            List<FoodGene> genes,
-            NutrientType nutrient,
-            Map<FoodGene, Map<NutrientType, Double>> foodContributions) {
-        
-        // 复制一份基因列表，避免修改原列表
-        List<FoodGene> rankedGenes = new ArrayList<>(genes);
-        
-        // 按照食材对该营养素的贡献度降序排序
-        rankedGenes.sort((g1, g2) -> {
-            double contrib1 = foodContributions.get(g1).getOrDefault(nutrient, 0.0);
-            double contrib2 = foodContributions.get(g2).getOrDefault(nutrient, 0.0);
-            return Double.compare(contrib2, contrib1); // 降序排序
-        });
-        
-        return rankedGenes;
-    }
-    
     /**
      * 根据达成率差距计算调整因子
      * @param gap 达成率与目标值的差距
@@ -747,29 +1066,6 @@ public class MealMutation {
         return Math.min(0.3, Math.max(0.05, gap * 0.5));
     }
     
-    /**
-     * 应用调整行动
-     * @param solution 膳食方案
-     * @param action 调整行动
-     * @param requireStaple 是否要求包含主食
-     * @return 是否成功应用
-     */
-    private boolean applyAdjustmentAction(MealSolution solution, AdjustmentAction action, boolean requireStaple) {
-        FoodGene gene = action.getGene();
-        double newIntake = action.getNewIntake();
-        
-        // 应用新的摄入量
-        gene.setIntake(newIntake);
-        
-        // 检查调整后的解是否有效
-        if (!solution.isValid(requireStaple)) {
-            // 如果无效，恢复原来的摄入量
-            return false;
-        }
-        
-        return true;
-    }
-    
     /**
      * 调整类型枚举
      */
@@ -779,110 +1075,19 @@ public class MealMutation {
     }
     
     /**
-     * 调整行动类，记录对特定食材的调整信息
-     */
-    private class AdjustmentAction {
-        private FoodGene gene;              // 要调整的食材
-        private double newIntake;           // 调整后的摄入量
-        private NutrientType targetNutrient;      // 目标调整的营养素
-        
-        public AdjustmentAction(FoodGene gene, double newIntake, NutrientType targetNutrient) {
-            this.gene = gene;
-            this.newIntake = newIntake;
-            this.targetNutrient = targetNutrient;
-        }
-        
-        public FoodGene getGene() {
-            return gene;
-        }
-        
-        public double getNewIntake() {
-            return newIntake;
-        }
-        
-        public NutrientType getTargetNutrient() {
-            return targetNutrient;
-        }
-    }
-    
-    /**
-     * 设置营养素达成率范围
-     * @param minRate 最小达成率
-     * @param maxRate 最大达成率
-     */
-    public void setNutrientAchievementRateRange(double minRate, double maxRate) {
-        this.minNutrientAchievementRate = minRate;
-        this.maxNutrientAchievementRate = maxRate;
-    }
-    
-    /**
-     * 设置不同营养素的达成率范围
-     * @param nutrientRates 营养素达成率范围映射
+     * 获取按营养素缺口选择食物时的候选池大小
+     * @return 候选池大小
      */
-    public void setNutrientAchievementRates(Map<NutrientType, double[]> nutrientRates) {
-        this.nutrientAchievementRates = nutrientRates;
+    public int getGapCandidatePoolSize() {
+        return gapCandidatePoolSize;
     }
     
     /**
-     * 获取特定营养素的达成率范围
-     * @param nutrientName 营养素名称
-     * @return 达成率范围数组 [最小达成率, 最大达成率]
+     * 获取近邻替换时的候选近邻数量
+     * @return 候选近邻数量
      */
-    public double[] getNutrientAchievementRate(NutrientType nutrient) {
-        return nutrientAchievementRates.get(nutrient);
-    }
-    
-    /**
-     * 设置营养素权重
-     * @param nutrient 营养素名称
-     * @param weight 权重值
-     */
-    public void setNutrientWeight(String nutrient, double weight) {
-        if (weight < 0) {
-            throw new IllegalArgumentException("营养素权重不能为负数");
-        }
-        nutrientWeights.put(nutrient, weight);
-    }
-    
-    /**
-     * 批量设置营养素权重
-     * @param weights 营养素权重映射
-     */
-    public void setNutrientWeights(Map<String, Double> weights) {
-        nutrientWeights.clear();
-        nutrientWeights.putAll(weights);
-    }
-    
-    /**
-     * 获取变异率
-     * @return 变异率
-     */
-    public double getMutationRate() {
-        return mutationRate;
-    }
-    
-    /**
-     * 设置变异率
-     * @param mutationRate 变异率
-     */
-    public void setMutationRate(double mutationRate) {
-        this.mutationRate = mutationRate;
-    }
-    
-    /**
-     * 获取变异类型
-     * @return 变异类型
-     */
-    public MutationType getMutationType() {
-        return mutationType;
-    }
-    
-    /**
-     * 设置变异类型
-     * @param mutationType 变异类型
-     */
-    public void setMutationType(MutationType mutationType) {
-        this.mutationType = mutationType;
+    public int getNeighborPoolSize() {
+        return neighborPoolSize;
     }
     
     /**
@@ -894,27 +1099,27 @@ public class MealMutation {
     }
     
     /**
-     * 设置摄入量变异强度
-     * @param intakeMutationStrength 摄入量变异强度
+     * 获取食物数据库
+     * @return 食物数据库
      */
-    public void setIntakeMutationStrength(double intakeMutationStrength) {
-        this.intakeMutationStrength = intakeMutationStrength;
+    public List<Food> getFoodDatabase() {
+        return foodDatabase;
     }
     
     /**
-     * 设置目标营养素，用于更精确地计算达成率
-     * @param targetNutrients 目标营养素
+     * 获取按类别分组的食物索引，共享同一变异算子的规划器可直接复用
+     * @return 食物类别索引
      */
-    public void setTargetNutrients(Map<NutrientType, Double> targetNutrients) {
-        this.targetNutrients = targetNutrients;
+    public FoodCategoryIndex getFoodCategoryIndex() {
+        return foodCategoryIndex;
     }
     
     /**
-     * 获取当前设置的目标营养素
-     * @return 目标营养素，如果未设置则返回null
+     * 获取营养素近邻索引
+     * @return 营养素近邻索引
      */
-    public Map<NutrientType, Double> getTargetNutrients() {
-        return this.targetNutrients;
+    public NutrientNeighborIndex getNutrientNeighborIndex() {
+        return nutrientNeighborIndex;
     }
     
     /**
@@ -931,14 +1136,10 @@ public class MealMutation {
             
             if (staples.isEmpty()) {
                 // 没有主食，添加一个主食
-                List<Food> stapleFoods = foodDatabase.stream()
-                        .filter(food -> FoodCategory.STAPLE.equals(food.getCategory()))
-                        .collect(Collectors.toList());
+                Random random = new Random();
+                Food staple = foodCategoryIndex.sampleStaple(random);
                 
-                if (!stapleFoods.isEmpty()) {
-                    Random random = new Random();
-                    Food staple = stapleFoods.get(random.nextInt(stapleFoods.size()));
-                    
+                if (staple != null) {
                     double minIntake = staple.getRecommendedIntakeRange().getMinIntake();
                     double maxIntake = staple.getRecommendedIntakeRange().getMaxIntake();
                     double intake = minIntake + random.nextDouble() * (maxIntake - minIntake);
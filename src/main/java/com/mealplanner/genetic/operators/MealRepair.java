@@ -0,0 +1,216 @@
+package com.mealplanner.genetic.operators;
+
+import com.mealplanner.genetic.model.FoodGene;
+import com.mealplanner.genetic.model.MealSolution;
+import com.mealplanner.model.Food;
+import com.mealplanner.model.FoodCategory;
+import com.mealplanner.model.IntakeRange;
+
+import java.util.*;
+
+/**
+ * 实现膳食解决方案的修复操作
+ * 用确定性的局部修复代替"丢弃并随机重建"，尽量保留子代从父代继承的基因
+ */
+public class MealRepair {
+    // 随机补充食物时的最大尝试次数
+    private static final int MAX_PICK_ATTEMPTS = 16;
+
+    // 主食候选列表
+    private final List<Food> stapleFoods = new ArrayList<>();
+
+    // 非主食候选列表
+    private final List<Food> nonStapleFoods = new ArrayList<>();
+
+    // 全部候选食物
+    private final List<Food> allFoods;
+
+    // 膳食中最少食物数量
+    private int minFoodsPerMeal;
+
+    private final Random random = new Random();
+
+    // 修复统计
+    private long checkedCount;          // 检查过的解决方案数量
+    private long repairedCount;         // 实际执行修复的解决方案数量
+    private long stapleFixCount;        // 修正主食数量的次数
+    private long duplicateRemovalCount; // 移除的重复食物数量
+    private long intakeClampCount;      // 被拉回推荐范围的摄入量数量
+    private long foodAdditionCount;     // 为满足最少食物数量而补充的食物数量
+
+    /**
+     * 构造函数
+     * @param foodDatabase 食物数据库
+     * @param minFoodsPerMeal 膳食中最少食物数量
+     */
+    public MealRepair(List<Food> foodDatabase, int minFoodsPerMeal) {
+        this.allFoods = foodDatabase;
+        this.minFoodsPerMeal = minFoodsPerMeal;
+
+        // 预先按主食/非主食拆分，修复时无需再扫描数据库
+        for (Food food : foodDatabase) {
+            if (FoodCategory.STAPLE.equals(food.getCategory())) {
+                stapleFoods.add(food);
+            } else {
+                nonStapleFoods.add(food);
+            }
+        }
+    }
+
+    /**
+     * 修复解决方案，使其满足有效性约束
+     * 有效的解决方案不做任何修改
+     * @param solution 解决方案
+     * @param requireStaple 是否需要主食
+     * @return 修复后是否有效
+     */
+    public boolean repair(MealSolution solution, boolean requireStaple) {
+        checkedCount++;
+        if (solution.isValid(requireStaple) && solution.getFoodGenes().size() >= minFoodsPerMeal) {
+            return true;
+        }
+        repairedCount++;
+
+        List<FoodGene> genes = solution.getFoodGenes();
+        List<FoodGene> repairedGenes = new ArrayList<>(Math.max(genes.size(), minFoodsPerMeal));
+        Set<String> foodNames = new HashSet<>();
+        boolean hasStaple = false;
+
+        // 1. 移除重复食物，主食只保留第一个，并将摄入量拉回推荐范围
+        for (FoodGene gene : genes) {
+            Food food = gene.getFood();
+            if (!foodNames.add(food.getName())) {
+                duplicateRemovalCount++;
+                continue;
+            }
+
+            boolean isStaple = FoodCategory.STAPLE.equals(food.getCategory());
+            if (requireStaple && isStaple && hasStaple) {
+                stapleFixCount++;
+                foodNames.remove(food.getName());
+                continue;
+            }
+            hasStaple |= isStaple;
+
+            IntakeRange range = food.getRecommendedIntakeRange();
+            if (!range.isWithinRange(gene.getIntake())) {
+                gene.setIntake(range.adjustToRange(gene.getIntake()));
+                intakeClampCount++;
+            }
+            repairedGenes.add(gene);
+        }
+
+        // 2. 缺少主食时补充一个主食
+        if (requireStaple && !hasStaple) {
+            Food staple = pickFood(stapleFoods, foodNames);
+            if (staple != null) {
+                repairedGenes.add(0, createGene(staple));
+                foodNames.add(staple.getName());
+                stapleFixCount++;
+            }
+        }
+
+        // 3. 补足最少食物数量
+        List<Food> candidates = requireStaple ? nonStapleFoods : allFoods;
+        while (repairedGenes.size() < minFoodsPerMeal) {
+            Food food = pickFood(candidates, foodNames);
+            if (food == null) {
+                break;
+            }
+            repairedGenes.add(createGene(food));
+            foodNames.add(food.getName());
+            foodAdditionCount++;
+        }
+
+        solution.setFoodGenes(repairedGenes);
+        return solution.isValid(requireStaple);
+    }
+
+    /**
+     * 从候选列表中随机选择一个未被使用的食物
+     * 尝试次数有上限，保证修复为常数时间
+     * @param candidates 候选食物
+     * @param usedNames 已使用的食物名称
+     * @return 选中的食物，找不到时返回null
+     */
+    private Food pickFood(List<Food> candidates, Set<String> usedNames) {
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        for (int attempt = 0; attempt < MAX_PICK_ATTEMPTS; attempt++) {
+            Food food = candidates.get(random.nextInt(candidates.size()));
+            if (!usedNames.contains(food.getName())) {
+                return food;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 为食物创建一个在推荐范围内随机摄入量的基因
+     * @param food 食物
+     * @return 食物基因
+     */
+    private FoodGene createGene(Food food) {
+        IntakeRange range = food.getRecommendedIntakeRange();
+        double intake = range.getMinIntake() + random.nextDouble() * (range.getMaxIntake() - range.getMinIntake());
+        return new FoodGene(food, Math.round(intake));
+    }
+
+    /**
+     * 重置修复统计
+     */
+    public void resetStatistics() {
+        checkedCount = 0;
+        repairedCount = 0;
+        stapleFixCount = 0;
+        duplicateRemovalCount = 0;
+        intakeClampCount = 0;
+        foodAdditionCount = 0;
+    }
+
+    /**
+     * 获取修复统计信息
+     * @return 统计信息字符串
+     */
+    public String getStatistics() {
+        return "修复统计: 检查=" + checkedCount +
+                ", 修复=" + repairedCount +
+                ", 主食修正=" + stapleFixCount +
+                ", 重复移除=" + duplicateRemovalCount +
+                ", 摄入量修正=" + intakeClampCount +
+                ", 补充食物=" + foodAdditionCount;
+    }
+
+    public long getCheckedCount() {
+        return checkedCount;
+    }
+
+    public long getRepairedCount() {
+        return repairedCount;
+    }
+
+    public long getStapleFixCount() {
+        return stapleFixCount;
+    }
+
+    public long getDuplicateRemovalCount() {
+        return duplicateRemovalCount;
+    }
+
+    public long getIntakeClampCount() {
+        return intakeClampCount;
+    }
+
+    public long getFoodAdditionCount() {
+        return foodAdditionCount;
+    }
+
+    public int getMinFoodsPerMeal() {
+        return minFoodsPerMeal;
+    }
+
+    public void setMinFoodsPerMeal(int minFoodsPerMeal) {
+        this.minFoodsPerMeal = minFoodsPerMeal;
+    }
+}
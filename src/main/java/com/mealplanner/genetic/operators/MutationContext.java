@@ -0,0 +1,193 @@
+package com.mealplanner.genetic.operators;
+
+import com.mealplanner.genetic.operators.MealMutation.MutationType;
+import com.mealplanner.model.NutrientType;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 变异的运行上下文
+ * {@link MealMutation} 只持有只读的食物索引和固定参数，可被任意多个并发的规划共享；
+ * 每次规划（MOEA/D中为每个线程）各自创建一个上下文，保存目标营养素、达成率范围、变异策略、
+ * 自适应算子选择器和最近一次执行的变异类型，并在调用变异时作为参数传入。
+ * 上下文本身不是线程安全的，只能由创建它的规划线程使用。
+ */
+public class MutationContext {
+    // 目标营养素（可为null，此时不按营养素缺口选择食物）
+    private Map<NutrientType, Double> targetNutrients;
+
+    // 不同营养素的达成率范围
+    private final Map<NutrientType, double[]> nutrientAchievementRates;
+
+    // 营养素权重，用于敏感度分析中调整行动的排序，未设置的营养素为1.0
+    private Map<NutrientType, Double> nutrientWeights = Collections.emptyMap();
+
+    // 营养素达成率范围（敏感度分析使用最小达成率）
+    private double minNutrientAchievementRate = 0.8;
+    private double maxNutrientAchievementRate = 1.2;
+
+    // 变异类型
+    private final MutationType mutationType;
+
+    // 变异概率
+    private final double mutationRate;
+
+    // 自适应算子选择器
+    private final AdaptiveOperatorSelector operatorSelector;
+
+    // 最近一次变异实际执行的具体变异类型，未执行变异时为null
+    private MutationType lastAppliedType;
+
+    /**
+     * 构造函数，使用新的自适应算子选择器
+     * @param targetNutrients 目标营养素（可为null）
+     * @param nutrientAchievementRates 不同营养素的达成率范围
+     * @param mutationType 变异类型
+     * @param mutationRate 变异概率
+     */
+    public MutationContext(Map<NutrientType, Double> targetNutrients, Map<NutrientType, double[]> nutrientAchievementRates,
+                           MutationType mutationType, double mutationRate) {
+        this(targetNutrients, nutrientAchievementRates, mutationType, mutationRate, MealMutation.createOperatorSelector());
+    }
+
+    /**
+     * 构造函数
+     * @param targetNutrients 目标营养素（可为null）
+     * @param nutrientAchievementRates 不同营养素的达成率范围
+     * @param mutationType 变异类型
+     * @param mutationRate 变异概率
+     * @param operatorSelector 自适应算子选择器（可跨多次运行保留统计）
+     */
+    public MutationContext(Map<NutrientType, Double> targetNutrients, Map<NutrientType, double[]> nutrientAchievementRates,
+                           MutationType mutationType, double mutationRate, AdaptiveOperatorSelector operatorSelector) {
+        if (mutationType == null) {
+            throw new IllegalArgumentException("变异类型不能为空");
+        }
+        if (mutationRate < 0 || mutationRate > 1) {
+            throw new IllegalArgumentException("变异概率必须在0到1之间");
+        }
+        if (operatorSelector == null) {
+            throw new IllegalArgumentException("自适应算子选择器不能为空");
+        }
+        this.targetNutrients = targetNutrients;
+        this.nutrientAchievementRates = nutrientAchievementRates != null ? nutrientAchievementRates : new HashMap<>();
+        this.mutationType = mutationType;
+        this.mutationRate = mutationRate;
+        this.operatorSelector = operatorSelector;
+    }
+
+    /**
+     * 获取目标营养素
+     * @return 目标营养素，未设置时为null
+     */
+    public Map<NutrientType, Double> getTargetNutrients() {
+        return targetNutrients;
+    }
+
+    /**
+     * 更新目标营养素（增量重规划调整目标时使用）
+     * @param targetNutrients 目标营养素
+     */
+    public void setTargetNutrients(Map<NutrientType, Double> targetNutrients) {
+        this.targetNutrients = targetNutrients;
+    }
+
+    /**
+     * 获取目标热量，未设置目标营养素时为600
+     * @return 目标热量
+     */
+    public double getTargetCalories() {
+        Double calories = targetNutrients != null ? targetNutrients.get(NutrientType.CALORIES) : null;
+        return calories != null ? calories : 600;
+    }
+
+    /**
+     * 是否可以按营养素缺口选择食物
+     */
+    boolean hasTargets() {
+        return targetNutrients != null && !nutrientAchievementRates.isEmpty();
+    }
+
+    public Map<NutrientType, double[]> getNutrientAchievementRates() {
+        return nutrientAchievementRates;
+    }
+
+    /**
+     * 获取特定营养素的达成率范围
+     * @param nutrient 营养素
+     * @return 达成率范围数组 [最小达成率, 最大达成率]，未设置时为null
+     */
+    public double[] getNutrientAchievementRate(NutrientType nutrient) {
+        return nutrientAchievementRates.get(nutrient);
+    }
+
+    /**
+     * 获取营养素在敏感度分析中的权重
+     * @param nutrient 营养素
+     * @return 权重，未设置时为1.0
+     */
+    public double getNutrientWeight(NutrientType nutrient) {
+        return nutrientWeights.getOrDefault(nutrient, 1.0);
+    }
+
+    /**
+     * 设置营养素权重
+     * @param nutrientWeights 营养素权重映射
+     */
+    public void setNutrientWeights(Map<NutrientType, Double> nutrientWeights) {
+        for (Double weight : nutrientWeights.values()) {
+            if (weight == null || weight < 0) {
+                throw new IllegalArgumentException("营养素权重不能为负数");
+            }
+        }
+        this.nutrientWeights = new HashMap<>(nutrientWeights);
+    }
+
+    public double getMinNutrientAchievementRate() {
+        return minNutrientAchievementRate;
+    }
+
+    public double getMaxNutrientAchievementRate() {
+        return maxNutrientAchievementRate;
+    }
+
+    /**
+     * 设置营养素达成率范围
+     * @param minRate 最小达成率
+     * @param maxRate 最大达成率
+     */
+    public void setNutrientAchievementRateRange(double minRate, double maxRate) {
+        this.minNutrientAchievementRate = minRate;
+        this.maxNutrientAchievementRate = maxRate;
+    }
+
+    public MutationType getMutationType() {
+        return mutationType;
+    }
+
+    public double getMutationRate() {
+        return mutationRate;
+    }
+
+    /**
+     * 获取自适应算子选择器，可用于配置选择策略和监控各算子的信用统计
+     * @return 自适应算子选择器
+     */
+    public AdaptiveOperatorSelector getOperatorSelector() {
+        return operatorSelector;
+    }
+
+    /**
+     * 获取最近一次变异实际执行的具体变异类型
+     * @return 变异类型，未执行变异时为null
+     */
+    public MutationType getLastAppliedType() {
+        return lastAppliedType;
+    }
+
+    void setLastAppliedType(MutationType lastAppliedType) {
+        this.lastAppliedType = lastAppliedType;
+    }
+}
@@ -0,0 +1,96 @@
+package com.mealplanner.genetic.util;
+
+import java.util.Random;
+
+/**
+ * Walker别名表，用于按离散概率分布进行O(1)采样
+ */
+public class AliasTable {
+    // 每个槽位保留自身的概率
+    private final double[] probability;
+    
+    // 每个槽位的别名索引
+    private final int[] alias;
+    
+    /**
+     * 构造函数（Vose构建算法，O(n)）
+     * @param weights 各项的非负权重，总和必须大于0
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("权重数组不能为空");
+        }
+        
+        double total = 0;
+        for (double weight : weights) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("权重不能为负数");
+            }
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("权重总和必须大于0");
+        }
+        
+        this.probability = new double[n];
+        this.alias = new int[n];
+        
+        // 按平均值缩放后分为"小"和"大"两组
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        
+        // 用"大"项填补"小"项的剩余概率
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            
+            probability[less] = scaled[less];
+            alias[less] = more;
+            
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        
+        // 剩余项由于浮点误差可能不严格等于1，直接设为1
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1.0;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1.0;
+        }
+    }
+    
+    /**
+     * 按权重采样一个索引
+     * @param random 随机数生成器
+     * @return 采样得到的索引
+     */
+    public int sample(Random random) {
+        int column = random.nextInt(probability.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+    
+    /**
+     * 获取表中的项数
+     * @return 项数
+     */
+    public int size() {
+        return probability.length;
+    }
+}
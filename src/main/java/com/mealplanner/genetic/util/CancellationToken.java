@@ -0,0 +1,26 @@
+package com.mealplanner.genetic.util;
+
+/**
+ * 规划取消令牌
+ * 调用方在任意线程调用 {@link #cancel()}，规划器在各阶段之间检查并尽快返回当前最好的结果。
+ * 一个令牌可以同时传给多次规划，取消后不能恢复。
+ */
+public class CancellationToken {
+    // 是否已取消
+    private volatile boolean cancelled;
+
+    /**
+     * 请求取消
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * 是否已请求取消
+     * @return 是否已取消
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
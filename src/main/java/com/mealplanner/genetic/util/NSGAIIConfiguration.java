@@ -1,9 +1,24 @@
 package com.mealplanner.genetic.util;
 
+import com.mealplanner.genetic.objectives.MultiObjectiveEvaluator.ObjectiveReduction;
+import com.mealplanner.genetic.operators.AdaptiveOperatorSelector.CreditAssignment;
+import com.mealplanner.genetic.operators.MealCrossover.CrossoverType;
+import com.mealplanner.genetic.operators.AdaptiveOperatorSelector.SelectionStrategy;
+import com.mealplanner.genetic.operators.MealMutation.MutationType;
+
 /**
  * NSGA-II算法配置类
  */
 public class NSGAIIConfiguration {
+    /**
+     * 多目标进化引擎
+     */
+    public enum EngineType {
+        NSGA_II,    // 最后一个前沿按拥挤度选择
+        NSGA_III,   // 最后一个前沿按参考点小生境选择，适合目标数量较多的情况
+        MOEA_D      // 分解为权重向量子问题，子代只在邻域内替换，每代代价与种群大小成线性关系
+    }
+    
     // 种群大小
     private int populationSize = 50;
     
@@ -40,6 +55,69 @@ public class NSGAIIConfiguration {
     // 并行执行
     private boolean parallelExecution = false;
     
+    // 约束支配排序（可行解优先，不可行解按约束违反程度比较）
+    private boolean constraintDomination = true;
+    
+    // 每代执行摄入量局部优化的子代比例（0表示关闭）
+    private double localSearchFraction = 0.1;
+    
+    // 摄入量局部优化的最大迭代次数
+    private int localSearchMaxIterations = 10;
+    
+    // 交叉类型
+    private CrossoverType crossoverType = CrossoverType.ONE_POINT;
+    
+    // 变异类型
+    private MutationType mutationType = MutationType.NUTRIENT_SENSITIVITY;
+    
+    // 自适应算子选择策略（变异类型为ADAPTIVE时生效）
+    private SelectionStrategy operatorSelectionStrategy = SelectionStrategy.UCB1;
+    
+    // 自适应算子选择的信用分配方式（变异类型为ADAPTIVE时生效）
+    private CreditAssignment operatorCreditAssignment = CreditAssignment.FRONT_ENTRY;
+    
+    // 是否使用ε-支配外部存档保存进化过程中找到的非支配解（最终结果从存档读取）
+    private boolean archiveEnabled = true;
+    
+    // 外部存档的网格宽度（目标值在0到1之间）
+    private double archiveEpsilon = 0.01;
+    
+    // 外部存档的容量上限，超过时网格宽度加倍
+    private int archiveCapacity = 200;
+    
+    // 设置种子库时，初始种群中来自种子库（已保存的前沿及其变异体）的最大比例
+    private double warmStartFraction = 0.5;
+    
+    // 增量重规划（replan）的种群大小
+    private int replanPopulationSize = 40;
+    
+    // 增量重规划（replan）的最大代数
+    private int replanGenerations = 5;
+    
+    // 每隔多少代计算一次第一前沿的超体积（0表示不计算）
+    private int indicatorInterval = 0;
+    
+    // 目标空间约简方式（NUTRIENT_GROUPS时营养素目标按宏量、微量、限制性分组聚合后参与支配比较）
+    private ObjectiveReduction objectiveReduction = ObjectiveReduction.NONE;
+    
+    // 多目标进化引擎
+    private EngineType engineType = EngineType.NSGA_II;
+    
+    // NSGA-III外层参考点划分数（14个目标时生成105个参考点）
+    private int referencePointDivisions = 2;
+    
+    // NSGA-III内层参考点划分数（0表示不使用内层，14个目标时为1可补充14个参考点）
+    private int innerReferencePointDivisions = 1;
+    
+    // MOEA/D每个子问题的邻域大小
+    private int neighborhoodSize = 20;
+    
+    // MOEA/D在邻域内（而非整个种群）选择父代和替换对象的概率
+    private double neighborSelectionProbability = 0.9;
+    
+    // MOEA/D每个子代最多替换的子问题数量
+    private int maxReplacements = 2;
+    
     /**
      * 默认构造函数
      */
@@ -238,6 +316,231 @@ public class NSGAIIConfiguration {
         this.parallelExecution = parallelExecution;
     }
     
+    public boolean isConstraintDomination() {
+        return constraintDomination;
+    }
+    
+    public void setConstraintDomination(boolean constraintDomination) {
+        this.constraintDomination = constraintDomination;
+    }
+    
+    public double getLocalSearchFraction() {
+        return localSearchFraction;
+    }
+    
+    public void setLocalSearchFraction(double localSearchFraction) {
+        if (localSearchFraction < 0 || localSearchFraction > 1) {
+            throw new IllegalArgumentException("局部优化比例必须在0到1之间");
+        }
+        this.localSearchFraction = localSearchFraction;
+    }
+    
+    public int getLocalSearchMaxIterations() {
+        return localSearchMaxIterations;
+    }
+    
+    public void setLocalSearchMaxIterations(int localSearchMaxIterations) {
+        if (localSearchMaxIterations <= 0) {
+            throw new IllegalArgumentException("局部优化最大迭代次数必须为正整数");
+        }
+        this.localSearchMaxIterations = localSearchMaxIterations;
+    }
+    
+    public CrossoverType getCrossoverType() {
+        return crossoverType;
+    }
+    
+    public void setCrossoverType(CrossoverType crossoverType) {
+        if (crossoverType == null) {
+            throw new IllegalArgumentException("交叉类型不能为空");
+        }
+        this.crossoverType = crossoverType;
+    }
+    
+    public MutationType getMutationType() {
+        return mutationType;
+    }
+    
+    public void setMutationType(MutationType mutationType) {
+        if (mutationType == null) {
+            throw new IllegalArgumentException("变异类型不能为空");
+        }
+        this.mutationType = mutationType;
+    }
+    
+    public SelectionStrategy getOperatorSelectionStrategy() {
+        return operatorSelectionStrategy;
+    }
+    
+    public void setOperatorSelectionStrategy(SelectionStrategy operatorSelectionStrategy) {
+        if (operatorSelectionStrategy == null) {
+            throw new IllegalArgumentException("算子选择策略不能为空");
+        }
+        this.operatorSelectionStrategy = operatorSelectionStrategy;
+    }
+    
+    public CreditAssignment getOperatorCreditAssignment() {
+        return operatorCreditAssignment;
+    }
+    
+    public void setOperatorCreditAssignment(CreditAssignment operatorCreditAssignment) {
+        if (operatorCreditAssignment == null) {
+            throw new IllegalArgumentException("信用分配方式不能为空");
+        }
+        this.operatorCreditAssignment = operatorCreditAssignment;
+    }
+    
+    public boolean isArchiveEnabled() {
+        return archiveEnabled;
+    }
+    
+    public void setArchiveEnabled(boolean archiveEnabled) {
+        this.archiveEnabled = archiveEnabled;
+    }
+    
+    public double getArchiveEpsilon() {
+        return archiveEpsilon;
+    }
+    
+    public void setArchiveEpsilon(double archiveEpsilon) {
+        if (archiveEpsilon <= 0) {
+            throw new IllegalArgumentException("存档网格宽度必须为正数");
+        }
+        this.archiveEpsilon = archiveEpsilon;
+    }
+    
+    public int getArchiveCapacity() {
+        return archiveCapacity;
+    }
+    
+    public void setArchiveCapacity(int archiveCapacity) {
+        if (archiveCapacity <= 0) {
+            throw new IllegalArgumentException("存档容量必须为正整数");
+        }
+        this.archiveCapacity = archiveCapacity;
+    }
+    
+    public double getWarmStartFraction() {
+        return warmStartFraction;
+    }
+    
+    public void setWarmStartFraction(double warmStartFraction) {
+        if (warmStartFraction < 0 || warmStartFraction > 1) {
+            throw new IllegalArgumentException("热启动比例必须在0到1之间");
+        }
+        this.warmStartFraction = warmStartFraction;
+    }
+    
+    public int getReplanPopulationSize() {
+        return replanPopulationSize;
+    }
+    
+    public void setReplanPopulationSize(int replanPopulationSize) {
+        if (replanPopulationSize < 2) {
+            throw new IllegalArgumentException("重规划种群大小不能小于2");
+        }
+        this.replanPopulationSize = replanPopulationSize;
+    }
+    
+    public int getReplanGenerations() {
+        return replanGenerations;
+    }
+    
+    public void setReplanGenerations(int replanGenerations) {
+        if (replanGenerations <= 0) {
+            throw new IllegalArgumentException("重规划代数必须为正整数");
+        }
+        this.replanGenerations = replanGenerations;
+    }
+    
+    public int getIndicatorInterval() {
+        return indicatorInterval;
+    }
+    
+    public void setIndicatorInterval(int indicatorInterval) {
+        if (indicatorInterval < 0) {
+            throw new IllegalArgumentException("指标计算间隔不能为负数");
+        }
+        this.indicatorInterval = indicatorInterval;
+    }
+    
+    public ObjectiveReduction getObjectiveReduction() {
+        return objectiveReduction;
+    }
+    
+    public void setObjectiveReduction(ObjectiveReduction objectiveReduction) {
+        if (objectiveReduction == null) {
+            throw new IllegalArgumentException("目标约简方式不能为空");
+        }
+        this.objectiveReduction = objectiveReduction;
+    }
+    
+    public EngineType getEngineType() {
+        return engineType;
+    }
+    
+    public void setEngineType(EngineType engineType) {
+        if (engineType == null) {
+            throw new IllegalArgumentException("进化引擎不能为空");
+        }
+        this.engineType = engineType;
+    }
+    
+    public int getReferencePointDivisions() {
+        return referencePointDivisions;
+    }
+    
+    public void setReferencePointDivisions(int referencePointDivisions) {
+        if (referencePointDivisions <= 0) {
+            throw new IllegalArgumentException("参考点划分数必须为正整数");
+        }
+        this.referencePointDivisions = referencePointDivisions;
+    }
+    
+    public int getInnerReferencePointDivisions() {
+        return innerReferencePointDivisions;
+    }
+    
+    public void setInnerReferencePointDivisions(int innerReferencePointDivisions) {
+        if (innerReferencePointDivisions < 0) {
+            throw new IllegalArgumentException("内层参考点划分数不能为负数");
+        }
+        this.innerReferencePointDivisions = innerReferencePointDivisions;
+    }
+    
+    public int getNeighborhoodSize() {
+        return neighborhoodSize;
+    }
+    
+    public void setNeighborhoodSize(int neighborhoodSize) {
+        if (neighborhoodSize <= 0) {
+            throw new IllegalArgumentException("邻域大小必须为正整数");
+        }
+        this.neighborhoodSize = neighborhoodSize;
+    }
+    
+    public double getNeighborSelectionProbability() {
+        return neighborSelectionProbability;
+    }
+    
+    public void setNeighborSelectionProbability(double neighborSelectionProbability) {
+        if (neighborSelectionProbability < 0 || neighborSelectionProbability > 1) {
+            throw new IllegalArgumentException("邻域选择概率必须在0到1之间");
+        }
+        this.neighborSelectionProbability = neighborSelectionProbability;
+    }
+    
+    public int getMaxReplacements() {
+        return maxReplacements;
+    }
+    
+    public void setMaxReplacements(int maxReplacements) {
+        if (maxReplacements <= 0) {
+            throw new IllegalArgumentException("最大替换数量必须为正整数");
+        }
+        this.maxReplacements = maxReplacements;
+    }
+    
     @Override
     public String toString() {
         return "NSGAIIConfiguration{" +
@@ -253,6 +556,27 @@ public class NSGAIIConfiguration {
                 ", maxGenerationsWithoutImprovement=" + maxGenerationsWithoutImprovement +
                 ", randomSeed=" + randomSeed +
                 ", parallelExecution=" + parallelExecution +
+                ", constraintDomination=" + constraintDomination +
+                ", localSearchFraction=" + localSearchFraction +
+                ", localSearchMaxIterations=" + localSearchMaxIterations +
+                ", crossoverType=" + crossoverType +
+                ", mutationType=" + mutationType +
+                ", operatorSelectionStrategy=" + operatorSelectionStrategy +
+                ", operatorCreditAssignment=" + operatorCreditAssignment +
+                ", archiveEnabled=" + archiveEnabled +
+                ", archiveEpsilon=" + archiveEpsilon +
+                ", archiveCapacity=" + archiveCapacity +
+                ", warmStartFraction=" + warmStartFraction +
+                ", replanPopulationSize=" + replanPopulationSize +
+                ", replanGenerations=" + replanGenerations +
+                ", indicatorInterval=" + indicatorInterval +
+                ", objectiveReduction=" + objectiveReduction +
+                ", engineType=" + engineType +
+                ", referencePointDivisions=" + referencePointDivisions +
+                ", innerReferencePointDivisions=" + innerReferencePointDivisions +
+                ", neighborhoodSize=" + neighborhoodSize +
+                ", neighborSelectionProbability=" + neighborSelectionProbability +
+                ", maxReplacements=" + maxReplacements +
                 '}';
     }
 } 
\ No newline at end of file
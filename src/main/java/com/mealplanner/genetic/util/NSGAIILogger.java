@@ -9,6 +9,7 @@ import com.mealplanner.genetic.algorithm.Population;
 import com.mealplanner.genetic.model.FoodGene;
 import com.mealplanner.genetic.model.MealSolution;
 import com.mealplanner.genetic.model.ObjectiveValue;
+import com.mealplanner.model.NutrientType;
 
 /**
  * NSGA-II算法日志类
@@ -175,10 +176,10 @@ public class NSGAIILogger {
             
             // 记录营养素总值
             sb.append("营养素总值:\n");
-            sb.append("  热量: ").append(String.format("%.1f", solution.calculateTotalNutrients().calories)).append(" kcal\n");
-            sb.append("  碳水: ").append(String.format("%.1f", solution.calculateTotalNutrients().carbohydrates)).append(" g\n");
-            sb.append("  蛋白质: ").append(String.format("%.1f", solution.calculateTotalNutrients().protein)).append(" g\n");
-            sb.append("  脂肪: ").append(String.format("%.1f", solution.calculateTotalNutrients().fat)).append(" g\n");
+            sb.append("  热量: ").append(String.format("%.1f", solution.calculateTotalNutrients().get(NutrientType.CALORIES))).append(" kcal\n");
+            sb.append("  碳水: ").append(String.format("%.1f", solution.calculateTotalNutrients().get(NutrientType.CARBOHYDRATES))).append(" g\n");
+            sb.append("  蛋白质: ").append(String.format("%.1f", solution.calculateTotalNutrients().get(NutrientType.PROTEIN))).append(" g\n");
+            sb.append("  脂肪: ").append(String.format("%.1f", solution.calculateTotalNutrients().get(NutrientType.FAT))).append(" g\n");
             
             log(sb.toString());
         }
@@ -0,0 +1,377 @@
+package com.mealplanner.genetic.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.mealplanner.genetic.model.FoodGene;
+import com.mealplanner.genetic.model.MealSolution;
+import com.mealplanner.model.NutrientType;
+import com.mealplanner.model.UserProfile;
+
+/**
+ * 基于文件的热启动种子库
+ * 按用户档案和目标营养素的签名保存上一次运行的帕累托前沿，下次规划相同（或几乎相同）的档案时
+ * 把它们作为初始种群的种子。每个种子记录为食物名称到摄入量的映射。
+ *
+ * 文件为UTF-8文本，每行一条记录，只追加写入：
+ * - F 签名 时间戳 数量：开始保存某个签名的新前沿（替换旧前沿）
+ * - S 签名 食物=摄入量;食物=摄入量...：前沿中的一个方案
+ * - D 签名：删除签名（超过容量被淘汰）
+ * 被替换或删除的记录成为无效行，无效行多于有效行时自动压缩（重写文件后原子替换）。
+ * 加载时S行数与F记录中的数量不一致的块（写入中断留下的残缺记录）被整块丢弃。
+ * 签名数量超过上限时淘汰最久未使用的签名，每个签名最多保存固定数量的方案。
+ * 所有公开方法都是同步的。
+ */
+public class SeedStore {
+    // 自动压缩前允许的最少无效行数
+    private static final int MIN_DEAD_LINES_FOR_COMPACTION = 64;
+
+    // 存储文件
+    private final Path file;
+
+    // 签名数量上限
+    private final int maxProfiles;
+
+    // 每个签名保存的方案数量上限
+    private final int maxSeedsPerProfile;
+
+    // 签名到种子列表的映射（访问顺序，最久未使用的在前）
+    private final LinkedHashMap<String, List<Map<String, Double>>> seeds = new LinkedHashMap<>(16, 0.75f, true);
+
+    // 文件中的总行数
+    private int lineCount;
+
+    /**
+     * 构造函数，文件存在时加载其中的记录
+     * @param file 存储文件
+     * @param maxProfiles 签名数量上限
+     * @param maxSeedsPerProfile 每个签名保存的方案数量上限
+     * @throws IOException 如果文件读取失败
+     */
+    public SeedStore(Path file, int maxProfiles, int maxSeedsPerProfile) throws IOException {
+        if (maxProfiles <= 0) {
+            throw new IllegalArgumentException("签名数量上限必须为正整数");
+        }
+        if (maxSeedsPerProfile <= 0) {
+            throw new IllegalArgumentException("每个签名的方案数量上限必须为正整数");
+        }
+        this.file = file;
+        this.maxProfiles = maxProfiles;
+        this.maxSeedsPerProfile = maxSeedsPerProfile;
+        load();
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            Block current = null;
+            while ((line = reader.readLine()) != null) {
+                lineCount++;
+                String[] parts = line.split("\t");
+                if (parts.length < 2) {
+                    continue;
+                }
+                switch (parts[0]) {
+                    case "F":
+                        commit(current);
+                        current = new Block(parts[1], parts.length >= 4 ? parseCount(parts[3]) : -1);
+                        break;
+                    case "S":
+                        // 只接受紧跟在对应F记录之后的方案
+                        if (current != null && current.signature.equals(parts[1]) && parts.length >= 3) {
+                            current.lines++;
+                            Map<String, Double> seed = decode(parts[2]);
+                            if (!seed.isEmpty() && current.seeds.size() < maxSeedsPerProfile) {
+                                current.seeds.add(seed);
+                            }
+                        }
+                        break;
+                    case "D":
+                        commit(current);
+                        current = null;
+                        seeds.remove(parts[1]);
+                        break;
+                    default:
+                        break;
+                }
+            }
+            commit(current);
+        }
+        while (seeds.size() > maxProfiles) {
+            Iterator<String> eldest = seeds.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * 方案行数与F记录中的数量一致时用该块替换签名的旧前沿，
+     * 否则（写入中断留下的残缺块或数量缺失、损坏）丢弃该块，旧前沿保持不变
+     */
+    private void commit(Block block) {
+        if (block != null && block.expected >= 0 && block.lines == block.expected) {
+            seeds.put(block.signature, block.seeds);
+        }
+    }
+
+    private static int parseCount(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 加载时正在读取的F记录及其方案
+     */
+    private static final class Block {
+        // 签名
+        private final String signature;
+
+        // F记录中的方案数量，缺失或损坏时为-1
+        private final int expected;
+
+        // 已读到的方案行数
+        private int lines;
+
+        // 已解析的方案
+        private final List<Map<String, Double>> seeds = new ArrayList<>();
+
+        private Block(String signature, int expected) {
+            this.signature = signature;
+            this.expected = expected;
+        }
+    }
+
+    /**
+     * 获取签名对应的种子
+     * @param signature 签名
+     * @return 种子列表（食物名称到摄入量的映射，副本），没有时为空列表
+     */
+    public synchronized List<Map<String, Double>> get(String signature) {
+        List<Map<String, Double>> stored = seeds.get(signature);
+        List<Map<String, Double>> result = new ArrayList<>();
+        if (stored != null) {
+            for (Map<String, Double> seed : stored) {
+                result.add(new LinkedHashMap<>(seed));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 保存签名对应的前沿，替换旧前沿
+     * @param signature 签名
+     * @param front 前沿方案，按优先级排序，超过上限的部分不保存
+     * @throws IOException 如果文件写入失败
+     */
+    public synchronized void put(String signature, List<MealSolution> front) throws IOException {
+        List<Map<String, Double>> stored = new ArrayList<>();
+        for (MealSolution solution : front) {
+            if (stored.size() >= maxSeedsPerProfile) {
+                break;
+            }
+            Map<String, Double> seed = new LinkedHashMap<>();
+            for (FoodGene gene : solution.getFoodGenes()) {
+                seed.put(gene.getFood().getName(), gene.getIntake());
+            }
+            if (!seed.isEmpty()) {
+                stored.add(seed);
+            }
+        }
+
+        List<String> lines = new ArrayList<>(stored.size() + 2);
+        seeds.put(signature, stored);
+        lines.add("F\t" + signature + "\t" + System.currentTimeMillis() + "\t" + stored.size());
+        for (Map<String, Double> seed : stored) {
+            lines.add("S\t" + signature + "\t" + encode(seed));
+        }
+        while (seeds.size() > maxProfiles) {
+            Iterator<String> eldest = seeds.keySet().iterator();
+            lines.add("D\t" + eldest.next());
+            eldest.remove();
+        }
+        append(lines);
+        compactIfNeeded();
+    }
+
+    /**
+     * 删除签名对应的前沿
+     * @param signature 签名
+     * @throws IOException 如果文件写入失败
+     */
+    public synchronized void remove(String signature) throws IOException {
+        if (seeds.remove(signature) != null) {
+            List<String> lines = new ArrayList<>(1);
+            lines.add("D\t" + signature);
+            append(lines);
+        }
+    }
+
+    /**
+     * 压缩存储文件：只保留当前有效的记录，写入临时文件后原子替换
+     * @throws IOException 如果文件写入失败
+     */
+    public synchronized void compact() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        int written = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, List<Map<String, Double>>> entry : seeds.entrySet()) {
+                writer.write("F\t" + entry.getKey() + "\t" + System.currentTimeMillis() + "\t" + entry.getValue().size());
+                writer.newLine();
+                written++;
+                for (Map<String, Double> seed : entry.getValue()) {
+                    writer.write("S\t" + entry.getKey() + "\t" + encode(seed));
+                    writer.newLine();
+                    written++;
+                }
+            }
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        lineCount = written;
+    }
+
+    private void compactIfNeeded() throws IOException {
+        int live = liveLineCount();
+        int dead = lineCount - live;
+        if (dead >= MIN_DEAD_LINES_FOR_COMPACTION && dead > live) {
+            compact();
+        }
+    }
+
+    private int liveLineCount() {
+        int live = 0;
+        for (List<Map<String, Double>> list : seeds.values()) {
+            live += 1 + list.size();
+        }
+        return live;
+    }
+
+    private void append(List<String> lines) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+        lineCount += lines.size();
+    }
+
+    private static String encode(Map<String, Double> seed) {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, Double> entry : seed.entrySet()) {
+            if (builder.length() > 0) {
+                builder.append(';');
+            }
+            builder.append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8))
+                    .append('=')
+                    .append(entry.getValue());
+        }
+        return builder.toString();
+    }
+
+    private static Map<String, Double> decode(String text) {
+        Map<String, Double> seed = new LinkedHashMap<>();
+        for (String item : text.split(";")) {
+            int separator = item.lastIndexOf('=');
+            if (separator <= 0) {
+                continue;
+            }
+            try {
+                seed.put(URLDecoder.decode(item.substring(0, separator), StandardCharsets.UTF_8),
+                        Double.parseDouble(item.substring(separator + 1)));
+            } catch (IllegalArgumentException e) {
+                // 忽略损坏的条目
+            }
+        }
+        return seed;
+    }
+
+    /**
+     * 计算用户档案和目标营养素的签名
+     * 体重、身高取整，目标营养素保留两位有效数字，数组类偏好排序后参与计算，
+     * 因此几乎相同的档案和目标得到相同的签名
+     * @param userProfile 用户档案
+     * @param targetNutrients 目标营养素
+     * @param requireStaple 是否要求包含主食
+     * @return 16位十六进制签名
+     */
+    public static String signature(UserProfile userProfile, Map<NutrientType, Double> targetNutrients, boolean requireStaple) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(userProfile.toSignatureString(true))
+                .append('|').append(requireStaple);
+        for (NutrientType nutrient : NutrientType.values()) {
+            Double value = targetNutrients.get(nutrient);
+            if (value != null) {
+                builder.append('|').append(nutrient.name()).append('=')
+                        .append(new BigDecimal(value).round(new MathContext(2)).stripTrailingZeros().toPlainString());
+            }
+        }
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(builder.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256不可用", e);
+        }
+    }
+
+    /**
+     * 签名数量
+     */
+    public synchronized int size() {
+        return seeds.size();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getMaxProfiles() {
+        return maxProfiles;
+    }
+
+    public int getMaxSeedsPerProfile() {
+        return maxSeedsPerProfile;
+    }
+}
@@ -1,5 +1,7 @@
 package com.mealplanner.model;
 
+import java.util.Arrays;
+
 import lombok.Getter;
 
 @Getter
@@ -141,6 +143,54 @@ public class UserProfile {
     public boolean acceptsSpicyLevel(int foodSpicyLevel) {
         return foodSpicyLevel <= spicyPreference;
     }
+    
+    /**
+     * 把影响膳食规划的全部档案字段序列化为字符串，数组字段排序后拼接，用作缓存键或签名的输入
+     * @param roundMeasurements 是否把体重、身高取整、活动系数保留两位小数（使微小差异得到相同结果）
+     * @return 序列化字符串
+     */
+    public String toSignatureString(boolean roundMeasurements) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(gender)
+                .append('|').append(age);
+        if (roundMeasurements) {
+            builder.append('|').append(Math.round(weight))
+                    .append('|').append(Math.round(height))
+                    .append('|').append(String.format("%.2f", activityLevel));
+        } else {
+            builder.append('|').append(weight)
+                    .append('|').append(height)
+                    .append('|').append(activityLevel);
+        }
+        builder.append('|').append(sorted(healthConditionNames(healthConditions)))
+                .append('|').append(sorted(allergies))
+                .append('|').append(sorted(religiousBeliefs))
+                .append('|').append(sorted(flavorPreferences))
+                .append('|').append(sorted(dislikedFoods))
+                .append('|').append(spicyPreference)
+                .append('|').append(sorted(cookingMethodPreferences));
+        return builder.toString();
+    }
+    
+    private static String[] healthConditionNames(HealthConditionType[] conditions) {
+        if (conditions == null) {
+            return null;
+        }
+        String[] names = new String[conditions.length];
+        for (int i = 0; i < conditions.length; i++) {
+            names[i] = conditions[i].name();
+        }
+        return names;
+    }
+    
+    private static String sorted(String[] values) {
+        if (values == null) {
+            return "";
+        }
+        String[] copy = values.clone();
+        Arrays.sort(copy);
+        return String.join(",", copy);
+    }
 
     
 } 
\ No newline at end of file
@@ -0,0 +1,156 @@
+package com.mealplanner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.mealplanner.genetic.index.NDTreeParetoArchive;
+
+/**
+ * 帕累托存档性能基准
+ * 比较ND-tree存档与线性列表存档在3维和14维、10³到10⁵个点时的插入和支配查询耗时。
+ * 点在单位球面的正象限上随机生成并按随机比例向内收缩，因此一部分点会被支配。
+ * 每组先预热再计时，两种存档的最终大小必须一致。
+ *
+ * 位于测试源码目录，不打入构建产物（类名不匹配测试命名规则，mvn test不会执行它）。
+ * 运行：mvn test-compile 后 java -cp target/classes:target/test-classes com.mealplanner.ParetoArchiveBenchmark [点数...]
+ */
+public class ParetoArchiveBenchmark {
+    // 默认点数
+    private static final int[] DEFAULT_SIZES = {1_000, 10_000, 100_000};
+
+    // 维度
+    private static final int[] DIMENSIONS = {3, 14};
+
+    // 支配查询次数
+    private static final int QUERY_COUNT = 10_000;
+
+    public static void main(String[] args) {
+        int[] sizes = DEFAULT_SIZES;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        // 预热
+        for (int dimensions : DIMENSIONS) {
+            run(1_000, dimensions, false);
+        }
+
+        System.out.println(String.format("%-6s %-8s %-8s %12s %12s %12s %12s",
+                "维度", "点数", "存档大小", "ND插入ms", "线性插入ms", "ND查询ms", "线性查询ms"));
+        for (int dimensions : DIMENSIONS) {
+            for (int size : sizes) {
+                run(size, dimensions, true);
+            }
+        }
+    }
+
+    private static void run(int count, int dimensions, boolean print) {
+        Random random = new Random(42L + dimensions);
+        double[][] points = generatePoints(count, dimensions, random);
+        double[][] queries = generatePoints(QUERY_COUNT, dimensions, random);
+
+        NDTreeParetoArchive<Integer> tree = new NDTreeParetoArchive<>(dimensions);
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            tree.insert(points[i], i, null);
+        }
+        long treeInsert = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int treeDominated = 0;
+        for (double[] query : queries) {
+            if (tree.isDominated(query)) {
+                treeDominated++;
+            }
+        }
+        long treeQuery = System.nanoTime() - start;
+
+        LinearParetoArchive linear = new LinearParetoArchive();
+        start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            linear.insert(points[i]);
+        }
+        long linearInsert = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int linearDominated = 0;
+        for (double[] query : queries) {
+            if (linear.isDominated(query)) {
+                linearDominated++;
+            }
+        }
+        long linearQuery = System.nanoTime() - start;
+
+        if (linear.size() != tree.size() || linearDominated != treeDominated) {
+            throw new IllegalStateException("ND-tree与线性存档结果不一致: " + tree.size() + " / " + linear.size());
+        }
+
+        if (print) {
+            System.out.println(String.format("%-8d %-10d %-10d %12.1f %12.1f %12.1f %12.1f",
+                    dimensions, count, tree.size(),
+                    treeInsert / 1e6, linearInsert / 1e6,
+                    treeQuery / 1e6, linearQuery / 1e6));
+        }
+    }
+
+    /**
+     * 在正象限单位球面上生成随机点，并按随机比例向内收缩
+     */
+    private static double[][] generatePoints(int count, int dimensions, Random random) {
+        double[][] points = new double[count][dimensions];
+        for (double[] point : points) {
+            double norm = 0;
+            for (int d = 0; d < dimensions; d++) {
+                point[d] = Math.abs(random.nextGaussian());
+                norm += point[d] * point[d];
+            }
+            double scale = (1 - 0.2 * random.nextDouble()) / Math.sqrt(norm);
+            for (int d = 0; d < dimensions; d++) {
+                point[d] *= scale;
+            }
+        }
+        return points;
+    }
+
+    /**
+     * 线性列表存档，作为对照
+     */
+    private static final class LinearParetoArchive {
+        private final List<double[]> points = new ArrayList<>();
+
+        boolean isDominated(double[] point) {
+            for (double[] existing : points) {
+                if (weaklyDominates(existing, point)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean insert(double[] point) {
+            if (isDominated(point)) {
+                return false;
+            }
+            points.removeIf(existing -> weaklyDominates(point, existing));
+            points.add(point);
+            return true;
+        }
+
+        int size() {
+            return points.size();
+        }
+
+        private static boolean weaklyDominates(double[] a, double[] b) {
+            for (int i = 0; i < a.length; i++) {
+                if (a[i] < b[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
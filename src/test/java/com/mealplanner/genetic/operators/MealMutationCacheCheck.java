@@ -0,0 +1,128 @@
+package com.mealplanner.genetic.operators;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.mealplanner.foodmanage.NutritionDataParser;
+import com.mealplanner.genetic.model.FoodGene;
+import com.mealplanner.genetic.model.MealSolution;
+import com.mealplanner.model.Food;
+import com.mealplanner.model.FoodCategory;
+import com.mealplanner.model.HealthConditionType;
+import com.mealplanner.model.NutrientType;
+import com.mealplanner.model.UserProfile;
+
+/**
+ * 变异后总营养素缓存的回归检查
+ * 变异算子在选择食物时会先计算（并缓存）膳食的总营养素，之后修改食物基因时必须清除该缓存，
+ * 否则子代会按变异前的总营养素被评估和修复。这里对每种会读取总营养素的变异反复执行：
+ * 变异前先填充缓存，变异后比较calculateTotalNutrients()与按食物基因重新计算的结果，
+ * 并要求总营养素确实发生了变化。任何不一致都以AssertionError结束。
+ * 位于测试源码目录，不打入构建产物（类名不匹配测试命名规则，mvn test不会执行它）。
+ *
+ * 运行：mvn test-compile 后 java -cp target/classes:target/test-classes:依赖 com.mealplanner.genetic.operators.MealMutationCacheCheck [次数]
+ */
+public class MealMutationCacheCheck {
+    // 默认试验次数
+    private static final int DEFAULT_TRIALS = 2000;
+
+    // 比较总营养素时的容差
+    private static final double TOLERANCE = 1e-9;
+
+    // 检查的变异类型
+    private static final MealMutation.MutationType[] TYPES = {
+            MealMutation.MutationType.FOOD_REPLACEMENT,
+            MealMutation.MutationType.CALORIES_OPTIMIZATION,
+            MealMutation.MutationType.NEIGHBOR_REPLACEMENT
+    };
+
+    public static void main(String[] args) throws Exception {
+        int trials = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TRIALS;
+
+        NutritionDataParser parser = new NutritionDataParser();
+        List<Food> foodDatabase = parser.convertToFoodObjects(
+                parser.parseNutritionDataFromFile("src/main/resources/foods.xlsx"));
+        MealMutation mutation = new MealMutation(foodDatabase);
+
+        UserProfile profile = new UserProfile(65, 170, 30, "M", 1.55, new HealthConditionType[]{});
+        Map<NutrientType, Double> targets = NutrientType.getDailyIntakes(profile);
+        targets.replaceAll((nutrient, value) -> value * 0.35);
+        Map<NutrientType, double[]> rates = NutrientType.getNutrientRates(profile);
+
+        Random random = new Random(42L);
+        for (MealMutation.MutationType type : TYPES) {
+            MutationContext context = new MutationContext(targets, rates, type, 1.0);
+            int mutated = 0;
+            int stale = 0;
+            int unchanged = 0;
+            for (int i = 0; i < trials; i++) {
+                MealSolution solution = randomSolution(foodDatabase, random);
+                Map<NutrientType, Double> before = new EnumMap<>(solution.calculateTotalNutrients());
+                if (!mutation.apply(solution, true, context)) {
+                    continue;
+                }
+                mutated++;
+                Map<NutrientType, Double> cached = solution.calculateTotalNutrients();
+                Map<NutrientType, Double> fresh = new MealSolution(solution.getFoodGenes()).calculateTotalNutrients();
+                if (!sameTotals(cached, fresh)) {
+                    stale++;
+                } else if (sameTotals(before, fresh)) {
+                    unchanged++;
+                }
+            }
+            System.out.println(type + ": 变异=" + mutated + ", 缓存过期=" + stale + ", 总营养素未变=" + unchanged);
+            if (mutated == 0) {
+                throw new AssertionError(type + " 没有成功执行任何一次变异");
+            }
+            if (stale > 0) {
+                throw new AssertionError(type + " 变异后总营养素缓存未清除: " + stale + "/" + mutated);
+            }
+            if (unchanged == mutated) {
+                throw new AssertionError(type + " 变异后总营养素从未变化");
+            }
+        }
+    }
+
+    private static MealSolution randomSolution(List<Food> foodDatabase, Random random) {
+        List<FoodGene> genes = new ArrayList<>();
+        List<Food> staples = new ArrayList<>();
+        for (Food food : foodDatabase) {
+            if (FoodCategory.STAPLE.equals(food.getCategory())) {
+                staples.add(food);
+            }
+        }
+        genes.add(randomGene(staples.get(random.nextInt(staples.size())), random));
+        int count = 4 + random.nextInt(3);
+        while (genes.size() < count) {
+            Food food = foodDatabase.get(random.nextInt(foodDatabase.size()));
+            boolean duplicate = false;
+            for (FoodGene gene : genes) {
+                duplicate |= gene.getFood().getName().equals(food.getName());
+            }
+            if (!duplicate) {
+                genes.add(randomGene(food, random));
+            }
+        }
+        return new MealSolution(genes);
+    }
+
+    private static FoodGene randomGene(Food food, Random random) {
+        double minIntake = food.getRecommendedIntakeRange().getMinIntake();
+        double maxIntake = food.getRecommendedIntakeRange().getMaxIntake();
+        return new FoodGene(food, Math.round(minIntake + random.nextDouble() * (maxIntake - minIntake)));
+    }
+
+    private static boolean sameTotals(Map<NutrientType, Double> a, Map<NutrientType, Double> b) {
+        for (NutrientType nutrient : NutrientType.values()) {
+            double x = a.getOrDefault(nutrient, 0.0);
+            double y = b.getOrDefault(nutrient, 0.0);
+            if (Math.abs(x - y) > TOLERANCE * Math.max(1.0, Math.abs(y))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}